@@ -0,0 +1,110 @@
+package com.chubini.pku.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import com.chubini.pku.menus.MealSlot;
+import com.chubini.pku.menus.MenuDay;
+import com.chubini.pku.norms.dto.NormPrescriptionDto;
+import com.chubini.pku.products.Product;
+
+/** Deterministic in-memory fixtures shared by the JMH benchmarks */
+public final class BenchmarkFixtures {
+
+  public static final long SEED = 42L;
+
+  private static final String[] CATEGORIES = {
+    "breakfast", "cereals", "bread", "fruits", "dairy", "vegetables", "grains", "protein", "snacks"
+  };
+
+  private static final String[] FOODS = {
+    "apple", "banana", "carrot", "potato", "tomato", "rice", "bread", "oat", "pear", "zucchini",
+    "cucumber", "pumpkin", "melon", "corn", "pasta", "cracker", "berry", "onion", "pepper", "kiwi"
+  };
+
+  private static final String[] STYLES = {
+    "Fresh", "Roasted", "Steamed", "Low Protein", "Organic", "Baked", "Dried", "Frozen"
+  };
+
+  private BenchmarkFixtures() {}
+
+  /** A catalog of {@code size} products with realistic names, categories and nutrition */
+  public static List<Product> products(int size) {
+    Random random = new Random(SEED);
+    List<Product> products = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      String name =
+          STYLES[random.nextInt(STYLES.length)]
+              + " "
+              + FOODS[random.nextInt(FOODS.length)]
+              + " "
+              + i;
+      products.add(
+          Product.builder()
+              .id(new UUID(SEED, i))
+              .productName(name)
+              .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+              .phenylalanine(decimal(5 + random.nextDouble() * 300))
+              .protein(decimal(0.1 + random.nextDouble() * 10))
+              .kilocalories(decimal(20 + random.nextDouble() * 400))
+              .fats(decimal(random.nextDouble() * 20))
+              .carbohydrates(decimal(random.nextDouble() * 60))
+              .build());
+    }
+    return products;
+  }
+
+  /** Search terms mixing exact names, typos and synonyms */
+  public static List<String> searchTerms() {
+    return List.of("fresh apple 10", "rosted carot", "low protein bread", "cheese", "spud", "kiwi");
+  }
+
+  public static NormPrescriptionDto norm() {
+    return new NormPrescriptionDto(
+        UUID.randomUUID(),
+        UUID.randomUUID(),
+        new BigDecimal("300.00"),
+        new BigDecimal("15.00"),
+        new BigDecimal("1800.00"),
+        new BigDecimal("2200.00"),
+        new BigDecimal("60.00"),
+        LocalDate.now(),
+        null,
+        "Benchmark",
+        null,
+        null,
+        null);
+  }
+
+  public static MealSlot mealSlot(MealSlot.SlotName slotName, LocalDate date) {
+    MenuDay day = MenuDay.builder().date(date).mealSlots(new ArrayList<>()).build();
+    return MealSlot.builder()
+        .menuDay(day)
+        .slotName(slotName)
+        .slotOrder(slotName.getDefaultOrder())
+        .targetPheMg(new BigDecimal("75.00"))
+        .targetKcal(new BigDecimal("450.00"))
+        .menuEntries(new ArrayList<>())
+        .build();
+  }
+
+  /**
+   * Stub-only Mockito double for collaborators that benchmarks need only during setup; it records
+   * no invocations, so it adds no bookkeeping if it is ever reached from a measured method.
+   */
+  public static <T> T stub(Class<T> type) {
+    return mock(type, withSettings().stubOnly());
+  }
+
+  private static BigDecimal decimal(double value) {
+    return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+  }
+}
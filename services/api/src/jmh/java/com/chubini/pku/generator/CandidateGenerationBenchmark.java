@@ -0,0 +1,89 @@
+package com.chubini.pku.generator;
+
+import static com.chubini.pku.benchmark.BenchmarkFixtures.stub;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.chubini.pku.benchmark.BenchmarkFixtures;
+import com.chubini.pku.generator.dto.FoodCandidate;
+import com.chubini.pku.generator.dto.MenuGenerationRequest;
+import com.chubini.pku.menus.MealSlot;
+import com.chubini.pku.menus.MenuDayRepository;
+import com.chubini.pku.menus.MenuEntryRepository;
+import com.chubini.pku.norms.dto.NormPrescriptionDto;
+import com.chubini.pku.pantry.PantryRepository;
+import com.chubini.pku.pantry.PriceRepository;
+import com.chubini.pku.products.ProductCatalog;
+import com.chubini.pku.products.ProductRepository;
+import com.chubini.pku.validation.NutritionScaler;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/** Candidate generation for one slot against in-memory fixture catalogs of increasing size */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CandidateGenerationBenchmark {
+
+  @Param({"1000", "10000", "50000"})
+  private int catalogSize;
+
+  private EnhancedFoodSelectionService selectionService;
+  private NormPrescriptionDto norm;
+  private MealSlot mealSlot;
+  private MenuGenerationRequest request;
+  private GenerationContext context;
+
+  @Setup
+  public void setUp() {
+    ProductRepository productRepository = stub(ProductRepository.class);
+    when(productRepository.findAll()).thenReturn(BenchmarkFixtures.products(catalogSize));
+    ProductCatalog productCatalog =
+        new ProductCatalog(productRepository, stub(PlatformTransactionManager.class));
+    // Load the snapshot outside the measured region; later calls only compare versions
+    productCatalog.current();
+
+    // Repository stubs are never hit: all lookups are answered from the generation context
+    selectionService =
+        new EnhancedFoodSelectionService(
+            productCatalog,
+            new NutritionScaler(),
+            new ScoringEngine(),
+            new VarietyEngine(stub(MenuDayRepository.class), stub(MenuEntryRepository.class)),
+            new PantryAwareService(stub(PantryRepository.class), stub(PriceRepository.class)));
+
+    norm = BenchmarkFixtures.norm();
+    mealSlot = BenchmarkFixtures.mealSlot(MealSlot.SlotName.LUNCH, LocalDate.of(2024, 1, 1));
+    request =
+        new MenuGenerationRequest(
+            null,
+            LocalDate.of(2024, 1, 1),
+            "WEEKLY",
+            null,
+            List.of("nuts"),
+            null,
+            null,
+            null,
+            null,
+            null,
+            false,
+            true,
+            25.0,
+            null,
+            null);
+    context = new GenerationContext(null, List.of(), List.of(), VarietyHistory.empty());
+  }
+
+  @Benchmark
+  public List<FoodCandidate> generateCandidates() {
+    return selectionService.generateCandidates(
+        mealSlot, norm, request, context.withFreshReservations());
+  }
+}
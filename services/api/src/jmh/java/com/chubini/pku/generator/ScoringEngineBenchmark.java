@@ -0,0 +1,79 @@
+package com.chubini.pku.generator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.chubini.pku.benchmark.BenchmarkFixtures;
+import com.chubini.pku.generator.dto.FoodCandidate;
+import com.chubini.pku.menus.MealSlot;
+import com.chubini.pku.menus.MenuEntry;
+import com.chubini.pku.norms.dto.NormPrescriptionDto;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.validation.NutritionScaler;
+import com.chubini.pku.validation.dto.NutritionBreakdown;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Exact BigDecimal scoring versus the primitive batch kernel over one slot's candidates */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringEngineBenchmark {
+
+  @Param({"1000"})
+  private int candidateCount;
+
+  private final ScoringEngine scoringEngine = new ScoringEngine();
+  private final BigDecimal dailyBudget = new BigDecimal("25.00");
+  private NormPrescriptionDto norm;
+  private MealSlot mealSlot;
+  private List<FoodCandidate> candidates;
+
+  @Setup
+  public void setUp() {
+    norm = BenchmarkFixtures.norm();
+    mealSlot = BenchmarkFixtures.mealSlot(MealSlot.SlotName.LUNCH, LocalDate.of(2024, 1, 1));
+
+    NutritionScaler nutritionScaler = new NutritionScaler();
+    candidates = new ArrayList<>(candidateCount);
+    for (Product product : BenchmarkFixtures.products(candidateCount)) {
+      BigDecimal serving = new BigDecimal("100");
+      NutritionBreakdown nutrition = nutritionScaler.from(product, serving, "G");
+      candidates.add(
+          FoodCandidate.builder()
+              .entryType(MenuEntry.EntryType.PRODUCT)
+              .product(product)
+              .suggestedServingGrams(serving)
+              .calculatedPheMg(nutrition.pheMg())
+              .calculatedProteinG(nutrition.proteinG())
+              .calculatedKcal(nutrition.kcal())
+              .calculatedFatG(nutrition.fatG())
+              .costPerServing(serving.multiply(new BigDecimal("0.05")))
+              .build());
+    }
+  }
+
+  @Benchmark
+  public void calculateScore(Blackhole blackhole) {
+    for (FoodCandidate candidate : candidates) {
+      blackhole.consume(
+          scoringEngine.calculateScore(candidate, mealSlot, norm, dailyBudget, Integer.MAX_VALUE));
+    }
+  }
+
+  @Benchmark
+  public double[] scoreBatch() {
+    ScoringBatch batch = new ScoringBatch(candidates.size());
+    for (FoodCandidate candidate : candidates) {
+      batch.add(candidate, Integer.MAX_VALUE);
+    }
+    return scoringEngine.scoreBatch(batch, mealSlot, norm, dailyBudget);
+  }
+}
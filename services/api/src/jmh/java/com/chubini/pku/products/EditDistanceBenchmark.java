@@ -0,0 +1,71 @@
+package com.chubini.pku.products;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.chubini.pku.benchmark.BenchmarkFixtures;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Banded, buffer-reusing edit distance against the previous full-matrix implementation */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EditDistanceBenchmark {
+
+  private static final int MAX_DISTANCE = 3;
+
+  private List<String> names;
+  private List<String> searchTerms;
+
+  @Setup
+  public void setUp() {
+    names =
+        BenchmarkFixtures.products(500).stream()
+            .map(product -> ProductNameIndex.normalize(product.getProductName()))
+            .toList();
+    searchTerms =
+        BenchmarkFixtures.searchTerms().stream().map(ProductNameIndex::normalize).toList();
+  }
+
+  @Benchmark
+  public void bounded(Blackhole blackhole) {
+    for (String term : searchTerms) {
+      for (String name : names) {
+        blackhole.consume(EditDistance.bounded(term, name, MAX_DISTANCE));
+      }
+    }
+  }
+
+  @Benchmark
+  public void fullMatrix(Blackhole blackhole) {
+    for (String term : searchTerms) {
+      for (String name : names) {
+        blackhole.consume(fullMatrix(term, name));
+      }
+    }
+  }
+
+  private static int fullMatrix(String s1, String s2) {
+    int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+    for (int i = 0; i <= s1.length(); i++) {
+      for (int j = 0; j <= s2.length(); j++) {
+        if (i == 0) {
+          dp[i][j] = j;
+        } else if (j == 0) {
+          dp[i][j] = i;
+        } else {
+          dp[i][j] =
+              Math.min(
+                  Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
+                  dp[i - 1][j - 1] + (s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1));
+        }
+      }
+    }
+    return dp[s1.length()][s2.length()];
+  }
+}
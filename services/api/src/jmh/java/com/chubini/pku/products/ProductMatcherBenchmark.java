@@ -0,0 +1,52 @@
+package com.chubini.pku.products;
+
+import static com.chubini.pku.benchmark.BenchmarkFixtures.stub;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.chubini.pku.benchmark.BenchmarkFixtures;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/** Fuzzy product matching for a mix of exact, misspelled and synonym search terms */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMatcherBenchmark {
+
+  @Param({"1000", "10000"})
+  private int catalogSize;
+
+  private IntelligentProductMatcher matcher;
+  private List<String> searchTerms;
+
+  @Setup
+  public void setUp() {
+    // Repositories are only read while the index is built during setup
+    ProductRepository productRepository = stub(ProductRepository.class);
+    when(productRepository.findAll()).thenReturn(BenchmarkFixtures.products(catalogSize));
+    ProductNameIndex index =
+        new ProductNameIndex(
+            productRepository,
+            stub(ProductTranslationRepository.class),
+            stub(PlatformTransactionManager.class));
+    matcher = new IntelligentProductMatcher(productRepository, index);
+    // Build the index outside the measured region
+    index.size();
+    searchTerms = BenchmarkFixtures.searchTerms();
+  }
+
+  @Benchmark
+  public void findProductsIntelligently(Blackhole blackhole) {
+    for (String term : searchTerms) {
+      blackhole.consume(matcher.findProductsIntelligently(term, 10));
+    }
+  }
+}
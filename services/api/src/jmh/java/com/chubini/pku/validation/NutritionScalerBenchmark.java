@@ -0,0 +1,37 @@
+package com.chubini.pku.validation;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.chubini.pku.benchmark.BenchmarkFixtures;
+import com.chubini.pku.products.Product;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Scaling per-100g nutrition to serving sizes across a fixture catalog */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NutritionScalerBenchmark {
+
+  private final NutritionScaler nutritionScaler = new NutritionScaler();
+  private final BigDecimal serving = new BigDecimal("137.5");
+  private List<Product> products;
+
+  @Setup
+  public void setUp() {
+    products = BenchmarkFixtures.products(1000);
+  }
+
+  @Benchmark
+  public void fromGrams(Blackhole blackhole) {
+    for (Product product : products) {
+      blackhole.consume(nutritionScaler.from(product, serving, "G"));
+    }
+  }
+}
@@ -3,10 +3,15 @@ package com.chubini.pku.allergens;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "allergen")
 @Getter
 @Setter
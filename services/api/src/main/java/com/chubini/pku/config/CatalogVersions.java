@@ -0,0 +1,47 @@
+package com.chubini.pku.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.chubini.pku.dishes.DishCatalogChangedEvent;
+import com.chubini.pku.products.ProductCatalogChangedEvent;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Version counters for the product and dish catalogs, turned into ETags for conditional GETs so a
+ * matching request is answered without touching the database. Counters start over on restart, so
+ * every tag also carries the instance start time. They are bumped last among the after-commit
+ * listeners: the caches those listeners evict must be clean before a new tag can be handed out.
+ */
+@Component
+public class CatalogVersions {
+
+  private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+  private final AtomicLong products = new AtomicLong();
+  private final AtomicLong dishes = new AtomicLong();
+
+  /** ETag of every product read in one normalized locale */
+  public String productsETag(String locale) {
+    return "\"p-" + epoch + "-" + products.get() + "-" + locale + "\"";
+  }
+
+  /** ETag of every dish read; dishes embed their ingredient products, so both counters count */
+  public String dishesETag() {
+    return "\"d-" + epoch + "-" + dishes.get() + "-" + products.get() + "\"";
+  }
+
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductsChanged(ProductCatalogChangedEvent event) {
+    products.incrementAndGet();
+  }
+
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDishesChanged(DishCatalogChangedEvent event) {
+    dishes.incrementAndGet();
+  }
+}
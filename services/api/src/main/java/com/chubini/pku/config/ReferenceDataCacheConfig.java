@@ -0,0 +1,120 @@
+package com.chubini.pku.config;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+
+import com.chubini.pku.allergens.Allergen;
+import com.chubini.pku.dishes.Dish;
+import com.chubini.pku.dishes.DishIngredient;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.products.ProductTranslation;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+/**
+ * Hibernate second-level and query cache for read-mostly reference data: products and their
+ * translations, dishes and their ingredients, and allergens. Regions live in a Caffeine-backed
+ * JCache manager built here, so each one is bounded and reports hits and misses to Micrometer as
+ * {@code cache.gets}. Writes that bypass Hibernate are evicted by {@link
+ * ReferenceDataCacheInvalidator}.
+ */
+@Configuration
+@ConditionalOnProperty(
+    name = "pku.cache.reference.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ReferenceDataCacheConfig {
+
+  /** Entity and collection regions, under the names Hibernate gives them by default */
+  static final List<String> ENTITY_REGIONS =
+      List.of(
+          Product.class.getName(),
+          ReferenceDataCacheInvalidator.PRODUCT_TRANSLATIONS,
+          ProductTranslation.class.getName(),
+          Dish.class.getName(),
+          ReferenceDataCacheInvalidator.DISH_INGREDIENTS,
+          DishIngredient.class.getName(),
+          Allergen.class.getName());
+
+  static final String QUERY_RESULTS_REGION =
+      RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+  static final String UPDATE_TIMESTAMPS_REGION =
+      RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+  @Bean(destroyMethod = "close")
+  public CacheManager referenceDataCacheManager(
+      @Value("${pku.cache.reference.max-entries:20000}") long maxEntries,
+      @Value("${pku.cache.reference.query-max-entries:5000}") long queryMaxEntries,
+      @Value("${pku.cache.reference.expire-after-write-minutes:60}") long expireAfterWriteMinutes) {
+    // A provider per manager keeps separate application contexts from sharing regions
+    CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+    OptionalLong expiry =
+        expireAfterWriteMinutes > 0
+            ? OptionalLong.of(TimeUnit.MINUTES.toNanos(expireAfterWriteMinutes))
+            : OptionalLong.empty();
+
+    ENTITY_REGIONS.forEach(
+        region -> cacheManager.createCache(region, region(OptionalLong.of(maxEntries), expiry)));
+    cacheManager.createCache(
+        QUERY_RESULTS_REGION, region(OptionalLong.of(queryMaxEntries), expiry));
+    // Timestamps decide whether cached query results are stale, so they must outlive them
+    cacheManager.createCache(
+        UPDATE_TIMESTAMPS_REGION, region(OptionalLong.empty(), OptionalLong.empty()));
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer referenceDataCacheProperties(
+      CacheManager referenceDataCacheManager) {
+    return properties -> {
+      properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+      properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      properties.put(ConfigSettings.CACHE_MANAGER, referenceDataCacheManager);
+      // Every region is created above; a missing one means an entity was cached by mistake
+      properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+    };
+  }
+
+  @Bean
+  public MeterBinder referenceDataCacheMetrics(CacheManager referenceDataCacheManager) {
+    return registry ->
+        referenceDataCacheManager
+            .getCacheNames()
+            .forEach(
+                name ->
+                    JCacheMetrics.monitor(
+                        registry,
+                        referenceDataCacheManager.getCache(name),
+                        Tags.of("cache.type", "hibernate")));
+  }
+
+  private static CaffeineConfiguration<Object, Object> region(
+      OptionalLong maximumSize, OptionalLong expireAfterWrite) {
+    CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+    config.setTypes(Object.class, Object.class);
+    // Hibernate stores its own immutable cache entries, so copying them on every access is waste
+    config.setStoreByValue(false);
+    config.setStatisticsEnabled(true);
+    config.setMaximumSize(maximumSize);
+    config.setExpireAfterWrite(expireAfterWrite);
+    return config;
+  }
+}
@@ -0,0 +1,79 @@
+package com.chubini.pku.config;
+
+import com.chubini.pku.dishes.Dish;
+import com.chubini.pku.dishes.DishCatalogChangedEvent;
+import com.chubini.pku.dishes.DishIngredient;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.products.ProductCatalogChangedEvent;
+import com.chubini.pku.products.ProductTranslation;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Evicts second-level cache entries after product and dish changes commit. Hibernate keeps the
+ * cache current for its own writes, but CSV imports upsert rows with plain JDBC, so the affected
+ * entities and every cached query result are dropped here.
+ */
+@Component
+@Slf4j
+public class ReferenceDataCacheInvalidator {
+
+  static final String PRODUCT_TRANSLATIONS = Product.class.getName() + ".translations";
+  static final String DISH_INGREDIENTS = Dish.class.getName() + ".ingredients";
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  public ReferenceDataCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  // Evict before CatalogVersions hands out a new ETag for the changed data
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductsChanged(ProductCatalogChangedEvent event) {
+    Cache cache = cache();
+    if (event.productIds().isEmpty()) {
+      cache.evictEntityData(Product.class);
+      cache.evictCollectionData(PRODUCT_TRANSLATIONS);
+    } else {
+      for (Object id : event.productIds()) {
+        cache.evictEntityData(Product.class, id);
+        cache.evictCollectionData(PRODUCT_TRANSLATIONS, id);
+      }
+    }
+    // Translations are upserted by product and locale, so their own ids are never known
+    cache.evictEntityData(ProductTranslation.class);
+    cache.evictQueryRegions();
+    log.debug("Evicted cached products after {}", event.changeType());
+  }
+
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDishesChanged(DishCatalogChangedEvent event) {
+    Cache cache = cache();
+    if (event.dishIds().isEmpty()) {
+      cache.evictEntityData(Dish.class);
+      cache.evictCollectionData(DISH_INGREDIENTS);
+    } else {
+      for (Object id : event.dishIds()) {
+        cache.evictEntityData(Dish.class, id);
+        cache.evictCollectionData(DISH_INGREDIENTS, id);
+      }
+    }
+    cache.evictEntityData(DishIngredient.class);
+    cache.evictQueryRegions();
+    log.debug("Evicted cached dishes after {}", event.changeType());
+  }
+
+  private Cache cache() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+  }
+}
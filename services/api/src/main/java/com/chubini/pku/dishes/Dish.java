@@ -6,10 +6,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "dishes")
 @Getter
 @Setter
@@ -112,6 +117,7 @@ public class Dish {
   @Builder.Default
   private Boolean isVisible = true;
 
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   @OneToMany(
       mappedBy = "dish",
       cascade = CascadeType.ALL,
@@ -0,0 +1,140 @@
+package com.chubini.pku.dishes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Inserts imported dishes and their ingredients with JDBC batches, one batch per table, instead of
+ * a cascaded Hibernate save per dish. Ids are generated client side so ingredient rows can
+ * reference their dish without reading keys back.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DishBulkWriter {
+
+  private static final List<String> DISH_COLUMNS =
+      List.of(
+          "id",
+          "name",
+          "category",
+          "description",
+          "nominal_serving_grams",
+          "manual_serving_override",
+          "total_phenylalanine",
+          "total_leucine",
+          "total_tyrosine",
+          "total_methionine",
+          "total_kilojoules",
+          "total_kilocalories",
+          "total_protein",
+          "total_carbohydrates",
+          "total_fats",
+          "per100_phenylalanine",
+          "per100_leucine",
+          "per100_tyrosine",
+          "per100_methionine",
+          "per100_kilojoules",
+          "per100_kilocalories",
+          "per100_protein",
+          "per100_carbohydrates",
+          "per100_fats",
+          "preparation_time_minutes",
+          "difficulty_level",
+          "recipe_instructions",
+          "is_verified",
+          "is_visible");
+
+  static final String INSERT_DISH =
+      "INSERT INTO dishes ("
+          + String.join(", ", DISH_COLUMNS)
+          + ") VALUES ("
+          + String.join(", ", Collections.nCopies(DISH_COLUMNS.size(), "?"))
+          + ")";
+
+  static final String INSERT_INGREDIENT =
+      "INSERT INTO dish_ingredient (id, dish_id, product_id, quantity_grams, preparation_notes,"
+          + " is_optional, sort_order) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Insert new dishes with their ingredients in one transaction, assigning missing ids. Returns the
+   * dish ids in input order.
+   */
+  @Transactional
+  public List<UUID> insert(List<Dish> dishes) {
+    List<UUID> dishIds = new ArrayList<>(dishes.size());
+    List<Object[]> dishRows = new ArrayList<>(dishes.size());
+    List<Object[]> ingredientRows = new ArrayList<>(dishes.size() * 8);
+    for (Dish dish : dishes) {
+      if (dish.getId() == null) {
+        dish.setId(UUID.randomUUID());
+      }
+      dishIds.add(dish.getId());
+      dishRows.add(dishRow(dish));
+      for (DishIngredient ingredient : dish.getIngredients()) {
+        if (ingredient.getId() == null) {
+          ingredient.setId(UUID.randomUUID());
+        }
+        ingredientRows.add(
+            new Object[] {
+              ingredient.getId(),
+              dish.getId(),
+              ingredient.getProduct().getId(),
+              ingredient.getQuantityGrams(),
+              ingredient.getPreparationNotes(),
+              ingredient.getIsOptional(),
+              ingredient.getSortOrder()
+            });
+      }
+    }
+
+    jdbcTemplate.batchUpdate(INSERT_DISH, dishRows);
+    if (!ingredientRows.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_INGREDIENT, ingredientRows);
+    }
+    return dishIds;
+  }
+
+  private static Object[] dishRow(Dish dish) {
+    return new Object[] {
+      dish.getId(),
+      dish.getName(),
+      dish.getCategory(),
+      dish.getDescription(),
+      dish.getNominalServingGrams(),
+      dish.getManualServingOverride(),
+      dish.getTotalPhenylalanine(),
+      dish.getTotalLeucine(),
+      dish.getTotalTyrosine(),
+      dish.getTotalMethionine(),
+      dish.getTotalKilojoules(),
+      dish.getTotalKilocalories(),
+      dish.getTotalProtein(),
+      dish.getTotalCarbohydrates(),
+      dish.getTotalFats(),
+      dish.getPer100Phenylalanine(),
+      dish.getPer100Leucine(),
+      dish.getPer100Tyrosine(),
+      dish.getPer100Methionine(),
+      dish.getPer100Kilojoules(),
+      dish.getPer100Kilocalories(),
+      dish.getPer100Protein(),
+      dish.getPer100Carbohydrates(),
+      dish.getPer100Fats(),
+      dish.getPreparationTimeMinutes(),
+      dish.getDifficultyLevel() != null ? dish.getDifficultyLevel().name() : null,
+      dish.getRecipeInstructions(),
+      dish.getIsVerified(),
+      dish.getIsVisible()
+    };
+  }
+}
@@ -0,0 +1,22 @@
+package com.chubini.pku.dishes;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Event published after dishes are created, updated, deleted or bulk imported. An empty {@code
+ * dishIds} means the affected dishes are unknown and listeners should reload everything.
+ */
+public record DishCatalogChangedEvent(
+    String changeType, List<UUID> dishIds, LocalDateTime timestamp) {
+
+  public DishCatalogChangedEvent {
+    dishIds = dishIds != null ? List.copyOf(dishIds) : List.of();
+  }
+
+  public DishCatalogChangedEvent(String changeType, Collection<UUID> dishIds) {
+    this(changeType, dishIds != null ? List.copyOf(dishIds) : List.of(), LocalDateTime.now());
+  }
+}
@@ -0,0 +1,46 @@
+package com.chubini.pku.dishes;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.chubini.pku.facets.CategoryFacets;
+import com.chubini.pku.facets.FacetsByThreshold;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Category facets of the visible dishes, counted by one grouped query per max-PHE threshold and
+ * kept until the next committed {@link DishCatalogChangedEvent}.
+ */
+@Component
+@Slf4j
+public class DishCategoryFacets {
+
+  private final DishRepository dishRepository;
+
+  // Bumped on every committed change; cached facets are current while counted at this version
+  private final AtomicLong changes = new AtomicLong();
+  private final FacetsByThreshold facetsByMaxPhe = new FacetsByThreshold();
+
+  public DishCategoryFacets(DishRepository dishRepository) {
+    this.dishRepository = dishRepository;
+  }
+
+  /** Facets of visible dishes, counting only dishes at or below {@code maxPhe} when given */
+  public CategoryFacets facets(Double maxPhe) {
+    // Read the version first so a change committed during the count stales the result
+    return facetsByMaxPhe.get(
+        maxPhe,
+        changes.get(),
+        threshold -> CategoryFacets.of(dishRepository.countVisibleByCategory(threshold)));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDishesChanged(DishCatalogChangedEvent event) {
+    changes.incrementAndGet();
+    facetsByMaxPhe.clear();
+    log.debug("Dish category facets invalidated by {}", event.changeType());
+  }
+}
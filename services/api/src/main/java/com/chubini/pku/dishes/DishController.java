@@ -1,12 +1,17 @@
 package com.chubini.pku.dishes;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import com.chubini.pku.config.CatalogVersions;
+import com.chubini.pku.facets.CategoryFacet;
+import com.chubini.pku.facets.CategoryFacets;
+
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -26,18 +31,26 @@ public class DishController {
   private final DishService dishService;
   private final DishCsvUploadService dishCsvUploadService;
   private final MultiLanguageDishCsvService multiLanguageDishCsvService;
+  private final DishCategoryFacets categoryFacets;
+  private final CatalogVersions catalogVersions;
 
   @GetMapping
   @Operation(summary = "Get all dishes", description = "Get paginated list of all visible dishes")
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved dishes"),
+        @ApiResponse(responseCode = "304", description = "Dishes unchanged since the given ETag"),
         @ApiResponse(responseCode = "400", description = "Invalid pagination parameters")
       })
-  public Page<Dish> getAllDishes(
+  public ResponseEntity<Page<Dish>> getAllDishes(
       @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
-    return dishService.getAllDishes(page, size);
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+      WebRequest request) {
+    String etag = catalogVersions.dishesETag();
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    return revalidated(etag).body(dishService.getAllDishes(page, size));
   }
 
   @GetMapping("/{id}")
@@ -45,13 +58,18 @@ public class DishController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved dish"),
+        @ApiResponse(responseCode = "304", description = "Dish unchanged since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Dish not found")
       })
   public ResponseEntity<Dish> getDishById(
-      @Parameter(description = "Dish ID") @PathVariable UUID id) {
+      @Parameter(description = "Dish ID") @PathVariable UUID id, WebRequest request) {
+    String etag = catalogVersions.dishesETag();
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
     return dishService
         .getDishById(id)
-        .map(ResponseEntity::ok)
+        .map(dish -> revalidated(etag).body(dish))
         .orElse(ResponseEntity.notFound().build());
   }
 
@@ -62,13 +80,19 @@ public class DishController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved dishes"),
+        @ApiResponse(responseCode = "304", description = "Dishes unchanged since the given ETag"),
         @ApiResponse(responseCode = "400", description = "Invalid pagination parameters")
       })
-  public Page<Dish> getDishesByCategory(
+  public ResponseEntity<Page<Dish>> getDishesByCategory(
       @Parameter(description = "Dish category") @PathVariable String category,
       @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
-    return dishService.getDishesByCategory(category, page, size);
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+      WebRequest request) {
+    String etag = catalogVersions.dishesETag();
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    return revalidated(etag).body(dishService.getDishesByCategory(category, page, size));
   }
 
   @GetMapping("/categories")
@@ -76,8 +100,35 @@ public class DishController {
       summary = "Get all dish categories",
       description = "Get list of all distinct dish categories")
   @ApiResponse(responseCode = "200", description = "Successfully retrieved categories")
-  public List<String> getAllCategories() {
-    return dishService.getAllCategories();
+  public ResponseEntity<List<String>> getAllCategories(WebRequest request) {
+    CategoryFacets facets = categoryFacets.facets(null);
+    if (request.checkNotModified(facets.etag())) {
+      return null;
+    }
+    return revalidated(facets.etag()).body(facets.names());
+  }
+
+  @GetMapping("/category-facets")
+  @Operation(
+      summary = "Get dish category facets",
+      description =
+          "Get visible dish categories with dish counts, optionally counting only dishes at or"
+              + " below a phenylalanine threshold per 100g")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved facets"),
+        @ApiResponse(responseCode = "304", description = "Facets unchanged since the given ETag")
+      })
+  public ResponseEntity<List<CategoryFacet>> getCategoryFacets(
+      @Parameter(description = "Count only dishes with phenylalanine at or below this value")
+          @RequestParam(required = false)
+          Double maxPhe,
+      WebRequest request) {
+    CategoryFacets facets = categoryFacets.facets(maxPhe);
+    if (request.checkNotModified(facets.etag())) {
+      return null;
+    }
+    return revalidated(facets.etag()).body(facets.categories());
   }
 
   @GetMapping("/search")
@@ -85,13 +136,19 @@ public class DishController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved dishes"),
+        @ApiResponse(responseCode = "304", description = "Dishes unchanged since the given ETag"),
         @ApiResponse(responseCode = "400", description = "Invalid pagination parameters")
       })
-  public Page<Dish> searchDishes(
+  public ResponseEntity<Page<Dish>> searchDishes(
       @Parameter(description = "Search term") @RequestParam String q,
       @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
-    return dishService.searchDishes(q, page, size);
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+      WebRequest request) {
+    String etag = catalogVersions.dishesETag();
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    return revalidated(etag).body(dishService.searchDishes(q, page, size));
   }
 
   @GetMapping("/low-phe")
@@ -101,13 +158,19 @@ public class DishController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved dishes"),
+        @ApiResponse(responseCode = "304", description = "Dishes unchanged since the given ETag"),
         @ApiResponse(responseCode = "400", description = "Invalid pagination parameters")
       })
-  public Page<Dish> getLowPheDishes(
+  public ResponseEntity<Page<Dish>> getLowPheDishes(
       @Parameter(description = "Maximum PHE per 100g") @RequestParam Double maxPhe,
       @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
-    return dishService.getLowPheDishes(maxPhe, page, size);
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+      WebRequest request) {
+    String etag = catalogVersions.dishesETag();
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    return revalidated(etag).body(dishService.getLowPheDishes(maxPhe, page, size));
   }
 
   @PostMapping
@@ -246,39 +309,20 @@ public class DishController {
   public ResponseEntity<String> uploadMultiLanguageDishesFromCsv(
       @Parameter(description = "CSV file containing multi-language dish data") @RequestParam("file")
           MultipartFile file) {
-    try {
-      List<MultiLanguageDishCsvService.MultiLanguageDishDto> dishDtos =
-          multiLanguageDishCsvService.parseMultiLanguageCsvFile(file);
+    try (var in = file.getInputStream()) {
+      MultiLanguageDishCsvService.ImportResult imported =
+          multiLanguageDishCsvService.importMultiLanguageCsv(in);
 
-      if (dishDtos.isEmpty()) {
+      if (imported.total() == 0) {
         return ResponseEntity.badRequest().body("No valid dishes found in CSV file");
       }
 
-      // Save all dishes with translations
-      int savedCount = 0;
-      StringBuilder errors = new StringBuilder();
-
-      for (MultiLanguageDishCsvService.MultiLanguageDishDto dishDto : dishDtos) {
-        try {
-          // Create dish for each language
-          createDishWithTranslations(dishDto);
-          savedCount++;
-        } catch (Exception e) {
-          errors
-              .append("Error saving dish '")
-              .append(dishDto.getNameEn())
-              .append("': ")
-              .append(e.getMessage())
-              .append("; ");
-        }
-      }
-
       String result =
           String.format(
               "Successfully uploaded %d multi-language dishes out of %d",
-              savedCount, dishDtos.size());
-      if (errors.length() > 0) {
-        result += ". Errors: " + errors.toString();
+              imported.saved(), imported.total());
+      if (!imported.errors().isEmpty()) {
+        result += ". Errors: " + String.join("; ", imported.errors()) + "; ";
       }
 
       return ResponseEntity.ok(result);
@@ -313,39 +357,8 @@ public class DishController {
     }
   }
 
-  private void createDishWithTranslations(
-      MultiLanguageDishCsvService.MultiLanguageDishDto dishDto) {
-    // Create base dish (English version)
-    Dish dish =
-        Dish.builder()
-            .name(dishDto.getNameEn())
-            .category(dishDto.getCategoryEn())
-            .nominalServingGrams(dishDto.getFinalDishWeight())
-            .preparationTimeMinutes(dishDto.getPreparationTimeMinutes())
-            .difficultyLevel(dishDto.getDifficultyLevel())
-            .recipeInstructions(dishDto.getInstructionsEn())
-            .isVerified(false)
-            .isVisible(true)
-            .build();
-
-    // Add ingredients
-    List<DishIngredient> ingredients = new ArrayList<>();
-    for (MultiLanguageDishCsvService.DishIngredientDto ingredientDto : dishDto.getIngredients()) {
-      DishIngredient ingredient =
-          DishIngredient.builder()
-              .dish(dish)
-              .product(ingredientDto.getProduct())
-              .quantityGrams(ingredientDto.getQuantityGrams())
-              .build();
-      ingredients.add(ingredient);
-    }
-    dish.setIngredients(ingredients);
-
-    // Save the dish
-    dishService.createDish(dish);
-
-    // TODO: Add translation support for Georgian and Russian versions
-    // This would require a translation table/service to store dish names and instructions
-    // in multiple languages, similar to how products have translations
+  // Clients may keep responses but must revalidate them before reuse
+  private static ResponseEntity.BodyBuilder revalidated(String etag) {
+    return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache());
   }
 }
@@ -6,10 +6,15 @@ import java.util.UUID;
 
 import com.chubini.pku.products.Product;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "dish_ingredient")
 @Getter
 @Setter
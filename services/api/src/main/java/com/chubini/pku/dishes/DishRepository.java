@@ -3,6 +3,9 @@ package com.chubini.pku.dishes;
 import java.util.List;
 import java.util.UUID;
 
+import com.chubini.pku.facets.CategoryFacet;
+import com.chubini.pku.util.LikePatterns;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -17,12 +20,44 @@ public interface DishRepository extends JpaRepository<Dish, UUID> {
 
   Page<Dish> findByCategoryAndIsVisibleTrue(String category, Pageable pageable);
 
-  @Query("SELECT d FROM Dish d WHERE d.isVisible = true AND d.name ILIKE %:searchTerm%")
-  Page<Dish> findBySearchTerm(@Param("searchTerm") String searchTerm, Pageable pageable);
+  // Visible dishes whose name contains or resembles :q, best match first, served by the trigram
+  // index on dishes.name (V32)
+  @Query(
+      value =
+          """
+    SELECT d.*
+    FROM dishes d
+    WHERE d.is_visible = true
+      AND (d.name ILIKE :pattern ESCAPE '\\' OR d.name % :q)
+    ORDER BY similarity(d.name, :q) DESC, d.name, d.id
+    """,
+      countQuery =
+          """
+    SELECT COUNT(*)
+    FROM dishes d
+    WHERE d.is_visible = true
+      AND (d.name ILIKE :pattern ESCAPE '\\' OR d.name % :q)
+    """,
+      nativeQuery = true)
+  Page<Dish> searchByNameSimilarity(
+      @Param("q") String query, @Param("pattern") String containsPattern, Pageable pageable);
+
+  /** Search as above, matching %, _ and \ in the query literally */
+  default Page<Dish> searchByNameSimilarity(String query, Pageable pageable) {
+    return searchByNameSimilarity(query, LikePatterns.contains(query), pageable);
+  }
 
+  // Visible dishes per category, limited to a phenylalanine threshold when one is given
   @Query(
-      "SELECT DISTINCT d.category FROM Dish d WHERE d.isVisible = true AND d.category IS NOT NULL")
-  List<String> findDistinctCategories();
+      """
+    SELECT new com.chubini.pku.facets.CategoryFacet(d.category, COUNT(d))
+    FROM Dish d
+    WHERE d.isVisible = true AND d.category IS NOT NULL
+      AND (:maxPhe IS NULL OR d.per100Phenylalanine <= :maxPhe)
+    GROUP BY d.category
+    ORDER BY d.category
+    """)
+  List<CategoryFacet> countVisibleByCategory(@Param("maxPhe") Double maxPhe);
 
   @Query("SELECT d FROM Dish d WHERE d.isVisible = true AND d.per100Phenylalanine <= :maxPhe")
   Page<Dish> findLowPheDishes(@Param("maxPhe") Double maxPhe, Pageable pageable);
@@ -9,6 +9,7 @@ import com.chubini.pku.products.IntelligentProductMatcher;
 import com.chubini.pku.products.Product;
 import com.chubini.pku.products.ProductRepository;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,14 +17,17 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class DishService {
 
   private final DishRepository dishRepository;
   private final ProductRepository productRepository;
   private final IntelligentProductMatcher intelligentMatcher;
+  private final ApplicationEventPublisher eventPublisher;
 
   public Page<Dish> getAllDishes(int page, int size) {
     Pageable pageable = PageRequest.of(page, size);
@@ -35,17 +39,14 @@ public class DishService {
     return dishRepository.findByCategoryAndIsVisibleTrue(category, pageable);
   }
 
-  public List<String> getAllCategories() {
-    return dishRepository.findDistinctCategories();
-  }
-
   public Optional<Dish> getDishById(UUID id) {
     return dishRepository.findById(id);
   }
 
+  /** Visible dishes whose name contains or resembles the search term, best match first */
   public Page<Dish> searchDishes(String searchTerm, int page, int size) {
     Pageable pageable = PageRequest.of(page, size);
-    return dishRepository.findBySearchTerm(searchTerm, pageable);
+    return dishRepository.searchByNameSimilarity(searchTerm, pageable);
   }
 
   public Page<Dish> getLowPheDishes(Double maxPhe, int page, int size) {
@@ -60,7 +61,9 @@ public class DishService {
       calculateNutritionValues(dish);
     }
 
-    return dishRepository.save(dish);
+    Dish saved = dishRepository.save(dish);
+    eventPublisher.publishEvent(new DishCatalogChangedEvent("CREATE", List.of(saved.getId())));
+    return saved;
   }
 
   @Transactional
@@ -89,7 +92,9 @@ public class DishService {
       calculateNutritionValues(dish);
     }
 
-    return dishRepository.save(dish);
+    Dish saved = dishRepository.save(dish);
+    eventPublisher.publishEvent(new DishCatalogChangedEvent("UPDATE", List.of(id)));
+    return saved;
   }
 
   @Transactional
@@ -102,10 +107,14 @@ public class DishService {
     // Soft delete - mark as invisible
     dish.setIsVisible(false);
     dishRepository.save(dish);
+    eventPublisher.publishEvent(new DishCatalogChangedEvent("DELETE", List.of(id)));
   }
 
-  /** Calculate nutritional values for a dish based on its ingredients */
-  private void calculateNutritionValues(Dish dish) {
+  /**
+   * Calculate nutritional values for a dish based on its ingredients. Only reads the ingredient
+   * products already attached to the dish, so imports call it from worker threads.
+   */
+  void calculateNutritionValues(Dish dish) {
     BigDecimal ingredientsWeight = BigDecimal.ZERO;
     BigDecimal totalPhenylalanine = BigDecimal.ZERO;
     BigDecimal totalLeucine = BigDecimal.ZERO;
@@ -189,18 +198,12 @@ public class DishService {
 
     // Calculate water content for information
     BigDecimal waterContent = finalDishWeight.subtract(ingredientsWeight);
-    System.out.println(
-        "Dish: "
-            + dish.getName()
-            + " | Ingredients: "
-            + ingredientsWeight
-            + "g"
-            + " | Final weight: "
-            + finalDishWeight
-            + "g"
-            + " | Water added: "
-            + waterContent
-            + "g");
+    log.debug(
+        "Dish: {} | Ingredients: {}g | Final weight: {}g | Water added: {}g",
+        dish.getName(),
+        ingredientsWeight,
+        finalDishWeight,
+        waterContent);
   }
 
   /** Find product by name using intelligent matching */
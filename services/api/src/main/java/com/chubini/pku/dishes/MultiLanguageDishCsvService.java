@@ -2,32 +2,90 @@ package com.chubini.pku.dishes;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.chubini.pku.imports.ImportCheckpoint;
 import com.chubini.pku.products.Product;
 import com.chubini.pku.products.ProductRepository;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Parses multi-language dish CSV files. Large recipe books go through {@link
+ * #importMultiLanguageCsv}, which reads rows on the calling thread and hands them over a bounded
+ * queue to workers that resolve ingredients and compute nutrition in parallel, and persists the
+ * dishes in file order in JDBC batches while later rows are still being resolved.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MultiLanguageDishCsvService {
 
+  private static final DishRow END_OF_INPUT = new DishRow(-1, null, List.of());
+
+  // How long the reader waits on the workers before checking that they are still running
+  private static final long HAND_OVER_POLL_MILLIS = 100;
+
   private final ProductRepository productRepository;
   private final DishService dishService;
+  private final DishBulkWriter dishBulkWriter;
+  private final ApplicationEventPublisher eventPublisher;
+
+  @Value("${pku.dishes.import.parallelism:0}")
+  private int parallelism = 0;
+
+  @Value("${pku.dishes.import.queue-capacity:256}")
+  private int queueCapacity = 256;
+
+  @Value("${pku.dishes.import.batch-size:500}")
+  private int batchSize = 500;
+
+  /** Outcome of a pipelined import */
+  public record ImportResult(int saved, int total, List<String> errors) {}
+
+  /** CSV row with its text fields read but its ingredient products not yet resolved */
+  private record DishRow(
+      long line,
+      MultiLanguageDishDto.MultiLanguageDishDtoBuilder dish,
+      List<String[]> ingredients) {}
+
+  private record RowFailure(long line, RuntimeException cause) {}
 
   public List<MultiLanguageDishDto> parseMultiLanguageCsvFile(MultipartFile file)
       throws IOException {
@@ -36,37 +94,358 @@ public class MultiLanguageDishCsvService {
 
   public List<MultiLanguageDishDto> parseMultiLanguageCsvBytes(byte[] csvData) throws IOException {
     List<MultiLanguageDishDto> dishes = new ArrayList<>();
+    Map<String, CompletableFuture<Optional<Product>>> ingredientCache = new HashMap<>();
+    readRows(
+        new ByteArrayInputStream(csvData),
+        0,
+        row -> {
+          try {
+            dishes.add(resolve(row, ingredientCache));
+          } catch (Exception e) {
+            log.error("Error parsing multi-language dish record: {}", e.getMessage());
+            throw new RuntimeException("Failed to parse dish from record " + row.line(), e);
+          }
+        });
+    return dishes;
+  }
+
+  /**
+   * Parse, resolve and save all dishes in the file. Dishes are saved in file order, one batch at a
+   * time as soon as every row in the batch has been resolved. An unparseable row or unknown
+   * ingredient stops the import without saving the batch it falls in; dishes that fail to save are
+   * reported individually.
+   */
+  public ImportResult importMultiLanguageCsv(InputStream csvData) throws IOException {
+    return importMultiLanguageCsv(csvData, 0, ImportCheckpoint.NONE);
+  }
+
+  /**
+   * Like {@link #importMultiLanguageCsv(InputStream)}, but skipping records up to {@code
+   * resumeAfterRecord} and saving each batch through {@code checkpoint}, so a failed import resumes
+   * after the last batch it saved.
+   */
+  public ImportResult importMultiLanguageCsv(
+      InputStream csvData, long resumeAfterRecord, ImportCheckpoint checkpoint) throws IOException {
+    DishBatches batches = new DishBatches(checkpoint);
+    resolveInParallel(csvData, resumeAfterRecord, batches::add);
+    batches.flush();
+    return batches.result();
+  }
+
+  private void insert(List<Dish> dishes) {
+    List<UUID> dishIds = dishBulkWriter.insert(dishes);
+    eventPublisher.publishEvent(new DishCatalogChangedEvent("CSV_UPLOAD", dishIds));
+  }
+
+  /** Collects resolved dishes in file order and saves every full batch through the checkpoint */
+  private final class DishBatches {
+    private final ImportCheckpoint checkpoint;
+    private final List<Map.Entry<Long, Dish>> batch = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+    private int saved;
+    private int total;
+
+    DishBatches(ImportCheckpoint checkpoint) {
+      this.checkpoint = checkpoint;
+    }
+
+    void add(long line, Dish dish) {
+      batch.add(Map.entry(line, dish));
+      total++;
+      if (batch.size() >= batchSize) {
+        flush();
+      }
+    }
+
+    void flush() {
+      if (batch.isEmpty()) {
+        return;
+      }
+      List<Dish> batchDishes = batch.stream().map(Map.Entry::getValue).toList();
+      long batchEnd = batch.get(batch.size() - 1).getKey();
+      try {
+        checkpoint.commit(batchEnd, batch.size(), List.of(), () -> insert(batchDishes));
+        saved += batch.size();
+      } catch (RuntimeException batchFailure) {
+        // Retry one by one so the failing dishes can be named
+        for (Map.Entry<Long, Dish> entry : batch) {
+          Dish dish = entry.getValue();
+          try {
+            checkpoint.commit(entry.getKey(), 1, List.of(), () -> insert(List.of(dish)));
+            saved++;
+          } catch (RuntimeException e) {
+            String error = "Error saving dish '" + dish.getName() + "': " + e.getMessage();
+            checkpoint.commit(entry.getKey(), 0, List.of(error), () -> {});
+            errors.add(error);
+          }
+        }
+      }
+      batch.clear();
+    }
+
+    ImportResult result() {
+      return new ImportResult(saved, total, errors);
+    }
+  }
+
+  /**
+   * Hands the rows resolved by the workers back to the reading thread in file order. Only the
+   * reading thread calls {@link #expect} and {@link #drain}; workers call {@link #resolved}.
+   */
+  private static final class LineOrder {
+    private final BlockingQueue<Map.Entry<Long, Dish>> resolved = new LinkedBlockingQueue<>();
+    private final Deque<Long> expected = new ArrayDeque<>();
+    private final Map<Long, Dish> early = new HashMap<>();
+    private final BiConsumer<Long, Dish> inLineOrder;
+
+    LineOrder(BiConsumer<Long, Dish> inLineOrder) {
+      this.inLineOrder = inLineOrder;
+    }
+
+    void resolved(long line, Dish dish) {
+      resolved.add(Map.entry(line, dish));
+    }
+
+    void expect(long line) {
+      expected.add(line);
+    }
+
+    /** Rows handed to the workers that have not been passed on yet */
+    int inFlight() {
+      return expected.size();
+    }
+
+    /**
+     * Pass on every dish whose earlier rows have all been passed on, first waiting up to {@code
+     * waitMillis} for a worker to resolve another row.
+     */
+    void drain(long waitMillis) throws InterruptedException {
+      Map.Entry<Long, Dish> next =
+          waitMillis > 0 ? resolved.poll(waitMillis, TimeUnit.MILLISECONDS) : resolved.poll();
+      for (; next != null; next = resolved.poll()) {
+        early.put(next.getKey(), next.getValue());
+      }
+      while (!expected.isEmpty() && early.containsKey(expected.peekFirst())) {
+        long line = expected.removeFirst();
+        inLineOrder.accept(line, early.remove(line));
+      }
+    }
+  }
+
+  /**
+   * Resolve the rows of the file on worker threads, passing each dish to {@code inLineOrder} on the
+   * calling thread in file order while later rows are still being read and resolved.
+   */
+  private void resolveInParallel(
+      InputStream csvData, long resumeAfterRecord, BiConsumer<Long, Dish> inLineOrder)
+      throws IOException {
+    int workerCount = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    BlockingQueue<DishRow> queue = new ArrayBlockingQueue<>(queueCapacity);
+    // Ingredient names repeat across a recipe book, so each is resolved once per import
+    Map<String, CompletableFuture<Optional<Product>>> ingredientCache = new ConcurrentHashMap<>();
+    LineOrder lineOrder = new LineOrder(inLineOrder);
+    // Rows resolved ahead of a slow earlier row wait in memory, so reading pauses at this many
+    int maxInFlight = 2 * queueCapacity + workerCount;
+    AtomicReference<RowFailure> failure = new AtomicReference<>();
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService workers =
+        Executors.newFixedThreadPool(
+            workerCount,
+            runnable -> {
+              Thread thread = new Thread(runnable, "dish-import-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    try {
+      List<Future<?>> futures = new ArrayList<>(workerCount);
+      for (int i = 0; i < workerCount; i++) {
+        futures.add(
+            workers.submit(
+                () -> {
+                  resolveRows(queue, ingredientCache, lineOrder, failure);
+                  return null;
+                }));
+      }
+
+      // Workers only exit after the end-of-input marker; once one has stopped early, reading stops
+      // too and the worker's failure is reported below instead of blocking on a full queue
+      boolean[] workersStopped = {false};
+      try {
+        readRows(
+            csvData,
+            resumeAfterRecord,
+            row -> {
+              if (failure.get() == null && !workersStopped[0]) {
+                workersStopped[0] = !handOver(queue, row, futures);
+              }
+              if (failure.get() == null && !workersStopped[0]) {
+                lineOrder.expect(row.line());
+                workersStopped[0] = !catchUp(lineOrder, maxInFlight, futures, failure);
+              }
+            });
+      } finally {
+        if (!workersStopped[0]) {
+          handOver(queue, END_OF_INPUT, futures);
+        }
+      }
 
-    try (ByteArrayInputStream inputStream = new ByteArrayInputStream(csvData);
-        InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+      // Keep saving batches while the workers finish the last rows; a worker that failed is
+      // reported as soon as it is seen, without waiting for the others
+      List<Future<?>> running = new ArrayList<>(futures);
+      while (true) {
+        for (Iterator<Future<?>> it = running.iterator(); it.hasNext(); ) {
+          Future<?> future = it.next();
+          if (future.isDone()) {
+            future.get();
+            it.remove();
+          }
+        }
+        if (running.isEmpty()) {
+          break;
+        }
+        lineOrder.drain(HAND_OVER_POLL_MILLIS);
+      }
+      // Every row before a failing one has been resolved, so the batches before it are saved
+      lineOrder.drain(0);
+      if (failure.get() != null) {
+        throw failure.get().cause();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Dish import interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Dish import worker failed", e.getCause());
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * Pass on the dishes resolved so far, waiting for the workers while more than {@code maxInFlight}
+   * rows are outstanding. Returns false once any worker has stopped, like {@link #handOver}.
+   */
+  private static boolean catchUp(
+      LineOrder lineOrder,
+      int maxInFlight,
+      List<Future<?>> workers,
+      AtomicReference<RowFailure> failure) {
+    boolean interrupted = false;
+    try {
+      long waitMillis = 0;
+      while (true) {
+        try {
+          lineOrder.drain(waitMillis);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+        if (lineOrder.inFlight() <= maxInFlight || failure.get() != null) {
+          return true;
+        }
+        if (workers.stream().anyMatch(Future::isDone)) {
+          return false;
+        }
+        waitMillis = HAND_OVER_POLL_MILLIS;
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void resolveRows(
+      BlockingQueue<DishRow> queue,
+      Map<String, CompletableFuture<Optional<Product>>> ingredientCache,
+      LineOrder lineOrder,
+      AtomicReference<RowFailure> failure)
+      throws InterruptedException {
+    while (true) {
+      DishRow row = queue.take();
+      if (row == END_OF_INPUT) {
+        // Leave the marker for the other workers
+        queue.put(END_OF_INPUT);
+        return;
+      }
+      RowFailure earlier = failure.get();
+      if (earlier != null && earlier.line() < row.line()) {
+        continue;
+      }
+      try {
+        Dish dish = toDish(resolve(row, ingredientCache));
+        dishService.calculateNutritionValues(dish);
+        lineOrder.resolved(row.line(), dish);
+      } catch (RuntimeException e) {
+        log.error("Error parsing multi-language dish record: {}", e.getMessage());
+        RowFailure rowFailure =
+            new RowFailure(
+                row.line(),
+                new RuntimeException("Failed to parse dish from record " + row.line(), e));
+        // Report the earliest failing line regardless of which worker saw it first
+        failure.accumulateAndGet(
+            rowFailure,
+            (current, next) -> current == null || next.line() < current.line() ? next : current);
+      }
+    }
+  }
+
+  /**
+   * Queue a row for the workers, waiting while the queue is full. Gives up and returns false once
+   * any worker has stopped, e.g. after dying from an Error, so the reader can never block forever.
+   */
+  private static boolean handOver(
+      BlockingQueue<DishRow> queue, DishRow row, List<Future<?>> workers) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          if (queue.offer(row, HAND_OVER_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            return true;
+          }
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+        if (workers.stream().anyMatch(Future::isDone)) {
+          return false;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void readRows(InputStream csvData, long resumeAfterRecord, Consumer<DishRow> rowConsumer)
+      throws IOException {
+    try (InputStreamReader reader = new InputStreamReader(csvData, StandardCharsets.UTF_8);
         CSVParser csvParser =
             new CSVParser(
                 reader,
                 CSVFormat.DEFAULT.withFirstRecordAsHeader().withIgnoreHeaderCase().withTrim())) {
 
       for (CSVRecord record : csvParser) {
-        // Skip comment lines
-        if (record.get(0).startsWith("#")) {
+        // Skip comment lines and rows saved by an earlier attempt
+        if (record.get(0).startsWith("#") || record.getRecordNumber() <= resumeAfterRecord) {
           continue;
         }
 
+        DishRow row;
         try {
-          MultiLanguageDishDto dish = parseMultiLanguageDishRecord(record);
-          if (dish != null) {
-            dishes.add(dish);
-          }
+          row = readRow(record);
         } catch (Exception e) {
           log.error("Error parsing multi-language dish record: {}", e.getMessage());
           throw new RuntimeException(
               "Failed to parse dish from record " + record.getRecordNumber(), e);
         }
+        if (row != null) {
+          rowConsumer.accept(row);
+        }
       }
     }
-
-    return dishes;
   }
 
-  private MultiLanguageDishDto parseMultiLanguageDishRecord(CSVRecord record) {
+  private DishRow readRow(CSVRecord record) {
     try {
       // Extract multi-language names
       String nameKa = getFieldValue(record, "dish_name_ka");
@@ -100,35 +479,35 @@ public class MultiLanguageDishCsvService {
         return null;
       }
 
-      // Parse ingredients
-      List<DishIngredientDto> ingredients = parseIngredients(record);
+      // Read ingredient cells; products are resolved in a later stage
+      List<String[]> ingredients = readIngredients(record);
       if (ingredients.isEmpty()) {
         log.warn("Skipping record with no valid ingredients at line {}", record.getRecordNumber());
         return null;
       }
 
       // Build multi-language dish DTO
-      return MultiLanguageDishDto.builder()
-          .nameKa(nameKa)
-          .nameRu(nameRu)
-          .nameEn(nameEn)
-          .categoryKa(categoryKa)
-          .categoryRu(categoryRu)
-          .categoryEn(categoryEn)
-          .finalDishWeight(new BigDecimal(finalDishWeightStr))
-          .ingredients(ingredients)
-          .preparationTimeMinutes(
-              preparationTimeStr != null && !preparationTimeStr.trim().isEmpty()
-                  ? Integer.parseInt(preparationTimeStr)
-                  : null)
-          .difficultyLevel(
-              difficultyLevel != null && !difficultyLevel.trim().isEmpty()
-                  ? Dish.DifficultyLevel.valueOf(difficultyLevel.toUpperCase())
-                  : Dish.DifficultyLevel.EASY)
-          .instructionsKa(instructionsKa)
-          .instructionsRu(instructionsRu)
-          .instructionsEn(instructionsEn)
-          .build();
+      MultiLanguageDishDto.MultiLanguageDishDtoBuilder dish =
+          MultiLanguageDishDto.builder()
+              .nameKa(nameKa)
+              .nameRu(nameRu)
+              .nameEn(nameEn)
+              .categoryKa(categoryKa)
+              .categoryRu(categoryRu)
+              .categoryEn(categoryEn)
+              .finalDishWeight(new BigDecimal(finalDishWeightStr))
+              .preparationTimeMinutes(
+                  preparationTimeStr != null && !preparationTimeStr.trim().isEmpty()
+                      ? Integer.parseInt(preparationTimeStr)
+                      : null)
+              .difficultyLevel(
+                  difficultyLevel != null && !difficultyLevel.trim().isEmpty()
+                      ? Dish.DifficultyLevel.valueOf(difficultyLevel.toUpperCase())
+                      : Dish.DifficultyLevel.EASY)
+              .instructionsKa(instructionsKa)
+              .instructionsRu(instructionsRu)
+              .instructionsEn(instructionsEn);
+      return new DishRow(record.getRecordNumber(), dish, ingredients);
 
     } catch (Exception e) {
       log.error(
@@ -139,8 +518,8 @@ public class MultiLanguageDishCsvService {
     }
   }
 
-  private List<DishIngredientDto> parseIngredients(CSVRecord record) {
-    List<DishIngredientDto> ingredients = new ArrayList<>();
+  private List<String[]> readIngredients(CSVRecord record) {
+    List<String[]> ingredients = new ArrayList<>();
 
     // Parse up to 6 ingredients
     for (int i = 1; i <= 6; i++) {
@@ -151,32 +530,106 @@ public class MultiLanguageDishCsvService {
           && !ingredientName.trim().isEmpty()
           && ingredientGramsStr != null
           && !ingredientGramsStr.trim().isEmpty()) {
+        ingredients.add(new String[] {ingredientName.trim(), ingredientGramsStr.trim()});
+      }
+    }
 
-        // Find product in database
-        Optional<Product> productOpt = dishService.findProductByName(ingredientName.trim());
-        if (productOpt.isEmpty()) {
-          log.error(
-              "Product not found for ingredient: {} at line {}",
-              ingredientName,
-              record.getRecordNumber());
-          throw new RuntimeException("Product not found: " + ingredientName);
-        }
+    return ingredients;
+  }
 
+  private MultiLanguageDishDto resolve(
+      DishRow row, Map<String, CompletableFuture<Optional<Product>>> ingredientCache) {
+    List<DishIngredientDto> ingredients = new ArrayList<>(row.ingredients().size());
+    for (String[] cell : row.ingredients()) {
+      String ingredientName = cell[0];
+      String ingredientGramsStr = cell[1];
+
+      // Find product in database, once per distinct ingredient cell
+      Optional<Product> productOpt = lookUpIngredient(ingredientName, ingredientCache);
+      if (productOpt.isEmpty()) {
+        log.error("Product not found for ingredient: {} at line {}", ingredientName, row.line());
+        throw new RuntimeException("Product not found: " + ingredientName);
+      }
+
+      try {
+        BigDecimal grams = new BigDecimal(ingredientGramsStr);
+        ingredients.add(
+            DishIngredientDto.builder().product(productOpt.get()).quantityGrams(grams).build());
+      } catch (NumberFormatException e) {
+        log.error(
+            "Invalid ingredient weight: {} for ingredient: {}", ingredientGramsStr, ingredientName);
+        throw new RuntimeException("Invalid ingredient weight: " + ingredientGramsStr);
+      }
+    }
+    return row.dish().ingredients(ingredients).build();
+  }
+
+  /**
+   * Resolve an ingredient through the per-import cache. The first caller for a name runs the
+   * database lookup outside the map; concurrent callers for the same name wait for its result
+   * instead of querying again.
+   */
+  private Optional<Product> lookUpIngredient(
+      String ingredientName, Map<String, CompletableFuture<Optional<Product>>> ingredientCache) {
+    CompletableFuture<Optional<Product>> lookup = ingredientCache.get(ingredientName);
+    if (lookup == null) {
+      CompletableFuture<Optional<Product>> pending = new CompletableFuture<>();
+      lookup = ingredientCache.putIfAbsent(ingredientName, pending);
+      if (lookup == null) {
+        lookup = pending;
         try {
-          BigDecimal grams = new BigDecimal(ingredientGramsStr.trim());
-          ingredients.add(
-              DishIngredientDto.builder().product(productOpt.get()).quantityGrams(grams).build());
-        } catch (NumberFormatException e) {
-          log.error(
-              "Invalid ingredient weight: {} for ingredient: {}",
-              ingredientGramsStr,
-              ingredientName);
-          throw new RuntimeException("Invalid ingredient weight: " + ingredientGramsStr);
+          pending.complete(findIngredientProduct(ingredientName));
+        } catch (RuntimeException | Error e) {
+          // Release callers waiting on this name before failing the row
+          pending.completeExceptionally(e);
+          throw e;
         }
       }
     }
+    try {
+      return lookup.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
 
-    return ingredients;
+  // Ingredient cells hold either a product code or a product name
+  private Optional<Product> findIngredientProduct(String ingredient) {
+    Optional<Product> byCode = productRepository.findByProductCode(ingredient);
+    return byCode.isPresent() ? byCode : dishService.findProductByName(ingredient);
+  }
+
+  /** Build the base (English) dish entity for a parsed row */
+  Dish toDish(MultiLanguageDishDto dishDto) {
+    Dish dish =
+        Dish.builder()
+            .name(dishDto.getNameEn())
+            .category(dishDto.getCategoryEn())
+            .nominalServingGrams(dishDto.getFinalDishWeight())
+            .preparationTimeMinutes(dishDto.getPreparationTimeMinutes())
+            .difficultyLevel(dishDto.getDifficultyLevel())
+            .recipeInstructions(dishDto.getInstructionsEn())
+            .isVerified(false)
+            .isVisible(true)
+            .build();
+
+    // Add ingredients
+    List<DishIngredient> ingredients = new ArrayList<>();
+    for (DishIngredientDto ingredientDto : dishDto.getIngredients()) {
+      DishIngredient ingredient =
+          DishIngredient.builder()
+              .dish(dish)
+              .product(ingredientDto.getProduct())
+              .quantityGrams(ingredientDto.getQuantityGrams())
+              .build();
+      ingredients.add(ingredient);
+    }
+    dish.setIngredients(ingredients);
+
+    // TODO: Add translation support for Georgian and Russian versions
+    // This would require a translation table/service to store dish names and instructions
+    // in multiple languages, similar to how products have translations
+    return dish;
   }
 
   private String getFieldValue(CSVRecord record, String fieldName) {
@@ -0,0 +1,4 @@
+package com.chubini.pku.facets;
+
+/** One category and the number of catalog items in it */
+public record CategoryFacet(String name, long count) {}
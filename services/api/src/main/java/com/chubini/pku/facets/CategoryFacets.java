@@ -0,0 +1,31 @@
+package com.chubini.pku.facets;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * Category facets in display order with a strong ETag over their content. The tag is derived from
+ * names and counts rather than a version counter, so it survives restarts and matches across
+ * instances as long as the facets themselves are unchanged.
+ */
+public record CategoryFacets(List<CategoryFacet> categories, String etag) {
+
+  public CategoryFacets {
+    categories = List.copyOf(categories);
+  }
+
+  public static CategoryFacets of(List<CategoryFacet> categories) {
+    StringBuilder content = new StringBuilder();
+    for (CategoryFacet facet : categories) {
+      content.append(facet.name()).append('\0').append(facet.count()).append('\n');
+    }
+    String hash = DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+    return new CategoryFacets(categories, "\"" + hash + "\"");
+  }
+
+  public List<String> names() {
+    return categories.stream().map(CategoryFacet::name).toList();
+  }
+}
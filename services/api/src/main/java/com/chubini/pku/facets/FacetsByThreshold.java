@@ -0,0 +1,51 @@
+package com.chubini.pku.facets;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Category facets cached per max-PHE threshold. Thresholds are keyed by numeric value, so 100 and
+ * 100.0 share an entry. Each entry remembers the catalog version it was counted at and is only
+ * served for that version.
+ */
+public final class FacetsByThreshold {
+
+  // Facets are kept for this many distinct thresholds; rarer ones are counted on every call
+  private static final int MAX_CACHED_THRESHOLDS = 32;
+
+  private final Map<String, Counted> facetsByMaxPhe = new ConcurrentHashMap<>();
+
+  private record Counted(long version, CategoryFacets facets) {}
+
+  /**
+   * Facets for {@code maxPhe} (null for no threshold) at catalog {@code version}, calling {@code
+   * count} when none are cached for that version
+   */
+  public CategoryFacets get(Double maxPhe, long version, Function<Double, CategoryFacets> count) {
+    String key = key(maxPhe);
+    Counted cached = facetsByMaxPhe.get(key);
+    if (cached != null && cached.version() == version) {
+      return cached.facets();
+    }
+
+    CategoryFacets facets = count.apply(maxPhe);
+    if (facetsByMaxPhe.size() < MAX_CACHED_THRESHOLDS || facetsByMaxPhe.containsKey(key)) {
+      // A slower count of an older version never replaces a newer one
+      facetsByMaxPhe.merge(
+          key,
+          new Counted(version, facets),
+          (current, counted) -> counted.version() >= current.version() ? counted : current);
+    }
+    return facets;
+  }
+
+  public void clear() {
+    facetsByMaxPhe.clear();
+  }
+
+  private static String key(Double maxPhe) {
+    return maxPhe == null ? "" : BigDecimal.valueOf(maxPhe).stripTrailingZeros().toString();
+  }
+}
@@ -0,0 +1,58 @@
+package com.chubini.pku.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded pool for CPU-bound day scoring during weekly generation. Shared by all requests, so the
+ * total scoring parallelism stays capped regardless of how many weeks are generated at once.
+ */
+@Component
+@Slf4j
+public class DayGenerationExecutor {
+
+  private final ExecutorService executor;
+  private final int parallelism;
+
+  public DayGenerationExecutor(@Value("${pku.generator.parallelism:0}") int parallelism) {
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            this.parallelism,
+            runnable -> {
+              Thread thread = new Thread(runnable, "day-gen-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    log.info("Day generation executor started with parallelism {}", this.parallelism);
+  }
+
+  /** Run all tasks and return their results in submission order */
+  public <T> List<T> invokeAll(List<Callable<T>> tasks)
+      throws InterruptedException, ExecutionException {
+    List<Future<T>> futures = executor.invokeAll(tasks);
+    List<T> results = new ArrayList<>(futures.size());
+    for (Future<T> future : futures) {
+      results.add(future.get());
+    }
+    return results;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
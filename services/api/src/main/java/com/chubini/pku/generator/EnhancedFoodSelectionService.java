@@ -10,9 +10,11 @@ import com.chubini.pku.generator.dto.MenuGenerationRequest;
 import com.chubini.pku.menus.MealSlot;
 import com.chubini.pku.menus.MenuEntry;
 import com.chubini.pku.norms.dto.NormPrescriptionDto;
-import com.chubini.pku.patients.PatientProfile;
+import com.chubini.pku.pantry.PantryItem;
 import com.chubini.pku.products.Product;
-import com.chubini.pku.products.ProductRepository;
+import com.chubini.pku.products.ProductCatalog;
+import com.chubini.pku.products.ProductCatalogSnapshot;
+import com.chubini.pku.util.TopK;
 import com.chubini.pku.validation.NutritionScaler;
 import com.chubini.pku.validation.dto.NutritionBreakdown;
 
@@ -30,7 +32,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class EnhancedFoodSelectionService {
 
-  private final ProductRepository productRepository;
+  private final ProductCatalog productCatalog;
   private final NutritionScaler nutritionScaler;
   private final ScoringEngine scoringEngine;
   private final VarietyEngine varietyEngine;
@@ -45,12 +47,42 @@ public class EnhancedFoodSelectionService {
           MealSlot.SlotName.EVENING_SNACK // Using evening snack as "supper"
           );
 
-  /** Generate food candidates for a meal slot with Phase 2 enhancements */
+  // Meal categories mapping
+  private static final Map<MealSlot.SlotName, List<String>> MEAL_CATEGORIES =
+      Map.of(
+          MealSlot.SlotName.BREAKFAST, List.of("breakfast", "cereals", "bread", "fruits", "dairy"),
+          MealSlot.SlotName.LUNCH, List.of("vegetables", "grains", "protein", "bread", "dairy"),
+          MealSlot.SlotName.DINNER, List.of("vegetables", "protein", "grains", "bread"),
+          MealSlot.SlotName.EVENING_SNACK, List.of("vegetables", "protein", "grains"));
+
+  // Number of ranked candidates returned per slot
+  private static final int MAX_CANDIDATES = 10;
+
+  private volatile SlotCandidateIndex candidateIndex;
+
+  /**
+   * Generate food candidates for a meal slot with Phase 2 enhancements. Variety, pantry and price
+   * lookups use the data preloaded in the request's generation context.
+   */
   public List<FoodCandidate> generateCandidates(
       MealSlot mealSlot,
-      PatientProfile patient,
       NormPrescriptionDto norm,
-      MenuGenerationRequest request) {
+      MenuGenerationRequest request,
+      GenerationContext context) {
+    return rankCandidates(
+        buildCandidatePool(mealSlot, norm, request, context), mealSlot, norm, request, context);
+  }
+
+  /**
+   * Build every viable candidate for a meal slot with nutrition, pantry and cost filled in. Does
+   * not read the variety history, so pools for different days can be built concurrently and ranked
+   * later with {@link #rankCandidates}.
+   */
+  public List<FoodCandidate> buildCandidatePool(
+      MealSlot mealSlot,
+      NormPrescriptionDto norm,
+      MenuGenerationRequest request,
+      GenerationContext context) {
 
     log.debug(
         "Generating enhanced candidates for {} on {}",
@@ -60,66 +92,86 @@ public class EnhancedFoodSelectionService {
     // Get suitable products (basic filtering)
     List<Product> suitableProducts = getSuitableProducts(mealSlot.getSlotName(), request);
 
+    // Convert to candidates with nutrition and cost calculations
+    List<FoodCandidate> candidates = new ArrayList<>();
+
+    for (Product product : suitableProducts) {
+      FoodCandidate candidate = createCandidate(product, mealSlot, norm, request, context);
+      if (candidate != null) {
+        candidates.add(candidate);
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Apply variety filtering and repeat penalties from the context's history to a candidate pool and
+   * return the best candidates by score. Scores are written to the pool's candidates.
+   */
+  public List<FoodCandidate> rankCandidates(
+      List<FoodCandidate> pool,
+      MealSlot mealSlot,
+      NormPrescriptionDto norm,
+      MenuGenerationRequest request,
+      GenerationContext context) {
+
+    VarietyHistory varietyHistory = context.getVarietyHistory();
+
     // Apply variety filtering
     Set<String> itemsToAvoid =
         varietyEngine.getItemsToAvoidForVariety(
-            patient,
-            mealSlot.getMenuDay().getDate(),
-            mealSlot.getSlotName().name(),
-            request.emergencyMode());
-
-    suitableProducts =
-        suitableProducts.stream()
-            .filter(p -> !itemsToAvoid.contains(p.getProductName()))
+            varietyHistory, mealSlot.getMenuDay().getDate(), request.emergencyMode());
+
+    List<FoodCandidate> candidates =
+        pool.stream()
+            .filter(candidate -> !itemsToAvoid.contains(candidate.getItemName()))
             .collect(Collectors.toList());
 
-    if (suitableProducts.isEmpty()) {
+    if (candidates.isEmpty()) {
       log.warn("No suitable products after variety filtering for {}", mealSlot.getSlotName());
       return new ArrayList<>();
     }
 
-    // Convert to candidates with nutrition and cost calculations
-    List<FoodCandidate> candidates = new ArrayList<>();
+    // Score all candidates with the primitive kernel, then re-score the shortlist exactly
+    BigDecimal dailyBudget =
+        request.dailyBudgetLimit() != null ? BigDecimal.valueOf(request.dailyBudgetLimit()) : null;
+
+    ScoringBatch batch = new ScoringBatch(candidates.size());
+    for (FoodCandidate candidate : candidates) {
+      int repeatDays =
+          varietyHistory.daysSinceLastUse(
+              candidate.getItemName(),
+              mealSlot.getMenuDay().getDate(),
+              mealSlot.getSlotName().name());
+      batch.add(candidate, repeatDays);
+    }
 
-    for (Product product : suitableProducts) {
-      FoodCandidate candidate = createCandidate(product, mealSlot, patient, norm, request);
-      if (candidate != null) {
-        candidates.add(candidate);
-      }
+    double[] kernelScores = scoringEngine.scoreBatch(batch, mealSlot, norm, dailyBudget);
+    int[] shortlist = scoringEngine.shortlist(kernelScores, MAX_CANDIDATES);
+
+    // Keep the best candidates by exact score (lower is better)
+    TopK<FoodCandidate> best = TopK.lowest(MAX_CANDIDATES);
+    for (int index : shortlist) {
+      FoodCandidate candidate = candidates.get(index);
+      scoringEngine.calculateScore(candidate, mealSlot, norm, dailyBudget, batch.repeatDays(index));
+      best.offer(candidate, candidate.getScore().doubleValue());
     }
 
-    // Score and rank candidates
-    candidates.forEach(
-        candidate -> {
-          int repeatDays =
-              varietyEngine.getDaysSinceLastUse(
-                  candidate.getItemName(),
-                  patient,
-                  mealSlot.getMenuDay().getDate(),
-                  mealSlot.getSlotName().name());
-
-          BigDecimal dailyBudget =
-              request.dailyBudgetLimit() != null
-                  ? BigDecimal.valueOf(request.dailyBudgetLimit())
-                  : null;
-
-          scoringEngine.calculateScore(candidate, mealSlot, norm, dailyBudget, repeatDays);
-        });
-
-    // Sort by score (lower is better) and return top candidates
-    candidates.sort(Comparator.comparing(FoodCandidate::getScore));
-
-    log.debug("Generated {} scored candidates for {}", candidates.size(), mealSlot.getSlotName());
-    return candidates.stream().limit(10).collect(Collectors.toList());
+    log.debug(
+        "Scored {} candidates ({} exactly) for {}",
+        candidates.size(),
+        shortlist.length,
+        mealSlot.getSlotName());
+    return best.toSortedList();
   }
 
   /** Create a food candidate from a product */
   private FoodCandidate createCandidate(
       Product product,
       MealSlot mealSlot,
-      PatientProfile patient,
       NormPrescriptionDto norm,
-      MenuGenerationRequest request) {
+      MenuGenerationRequest request,
+      GenerationContext context) {
 
     // Calculate optimal serving size
     BigDecimal servingSize = calculateOptimalServing(product, mealSlot, norm);
@@ -142,16 +194,50 @@ public class EnhancedFoodSelectionService {
             .calculatedFatG(nutrition.fatG())
             .build();
 
+    applyPantryInfo(candidate, request, context);
+    return candidate;
+  }
+
+  /**
+   * Recompute pantry availability and cost for a pool against the context's current reservations,
+   * e.g. after earlier slots of the same day reserved pantry stock. Reservations only grow, so only
+   * candidates drawing on reserved stock are re-priced; the rest are priced as they were built.
+   */
+  public void refreshPantryInfo(
+      List<FoodCandidate> pool, MenuGenerationRequest request, GenerationContext context) {
+    PantryReservationLedger reservations = context.getReservations();
+    if (reservations.size() == 0) {
+      return;
+    }
+    for (FoodCandidate candidate : pool) {
+      if (reservations.hasReservations(pantryItemsFor(candidate, context))) {
+        applyPantryInfo(candidate, request, context);
+      }
+    }
+  }
+
+  /** The pantry stock a candidate's availability and cost are computed from */
+  private List<PantryItem> pantryItemsFor(FoodCandidate candidate, GenerationContext context) {
+    return switch (candidate.getEntryType()) {
+      case PRODUCT -> context.pantryItemsFor(candidate.getProduct());
+      case CUSTOM_PRODUCT -> context.pantryItemsFor(candidate.getCustomProduct());
+      default -> List.of();
+    };
+  }
+
+  /** Fill in pantry and cost information for a candidate */
+  private void applyPantryInfo(
+      FoodCandidate candidate, MenuGenerationRequest request, GenerationContext context) {
     // Enhance with pantry and cost information if requested
     if (request.respectPantry()) {
-      pantryAwareService.enhanceCandidateWithPantryInfo(candidate, patient);
+      pantryAwareService.enhanceCandidateWithPantryInfo(candidate, context);
     } else {
       // Just calculate market cost
-      BigDecimal cost = pantryAwareService.getCurrentCost(product, servingSize, patient);
+      BigDecimal cost =
+          pantryAwareService.getCurrentCost(
+              candidate.getProduct(), candidate.getSuggestedServingGrams(), context);
       candidate.setCostPerServing(cost);
     }
-
-    return candidate;
   }
 
   /** Calculate optimal serving size for a product in a meal slot */
@@ -186,65 +272,22 @@ public class EnhancedFoodSelectionService {
     return servingSize;
   }
 
-  /** Get suitable products for a meal type (from original service) */
+  /** Get suitable products for a meal type from the precomputed slot index */
   private List<Product> getSuitableProducts(
       MealSlot.SlotName slotName, MenuGenerationRequest request) {
-    // Meal categories mapping
-    Map<MealSlot.SlotName, List<String>> MEAL_CATEGORIES =
-        Map.of(
-            MealSlot.SlotName.BREAKFAST,
-                List.of("breakfast", "cereals", "bread", "fruits", "dairy"),
-            MealSlot.SlotName.LUNCH, List.of("vegetables", "grains", "protein", "bread", "dairy"),
-            MealSlot.SlotName.DINNER, List.of("vegetables", "protein", "grains", "bread"),
-            MealSlot.SlotName.EVENING_SNACK, List.of("vegetables", "protein", "grains"));
-
-    List<Product> allProducts = productRepository.findAll();
-    List<String> suitableCategories = MEAL_CATEGORIES.getOrDefault(slotName, List.of());
-
-    List<Product> suitableProducts =
-        allProducts.stream()
-            .filter(product -> isSuitableForMeal(product, suitableCategories))
-            .filter(product -> !isAvoidedFood(product, request.foodsToAvoid()))
-            .filter(this::hasValidNutrition)
-            .collect(Collectors.toList());
-
-    // If too few suitable products, broaden the search
-    if (suitableProducts.size() < 5) {
-      suitableProducts =
-          allProducts.stream()
-              .filter(product -> !isAvoidedFood(product, request.foodsToAvoid()))
-              .filter(this::hasValidNutrition)
-              .collect(Collectors.toList());
-    }
-
-    return suitableProducts;
+    SlotCandidateIndex index = candidateIndex();
+    return index.suitableProducts(slotName, index.exclusionMask(request.foodsToAvoid()));
   }
 
-  private boolean isSuitableForMeal(Product product, List<String> suitableCategories) {
-    if (product.getCategory() == null) return false;
-    String category = product.getCategory().toLowerCase();
-    return suitableCategories.stream()
-        .anyMatch(suitable -> category.contains(suitable.toLowerCase()));
-  }
-
-  private boolean isAvoidedFood(Product product, List<String> foodsToAvoid) {
-    if (foodsToAvoid == null || foodsToAvoid.isEmpty()) return false;
-
-    String productName = product.getProductName().toLowerCase();
-    String category = product.getCategory() != null ? product.getCategory().toLowerCase() : "";
-
-    return foodsToAvoid.stream()
-        .anyMatch(
-            avoid ->
-                productName.contains(avoid.toLowerCase())
-                    || category.contains(avoid.toLowerCase()));
-  }
-
-  private boolean hasValidNutrition(Product product) {
-    return product.getPhenylalanine() != null
-        && product.getKilocalories() != null
-        && product.getPhenylalanine().compareTo(BigDecimal.ZERO) >= 0
-        && product.getKilocalories().compareTo(BigDecimal.ZERO) > 0;
+  /** Get the slot index for the current catalog snapshot, rebuilding it after catalog changes */
+  private SlotCandidateIndex candidateIndex() {
+    ProductCatalogSnapshot snapshot = productCatalog.current();
+    SlotCandidateIndex index = candidateIndex;
+    if (index == null || index.catalogVersion() != snapshot.version()) {
+      index = SlotCandidateIndex.build(snapshot, MEAL_CATEGORIES);
+      candidateIndex = index;
+    }
+    return index;
   }
 
   /** Select best candidates for core meals (no snacks auto-inserted) */
@@ -259,8 +302,9 @@ public class EnhancedFoodSelectionService {
     return candidates.stream().limit(maxSelections).collect(Collectors.toList());
   }
 
-  /** Create menu entry from food candidate */
-  public MenuEntry createMenuEntry(FoodCandidate candidate, MealSlot mealSlot) {
+  /** Create menu entry from food candidate, reserving pantry stock in the context's ledger */
+  public MenuEntry createMenuEntry(
+      FoodCandidate candidate, MealSlot mealSlot, GenerationContext context) {
     if (candidate == null) {
       return null;
     }
@@ -288,7 +332,9 @@ public class EnhancedFoodSelectionService {
     // Reserve pantry quantity if applicable
     if (candidate.isAvailableInPantry() && candidate.getPantryItems() != null) {
       pantryAwareService.reservePantryQuantity(
-          candidate.getPantryItems(), candidate.getSuggestedServingGrams());
+          candidate.getPantryItems(),
+          candidate.getSuggestedServingGrams(),
+          context.getReservations());
     }
 
     return entry;
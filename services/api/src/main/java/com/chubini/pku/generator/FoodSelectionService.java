@@ -10,7 +10,8 @@ import com.chubini.pku.menus.MealSlot;
 import com.chubini.pku.menus.MenuEntry;
 import com.chubini.pku.norms.dto.NormPrescriptionDto;
 import com.chubini.pku.products.Product;
-import com.chubini.pku.products.ProductRepository;
+import com.chubini.pku.products.ProductCatalog;
+import com.chubini.pku.products.ProductCatalogSnapshot;
 
 import org.springframework.stereotype.Service;
 
@@ -22,7 +23,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class FoodSelectionService {
 
-  private final ProductRepository productRepository;
+  private final ProductCatalog productCatalog;
 
   // Food categories suitable for different meal types
   private static final Map<MealSlot.SlotName, List<String>> MEAL_CATEGORIES =
@@ -34,6 +35,8 @@ public class FoodSelectionService {
           MealSlot.SlotName.DINNER, List.of("vegetables", "protein", "grains", "bread"),
           MealSlot.SlotName.EVENING_SNACK, List.of("fruits", "dairy", "snacks"));
 
+  private volatile SlotCandidateIndex candidateIndex;
+
   /** Generate food entries for a meal slot based on nutritional targets */
   public List<MenuEntry> generateMealEntries(
       MealSlot mealSlot, NormPrescriptionDto norm, MenuGenerationRequest request) {
@@ -62,62 +65,22 @@ public class FoodSelectionService {
     return entries;
   }
 
-  /** Get products suitable for a specific meal type */
+  /** Get products suitable for a specific meal type from the precomputed slot index */
   private List<Product> getSuitableProducts(
       MealSlot.SlotName slotName, MenuGenerationRequest request) {
-    List<Product> allProducts = productRepository.findAll();
-
-    // Filter by meal-appropriate categories
-    List<String> suitableCategories = MEAL_CATEGORIES.get(slotName);
-
-    List<Product> suitableProducts =
-        allProducts.stream()
-            .filter(product -> isSuitableForMeal(product, suitableCategories))
-            .filter(product -> !isAvoidedFood(product, request.foodsToAvoid()))
-            .filter(product -> hasValidNutrition(product))
-            .collect(Collectors.toList());
-
-    // If we don't have enough suitable products, include more categories
-    if (suitableProducts.size() < 5) {
-      suitableProducts =
-          allProducts.stream()
-              .filter(product -> !isAvoidedFood(product, request.foodsToAvoid()))
-              .filter(product -> hasValidNutrition(product))
-              .collect(Collectors.toList());
-    }
-
-    return suitableProducts;
+    SlotCandidateIndex index = candidateIndex();
+    return index.suitableProducts(slotName, index.exclusionMask(request.foodsToAvoid()));
   }
 
-  /** Check if a product is suitable for a meal based on categories */
-  private boolean isSuitableForMeal(Product product, List<String> suitableCategories) {
-    if (product.getCategory() == null) return false;
-
-    String category = product.getCategory().toLowerCase();
-    return suitableCategories.stream()
-        .anyMatch(suitableCategory -> category.contains(suitableCategory.toLowerCase()));
-  }
-
-  /** Check if a product should be avoided based on user preferences */
-  private boolean isAvoidedFood(Product product, List<String> foodsToAvoid) {
-    if (foodsToAvoid == null || foodsToAvoid.isEmpty()) return false;
-
-    String productName = product.getProductName().toLowerCase();
-    String category = product.getCategory() != null ? product.getCategory().toLowerCase() : "";
-
-    return foodsToAvoid.stream()
-        .anyMatch(
-            avoid ->
-                productName.contains(avoid.toLowerCase())
-                    || category.contains(avoid.toLowerCase()));
-  }
-
-  /** Check if product has valid nutritional data */
-  private boolean hasValidNutrition(Product product) {
-    return product.getPhenylalanine() != null
-        && product.getKilocalories() != null
-        && product.getPhenylalanine().compareTo(BigDecimal.ZERO) >= 0
-        && product.getKilocalories().compareTo(BigDecimal.ZERO) > 0;
+  /** Get the slot index for the current catalog snapshot, rebuilding it after catalog changes */
+  private SlotCandidateIndex candidateIndex() {
+    ProductCatalogSnapshot snapshot = productCatalog.current();
+    SlotCandidateIndex index = candidateIndex;
+    if (index == null || index.catalogVersion() != snapshot.version()) {
+      index = SlotCandidateIndex.build(snapshot, MEAL_CATEGORIES);
+      candidateIndex = index;
+    }
+    return index;
   }
 
   /** Heuristic algorithm to select foods for a meal */
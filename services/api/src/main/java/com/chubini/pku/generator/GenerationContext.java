@@ -0,0 +1,115 @@
+package com.chubini.pku.generator;
+
+import java.util.*;
+
+import com.chubini.pku.pantry.PantryItem;
+import com.chubini.pku.pantry.PriceEntry;
+import com.chubini.pku.patients.PatientProfile;
+import com.chubini.pku.products.CustomProduct;
+import com.chubini.pku.products.Product;
+
+/**
+ * Per-request data for menu generation: the patient's available pantry, current best prices and
+ * variety history, bulk-loaded once so candidate enrichment is a set of in-memory lookups. Pantry
+ * reservations live in the context's own ledger, so concurrent generations stay isolated.
+ */
+public class GenerationContext {
+
+  private final PatientProfile patient;
+  private final VarietyHistory varietyHistory;
+  private final Map<UUID, List<PantryItem>> pantryByProduct;
+  private final Map<UUID, List<PantryItem>> pantryByCustomProduct;
+  private final Map<UUID, PriceEntry> bestPriceByProduct;
+  private final Map<UUID, PriceEntry> bestPriceByCustomProduct;
+  private final PantryReservationLedger reservations;
+
+  /**
+   * @param availablePantry the patient's available pantry items, ordered by expiry date
+   * @param currentPrices current price entries, ordered by price per unit ascending
+   */
+  public GenerationContext(
+      PatientProfile patient,
+      List<PantryItem> availablePantry,
+      List<PriceEntry> currentPrices,
+      VarietyHistory varietyHistory) {
+    this.patient = patient;
+    this.varietyHistory = varietyHistory != null ? varietyHistory : VarietyHistory.empty();
+    this.pantryByProduct = new HashMap<>();
+    this.pantryByCustomProduct = new HashMap<>();
+    this.bestPriceByProduct = new HashMap<>();
+    this.bestPriceByCustomProduct = new HashMap<>();
+    this.reservations = new PantryReservationLedger();
+
+    for (PantryItem item : availablePantry) {
+      if (item.getProduct() != null) {
+        pantryByProduct
+            .computeIfAbsent(item.getProduct().getId(), k -> new ArrayList<>())
+            .add(item);
+      } else if (item.getCustomProduct() != null) {
+        pantryByCustomProduct
+            .computeIfAbsent(item.getCustomProduct().getId(), k -> new ArrayList<>())
+            .add(item);
+      }
+    }
+
+    // Keep the first (cheapest) entry per item, matching findBestPriceFor* ordering
+    for (PriceEntry price : currentPrices) {
+      if (price.getProduct() != null) {
+        bestPriceByProduct.putIfAbsent(price.getProduct().getId(), price);
+      } else if (price.getCustomProduct() != null) {
+        bestPriceByCustomProduct.putIfAbsent(price.getCustomProduct().getId(), price);
+      }
+    }
+  }
+
+  private GenerationContext(GenerationContext source, PantryReservationLedger reservations) {
+    this.patient = source.patient;
+    this.varietyHistory = source.varietyHistory;
+    this.pantryByProduct = source.pantryByProduct;
+    this.pantryByCustomProduct = source.pantryByCustomProduct;
+    this.bestPriceByProduct = source.bestPriceByProduct;
+    this.bestPriceByCustomProduct = source.bestPriceByCustomProduct;
+    this.reservations = reservations;
+  }
+
+  /** Context sharing this request's preloaded data with a fresh reservation ledger (per day) */
+  public GenerationContext withFreshReservations() {
+    return new GenerationContext(this, new PantryReservationLedger());
+  }
+
+  public PatientProfile getPatient() {
+    return patient;
+  }
+
+  public VarietyHistory getVarietyHistory() {
+    return varietyHistory;
+  }
+
+  public PantryReservationLedger getReservations() {
+    return reservations;
+  }
+
+  /** Available pantry items for a product, ordered by expiry date */
+  public List<PantryItem> pantryItemsFor(Product product) {
+    return product != null ? pantryByProduct.getOrDefault(product.getId(), List.of()) : List.of();
+  }
+
+  /** Available pantry items for a custom product, ordered by expiry date */
+  public List<PantryItem> pantryItemsFor(CustomProduct customProduct) {
+    return customProduct != null
+        ? pantryByCustomProduct.getOrDefault(customProduct.getId(), List.of())
+        : List.of();
+  }
+
+  public Optional<PriceEntry> bestPriceFor(Product product) {
+    return product != null
+        ? Optional.ofNullable(bestPriceByProduct.get(product.getId()))
+        : Optional.empty();
+  }
+
+  public Optional<PriceEntry> bestPriceFor(CustomProduct customProduct) {
+    return customProduct != null
+        ? Optional.ofNullable(bestPriceByCustomProduct.get(customProduct.getId()))
+        : Optional.empty();
+  }
+}
@@ -0,0 +1,126 @@
+package com.chubini.pku.generator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+import com.chubini.pku.generator.dto.BulkMenuGenerationRequest;
+import com.chubini.pku.generator.dto.BulkMenuGenerationResult;
+import com.chubini.pku.generator.dto.GenerationJobStatus;
+import com.chubini.pku.generator.dto.MenuGenerationRequest;
+import com.chubini.pku.generator.dto.MenuGenerationResult;
+
+import lombok.Getter;
+
+/** An asynchronous menu generation job tracked in memory by {@link MenuGenerationJobService} */
+@Getter
+public class GenerationJob {
+
+  public enum JobType {
+    WEEKLY,
+    DAILY,
+    WEEKLY_BULK
+  }
+
+  public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+      return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+  }
+
+  private final UUID id = UUID.randomUUID();
+  private final JobType type;
+  private final MenuGenerationRequest request;
+  private final BulkMenuGenerationRequest bulkRequest;
+  private final String idempotencyKey;
+  private final LocalDateTime submittedAt = LocalDateTime.now();
+
+  private volatile JobStatus status = JobStatus.QUEUED;
+  private volatile LocalDateTime startedAt;
+  private volatile LocalDateTime finishedAt;
+  private volatile MenuGenerationResult result;
+  private volatile BulkMenuGenerationResult bulkResult;
+  private volatile Future<?> future;
+
+  GenerationJob(JobType type, MenuGenerationRequest request, String idempotencyKey) {
+    this.type = type;
+    this.request = request;
+    this.bulkRequest = null;
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  /** A weekly bulk job for a batch of patients */
+  GenerationJob(BulkMenuGenerationRequest bulkRequest, String idempotencyKey) {
+    this.type = JobType.WEEKLY_BULK;
+    this.request = null;
+    this.bulkRequest = bulkRequest;
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  /** Move from QUEUED to RUNNING; false if the job was cancelled while queued */
+  synchronized boolean start() {
+    if (status != JobStatus.QUEUED) {
+      return false;
+    }
+    status = JobStatus.RUNNING;
+    startedAt = LocalDateTime.now();
+    return true;
+  }
+
+  /** Record the outcome unless the job was cancelled meanwhile */
+  synchronized void complete(MenuGenerationResult result) {
+    if (status.isFinished()) {
+      return;
+    }
+    this.result = result;
+    this.status = result.success() ? JobStatus.SUCCEEDED : JobStatus.FAILED;
+    this.finishedAt = LocalDateTime.now();
+  }
+
+  /** Record a processed batch; per-patient failures are reported in the bulk result */
+  synchronized void complete(BulkMenuGenerationResult bulkResult) {
+    if (status.isFinished()) {
+      return;
+    }
+    this.bulkResult = bulkResult;
+    this.status = JobStatus.SUCCEEDED;
+    this.finishedAt = LocalDateTime.now();
+  }
+
+  /** Cancel a queued or running job; false if it had already finished */
+  synchronized boolean cancel() {
+    if (status.isFinished()) {
+      return false;
+    }
+    status = JobStatus.CANCELLED;
+    finishedAt = LocalDateTime.now();
+    if (future != null) {
+      future.cancel(true);
+    }
+    return true;
+  }
+
+  void setFuture(Future<?> future) {
+    this.future = future;
+  }
+
+  public GenerationJobStatus toStatus() {
+    return new GenerationJobStatus(
+        id,
+        type,
+        status,
+        request != null ? request.patientId() : null,
+        bulkRequest != null ? bulkRequest.patientIds().size() : null,
+        submittedAt,
+        startedAt,
+        finishedAt,
+        result,
+        bulkResult);
+  }
+}
@@ -1,8 +1,16 @@
 package com.chubini.pku.generator;
 
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.chubini.pku.generator.dto.BulkMenuGenerationRequest;
+import com.chubini.pku.generator.dto.GenerationJobStatus;
 import com.chubini.pku.generator.dto.MenuGenerationRequest;
 import com.chubini.pku.generator.dto.MenuGenerationResult;
+import com.chubini.pku.service.RateLimitPolicy;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,6 +21,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +36,8 @@ import lombok.extern.slf4j.Slf4j;
 public class MenuGenerationController {
 
   private final MenuGenerationService menuGenerationService;
+  private final MenuGenerationJobService menuGenerationJobService;
+  private final RateLimitPolicy rateLimitPolicy;
 
   @Operation(
       summary = "Generate weekly menu",
@@ -68,6 +79,44 @@ public class MenuGenerationController {
     }
   }
 
+  @Operation(
+      summary = "Submit weekly menu generation for a cohort",
+      description =
+          "Queue weekly menu generation for a list of patients, sharing the product catalog and"
+              + " price data across the batch, and return a job to poll. Per-patient results are"
+              + " available from the job once it finishes. Requests repeating an Idempotency-Key"
+              + " return the existing job")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "202", description = "Bulk generation job accepted"),
+        @ApiResponse(responseCode = "400", description = "Invalid bulk generation request"),
+        @ApiResponse(responseCode = "503", description = "Generation queue is full")
+      })
+  @PostMapping("/weekly/bulk")
+  public ResponseEntity<GenerationJobStatus> generateWeeklyMenus(
+      @Parameter(description = "Bulk weekly menu generation request", required = true)
+          @Valid
+          @RequestBody
+          BulkMenuGenerationRequest request,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      HttpServletRequest httpRequest) {
+
+    log.info(
+        "Submitting weekly menu generation for {} patients starting {}",
+        request.patientIds().size(),
+        request.startDate());
+
+    try {
+      GenerationJob job =
+          menuGenerationJobService.submitBulk(request, scopedKey(idempotencyKey, httpRequest));
+      return accepted(job);
+    } catch (RejectedExecutionException e) {
+      log.warn(
+          "Generation queue full, rejecting bulk job for {} patients", request.patientIds().size());
+      return queueFull();
+    }
+  }
+
   @Operation(
       summary = "Generate daily menu",
       description =
@@ -103,4 +152,136 @@ public class MenuGenerationController {
       return ResponseEntity.badRequest().body(result);
     }
   }
+
+  @Operation(
+      summary = "Submit weekly menu generation job",
+      description =
+          "Queue weekly menu generation and return a job to poll. Requests repeating an"
+              + " Idempotency-Key return the existing job")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "202", description = "Generation job accepted"),
+        @ApiResponse(responseCode = "400", description = "Invalid generation request"),
+        @ApiResponse(responseCode = "503", description = "Generation queue is full")
+      })
+  @PostMapping("/jobs/weekly")
+  public ResponseEntity<GenerationJobStatus> submitWeeklyJob(
+      @Parameter(description = "Weekly menu generation request", required = true)
+          @Valid
+          @RequestBody
+          MenuGenerationRequest request,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      HttpServletRequest httpRequest) {
+    return submitJob(GenerationJob.JobType.WEEKLY, request, idempotencyKey, httpRequest);
+  }
+
+  @Operation(
+      summary = "Submit daily menu generation job",
+      description = "Queue daily menu generation and return a job to poll")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "202", description = "Generation job accepted"),
+        @ApiResponse(responseCode = "400", description = "Invalid generation request"),
+        @ApiResponse(responseCode = "503", description = "Generation queue is full")
+      })
+  @PostMapping("/jobs/daily")
+  public ResponseEntity<GenerationJobStatus> submitDailyJob(
+      @Parameter(description = "Daily menu generation request", required = true) @Valid @RequestBody
+          MenuGenerationRequest request,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      HttpServletRequest httpRequest) {
+    return submitJob(GenerationJob.JobType.DAILY, request, idempotencyKey, httpRequest);
+  }
+
+  @Operation(summary = "Get generation job status")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Job status"),
+        @ApiResponse(responseCode = "404", description = "Job not found or expired")
+      })
+  @GetMapping("/jobs/{jobId}")
+  public ResponseEntity<GenerationJobStatus> getJobStatus(
+      @Parameter(description = "Job ID", required = true) @PathVariable UUID jobId) {
+    return menuGenerationJobService
+        .getJob(jobId)
+        .map(job -> ResponseEntity.ok(job.toStatus()))
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  @Operation(
+      summary = "Get generation job result",
+      description = "Return the generation result once the job has finished")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Generation result"),
+        @ApiResponse(responseCode = "202", description = "Job has not finished yet"),
+        @ApiResponse(responseCode = "404", description = "Job not found or expired"),
+        @ApiResponse(responseCode = "409", description = "Job was cancelled")
+      })
+  @GetMapping("/jobs/{jobId}/result")
+  public ResponseEntity<?> getJobResult(
+      @Parameter(description = "Job ID", required = true) @PathVariable UUID jobId) {
+    GenerationJob job = menuGenerationJobService.getJob(jobId).orElse(null);
+    if (job == null) {
+      return ResponseEntity.notFound().build();
+    }
+    if (job.getStatus() == GenerationJob.JobStatus.CANCELLED) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(job.toStatus());
+    }
+    if (!job.getStatus().isFinished()) {
+      return ResponseEntity.accepted().body(job.toStatus());
+    }
+    return job.getBulkResult() != null
+        ? ResponseEntity.ok(job.getBulkResult())
+        : ResponseEntity.ok(job.getResult());
+  }
+
+  @Operation(summary = "Cancel generation job")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Job status after cancellation"),
+        @ApiResponse(responseCode = "404", description = "Job not found or expired")
+      })
+  @DeleteMapping("/jobs/{jobId}")
+  public ResponseEntity<GenerationJobStatus> cancelJob(
+      @Parameter(description = "Job ID", required = true) @PathVariable UUID jobId) {
+    return menuGenerationJobService
+        .cancel(jobId)
+        .map(job -> ResponseEntity.ok(job.toStatus()))
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  private ResponseEntity<GenerationJobStatus> submitJob(
+      GenerationJob.JobType type,
+      MenuGenerationRequest request,
+      String idempotencyKey,
+      HttpServletRequest httpRequest) {
+    try {
+      GenerationJob job =
+          menuGenerationJobService.submit(type, request, scopedKey(idempotencyKey, httpRequest));
+      return accepted(job);
+    } catch (RejectedExecutionException e) {
+      log.warn("Generation queue full, rejecting {} job for patient {}", type, request.patientId());
+      return queueFull();
+    }
+  }
+
+  /** Scope idempotency keys to the caller so different clients never share jobs */
+  private String scopedKey(String idempotencyKey, HttpServletRequest httpRequest) {
+    return idempotencyKey != null && !idempotencyKey.isBlank()
+        ? rateLimitPolicy.getClientIdentifier(httpRequest) + ":" + idempotencyKey.trim()
+        : null;
+  }
+
+  private static ResponseEntity<GenerationJobStatus> accepted(GenerationJob job) {
+    return ResponseEntity.accepted()
+        .location(URI.create("/api/v1/generator/jobs/" + job.getId()))
+        .body(job.toStatus());
+  }
+
+  private static ResponseEntity<GenerationJobStatus> queueFull() {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header("Retry-After", "30")
+        .build();
+  }
 }
@@ -0,0 +1,226 @@
+package com.chubini.pku.generator;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chubini.pku.generator.dto.BulkMenuGenerationRequest;
+import com.chubini.pku.generator.dto.MenuGenerationRequest;
+import com.chubini.pku.generator.dto.MenuGenerationResult;
+import com.chubini.pku.metrics.GenerationJobMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs menu generation asynchronously on a bounded worker pool. Jobs are kept in memory for a
+ * retention period after finishing and can be de-duplicated by idempotency key. Expired jobs are
+ * evicted on a schedule and are never returned once past retention.
+ *
+ * <p>Job state lives only in the memory of the node that accepted the job: it is lost on restart,
+ * and polling or retrying with the same idempotency key only finds the job on that node. Deploy
+ * behind sticky routing, or run a single instance, when using these endpoints.
+ */
+@Service
+@Slf4j
+public class MenuGenerationJobService {
+
+  private final MenuGenerationService menuGenerationService;
+  private final GenerationJobMetrics jobMetrics;
+  private final ThreadPoolExecutor executor;
+  private final ScheduledExecutorService evictor;
+  private final Duration retention;
+  private final long evictionIntervalMinutes;
+
+  private final Map<UUID, GenerationJob> jobs = new ConcurrentHashMap<>();
+  private final Map<String, GenerationJob> jobsByIdempotencyKey = new ConcurrentHashMap<>();
+
+  public MenuGenerationJobService(
+      MenuGenerationService menuGenerationService,
+      GenerationJobMetrics jobMetrics,
+      @Value("${pku.generator.jobs.workers:2}") int workers,
+      @Value("${pku.generator.jobs.queue-capacity:100}") int queueCapacity,
+      @Value("${pku.generator.jobs.retention-minutes:60}") long retentionMinutes,
+      @Value("${pku.generator.jobs.eviction-interval-minutes:5}") long evictionIntervalMinutes) {
+    this.menuGenerationService = menuGenerationService;
+    this.jobMetrics = jobMetrics;
+    this.retention = Duration.ofMinutes(retentionMinutes);
+    this.evictionIntervalMinutes = evictionIntervalMinutes;
+
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "menu-gen-job-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    jobMetrics.bindExecutor(executor);
+    this.evictor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "menu-gen-job-evictor");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  void startEviction() {
+    if (evictionIntervalMinutes > 0) {
+      evictor.scheduleWithFixedDelay(
+          this::evictExpiredJobs,
+          evictionIntervalMinutes,
+          evictionIntervalMinutes,
+          TimeUnit.MINUTES);
+    }
+  }
+
+  /**
+   * Submit a generation job. A job already submitted with the same idempotency key is returned
+   * instead of starting a new one.
+   *
+   * @throws RejectedExecutionException if the job queue is full
+   */
+  public GenerationJob submit(
+      GenerationJob.JobType type, MenuGenerationRequest request, String idempotencyKey) {
+    GenerationJob job = enqueue(new GenerationJob(type, request, idempotencyKey));
+    log.info("Queued {} generation job {} for patient {}", type, job.getId(), request.patientId());
+    return job;
+  }
+
+  /**
+   * Submit a weekly bulk generation job for a batch of patients, de-duplicated by idempotency key
+   * like {@link #submit}.
+   *
+   * @throws RejectedExecutionException if the job queue is full
+   */
+  public GenerationJob submitBulk(BulkMenuGenerationRequest request, String idempotencyKey) {
+    GenerationJob job = enqueue(new GenerationJob(request, idempotencyKey));
+    log.info(
+        "Queued bulk generation job {} for {} patients", job.getId(), request.patientIds().size());
+    return job;
+  }
+
+  /** Register and queue a job, or return the job already submitted with its idempotency key */
+  private GenerationJob enqueue(GenerationJob job) {
+    evictExpiredJobs();
+    String metricType = job.getType().name().toLowerCase();
+    String idempotencyKey = job.getIdempotencyKey();
+
+    if (idempotencyKey != null) {
+      GenerationJob existing = jobsByIdempotencyKey.putIfAbsent(idempotencyKey, job);
+      if (existing != null) {
+        log.debug("Returning existing generation job {} for idempotency key", existing.getId());
+        jobMetrics.recordSubmitted(metricType, "deduplicated");
+        return existing;
+      }
+    }
+
+    jobs.put(job.getId(), job);
+    try {
+      job.setFuture(executor.submit(() -> run(job)));
+    } catch (RejectedExecutionException e) {
+      jobs.remove(job.getId());
+      if (idempotencyKey != null) {
+        jobsByIdempotencyKey.remove(idempotencyKey, job);
+      }
+      jobMetrics.recordSubmitted(metricType, "rejected");
+      throw e;
+    }
+
+    jobMetrics.recordSubmitted(metricType, "accepted");
+    return job;
+  }
+
+  /** Find a job by id; jobs past retention are not returned */
+  public Optional<GenerationJob> getJob(UUID jobId) {
+    return Optional.ofNullable(liveJob(jobId));
+  }
+
+  /** Cancel a queued or running job; returns the job, or empty if it does not exist */
+  public Optional<GenerationJob> cancel(UUID jobId) {
+    GenerationJob job = liveJob(jobId);
+    if (job == null) {
+      return Optional.empty();
+    }
+    if (job.cancel()) {
+      executor.purge();
+      jobMetrics.recordFinished(job.getType().name().toLowerCase(), "cancelled");
+      log.info("Cancelled generation job {}", jobId);
+    }
+    return Optional.of(job);
+  }
+
+  private void run(GenerationJob job) {
+    if (!job.start()) {
+      return;
+    }
+
+    try {
+      switch (job.getType()) {
+        case WEEKLY -> job.complete(menuGenerationService.generateWeeklyMenu(job.getRequest()));
+        case DAILY -> job.complete(menuGenerationService.generateDailyMenu(job.getRequest()));
+        case WEEKLY_BULK ->
+            job.complete(menuGenerationService.generateWeeklyMenus(job.getBulkRequest()));
+      }
+    } catch (RuntimeException e) {
+      log.error("Generation job {} failed: {}", job.getId(), e.getMessage(), e);
+      job.complete(MenuGenerationResult.failure("Menu generation failed: " + e.getMessage()));
+    }
+
+    if (job.getStatus() != GenerationJob.JobStatus.CANCELLED) {
+      jobMetrics.recordFinished(
+          job.getType().name().toLowerCase(), job.getStatus().name().toLowerCase());
+    }
+  }
+
+  /** The job with this id, evicting it instead if it has expired since the last sweep */
+  private GenerationJob liveJob(UUID jobId) {
+    GenerationJob job = jobs.get(jobId);
+    if (job != null && isExpired(job, LocalDateTime.now().minus(retention))) {
+      evict(job);
+      return null;
+    }
+    return job;
+  }
+
+  /** Drop finished jobs older than the retention period */
+  private void evictExpiredJobs() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+    jobs.values().stream().filter(job -> isExpired(job, cutoff)).toList().forEach(this::evict);
+  }
+
+  private static boolean isExpired(GenerationJob job, LocalDateTime cutoff) {
+    return job.getStatus().isFinished()
+        && job.getFinishedAt() != null
+        && job.getFinishedAt().isBefore(cutoff);
+  }
+
+  private void evict(GenerationJob job) {
+    if (jobs.remove(job.getId(), job) && job.getIdempotencyKey() != null) {
+      jobsByIdempotencyKey.remove(job.getIdempotencyKey(), job);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    evictor.shutdownNow();
+    executor.shutdownNow();
+  }
+}
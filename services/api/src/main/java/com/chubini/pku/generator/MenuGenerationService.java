@@ -3,18 +3,28 @@ package com.chubini.pku.generator;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
+import com.chubini.pku.generator.dto.BulkMenuGenerationRequest;
+import com.chubini.pku.generator.dto.BulkMenuGenerationResult;
 import com.chubini.pku.generator.dto.FoodCandidate;
 import com.chubini.pku.generator.dto.MenuGenerationRequest;
 import com.chubini.pku.generator.dto.MenuGenerationResult;
 import com.chubini.pku.menus.*;
 import com.chubini.pku.norms.NormService;
 import com.chubini.pku.norms.dto.NormPrescriptionDto;
+import com.chubini.pku.pantry.PriceEntry;
+import com.chubini.pku.patients.PatientProfile;
 import com.chubini.pku.patients.PatientService;
 import com.chubini.pku.patients.dto.PatientProfileDto;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,10 +42,89 @@ public class MenuGenerationService {
   private final EnhancedFoodSelectionService enhancedFoodSelectionService;
   private final VarietyEngine varietyEngine;
   private final PantryAwareService pantryAwareService;
+  private final DayGenerationExecutor dayGenerationExecutor;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${pku.generator.parallel-days:false}")
+  private boolean parallelDays;
+
+  // Meal distribution percentages (PHE and calories)
+  private static final Map<MealSlot.SlotName, Double> PHE_DISTRIBUTION =
+      Map.of(
+          MealSlot.SlotName.BREAKFAST, 0.25,
+          MealSlot.SlotName.MORNING_SNACK, 0.10,
+          MealSlot.SlotName.LUNCH, 0.30,
+          MealSlot.SlotName.AFTERNOON_SNACK, 0.10,
+          MealSlot.SlotName.DINNER, 0.20,
+          MealSlot.SlotName.EVENING_SNACK, 0.05);
+
+  private static final Map<MealSlot.SlotName, Double> KCAL_DISTRIBUTION =
+      Map.of(
+          MealSlot.SlotName.BREAKFAST, 0.25,
+          MealSlot.SlotName.MORNING_SNACK, 0.10,
+          MealSlot.SlotName.LUNCH, 0.35,
+          MealSlot.SlotName.AFTERNOON_SNACK, 0.10,
+          MealSlot.SlotName.DINNER, 0.15,
+          MealSlot.SlotName.EVENING_SNACK, 0.05);
 
   /** Generate a weekly menu using heuristic algorithm */
   @Transactional
   public MenuGenerationResult generateWeeklyMenu(MenuGenerationRequest request) {
+    return generateWeek(request, null);
+  }
+
+  /**
+   * Generate weekly menus for a batch of patients. The catalog snapshot and the current price table
+   * are loaded once and shared by the whole batch; each patient's week is generated and saved in
+   * its own transaction, so one failure does not roll back the others.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public BulkMenuGenerationResult generateWeeklyMenus(BulkMenuGenerationRequest request) {
+    List<UUID> patientIds = request.patientIds().stream().distinct().toList();
+    log.info(
+        "Generating weekly menus for {} patients starting {}",
+        patientIds.size(),
+        request.startDate());
+
+    List<PriceEntry> currentPrices = pantryAwareService.findCurrentPrices();
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+    List<BulkMenuGenerationResult.PatientResult> results = new ArrayList<>(patientIds.size());
+    for (UUID patientId : patientIds) {
+      if (Thread.currentThread().isInterrupted()) {
+        log.info("Bulk weekly generation interrupted after {} patients", results.size());
+        break;
+      }
+      MenuGenerationResult result;
+      try {
+        result =
+            transactionTemplate.execute(
+                status -> {
+                  MenuGenerationResult weekResult =
+                      generateWeek(request.forPatient(patientId), currentPrices);
+                  if (!weekResult.success()) {
+                    status.setRollbackOnly();
+                  }
+                  return weekResult;
+                });
+      } catch (RuntimeException e) {
+        log.error("Failed to generate weekly menu for patient {}: {}", patientId, e.getMessage());
+        result = MenuGenerationResult.failure("Menu generation failed: " + e.getMessage());
+      }
+      results.add(new BulkMenuGenerationResult.PatientResult(patientId, result));
+    }
+
+    BulkMenuGenerationResult bulkResult = BulkMenuGenerationResult.of(results);
+    log.info(
+        "Bulk weekly generation finished: {} succeeded, {} failed",
+        bulkResult.succeeded(),
+        bulkResult.failed());
+    return bulkResult;
+  }
+
+  /** Generate and save one weekly menu, optionally reusing an already loaded price table */
+  private MenuGenerationResult generateWeek(
+      MenuGenerationRequest request, List<PriceEntry> currentPrices) {
     log.info(
         "Generating weekly menu for patient: {} starting {}",
         request.patientId(),
@@ -54,23 +143,50 @@ public class MenuGenerationService {
       // Create the menu week entity
       MenuWeek menuWeek = createMenuWeek(patient, request);
 
-      // Generate daily menus for the week
-      List<MenuDay> generatedDays = new ArrayList<>();
-      LocalDate currentDate = request.startDate();
+      // Load variety history, pantry and prices once; generated days are appended to the history
+      VarietyHistory varietyHistory =
+          varietyEngine.loadHistory(
+              menuWeek.getPatient(), request.startDate(), request.startDate().plusDays(6));
+      GenerationContext context =
+          pantryAwareService.createContext(menuWeek.getPatient(), varietyHistory, currentPrices);
 
-      for (int dayIndex = 0; dayIndex < 7; dayIndex++) {
+      // Generate daily menus for the week
+      List<MenuDay> generatedDays;
+      if (parallelDays) {
         try {
-          MenuDay dayMenu = generateDailyMenu(menuWeek, currentDate, currentNorm.get(), request);
-          generatedDays.add(dayMenu);
-          currentDate = currentDate.plusDays(1);
-        } catch (Exception e) {
-          log.error("Failed to generate menu for day {}: {}", currentDate, e.getMessage());
+          generatedDays = generateWeekDaysInParallel(menuWeek, currentNorm.get(), request, context);
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause() != null ? e.getCause() : e;
+          log.error("Failed to generate weekly menu days: {}", cause.getMessage());
           return MenuGenerationResult.failure(
-              "Failed to generate menu for " + currentDate + ": " + e.getMessage());
+              "Failed to generate menu days: " + cause.getMessage());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return MenuGenerationResult.failure("Menu generation was interrupted");
+        }
+      } else {
+        generatedDays = new ArrayList<>();
+        LocalDate currentDate = request.startDate();
+
+        for (int dayIndex = 0; dayIndex < 7; dayIndex++) {
+          if (Thread.currentThread().isInterrupted()) {
+            return MenuGenerationResult.failure("Menu generation was interrupted");
+          }
+          try {
+            MenuDay dayMenu =
+                generateDailyMenu(menuWeek, currentDate, currentNorm.get(), request, context);
+            generatedDays.add(dayMenu);
+            varietyHistory.append(dayMenu);
+            currentDate = currentDate.plusDays(1);
+          } catch (Exception e) {
+            log.error("Failed to generate menu for day {}: {}", currentDate, e.getMessage());
+            return MenuGenerationResult.failure(
+                "Failed to generate menu for " + currentDate + ": " + e.getMessage());
+          }
         }
       }
 
-      // Save all generated data
+      // Save all generated data in one cascaded, JDBC-batched save
       menuWeek.getMenuDays().addAll(generatedDays);
       MenuWeek savedWeek = menuWeekRepository.save(menuWeek);
 
@@ -103,7 +219,12 @@ public class MenuGenerationService {
       }
 
       // Generate the daily menu
-      MenuDay dayMenu = generateDailyMenu(null, request.startDate(), currentNorm.get(), request);
+      PatientProfile patientEntity = patientService.getPatientEntity(request.patientId());
+      VarietyHistory varietyHistory =
+          varietyEngine.loadHistory(patientEntity, request.startDate(), request.startDate());
+      GenerationContext context = pantryAwareService.createContext(patientEntity, varietyHistory);
+      MenuDay dayMenu =
+          generateDailyMenu(null, request.startDate(), currentNorm.get(), request, context);
       MenuDay savedDay = menuDayRepository.save(dayMenu);
 
       log.info("Successfully generated daily menu with ID: {}", savedDay.getId());
@@ -133,105 +254,170 @@ public class MenuGenerationService {
 
   /** Generate a single day's menu with balanced meals */
   private MenuDay generateDailyMenu(
-      MenuWeek menuWeek, LocalDate date, NormPrescriptionDto norm, MenuGenerationRequest request) {
+      MenuWeek menuWeek,
+      LocalDate date,
+      NormPrescriptionDto norm,
+      MenuGenerationRequest request,
+      GenerationContext context) {
     log.debug("Generating daily menu for date: {}", date);
 
-    // Create the day entity
-    MenuDay menuDay =
-        MenuDay.builder()
-            .menuWeek(menuWeek)
-            .patient(
-                menuWeek != null
-                    ? menuWeek.getPatient()
-                    : patientService.getPatientEntity(request.patientId()))
-            .date(date)
-            .dayOfWeek(date.getDayOfWeek().getValue())
-            .status(MenuWeek.MenuStatus.GENERATED)
-            .notes("Auto-generated daily menu")
-            .totalDayPheMg(BigDecimal.ZERO)
-            .totalDayProteinG(BigDecimal.ZERO)
-            .totalDayKcal(BigDecimal.ZERO)
-            .totalDayFatG(BigDecimal.ZERO)
-            .mealSlots(new ArrayList<>())
-            .build();
-
-    // Generate meal slots with Phase 2 enhanced distribution
-    generateEnhancedMealSlots(menuDay, norm, request);
+    MenuDay menuDay = createMenuDay(menuWeek, date, context);
+
+    // Generate meal slots with Phase 2 enhanced distribution; pantry reservations are per day
+    generateEnhancedMealSlots(menuDay, norm, request, context.withFreshReservations());
 
     return menuDay;
   }
 
+  /**
+   * Generate the week's days in two phases. Candidate pools for all days are built concurrently on
+   * the bounded day executor; they do not depend on the variety history. The merge then ranks each
+   * slot's full pool day by day in date order against the history accumulated from the days already
+   * merged, and reserves pantry stock, so the week matches sequential generation.
+   *
+   * <p>Ranking stays in the merge: without the earlier days of the week, every day ranks the same
+   * items first, so each day's selection depends on the previous day's. The merge re-prices only
+   * candidates drawing on stock reserved earlier that day.
+   */
+  private List<MenuDay> generateWeekDaysInParallel(
+      MenuWeek menuWeek,
+      NormPrescriptionDto norm,
+      MenuGenerationRequest request,
+      GenerationContext context)
+      throws InterruptedException, ExecutionException {
+    List<Callable<DayDraft>> tasks = new ArrayList<>();
+    for (int dayIndex = 0; dayIndex < 7; dayIndex++) {
+      LocalDate date = request.startDate().plusDays(dayIndex);
+      tasks.add(() -> buildDayPools(menuWeek, date, norm, request, context));
+    }
+    List<DayDraft> drafts = dayGenerationExecutor.invokeAll(tasks);
+
+    VarietyHistory varietyHistory = context.getVarietyHistory();
+    List<MenuDay> generatedDays = new ArrayList<>(drafts.size());
+    for (DayDraft draft : drafts) {
+      MenuDay menuDay = draft.menuDay();
+      GenerationContext dayContext = draft.context();
+
+      List<MealSlot> slots = menuDay.getMealSlots();
+      for (int slotIndex = 0; slotIndex < slots.size(); slotIndex++) {
+        MealSlot slot = slots.get(slotIndex);
+        List<FoodCandidate> pool = draft.slotPools().get(slotIndex);
+        // Pools were priced before any of today's pantry reservations were made
+        enhancedFoodSelectionService.refreshPantryInfo(pool, request, dayContext);
+        List<FoodCandidate> candidates =
+            enhancedFoodSelectionService.rankCandidates(pool, slot, norm, request, dayContext);
+        addSelectedEntries(slot, candidates, dayContext);
+      }
+
+      varietyHistory.append(menuDay);
+      generatedDays.add(menuDay);
+    }
+    return generatedDays;
+  }
+
+  /** Build a day's slots and the full candidate pool for each; reads shared request data only */
+  private DayDraft buildDayPools(
+      MenuWeek menuWeek,
+      LocalDate date,
+      NormPrescriptionDto norm,
+      MenuGenerationRequest request,
+      GenerationContext context) {
+    MenuDay menuDay = createMenuDay(menuWeek, date, context);
+    GenerationContext dayContext = context.withFreshReservations();
+
+    List<List<FoodCandidate>> slotPools = new ArrayList<>();
+    for (MealSlot.SlotName slotName : MealSlot.SlotName.values()) {
+      MealSlot slot = createMealSlot(menuDay, slotName, norm);
+      menuDay.getMealSlots().add(slot);
+      slotPools.add(
+          enhancedFoodSelectionService.buildCandidatePool(slot, norm, request, dayContext));
+    }
+    return new DayDraft(menuDay, dayContext, slotPools);
+  }
+
+  /** A day with unranked candidate pools per slot (in slot order), awaiting the ordered merge */
+  private record DayDraft(
+      MenuDay menuDay, GenerationContext context, List<List<FoodCandidate>> slotPools) {}
+
+  /** Create an empty day entity */
+  private MenuDay createMenuDay(MenuWeek menuWeek, LocalDate date, GenerationContext context) {
+    return MenuDay.builder()
+        .menuWeek(menuWeek)
+        .patient(context.getPatient())
+        .date(date)
+        .dayOfWeek(date.getDayOfWeek().getValue())
+        .status(MenuWeek.MenuStatus.GENERATED)
+        .notes("Auto-generated daily menu")
+        .totalDayPheMg(BigDecimal.ZERO)
+        .totalDayProteinG(BigDecimal.ZERO)
+        .totalDayKcal(BigDecimal.ZERO)
+        .totalDayFatG(BigDecimal.ZERO)
+        .mealSlots(new ArrayList<>())
+        .build();
+  }
+
   /** Generate meal slots for a day with Phase 2 enhanced nutritional distribution */
   private void generateEnhancedMealSlots(
-      MenuDay menuDay, NormPrescriptionDto norm, MenuGenerationRequest request) {
-    // Define meal distribution percentages (PHE and calories)
-    Map<MealSlot.SlotName, Double> pheDistribution =
-        Map.of(
-            MealSlot.SlotName.BREAKFAST, 0.25,
-            MealSlot.SlotName.MORNING_SNACK, 0.10,
-            MealSlot.SlotName.LUNCH, 0.30,
-            MealSlot.SlotName.AFTERNOON_SNACK, 0.10,
-            MealSlot.SlotName.DINNER, 0.20,
-            MealSlot.SlotName.EVENING_SNACK, 0.05);
-
-    Map<MealSlot.SlotName, Double> kcalDistribution =
-        Map.of(
-            MealSlot.SlotName.BREAKFAST, 0.25,
-            MealSlot.SlotName.MORNING_SNACK, 0.10,
-            MealSlot.SlotName.LUNCH, 0.35,
-            MealSlot.SlotName.AFTERNOON_SNACK, 0.10,
-            MealSlot.SlotName.DINNER, 0.15,
-            MealSlot.SlotName.EVENING_SNACK, 0.05);
-
-    // Create meal slots with target values
+      MenuDay menuDay,
+      NormPrescriptionDto norm,
+      MenuGenerationRequest request,
+      GenerationContext context) {
     for (MealSlot.SlotName slotName : MealSlot.SlotName.values()) {
-      BigDecimal targetPhe =
-          norm.dailyPheMgLimit() != null
-              ? norm.dailyPheMgLimit().multiply(BigDecimal.valueOf(pheDistribution.get(slotName)))
-              : BigDecimal.ZERO;
-
-      BigDecimal targetKcal =
-          norm.dailyKcalMin() != null
-              ? norm.dailyKcalMin().multiply(BigDecimal.valueOf(kcalDistribution.get(slotName)))
-              : BigDecimal.ZERO;
-
-      MealSlot slot =
-          MealSlot.builder()
-              .menuDay(menuDay)
-              .slotName(slotName)
-              .slotOrder(slotName.getDefaultOrder())
-              .targetPheMg(targetPhe)
-              .targetKcal(targetKcal)
-              .actualPheMg(BigDecimal.ZERO)
-              .actualProteinG(BigDecimal.ZERO)
-              .actualKcal(BigDecimal.ZERO)
-              .actualFatG(BigDecimal.ZERO)
-              .isConsumed(false)
-              .notes("Auto-generated meal slot")
-              .menuEntries(new ArrayList<>())
-              .build();
+      MealSlot slot = createMealSlot(menuDay, slotName, norm);
 
       // Phase 2: Generate food items using enhanced selection service
-      generateFoodItemsForSlot(slot, menuDay.getPatient(), norm, request);
+      generateFoodItemsForSlot(slot, norm, request, context);
 
       menuDay.getMealSlots().add(slot);
     }
+  }
 
-    // Clear pantry reservations after generation
-    pantryAwareService.clearPantryReservations();
+  /** Create a meal slot with PHE and calorie targets from the daily distribution */
+  private MealSlot createMealSlot(
+      MenuDay menuDay, MealSlot.SlotName slotName, NormPrescriptionDto norm) {
+    BigDecimal targetPhe =
+        norm.dailyPheMgLimit() != null
+            ? norm.dailyPheMgLimit().multiply(BigDecimal.valueOf(PHE_DISTRIBUTION.get(slotName)))
+            : BigDecimal.ZERO;
+
+    BigDecimal targetKcal =
+        norm.dailyKcalMin() != null
+            ? norm.dailyKcalMin().multiply(BigDecimal.valueOf(KCAL_DISTRIBUTION.get(slotName)))
+            : BigDecimal.ZERO;
+
+    return MealSlot.builder()
+        .menuDay(menuDay)
+        .slotName(slotName)
+        .slotOrder(slotName.getDefaultOrder())
+        .targetPheMg(targetPhe)
+        .targetKcal(targetKcal)
+        .actualPheMg(BigDecimal.ZERO)
+        .actualProteinG(BigDecimal.ZERO)
+        .actualKcal(BigDecimal.ZERO)
+        .actualFatG(BigDecimal.ZERO)
+        .isConsumed(false)
+        .notes("Auto-generated meal slot")
+        .menuEntries(new ArrayList<>())
+        .build();
   }
 
   /** Generate food items for a meal slot using Phase 2 algorithm */
   private void generateFoodItemsForSlot(
       MealSlot slot,
-      com.chubini.pku.patients.PatientProfile patient,
       NormPrescriptionDto norm,
-      MenuGenerationRequest request) {
+      MenuGenerationRequest request,
+      GenerationContext context) {
 
     // Generate candidates using enhanced selection service
     List<FoodCandidate> candidates =
-        enhancedFoodSelectionService.generateCandidates(slot, patient, norm, request);
+        enhancedFoodSelectionService.generateCandidates(slot, norm, request, context);
+
+    addSelectedEntries(slot, candidates, context);
+  }
 
+  /** Select the best candidates for a slot and add them as menu entries */
+  private void addSelectedEntries(
+      MealSlot slot, List<FoodCandidate> candidates, GenerationContext context) {
     if (candidates.isEmpty()) {
       log.warn("No candidates generated for slot: {}", slot.getSlotName());
       return;
@@ -243,7 +429,7 @@ public class MenuGenerationService {
 
     // Create menu entries from selected candidates
     for (FoodCandidate candidate : selectedCandidates) {
-      MenuEntry entry = enhancedFoodSelectionService.createMenuEntry(candidate, slot);
+      MenuEntry entry = enhancedFoodSelectionService.createMenuEntry(candidate, slot, context);
       if (entry != null) {
         slot.getMenuEntries().add(entry);
       }
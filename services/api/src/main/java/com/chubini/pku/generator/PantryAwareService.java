@@ -4,7 +4,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 import com.chubini.pku.generator.dto.FoodCandidate;
 import com.chubini.pku.pantry.PantryItem;
@@ -29,38 +28,63 @@ public class PantryAwareService {
   private final PantryRepository pantryRepository;
   private final PriceRepository priceRepository;
 
-  // In-memory simulation of pantry reservations during menu generation
-  private final Map<UUID, BigDecimal> pantryReservations = new ConcurrentHashMap<>();
-
-  /** Check pantry availability for a product */
+  /** Check pantry availability for a product against the request's preloaded pantry */
   public PantryAvailability checkPantryAvailability(
-      Product product, PatientProfile patient, BigDecimal requiredQuantity) {
-    if (product == null || patient == null || requiredQuantity == null) {
+      Product product, GenerationContext context, BigDecimal requiredQuantity) {
+    if (product == null || context == null || requiredQuantity == null) {
       return PantryAvailability.notAvailable();
     }
-
-    List<PantryItem> pantryItems =
-        pantryRepository.findByPatientAndProductAndIsAvailableTrueOrderByExpiryDateAsc(
-            patient, product);
-    return calculateAvailability(pantryItems, requiredQuantity);
+    return calculateAvailability(
+        context.pantryItemsFor(product), requiredQuantity, context.getReservations());
   }
 
-  /** Check pantry availability for a custom product */
+  /** Check pantry availability for a custom product against the request's preloaded pantry */
   public PantryAvailability checkPantryAvailability(
-      CustomProduct customProduct, PatientProfile patient, BigDecimal requiredQuantity) {
-    if (customProduct == null || patient == null || requiredQuantity == null) {
+      CustomProduct customProduct, GenerationContext context, BigDecimal requiredQuantity) {
+    if (customProduct == null || context == null || requiredQuantity == null) {
       return PantryAvailability.notAvailable();
     }
+    return calculateAvailability(
+        context.pantryItemsFor(customProduct), requiredQuantity, context.getReservations());
+  }
+
+  /**
+   * Bulk-load the patient's available pantry and all current best prices for one generation
+   * request, so candidate enrichment needs no further queries.
+   */
+  public GenerationContext createContext(PatientProfile patient, VarietyHistory varietyHistory) {
+    return createContext(patient, varietyHistory, null);
+  }
 
+  /**
+   * Create a generation context reusing an already loaded price table (shared across a batch of
+   * patients); prices are loaded when {@code currentPrices} is null.
+   */
+  public GenerationContext createContext(
+      PatientProfile patient, VarietyHistory varietyHistory, List<PriceEntry> currentPrices) {
     List<PantryItem> pantryItems =
-        pantryRepository.findByPatientAndCustomProductAndIsAvailableTrueOrderByExpiryDateAsc(
-            patient, customProduct);
-    return calculateAvailability(pantryItems, requiredQuantity);
+        patient != null
+            ? pantryRepository.findByPatientAndIsAvailableTrueOrderByExpiryDateAsc(patient)
+            : List.of();
+    List<PriceEntry> prices = currentPrices != null ? currentPrices : findCurrentPrices();
+
+    log.debug(
+        "Loaded generation context: {} pantry items, {} current prices",
+        pantryItems.size(),
+        prices.size());
+    return new GenerationContext(patient, pantryItems, prices, varietyHistory);
+  }
+
+  /** All current prices, cheapest first */
+  public List<PriceEntry> findCurrentPrices() {
+    return priceRepository.findCurrentPricesOrderByPricePerUnitAsc();
   }
 
   /** Calculate availability from pantry items */
   private PantryAvailability calculateAvailability(
-      List<PantryItem> pantryItems, BigDecimal requiredQuantity) {
+      List<PantryItem> pantryItems,
+      BigDecimal requiredQuantity,
+      PantryReservationLedger reservations) {
     if (pantryItems.isEmpty()) {
       return PantryAvailability.notAvailable();
     }
@@ -71,8 +95,7 @@ public class PantryAwareService {
 
     // Consider reserved quantities
     for (PantryItem item : pantryItems) {
-      BigDecimal reserved = pantryReservations.getOrDefault(item.getId(), BigDecimal.ZERO);
-      BigDecimal availableQuantity = item.getQuantityGrams().subtract(reserved);
+      BigDecimal availableQuantity = reservations.remaining(item);
 
       if (availableQuantity.compareTo(BigDecimal.ZERO) > 0) {
         usableItems.add(item);
@@ -109,95 +132,53 @@ public class PantryAwareService {
         .build();
   }
 
-  /** Reserve pantry quantity for menu generation simulation */
-  public boolean reservePantryQuantity(List<PantryItem> pantryItems, BigDecimal quantity) {
-    if (pantryItems.isEmpty() || quantity.compareTo(BigDecimal.ZERO) <= 0) {
-      return false;
-    }
-
-    BigDecimal remainingToReserve = quantity;
-    Map<UUID, BigDecimal> newReservations = new HashMap<>();
-
-    for (PantryItem item : pantryItems) {
-      if (remainingToReserve.compareTo(BigDecimal.ZERO) <= 0) {
-        break;
-      }
-
-      BigDecimal currentReserved = pantryReservations.getOrDefault(item.getId(), BigDecimal.ZERO);
-      BigDecimal availableInItem = item.getQuantityGrams().subtract(currentReserved);
-
-      if (availableInItem.compareTo(BigDecimal.ZERO) > 0) {
-        BigDecimal toReserveFromItem = remainingToReserve.min(availableInItem);
-        newReservations.put(item.getId(), currentReserved.add(toReserveFromItem));
-        remainingToReserve = remainingToReserve.subtract(toReserveFromItem);
-      }
-    }
-
-    // Apply reservations if we can reserve the full quantity
-    boolean canReserveAll = remainingToReserve.compareTo(BigDecimal.ZERO) <= 0;
-    if (canReserveAll) {
-      pantryReservations.putAll(newReservations);
-      log.debug("Reserved {} grams from {} pantry items", quantity, newReservations.size());
+  /** Reserve pantry quantity in the session's ledger for menu generation simulation */
+  public boolean reservePantryQuantity(
+      List<PantryItem> pantryItems, BigDecimal quantity, PantryReservationLedger ledger) {
+    boolean reserved = ledger.reserve(pantryItems, quantity);
+    if (reserved) {
+      log.debug("Reserved {} grams from {} pantry items", quantity, pantryItems.size());
     }
-
-    return canReserveAll;
-  }
-
-  /** Clear all pantry reservations (call after menu generation) */
-  public void clearPantryReservations() {
-    int clearedCount = pantryReservations.size();
-    pantryReservations.clear();
-    log.debug("Cleared {} pantry reservations", clearedCount);
+    return reserved;
   }
 
-  /** Get current cost for a product (from price database or pantry cost) */
-  public BigDecimal getCurrentCost(Product product, BigDecimal quantity, PatientProfile patient) {
+  /** Get current cost for a product using the request's preloaded pantry and prices */
+  public BigDecimal getCurrentCost(
+      Product product, BigDecimal quantity, GenerationContext context) {
     if (product == null || quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
       return BigDecimal.ZERO;
     }
 
-    // First check if we have it in pantry
-    PantryAvailability pantryAvail = checkPantryAvailability(product, patient, quantity);
-    if (pantryAvail.isSufficient() && pantryAvail.getEstimatedCost() != null) {
-      return pantryAvail.getEstimatedCost();
-    }
-
-    // Fall back to market price
-    Optional<PriceEntry> bestPrice = priceRepository.findBestPriceForProduct(product);
-    if (bestPrice.isPresent()) {
-      return bestPrice.get().getPricePerGram().multiply(quantity).setScale(2, RoundingMode.HALF_UP);
-    }
-
-    // Default estimate if no price data
-    return quantity.multiply(new BigDecimal("0.05")); // 5 cents per gram default
+    PantryAvailability pantryAvail = checkPantryAvailability(product, context, quantity);
+    return costFrom(pantryAvail, context.bestPriceFor(product), quantity);
   }
 
-  /** Get current cost for a custom product */
+  /** Get current cost for a custom product using the request's preloaded pantry and prices */
   public BigDecimal getCurrentCost(
-      CustomProduct customProduct, BigDecimal quantity, PatientProfile patient) {
+      CustomProduct customProduct, BigDecimal quantity, GenerationContext context) {
     if (customProduct == null || quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
       return BigDecimal.ZERO;
     }
 
-    // First check if we have it in pantry
-    PantryAvailability pantryAvail = checkPantryAvailability(customProduct, patient, quantity);
+    PantryAvailability pantryAvail = checkPantryAvailability(customProduct, context, quantity);
+    return costFrom(pantryAvail, context.bestPriceFor(customProduct), quantity);
+  }
+
+  /** Pantry cost if sufficient, otherwise market price, otherwise the default estimate */
+  private BigDecimal costFrom(
+      PantryAvailability pantryAvail, Optional<PriceEntry> bestPrice, BigDecimal quantity) {
     if (pantryAvail.isSufficient() && pantryAvail.getEstimatedCost() != null) {
       return pantryAvail.getEstimatedCost();
     }
-
-    // Fall back to market price
-    Optional<PriceEntry> bestPrice = priceRepository.findBestPriceForCustomProduct(customProduct);
     if (bestPrice.isPresent()) {
       return bestPrice.get().getPricePerGram().multiply(quantity).setScale(2, RoundingMode.HALF_UP);
     }
-
-    // Default estimate if no price data
     return quantity.multiply(new BigDecimal("0.05")); // 5 cents per gram default
   }
 
-  /** Enhance food candidate with pantry and cost information */
-  public void enhanceCandidateWithPantryInfo(FoodCandidate candidate, PatientProfile patient) {
-    if (candidate == null || patient == null) {
+  /** Enhance food candidate with pantry and cost information from the request context */
+  public void enhanceCandidateWithPantryInfo(FoodCandidate candidate, GenerationContext context) {
+    if (candidate == null || context == null) {
       return;
     }
 
@@ -211,13 +192,13 @@ public class PantryAwareService {
 
     switch (candidate.getEntryType()) {
       case PRODUCT -> {
-        availability = checkPantryAvailability(candidate.getProduct(), patient, requiredQuantity);
-        cost = getCurrentCost(candidate.getProduct(), requiredQuantity, patient);
+        availability = checkPantryAvailability(candidate.getProduct(), context, requiredQuantity);
+        cost = getCurrentCost(candidate.getProduct(), requiredQuantity, context);
       }
       case CUSTOM_PRODUCT -> {
         availability =
-            checkPantryAvailability(candidate.getCustomProduct(), patient, requiredQuantity);
-        cost = getCurrentCost(candidate.getCustomProduct(), requiredQuantity, patient);
+            checkPantryAvailability(candidate.getCustomProduct(), context, requiredQuantity);
+        cost = getCurrentCost(candidate.getCustomProduct(), requiredQuantity, context);
       }
       default -> {
         availability = PantryAvailability.notAvailable();
@@ -229,12 +210,6 @@ public class PantryAwareService {
     candidate.setPantryQuantityAvailable(availability.getTotalQuantityAvailable());
     candidate.setPantryItems(availability.getPantryItems());
     candidate.setCostPerServing(cost);
-
-    log.debug(
-        "Enhanced candidate {}: pantry={}, cost={}",
-        candidate.getItemName(),
-        availability.isAvailable(),
-        cost);
   }
 
   /** Get items expiring soon that should be prioritized */
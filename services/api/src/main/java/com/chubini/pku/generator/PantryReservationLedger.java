@@ -0,0 +1,80 @@
+package com.chubini.pku.generator;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.chubini.pku.pantry.PantryItem;
+
+/**
+ * Simulated pantry reservations for one generation session. Each session owns its ledger, so
+ * concurrent generations never see each other's reservations. Not thread-safe.
+ */
+public class PantryReservationLedger {
+
+  private final Map<UUID, BigDecimal> reservedGrams = new HashMap<>();
+
+  /** Grams already reserved from a pantry item in this session */
+  public BigDecimal reserved(UUID pantryItemId) {
+    return reservedGrams.getOrDefault(pantryItemId, BigDecimal.ZERO);
+  }
+
+  /** Grams of a pantry item still unreserved in this session */
+  public BigDecimal remaining(PantryItem item) {
+    return item.getQuantityGrams().subtract(reserved(item.getId()));
+  }
+
+  /**
+   * Reserve the quantity across the items in order (earliest expiry first). Nothing is reserved
+   * unless the full quantity fits.
+   */
+  public boolean reserve(List<PantryItem> pantryItems, BigDecimal quantity) {
+    if (pantryItems == null
+        || pantryItems.isEmpty()
+        || quantity == null
+        || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+      return false;
+    }
+
+    BigDecimal remainingToReserve = quantity;
+    Map<UUID, BigDecimal> newReservations = new HashMap<>();
+
+    for (PantryItem item : pantryItems) {
+      if (remainingToReserve.compareTo(BigDecimal.ZERO) <= 0) {
+        break;
+      }
+
+      BigDecimal currentReserved = reserved(item.getId());
+      BigDecimal availableInItem = item.getQuantityGrams().subtract(currentReserved);
+
+      if (availableInItem.compareTo(BigDecimal.ZERO) > 0) {
+        BigDecimal toReserveFromItem = remainingToReserve.min(availableInItem);
+        newReservations.put(item.getId(), currentReserved.add(toReserveFromItem));
+        remainingToReserve = remainingToReserve.subtract(toReserveFromItem);
+      }
+    }
+
+    boolean canReserveAll = remainingToReserve.compareTo(BigDecimal.ZERO) <= 0;
+    if (canReserveAll) {
+      reservedGrams.putAll(newReservations);
+    }
+    return canReserveAll;
+  }
+
+  /** Whether any of the pantry items has reservations */
+  public boolean hasReservations(List<PantryItem> pantryItems) {
+    for (PantryItem item : pantryItems) {
+      if (reservedGrams.containsKey(item.getId())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Number of pantry items with reservations */
+  public int size() {
+    return reservedGrams.size();
+  }
+}
@@ -0,0 +1,74 @@
+package com.chubini.pku.generator;
+
+import java.math.BigDecimal;
+
+import com.chubini.pku.generator.dto.FoodCandidate;
+
+/**
+ * Struct-of-arrays view of a batch of candidates for {@link ScoringEngine#scoreBatch}. Missing
+ * values are stored as {@link Double#NaN} and score as zero penalty, like the BigDecimal path.
+ */
+public final class ScoringBatch {
+
+  private final double[] pheMg;
+  private final double[] proteinG;
+  private final double[] kcal;
+  private final double[] cost;
+  private final int[] repeatDays;
+  private final boolean[] pantryBonus;
+  private int size;
+
+  public ScoringBatch(int capacity) {
+    this.pheMg = new double[capacity];
+    this.proteinG = new double[capacity];
+    this.kcal = new double[capacity];
+    this.cost = new double[capacity];
+    this.repeatDays = new int[capacity];
+    this.pantryBonus = new boolean[capacity];
+  }
+
+  /** Append a candidate and its days since last use; returns the candidate's batch index */
+  public int add(FoodCandidate candidate, int daysSinceLastUse) {
+    int index = size++;
+    pheMg[index] = toDouble(candidate.getCalculatedPheMg());
+    proteinG[index] = toDouble(candidate.getCalculatedProteinG());
+    kcal[index] =
+        candidate.getCalculatedKcal() != null ? candidate.getCalculatedKcal() : Double.NaN;
+    cost[index] = toDouble(candidate.getCostPerServing());
+    repeatDays[index] = daysSinceLastUse;
+    pantryBonus[index] = candidate.isAvailableInPantry() && candidate.hasSufficientPantryQuantity();
+    return index;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int repeatDays(int index) {
+    return repeatDays[index];
+  }
+
+  double pheMg(int index) {
+    return pheMg[index];
+  }
+
+  double proteinG(int index) {
+    return proteinG[index];
+  }
+
+  double kcal(int index) {
+    return kcal[index];
+  }
+
+  double cost(int index) {
+    return cost[index];
+  }
+
+  boolean pantryBonus(int index) {
+    return pantryBonus[index];
+  }
+
+  static double toDouble(BigDecimal value) {
+    return value != null ? value.doubleValue() : Double.NaN;
+  }
+}
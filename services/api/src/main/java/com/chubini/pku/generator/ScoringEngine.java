@@ -2,10 +2,12 @@ package com.chubini.pku.generator;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Arrays;
 
 import com.chubini.pku.generator.dto.FoodCandidate;
 import com.chubini.pku.menus.MealSlot;
 import com.chubini.pku.norms.dto.NormPrescriptionDto;
+import com.chubini.pku.util.TopK;
 
 import org.springframework.stereotype.Component;
 
@@ -31,8 +33,29 @@ public class ScoringEngine {
 
   // Scaling factors
   private static final BigDecimal HUNDRED = new BigDecimal("100.0");
+  private static final BigDecimal REASONABLE_MEAL_PORTION = new BigDecimal("25.0");
+  private static final BigDecimal PANTRY_BONUS_FACTOR = new BigDecimal("0.9");
   private static final int SCALE = 4;
 
+  // Primitive mirrors of the weights above for the batch kernel
+  private static final double D_W1_PHE_OVER = 100.0;
+  private static final double D_W2_PROTEIN_OVER = 80.0;
+  private static final double D_W3_KCAL_DEFICIT = 0.5;
+  private static final double D_W4_COST = 10.0;
+  private static final double D_W5_REPEAT = 50.0;
+  private static final double D_REASONABLE_MEAL_PORTION = 25.0;
+  private static final double D_PANTRY_BONUS_FACTOR = 0.9;
+  private static final double SCALE_FACTOR = 10_000.0;
+
+  // Nudge, in ulps, that makes exact HALF_UP ties round up despite binary representation error
+  private static final double HALF_UP_BIAS_ULPS = 64;
+
+  /**
+   * Candidates whose kernel score is within this distance of the k-th best are re-scored exactly,
+   * so double rounding can never change which candidates win.
+   */
+  static final double SHORTLIST_TOLERANCE = 1e-3;
+
   /** Calculate comprehensive score for a food candidate */
   public BigDecimal calculateScore(
       FoodCandidate candidate,
@@ -63,24 +86,128 @@ public class ScoringEngine {
 
     // Apply pantry bonus (reduce score by 10% if available in pantry)
     if (candidate.isAvailableInPantry() && candidate.hasSufficientPantryQuantity()) {
-      totalScore = totalScore.multiply(new BigDecimal("0.9"));
+      totalScore = totalScore.multiply(PANTRY_BONUS_FACTOR);
     }
 
     candidate.setScore(totalScore.setScale(SCALE, RoundingMode.HALF_UP));
 
-    log.debug(
-        "Scored candidate {}: PHE={}, Protein={}, Kcal={}, Cost={}, Repeat={}, Total={}",
-        candidate.getItemName(),
-        pheOverPenalty,
-        proteinOverPenalty,
-        kcalDeficitPenalty,
-        costPenalty,
-        repeatPenalty,
-        candidate.getScore());
+    if (log.isDebugEnabled()) {
+      log.debug(
+          "Scored candidate {}: PHE={}, Protein={}, Kcal={}, Cost={}, Repeat={}, Total={}",
+          candidate.getItemName(),
+          pheOverPenalty,
+          proteinOverPenalty,
+          kcalDeficitPenalty,
+          costPenalty,
+          repeatPenalty,
+          candidate.getScore());
+    }
 
     return candidate.getScore();
   }
 
+  /**
+   * Score a batch of candidates over primitive inputs. Mirrors {@link #calculateScore} step for
+   * step, including HALF_UP rounding to 4 decimal places, without allocating per candidate. Use
+   * {@link #shortlist} to pick the candidates that should be re-scored exactly.
+   */
+  public double[] scoreBatch(
+      ScoringBatch batch,
+      MealSlot mealSlot,
+      NormPrescriptionDto norm,
+      BigDecimal dailyBudgetLimit) {
+    double pheLimit = ScoringBatch.toDouble(norm.dailyPheMgLimit());
+    double proteinLimit = ScoringBatch.toDouble(norm.dailyProteinGLimit());
+    double targetKcal = ScoringBatch.toDouble(mealSlot.getTargetKcal());
+    double budget =
+        dailyBudgetLimit != null && dailyBudgetLimit.compareTo(BigDecimal.ZERO) != 0
+            ? dailyBudgetLimit.doubleValue()
+            : Double.NaN;
+
+    double[] scores = new double[batch.size()];
+    for (int i = 0; i < scores.length; i++) {
+      double total =
+          overPenalty(batch.pheMg(i), pheLimit, D_W1_PHE_OVER)
+              + overPenalty(batch.proteinG(i), proteinLimit, D_W2_PROTEIN_OVER)
+              + kcalDeficitPenalty(batch.kcal(i), targetKcal)
+              + costPenalty(batch.cost(i), budget)
+              + repeatPenalty(batch.repeatDays(i));
+
+      if (batch.pantryBonus(i)) {
+        total *= D_PANTRY_BONUS_FACTOR;
+      }
+
+      scores[i] = roundHalfUp(total);
+    }
+    return scores;
+  }
+
+  /**
+   * Select indexes of candidates that may belong to the best {@code limit} scores, in ascending
+   * index order. Includes every candidate within {@link #SHORTLIST_TOLERANCE} of the cut-off.
+   */
+  public int[] shortlist(double[] scores, int limit) {
+    if (scores.length <= limit) {
+      int[] all = new int[scores.length];
+      Arrays.setAll(all, i -> i);
+      return all;
+    }
+
+    double cutoff = TopK.kthLowest(scores, limit) + SHORTLIST_TOLERANCE;
+
+    int count = 0;
+    int[] selected = new int[scores.length];
+    for (int i = 0; i < scores.length; i++) {
+      if (scores[i] <= cutoff || Double.isNaN(scores[i])) {
+        selected[count++] = i;
+      }
+    }
+    return Arrays.copyOf(selected, count);
+  }
+
+  private static double overPenalty(double amount, double dailyLimit, double weight) {
+    if (Double.isNaN(amount) || Double.isNaN(dailyLimit)) {
+      return 0.0;
+    }
+
+    double contribution = roundHalfUp(amount / dailyLimit) * 100.0;
+    if (contribution > D_REASONABLE_MEAL_PORTION) {
+      double excess = contribution - D_REASONABLE_MEAL_PORTION;
+      return roundHalfUp(weight * excess * excess / 100.0);
+    }
+    return 0.0;
+  }
+
+  private static double kcalDeficitPenalty(double actualKcal, double targetKcal) {
+    if (Double.isNaN(actualKcal) || Double.isNaN(targetKcal) || actualKcal >= targetKcal) {
+      return 0.0;
+    }
+
+    double deficitPercentage = roundHalfUp((targetKcal - actualKcal) / targetKcal) * 100.0;
+    return D_W3_KCAL_DEFICIT * deficitPercentage;
+  }
+
+  private static double costPenalty(double cost, double budget) {
+    if (Double.isNaN(cost) || Double.isNaN(budget)) {
+      return 0.0;
+    }
+    return D_W4_COST * roundHalfUp(cost / budget) * 100.0;
+  }
+
+  private static double repeatPenalty(int repeatDays) {
+    if (repeatDays <= 0) {
+      return 0.0;
+    }
+    return D_W5_REPEAT * Math.max(0, 3 - repeatDays);
+  }
+
+  /** HALF_UP rounding to {@link #SCALE} decimal places, matching BigDecimal semantics */
+  private static double roundHalfUp(double value) {
+    double scaled = Math.abs(value) * SCALE_FACTOR;
+    double bias = HALF_UP_BIAS_ULPS * Math.ulp(scaled);
+    return Math.copySign(Math.floor(scaled + 0.5 + bias) / SCALE_FACTOR, value);
+  }
+
   /** Calculate penalty for PHE constraint violation */
   private BigDecimal calculatePheOverPenalty(FoodCandidate candidate, NormPrescriptionDto norm) {
     if (norm.dailyPheMgLimit() == null || candidate.getCalculatedPheMg() == null) {
@@ -96,9 +223,8 @@ public class ScoringEngine {
 
     // Penalty grows exponentially if this single serving exceeds reasonable meal portion (>25% of
     // daily)
-    BigDecimal reasonableMealPortion = new BigDecimal("25.0");
-    if (pheContribution.compareTo(reasonableMealPortion) > 0) {
-      BigDecimal excess = pheContribution.subtract(reasonableMealPortion);
+    if (pheContribution.compareTo(REASONABLE_MEAL_PORTION) > 0) {
+      BigDecimal excess = pheContribution.subtract(REASONABLE_MEAL_PORTION);
       return W1_PHE_OVER
           .multiply(excess)
           .multiply(excess)
@@ -124,9 +250,8 @@ public class ScoringEngine {
 
     // Penalty grows exponentially if this single serving exceeds reasonable meal portion (>25% of
     // daily)
-    BigDecimal reasonableMealPortion = new BigDecimal("25.0");
-    if (proteinContribution.compareTo(reasonableMealPortion) > 0) {
-      BigDecimal excess = proteinContribution.subtract(reasonableMealPortion);
+    if (proteinContribution.compareTo(REASONABLE_MEAL_PORTION) > 0) {
+      BigDecimal excess = proteinContribution.subtract(REASONABLE_MEAL_PORTION);
       return W2_PROTEIN_OVER
           .multiply(excess)
           .multiply(excess)
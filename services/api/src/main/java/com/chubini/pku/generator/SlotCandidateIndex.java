@@ -0,0 +1,163 @@
+package com.chubini.pku.generator;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.chubini.pku.menus.MealSlot;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.products.ProductCatalogSnapshot;
+
+/**
+ * Immutable per-slot candidate index built from a product catalog snapshot. Products are addressed
+ * by their position in the snapshot, so slot filtering is a bitset intersection with an exclusion
+ * mask instead of per-request string matching over the whole catalog.
+ */
+public final class SlotCandidateIndex {
+
+  // Below this many category matches a slot falls back to every product with valid nutrition
+  static final int MIN_SUITABLE_PRODUCTS = 5;
+
+  // Bound on memoized exclusion masks; the index is replaced on every catalog change anyway
+  private static final int MAX_CACHED_MASKS = 256;
+
+  private final long catalogVersion;
+  private final Product[] products;
+  private final String[] lowerNames;
+  private final String[] lowerCategories;
+  private final BitSet validNutrition;
+  private final Map<MealSlot.SlotName, BitSet> suitableBySlot;
+  private final Map<List<String>, BitSet> exclusionMasks = new ConcurrentHashMap<>();
+
+  private SlotCandidateIndex(
+      long catalogVersion,
+      Product[] products,
+      String[] lowerNames,
+      String[] lowerCategories,
+      BitSet validNutrition,
+      Map<MealSlot.SlotName, BitSet> suitableBySlot) {
+    this.catalogVersion = catalogVersion;
+    this.products = products;
+    this.lowerNames = lowerNames;
+    this.lowerCategories = lowerCategories;
+    this.validNutrition = validNutrition;
+    this.suitableBySlot = suitableBySlot;
+  }
+
+  /** Build an index for the given snapshot using a slot to category keyword mapping */
+  public static SlotCandidateIndex build(
+      ProductCatalogSnapshot snapshot, Map<MealSlot.SlotName, List<String>> mealCategories) {
+    List<Product> catalog = snapshot.products();
+    int size = catalog.size();
+
+    Product[] products = catalog.toArray(new Product[0]);
+    String[] lowerNames = new String[size];
+    String[] lowerCategories = new String[size];
+    BitSet validNutrition = new BitSet(size);
+
+    for (int i = 0; i < size; i++) {
+      Product product = products[i];
+      lowerNames[i] = lower(product.getProductName());
+      lowerCategories[i] = lower(product.getCategory());
+      if (hasValidNutrition(product)) {
+        validNutrition.set(i);
+      }
+    }
+
+    Map<MealSlot.SlotName, BitSet> suitableBySlot = new EnumMap<>(MealSlot.SlotName.class);
+    for (MealSlot.SlotName slotName : MealSlot.SlotName.values()) {
+      List<String> keywords =
+          mealCategories.getOrDefault(slotName, List.of()).stream()
+              .map(SlotCandidateIndex::lower)
+              .toList();
+      BitSet suitable = new BitSet(size);
+      for (int i = validNutrition.nextSetBit(0); i >= 0; i = validNutrition.nextSetBit(i + 1)) {
+        if (products[i].getCategory() != null && containsAny(lowerCategories[i], keywords)) {
+          suitable.set(i);
+        }
+      }
+      suitableBySlot.put(slotName, suitable);
+    }
+
+    return new SlotCandidateIndex(
+        snapshot.version(), products, lowerNames, lowerCategories, validNutrition, suitableBySlot);
+  }
+
+  public long catalogVersion() {
+    return catalogVersion;
+  }
+
+  public int size() {
+    return products.length;
+  }
+
+  /**
+   * Get the mask of products whose name or category contains any of the foods to avoid. Masks are
+   * memoized per distinct avoid list and must not be modified by callers.
+   */
+  public BitSet exclusionMask(List<String> foodsToAvoid) {
+    if (foodsToAvoid == null || foodsToAvoid.isEmpty()) {
+      return new BitSet();
+    }
+
+    List<String> terms =
+        foodsToAvoid.stream().filter(Objects::nonNull).map(SlotCandidateIndex::lower).toList();
+    BitSet cached = exclusionMasks.get(terms);
+    if (cached != null) {
+      return cached;
+    }
+
+    BitSet mask = new BitSet(products.length);
+    for (int i = 0; i < products.length; i++) {
+      if (containsAny(lowerNames[i], terms) || containsAny(lowerCategories[i], terms)) {
+        mask.set(i);
+      }
+    }
+
+    if (exclusionMasks.size() >= MAX_CACHED_MASKS) {
+      exclusionMasks.clear();
+    }
+    exclusionMasks.put(terms, mask);
+    return mask;
+  }
+
+  /**
+   * Get products suitable for a slot, excluding the given mask. Falls back to every product with
+   * valid nutrition when fewer than {@link #MIN_SUITABLE_PRODUCTS} category matches remain.
+   */
+  public List<Product> suitableProducts(MealSlot.SlotName slotName, BitSet exclusionMask) {
+    BitSet candidates = (BitSet) suitableBySlot.get(slotName).clone();
+    candidates.andNot(exclusionMask);
+
+    if (candidates.cardinality() < MIN_SUITABLE_PRODUCTS) {
+      candidates = (BitSet) validNutrition.clone();
+      candidates.andNot(exclusionMask);
+    }
+
+    List<Product> result = new ArrayList<>(candidates.cardinality());
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      result.add(products[i]);
+    }
+    return result;
+  }
+
+  private static boolean containsAny(String value, List<String> terms) {
+    for (String term : terms) {
+      if (value.contains(term)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasValidNutrition(Product product) {
+    return product.getPhenylalanine() != null
+        && product.getKilocalories() != null
+        && product.getPhenylalanine().compareTo(BigDecimal.ZERO) >= 0
+        && product.getKilocalories().compareTo(BigDecimal.ZERO) > 0;
+  }
+
+  private static String lower(String value) {
+    return value != null ? value.toLowerCase(Locale.ROOT) : "";
+  }
+}
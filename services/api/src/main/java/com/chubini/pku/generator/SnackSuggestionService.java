@@ -3,7 +3,6 @@ package com.chubini.pku.generator;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import com.chubini.pku.generator.dto.MealAlternative;
 import com.chubini.pku.generator.dto.SnackSuggestion;
@@ -12,7 +11,8 @@ import com.chubini.pku.menus.MenuDayRepository;
 import com.chubini.pku.norms.NormService;
 import com.chubini.pku.norms.dto.NormPrescriptionDto;
 import com.chubini.pku.products.Product;
-import com.chubini.pku.products.ProductRepository;
+import com.chubini.pku.products.ProductCatalog;
+import com.chubini.pku.util.TopK;
 import com.chubini.pku.validation.NutritionCalculator;
 import com.chubini.pku.validation.NutritionScaler;
 import com.chubini.pku.validation.dto.NutritionBreakdown;
@@ -31,10 +31,15 @@ public class SnackSuggestionService {
   private final MenuDayRepository menuDayRepository;
   private final NormService normService;
   private final NutritionCalculator nutritionCalculator;
-  private final ProductRepository productRepository;
+  private final ProductCatalog productCatalog;
   private final PantryAwareService pantryAwareService;
   private final NutritionScaler nutritionScaler;
 
+  private static final int MAX_SUGGESTIONS = 5;
+
+  // Calorie values are folded below the safety score in the ranking key
+  private static final int KCAL_RANK_RANGE = 100_000;
+
   // Snack categories with low PHE/protein ratios
   private static final List<String> SAFE_SNACK_CATEGORIES =
       List.of("fruits", "vegetables", "snacks-low-protein", "beverages");
@@ -70,8 +75,8 @@ public class SnackSuggestionService {
 
     NormPrescriptionDto norm = normOpt.get();
 
-    // Calculate current totals
-    NutritionCalculator.DayTotals planned = nutritionCalculator.calculatePlannedTotals(menuDay);
+    // Read current running totals
+    NutritionCalculator.DayTotals planned = nutritionCalculator.plannedTotals(menuDay);
 
     // Check if there's a calorie deficit
     int calorieDeficit = calculateCalorieDeficit(planned, norm);
@@ -138,43 +143,42 @@ public class SnackSuggestionService {
       BigDecimal remainingProteinBudget,
       com.chubini.pku.patients.PatientProfile patient) {
 
-    List<SnackSuggestion> suggestions = new ArrayList<>();
+    // Load pantry and prices once for all snack products
+    GenerationContext context = pantryAwareService.createContext(patient, VarietyHistory.empty());
 
-    // Get products from safe snack categories
-    List<Product> safeProducts =
-        productRepository.findAll().stream()
-            .filter(product -> SAFE_SNACK_CATEGORIES.contains(product.getCategory()))
-            .filter(
-                product -> product.getPhenylalanine() != null && product.getKilocalories() != null)
-            .collect(Collectors.toList());
+    // Keep the top suggestions by safety score, then by calorie contribution
+    TopK<SnackSuggestion> best = TopK.highest(MAX_SUGGESTIONS);
+    int safeProducts = 0;
 
-    log.debug("Found {} safe snack products", safeProducts.size());
+    for (Product product : productCatalog.current().products()) {
+      if (!SAFE_SNACK_CATEGORIES.contains(product.getCategory())
+          || product.getPhenylalanine() == null
+          || product.getKilocalories() == null) {
+        continue;
+      }
+      safeProducts++;
 
-    for (Product product : safeProducts) {
       // Calculate optimal serving size within budget constraints
       BigDecimal optimalServing =
           calculateOptimalServingSize(
               product, remainingPheBudget, remainingProteinBudget, calorieDeficit);
 
       if (optimalServing.compareTo(BigDecimal.valueOf(10)) >= 0) { // Minimum 10g serving
-        SnackSuggestion suggestion = createSnackSuggestion(product, optimalServing, patient);
-        suggestions.add(suggestion);
+        SnackSuggestion suggestion = createSnackSuggestion(product, optimalServing, context);
+        best.offer(suggestion, rank(suggestion));
       }
     }
 
-    // Sort by safety score (descending) and then by calorie contribution
-    suggestions.sort(
-        (a, b) -> {
-          int safetyCompare = Integer.compare(b.safetyScore(), a.safetyScore());
-          if (safetyCompare != 0) return safetyCompare;
-
-          Integer aKcal = a.nutrition() != null ? a.nutrition().kcal() : 0;
-          Integer bKcal = b.nutrition() != null ? b.nutrition().kcal() : 0;
-          return Integer.compare(bKcal, aKcal);
-        });
+    log.debug("Found {} safe snack products", safeProducts);
+    return best.toSortedList();
+  }
 
-    // Return top 5 suggestions
-    return suggestions.stream().limit(5).collect(Collectors.toList());
+  /** Safety score first, calorie contribution as the tie-breaker, packed into one sort key */
+  private static double rank(SnackSuggestion suggestion) {
+    int safety = suggestion.safetyScore() != null ? suggestion.safetyScore() : 0;
+    Integer kcal = suggestion.nutrition() != null ? suggestion.nutrition().kcal() : null;
+    int kcalRank = kcal != null ? Math.min(Math.max(kcal, 0), KCAL_RANK_RANGE - 1) : 0;
+    return (double) safety * KCAL_RANK_RANGE + kcalRank;
   }
 
   private BigDecimal calculateOptimalServingSize(
@@ -226,17 +230,17 @@ public class SnackSuggestionService {
   }
 
   private SnackSuggestion createSnackSuggestion(
-      Product product, BigDecimal servingGrams, com.chubini.pku.patients.PatientProfile patient) {
+      Product product, BigDecimal servingGrams, GenerationContext context) {
 
     // Calculate nutrition for this serving
     NutritionBreakdown nutrition = nutritionScaler.from(product, servingGrams, "G");
 
     // Get cost information
-    BigDecimal cost = pantryAwareService.getCurrentCost(product, servingGrams, patient);
+    BigDecimal cost = pantryAwareService.getCurrentCost(product, servingGrams, context);
 
     // Check pantry availability
     PantryAwareService.PantryAvailability pantryAvail =
-        pantryAwareService.checkPantryAvailability(product, patient, servingGrams);
+        pantryAwareService.checkPantryAvailability(product, context, servingGrams);
 
     // Calculate safety score (0-100)
     int safetyScore = calculateSafetyScore(nutrition);
@@ -19,10 +19,41 @@ import lombok.extern.slf4j.Slf4j;
 public class VarietyEngine {
 
   private final MenuDayRepository menuDayRepository;
+  private final MenuEntryRepository menuEntryRepository;
 
   // Minimum days between repeats (configurable)
   private static final int MIN_DAYS_BETWEEN_REPEATS = 2;
 
+  // How far back variety checks look for previous uses
+  private static final int LOOKBACK_DAYS = 7;
+
+  /**
+   * Load the variety history needed to generate menus for the given date range with a single query.
+   * The history covers the lookback window before the first date plus any existing days inside the
+   * range.
+   */
+  public VarietyHistory loadHistory(
+      PatientProfile patient, LocalDate firstTargetDate, LocalDate lastTargetDate) {
+    if (patient == null || patient.getId() == null || firstTargetDate == null) {
+      return VarietyHistory.empty();
+    }
+
+    LocalDate endDate = (lastTargetDate != null ? lastTargetDate : firstTargetDate).minusDays(1);
+    List<MenuItemUsage> usages =
+        menuEntryRepository.findItemUsageByPatientIdAndDateRange(
+            patient.getId(), firstTargetDate.minusDays(LOOKBACK_DAYS), endDate);
+
+    log.debug(
+        "Loaded {} item usages for variety history of patient {}", usages.size(), patient.getId());
+    return new VarietyHistory(usages);
+  }
+
+  /** Items to avoid for variety, answered from a preloaded history */
+  public Set<String> getItemsToAvoidForVariety(
+      VarietyHistory history, LocalDate targetDate, boolean emergencyMode) {
+    return history.itemsToAvoid(targetDate, MIN_DAYS_BETWEEN_REPEATS, emergencyMode);
+  }
+
   /** Check if a food item was used recently (within MIN_DAYS_BETWEEN_REPEATS) */
   public int getDaysSinceLastUse(
       String itemName, PatientProfile patient, LocalDate targetDate, String mealType) {
@@ -31,7 +62,7 @@ public class VarietyEngine {
     }
 
     // Look back up to 7 days
-    LocalDate startDate = targetDate.minusDays(7);
+    LocalDate startDate = targetDate.minusDays(LOOKBACK_DAYS);
     List<MenuDay> recentDays =
         menuDayRepository.findByPatientAndDateBetweenOrderByDateDesc(
             patient, startDate, targetDate.minusDays(1));
@@ -0,0 +1,105 @@
+package com.chubini.pku.generator;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import com.chubini.pku.menus.MealSlot;
+import com.chubini.pku.menus.MenuDay;
+import com.chubini.pku.menus.MenuEntry;
+import com.chubini.pku.menus.MenuItemUsage;
+
+/**
+ * Per-request view of a patient's recent menu items, loaded once and kept current as generated days
+ * are appended. Answers the same questions as {@link VarietyEngine#getDaysSinceLastUse} and {@link
+ * VarietyEngine#getItemsToAvoidForVariety} from hash lookups instead of database queries.
+ *
+ * <p>Not thread-safe; create one per generation request.
+ */
+public class VarietyHistory {
+
+  // Wildcard slot key used for "any meal type" lookups
+  private static final String ANY_SLOT = "*";
+
+  private final Map<UsageKey, NavigableSet<LocalDate>> usageDates = new HashMap<>();
+  private final Map<LocalDate, Set<String>> itemsByDate = new HashMap<>();
+
+  public VarietyHistory(Collection<MenuItemUsage> usages) {
+    usages.forEach(usage -> record(usage.date(), usage.slotName(), usage.itemName()));
+  }
+
+  /** Empty history, e.g. for patients without previous menus */
+  public static VarietyHistory empty() {
+    return new VarietyHistory(List.of());
+  }
+
+  /** Record every entry of a newly generated day so later days see it */
+  public void append(MenuDay day) {
+    if (day.getMealSlots() == null) {
+      return;
+    }
+    for (MealSlot slot : day.getMealSlots()) {
+      if (slot.getMenuEntries() != null) {
+        for (MenuEntry entry : slot.getMenuEntries()) {
+          record(day.getDate(), slot.getSlotName(), entry.getItemName());
+        }
+      }
+    }
+  }
+
+  /**
+   * Days since the item was last used in the given meal type within the 7-day lookback, or {@link
+   * Integer#MAX_VALUE} if it was not used. A null meal type matches any slot.
+   */
+  public int daysSinceLastUse(String itemName, LocalDate targetDate, String mealType) {
+    if (itemName == null || targetDate == null) {
+      return Integer.MAX_VALUE;
+    }
+
+    String slotKey = mealType != null ? mealType.toUpperCase(Locale.ROOT) : ANY_SLOT;
+    NavigableSet<LocalDate> dates = usageDates.get(new UsageKey(normalize(itemName), slotKey));
+    if (dates == null) {
+      return Integer.MAX_VALUE;
+    }
+
+    LocalDate lastUse = dates.lower(targetDate);
+    if (lastUse == null || lastUse.isBefore(targetDate.minusDays(7))) {
+      return Integer.MAX_VALUE;
+    }
+    return (int) (targetDate.toEpochDay() - lastUse.toEpochDay());
+  }
+
+  /** Items used in any slot less than {@code minDaysBetweenRepeats} days before the target date */
+  public Set<String> itemsToAvoid(
+      LocalDate targetDate, int minDaysBetweenRepeats, boolean emergencyMode) {
+    if (emergencyMode) {
+      return Collections.emptySet();
+    }
+
+    Set<String> itemsToAvoid = new HashSet<>();
+    for (int daysAgo = 1; daysAgo < minDaysBetweenRepeats; daysAgo++) {
+      itemsToAvoid.addAll(itemsByDate.getOrDefault(targetDate.minusDays(daysAgo), Set.of()));
+    }
+    return itemsToAvoid;
+  }
+
+  private void record(LocalDate date, MealSlot.SlotName slotName, String itemName) {
+    if (date == null || itemName == null) {
+      return;
+    }
+
+    String normalized = normalize(itemName);
+    if (slotName != null) {
+      usageDates
+          .computeIfAbsent(new UsageKey(normalized, slotName.name()), k -> new TreeSet<>())
+          .add(date);
+    }
+    usageDates.computeIfAbsent(new UsageKey(normalized, ANY_SLOT), k -> new TreeSet<>()).add(date);
+    itemsByDate.computeIfAbsent(date, k -> new HashSet<>()).add(itemName);
+  }
+
+  private static String normalize(String itemName) {
+    return itemName.toLowerCase(Locale.ROOT);
+  }
+
+  private record UsageKey(String itemName, String slot) {}
+}
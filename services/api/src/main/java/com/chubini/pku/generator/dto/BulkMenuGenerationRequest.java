@@ -0,0 +1,54 @@
+package com.chubini.pku.generator.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "Request for generating weekly menus for a cohort of patients")
+public record BulkMenuGenerationRequest(
+    @Schema(description = "Patients to generate weekly menus for", required = true)
+        @NotEmpty(message = "At least one patient ID is required")
+        @Size(max = 500, message = "At most 500 patients per batch")
+        List<@NotNull UUID> patientIds,
+    @Schema(
+            description = "Start date for all weekly menus",
+            required = true,
+            example = "2024-01-01")
+        @NotNull(message = "Start date is required")
+        LocalDate startDate,
+    @Schema(description = "Foods to avoid for every patient", example = "[\"nuts\", \"dairy\"]")
+        List<String> foodsToAvoid,
+    @Schema(description = "Emergency mode - allows dish repeats within 2 days", example = "false")
+        Boolean emergencyMode,
+    @Schema(description = "Respect pantry availability when selecting foods", example = "true")
+        Boolean respectPantry,
+    @Schema(description = "Daily budget limit in specified currency", example = "25.00")
+        Double dailyBudgetLimit,
+    @Schema(description = "Currency for budget calculations", example = "USD")
+        String budgetCurrency) {
+
+  /** The single-patient weekly request for one member of the batch */
+  public MenuGenerationRequest forPatient(UUID patientId) {
+    return new MenuGenerationRequest(
+        patientId,
+        startDate,
+        "WEEKLY",
+        null,
+        foodsToAvoid,
+        null,
+        null,
+        null,
+        null,
+        "Bulk generation",
+        emergencyMode,
+        respectPantry,
+        dailyBudgetLimit,
+        null,
+        budgetCurrency);
+  }
+}
@@ -0,0 +1,23 @@
+package com.chubini.pku.generator.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Per-patient results of a bulk weekly menu generation")
+public record BulkMenuGenerationResult(
+    @Schema(description = "Number of patients in the batch") int requested,
+    @Schema(description = "Number of menus generated") int succeeded,
+    @Schema(description = "Number of patients whose generation failed") int failed,
+    @Schema(description = "Result for each patient, in request order")
+        List<PatientResult> results) {
+
+  public record PatientResult(UUID patientId, MenuGenerationResult result) {}
+
+  public static BulkMenuGenerationResult of(List<PatientResult> results) {
+    int succeeded = (int) results.stream().filter(r -> r.result().success()).count();
+    return new BulkMenuGenerationResult(
+        results.size(), succeeded, results.size() - succeeded, List.copyOf(results));
+  }
+}
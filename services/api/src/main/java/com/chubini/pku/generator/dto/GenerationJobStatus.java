@@ -0,0 +1,23 @@
+package com.chubini.pku.generator.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.chubini.pku.generator.GenerationJob;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Status of an asynchronous menu generation job")
+public record GenerationJobStatus(
+    @Schema(description = "Job identifier", example = "550e8400-e29b-41d4-a716-446655440000")
+        UUID jobId,
+    @Schema(description = "Generation type") GenerationJob.JobType type,
+    @Schema(description = "Current job status") GenerationJob.JobStatus status,
+    @Schema(description = "Patient the menu is generated for; null for bulk jobs") UUID patientId,
+    @Schema(description = "Number of patients in a bulk job") Integer patientCount,
+    @Schema(description = "When the job was submitted") LocalDateTime submittedAt,
+    @Schema(description = "When generation started") LocalDateTime startedAt,
+    @Schema(description = "When the job finished") LocalDateTime finishedAt,
+    @Schema(description = "Generation result, once finished") MenuGenerationResult result,
+    @Schema(description = "Per-patient results of a bulk job, once finished")
+        BulkMenuGenerationResult bulkResult) {}
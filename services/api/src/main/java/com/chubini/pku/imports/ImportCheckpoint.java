@@ -0,0 +1,20 @@
+package com.chubini.pku.imports;
+
+import java.util.List;
+
+/**
+ * Commits one chunk of a CSV import together with the import's resume point, so that after a crash
+ * an import restarts right after the last chunk that reached the database.
+ */
+@FunctionalInterface
+public interface ImportCheckpoint {
+
+  /** Checkpoint for synchronous uploads: just runs the write, nothing is recorded */
+  ImportCheckpoint NONE = (lastRecord, rows, errors, write) -> write.run();
+
+  /**
+   * Run {@code write} and record, atomically with it, that every CSV record up to {@code
+   * lastRecord} has been handled, {@code rows} of them written and {@code errors} reported.
+   */
+  void commit(long lastRecord, int rows, List<String> errors, Runnable write);
+}
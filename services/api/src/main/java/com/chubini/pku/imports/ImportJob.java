@@ -0,0 +1,154 @@
+package com.chubini.pku.imports;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import com.chubini.pku.imports.dto.ImportJobStatus;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A CSV upload processed in the background by {@link ImportJobService}. The uploaded file is
+ * spooled to {@link #spoolPath}; {@link #checkpointRecord} advances in the same transaction as each
+ * committed chunk, so an interrupted job resumes right after it.
+ */
+@Entity
+@Table(name = "import_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJob {
+
+  public enum ImportType {
+    PRODUCTS,
+    TRANSLATIONS,
+    DISHES
+  }
+
+  public enum ImportStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED;
+
+    public boolean isFinished() {
+      return this == SUCCEEDED || this == FAILED;
+    }
+  }
+
+  @Id private UUID id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "type", nullable = false)
+  private ImportType type;
+
+  @Column(name = "locale", length = 8)
+  private String locale;
+
+  @Column(name = "file_name")
+  private String fileName;
+
+  @Column(name = "spool_path", nullable = false)
+  private String spoolPath;
+
+  // Caller-scoped Idempotency-Key of the submitting request; a repeat returns this job
+  @Column(name = "idempotency_key", updatable = false)
+  private String idempotencyKey;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false)
+  @Builder.Default
+  private ImportStatus status = ImportStatus.QUEUED;
+
+  @Column(name = "checkpoint_record", nullable = false)
+  @Builder.Default
+  private long checkpointRecord = 0;
+
+  @Column(name = "rows_committed", nullable = false)
+  @Builder.Default
+  private int rowsCommitted = 0;
+
+  @Column(name = "error_count", nullable = false)
+  @Builder.Default
+  private int errorCount = 0;
+
+  // Newline separated, capped; errorCount keeps the full count
+  @Column(name = "errors", columnDefinition = "TEXT")
+  private String errors;
+
+  @Column(name = "message", columnDefinition = "TEXT")
+  private String message;
+
+  @Column(name = "attempts", nullable = false)
+  @Builder.Default
+  private int attempts = 0;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "started_at")
+  private LocalDateTime startedAt;
+
+  @Column(name = "finished_at")
+  private LocalDateTime finishedAt;
+
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+    updatedAt = createdAt;
+  }
+
+  @PreUpdate
+  protected void onUpdate() {
+    updatedAt = LocalDateTime.now();
+  }
+
+  /** Record a committed chunk, keeping at most {@code maxErrors} error messages */
+  void recordChunk(long lastRecord, int rows, List<String> chunkErrors, int maxErrors) {
+    checkpointRecord = Math.max(checkpointRecord, lastRecord);
+    rowsCommitted += rows;
+    errorCount += chunkErrors.size();
+
+    List<String> kept = getErrorList();
+    for (String error : chunkErrors) {
+      if (kept.size() >= maxErrors) {
+        break;
+      }
+      kept.add(error.replace('\n', ' '));
+    }
+    errors = kept.isEmpty() ? null : String.join("\n", kept);
+  }
+
+  public List<String> getErrorList() {
+    return errors == null || errors.isEmpty()
+        ? new ArrayList<>()
+        : new ArrayList<>(Arrays.asList(errors.split("\n")));
+  }
+
+  public ImportJobStatus toStatus() {
+    return new ImportJobStatus(
+        id,
+        type,
+        locale,
+        fileName,
+        status,
+        checkpointRecord,
+        rowsCommitted,
+        errorCount,
+        getErrorList(),
+        message,
+        attempts,
+        createdAt,
+        startedAt,
+        finishedAt);
+  }
+}
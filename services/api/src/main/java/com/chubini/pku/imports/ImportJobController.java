@@ -0,0 +1,145 @@
+package com.chubini.pku.imports;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.chubini.pku.imports.dto.ImportJobStatus;
+import com.chubini.pku.service.RateLimitPolicy;
+import com.chubini.pku.validation.FileValidationService;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/v1/imports")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Imports", description = "Background CSV imports with progress tracking")
+public class ImportJobController {
+
+  private final ImportJobService importJobService;
+  private final FileValidationService fileValidationService;
+  private final RateLimitPolicy rateLimitPolicy;
+
+  @PostMapping(value = "/products", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  @Operation(
+      summary = "Import products from CSV",
+      description =
+          "Queue a product CSV for background import; poll the returned job for progress. Requests repeating an"
+              + " Idempotency-Key return the existing job")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "202", description = "Import queued"),
+        @ApiResponse(responseCode = "400", description = "Invalid file"),
+        @ApiResponse(responseCode = "503", description = "Import queue is full, retry later")
+      })
+  public ResponseEntity<ImportJobStatus> importProducts(
+      @Parameter(description = "CSV file with product data") @RequestParam("file")
+          MultipartFile file,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      HttpServletRequest httpRequest)
+      throws IOException {
+    return submit(ImportJob.ImportType.PRODUCTS, null, file, idempotencyKey, httpRequest);
+  }
+
+  @PostMapping(value = "/translations", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  @Operation(
+      summary = "Import translations from CSV",
+      description =
+          "Queue a product translation CSV for background import. Requests repeating an"
+              + " Idempotency-Key return the existing job")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "202", description = "Import queued"),
+        @ApiResponse(responseCode = "400", description = "Invalid file"),
+        @ApiResponse(responseCode = "503", description = "Import queue is full, retry later")
+      })
+  public ResponseEntity<ImportJobStatus> importTranslations(
+      @Parameter(description = "Language code (ka, ru, en)") @RequestParam String locale,
+      @Parameter(description = "CSV file with translation data") @RequestParam("file")
+          MultipartFile file,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      HttpServletRequest httpRequest)
+      throws IOException {
+    return submit(ImportJob.ImportType.TRANSLATIONS, locale, file, idempotencyKey, httpRequest);
+  }
+
+  @PostMapping(value = "/dishes", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  @Operation(
+      summary = "Import dishes from multi-language CSV",
+      description =
+          "Queue a multi-language dish CSV for background import. Requests repeating an"
+              + " Idempotency-Key return the existing job")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "202", description = "Import queued"),
+        @ApiResponse(responseCode = "400", description = "Invalid file"),
+        @ApiResponse(responseCode = "503", description = "Import queue is full, retry later")
+      })
+  public ResponseEntity<ImportJobStatus> importDishes(
+      @Parameter(description = "Multi-language dish CSV file") @RequestParam("file")
+          MultipartFile file,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      HttpServletRequest httpRequest)
+      throws IOException {
+    return submit(ImportJob.ImportType.DISHES, null, file, idempotencyKey, httpRequest);
+  }
+
+  @GetMapping("/{jobId}")
+  @Operation(summary = "Get import job status")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Job status and progress"),
+        @ApiResponse(responseCode = "404", description = "Job not found or expired")
+      })
+  public ResponseEntity<ImportJobStatus> getJob(
+      @Parameter(description = "Job ID", required = true) @PathVariable UUID jobId) {
+    return importJobService
+        .getJob(jobId)
+        .map(job -> ResponseEntity.ok(job.toStatus()))
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  private ResponseEntity<ImportJobStatus> submit(
+      ImportJob.ImportType type,
+      String locale,
+      MultipartFile file,
+      String idempotencyKey,
+      HttpServletRequest httpRequest)
+      throws IOException {
+    fileValidationService.validateFile(file);
+    try {
+      ImportJob job =
+          importJobService.submit(type, locale, file, scopedKey(idempotencyKey, httpRequest));
+      return ResponseEntity.accepted()
+          .location(URI.create("/api/v1/imports/" + job.getId()))
+          .body(job.toStatus());
+    } catch (RejectedExecutionException e) {
+      log.warn("Import queue full, rejecting {} upload", type);
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .header("Retry-After", "30")
+          .build();
+    }
+  }
+
+  /** Scope idempotency keys to the caller so different clients never share jobs */
+  private String scopedKey(String idempotencyKey, HttpServletRequest httpRequest) {
+    return idempotencyKey != null && !idempotencyKey.isBlank()
+        ? rateLimitPolicy.getClientIdentifier(httpRequest) + ":" + idempotencyKey.trim()
+        : null;
+  }
+}
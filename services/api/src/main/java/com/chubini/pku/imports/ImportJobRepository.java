@@ -0,0 +1,45 @@
+package com.chubini.pku.imports;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+  Optional<ImportJob> findByIdempotencyKey(String idempotencyKey);
+
+  List<ImportJob> findByStatusInAndUpdatedAtBefore(
+      Collection<ImportJob.ImportStatus> statuses, LocalDateTime cutoff);
+
+  /** Take over a stale job, unless another instance already refreshed it since it was read */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE ImportJob j SET j.updatedAt = :now"
+          + " WHERE j.id = :id AND j.updatedAt = :seenUpdatedAt")
+  int claim(
+      @Param("id") UUID id,
+      @Param("seenUpdatedAt") LocalDateTime seenUpdatedAt,
+      @Param("now") LocalDateTime now);
+
+  /** Heartbeat for jobs this instance is queueing or running */
+  @Modifying
+  @Transactional
+  @Query("UPDATE ImportJob j SET j.updatedAt = :now WHERE j.id IN :ids")
+  int touch(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM ImportJob j WHERE j.status IN :statuses AND j.finishedAt < :cutoff")
+  int deleteFinishedBefore(
+      @Param("statuses") Collection<ImportJob.ImportStatus> statuses,
+      @Param("cutoff") LocalDateTime cutoff);
+}
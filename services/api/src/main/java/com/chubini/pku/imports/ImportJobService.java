@@ -0,0 +1,340 @@
+package com.chubini.pku.imports;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chubini.pku.dishes.MultiLanguageDishCsvService;
+import com.chubini.pku.imports.ImportJob.ImportStatus;
+import com.chubini.pku.imports.ImportJob.ImportType;
+import com.chubini.pku.products.ProductService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs CSV imports in the background. Uploads are spooled to disk and processed on a bounded worker
+ * pool; every chunk commits together with the job's checkpoint, so a job whose instance died is
+ * picked up by the recovery sweep and resumed after its last committed chunk.
+ */
+@Service
+@Slf4j
+public class ImportJobService {
+
+  private static final Set<ImportStatus> UNFINISHED =
+      EnumSet.of(ImportStatus.QUEUED, ImportStatus.RUNNING);
+  private static final Set<ImportStatus> FINISHED =
+      EnumSet.of(ImportStatus.SUCCEEDED, ImportStatus.FAILED);
+
+  private final ImportJobRepository repository;
+  private final ProductService productService;
+  private final MultiLanguageDishCsvService dishCsvService;
+  private final TransactionTemplate transactionTemplate;
+  private final ThreadPoolExecutor executor;
+  private final ScheduledExecutorService recovery;
+  private final Path spoolDir;
+  private final Duration staleAfter;
+  private final Duration retention;
+  private final long recoveryIntervalSeconds;
+  private final int maxAttempts;
+  private final int maxErrors;
+
+  // Jobs queued or running on this instance; their heartbeat is refreshed by the sweep
+  private final Set<UUID> localJobs = ConcurrentHashMap.newKeySet();
+
+  public ImportJobService(
+      ImportJobRepository repository,
+      ProductService productService,
+      MultiLanguageDishCsvService dishCsvService,
+      PlatformTransactionManager transactionManager,
+      @Value("${pku.imports.spool-dir:${java.io.tmpdir}/pku-imports}") String spoolDir,
+      @Value("${pku.imports.workers:2}") int workers,
+      @Value("${pku.imports.queue-capacity:10}") int queueCapacity,
+      @Value("${pku.imports.stale-after-minutes:5}") long staleAfterMinutes,
+      @Value("${pku.imports.recovery-interval-seconds:60}") long recoveryIntervalSeconds,
+      @Value("${pku.imports.retention-days:7}") long retentionDays,
+      @Value("${pku.imports.max-attempts:3}") int maxAttempts,
+      @Value("${pku.imports.max-errors:500}") int maxErrors) {
+    this.repository = repository;
+    this.productService = productService;
+    this.dishCsvService = dishCsvService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.spoolDir = Path.of(spoolDir);
+    this.staleAfter = Duration.ofMinutes(staleAfterMinutes);
+    this.retention = Duration.ofDays(retentionDays);
+    this.recoveryIntervalSeconds = recoveryIntervalSeconds;
+    this.maxAttempts = maxAttempts;
+    this.maxErrors = maxErrors;
+
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "import-job-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    this.recovery =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "import-job-recovery");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Spool an upload to disk and queue it for import. A job already submitted with the same
+   * idempotency key is returned instead, without reading the upload, for as long as that job is
+   * retained.
+   *
+   * @param idempotencyKey caller-scoped key of the request, or null
+   * @throws RejectedExecutionException if the import queue is full
+   */
+  public ImportJob submit(ImportType type, String locale, MultipartFile file, String idempotencyKey)
+      throws IOException {
+    if (idempotencyKey != null) {
+      Optional<ImportJob> existing = repository.findByIdempotencyKey(idempotencyKey);
+      if (existing.isPresent()) {
+        log.debug("Returning existing import job {} for idempotency key", existing.get().getId());
+        return existing.get();
+      }
+    }
+
+    // Refuse before spooling so a full queue costs neither disk nor a database row
+    if (executor.getQueue().remainingCapacity() == 0) {
+      throw new RejectedExecutionException("Import queue is full");
+    }
+
+    UUID id = UUID.randomUUID();
+    Files.createDirectories(spoolDir);
+    Path spool = spoolDir.resolve(id + ".csv");
+    file.transferTo(spool);
+
+    ImportJob job;
+    try {
+      job =
+          repository.save(
+              ImportJob.builder()
+                  .id(id)
+                  .type(type)
+                  .locale(locale)
+                  .fileName(file.getOriginalFilename())
+                  .spoolPath(spool.toAbsolutePath().toString())
+                  .idempotencyKey(idempotencyKey)
+                  .build());
+    } catch (DataIntegrityViolationException e) {
+      // A concurrent request with the same key created its job first
+      Files.deleteIfExists(spool);
+      Optional<ImportJob> winner =
+          idempotencyKey == null
+              ? Optional.empty()
+              : repository.findByIdempotencyKey(idempotencyKey);
+      return winner.orElseThrow(() -> e);
+    }
+
+    localJobs.add(id);
+    try {
+      executor.execute(() -> run(id));
+    } catch (RejectedExecutionException e) {
+      localJobs.remove(id);
+      repository.deleteById(id);
+      deleteSpool(job);
+      throw e;
+    }
+
+    log.info("Queued {} import job {} ({} bytes)", type, id, file.getSize());
+    return job;
+  }
+
+  /** Find a job by id */
+  public Optional<ImportJob> getJob(UUID jobId) {
+    return repository.findById(jobId);
+  }
+
+  void run(UUID id) {
+    ImportJob job =
+        transactionTemplate.execute(
+            status -> {
+              ImportJob claimed = repository.findById(id).orElse(null);
+              if (claimed == null || claimed.getStatus().isFinished()) {
+                return null;
+              }
+              claimed.setStatus(ImportStatus.RUNNING);
+              claimed.setAttempts(claimed.getAttempts() + 1);
+              if (claimed.getStartedAt() == null) {
+                claimed.setStartedAt(LocalDateTime.now());
+              }
+              return claimed;
+            });
+    if (job == null) {
+      localJobs.remove(id);
+      return;
+    }
+
+    if (job.getCheckpointRecord() > 0) {
+      log.info("Resuming import job {} after record {}", id, job.getCheckpointRecord());
+    }
+    try (InputStream in = Files.newInputStream(Path.of(job.getSpoolPath()))) {
+      String summary = execute(job, in, checkpointFor(id));
+      finish(job, ImportStatus.SUCCEEDED, summary);
+    } catch (NoSuchFileException e) {
+      finish(job, ImportStatus.FAILED, "Uploaded file is no longer available");
+    } catch (Exception e) {
+      if (executor.isShutdown()) {
+        // Interrupted by shutdown: leave the job for the recovery sweep of a live instance
+        log.info("Import job {} interrupted by shutdown", id);
+        localJobs.remove(id);
+        return;
+      }
+      log.error("Import job {} failed: {}", id, e.getMessage(), e);
+      finish(job, ImportStatus.FAILED, e.getMessage());
+    }
+  }
+
+  private String execute(ImportJob job, InputStream in, ImportCheckpoint checkpoint)
+      throws IOException {
+    long resumeAfter = job.getCheckpointRecord();
+    return switch (job.getType()) {
+      case PRODUCTS -> productService.importProducts(in, resumeAfter, checkpoint);
+      case TRANSLATIONS -> {
+        List<String> errors =
+            productService.importTranslations(job.getLocale(), in, resumeAfter, checkpoint);
+        yield "Translations imported with " + errors.size() + " rejected rows";
+      }
+      case DISHES -> {
+        MultiLanguageDishCsvService.ImportResult result =
+            dishCsvService.importMultiLanguageCsv(in, resumeAfter, checkpoint);
+        yield "Saved " + result.saved() + " of " + result.total() + " dishes";
+      }
+    };
+  }
+
+  /** Commit each chunk in one transaction with the job's progress */
+  ImportCheckpoint checkpointFor(UUID id) {
+    return (lastRecord, rows, errors, write) ->
+        transactionTemplate.executeWithoutResult(
+            status -> {
+              write.run();
+              ImportJob job =
+                  repository
+                      .findById(id)
+                      .orElseThrow(() -> new IllegalStateException("Import job " + id + " gone"));
+              job.recordChunk(lastRecord, rows, errors, maxErrors);
+            });
+  }
+
+  private void finish(ImportJob job, ImportStatus outcome, String message) {
+    try {
+      transactionTemplate.executeWithoutResult(
+          status ->
+              repository
+                  .findById(job.getId())
+                  .ifPresent(
+                      current -> {
+                        current.setStatus(outcome);
+                        current.setMessage(message);
+                        current.setFinishedAt(LocalDateTime.now());
+                      }));
+      deleteSpool(job);
+      log.info("Import job {} {}: {}", job.getId(), outcome, message);
+    } finally {
+      localJobs.remove(job.getId());
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  void startRecovery() {
+    recovery.scheduleWithFixedDelay(
+        this::sweep, recoveryIntervalSeconds, recoveryIntervalSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Heartbeat local jobs, resume unfinished jobs whose instance stopped heartbeating and drop
+   * finished jobs past retention.
+   */
+  void sweep() {
+    try {
+      LocalDateTime now = LocalDateTime.now();
+      if (!localJobs.isEmpty()) {
+        repository.touch(Set.copyOf(localJobs), now);
+      }
+
+      for (ImportJob stale :
+          repository.findByStatusInAndUpdatedAtBefore(UNFINISHED, now.minus(staleAfter))) {
+        if (!localJobs.contains(stale.getId())
+            && repository.claim(stale.getId(), stale.getUpdatedAt(), now) == 1) {
+          resume(stale);
+        }
+      }
+
+      int deleted = repository.deleteFinishedBefore(FINISHED, now.minus(retention));
+      if (deleted > 0) {
+        log.debug("Deleted {} finished import jobs", deleted);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Import job recovery sweep failed: {}", e.getMessage());
+    }
+  }
+
+  private void resume(ImportJob job) {
+    if (job.getAttempts() >= maxAttempts) {
+      finish(job, ImportStatus.FAILED, "Gave up after " + job.getAttempts() + " attempts");
+      return;
+    }
+    if (!Files.exists(Path.of(job.getSpoolPath()))) {
+      finish(job, ImportStatus.FAILED, "Uploaded file is no longer available");
+      return;
+    }
+
+    localJobs.add(job.getId());
+    try {
+      executor.execute(() -> run(job.getId()));
+      log.info(
+          "Recovered stale import job {} at record {}", job.getId(), job.getCheckpointRecord());
+    } catch (RejectedExecutionException e) {
+      // Queue is full; the job goes stale again and a later sweep retries it
+      localJobs.remove(job.getId());
+    }
+  }
+
+  private static void deleteSpool(ImportJob job) {
+    try {
+      Files.deleteIfExists(Path.of(job.getSpoolPath()));
+    } catch (IOException e) {
+      log.warn("Could not delete spooled upload {}: {}", job.getSpoolPath(), e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    recovery.shutdownNow();
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,28 @@
+package com.chubini.pku.imports.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import com.chubini.pku.imports.ImportJob;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Progress of a background CSV import")
+public record ImportJobStatus(
+    @Schema(description = "Job identifier", example = "550e8400-e29b-41d4-a716-446655440000")
+        UUID jobId,
+    @Schema(description = "What is being imported") ImportJob.ImportType type,
+    @Schema(description = "Translation locale, for translation imports", example = "ka")
+        String locale,
+    @Schema(description = "Uploaded file name") String fileName,
+    @Schema(description = "Current job status") ImportJob.ImportStatus status,
+    @Schema(description = "Last CSV record covered by a committed chunk") long recordsProcessed,
+    @Schema(description = "Rows written so far") int rowsCommitted,
+    @Schema(description = "Rows rejected so far") int errorCount,
+    @Schema(description = "Rejected row messages, capped") List<String> errors,
+    @Schema(description = "Outcome summary or failure reason") String message,
+    @Schema(description = "Processing attempts, more than one after a resume") int attempts,
+    @Schema(description = "When the job was submitted") LocalDateTime submittedAt,
+    @Schema(description = "When processing first started") LocalDateTime startedAt,
+    @Schema(description = "When the job finished") LocalDateTime finishedAt) {}
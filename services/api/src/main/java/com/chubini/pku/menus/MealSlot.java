@@ -51,6 +51,18 @@ public class MealSlot {
   @Column(name = "actual_fat_g", precision = 8, scale = 2)
   private BigDecimal actualFatG;
 
+  @Column(name = "consumed_phe_mg", precision = 8, scale = 2)
+  private BigDecimal consumedPheMg;
+
+  @Column(name = "consumed_protein_g", precision = 8, scale = 2)
+  private BigDecimal consumedProteinG;
+
+  @Column(name = "consumed_kcal", precision = 8, scale = 2)
+  private BigDecimal consumedKcal;
+
+  @Column(name = "consumed_fat_g", precision = 8, scale = 2)
+  private BigDecimal consumedFatG;
+
   @Column(name = "is_consumed", nullable = false)
   @Builder.Default
   private Boolean isConsumed = false;
@@ -0,0 +1,97 @@
+package com.chubini.pku.menus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat projection of a meal slot joined with one of its entries, used to assemble full day and week
+ * DTOs from one query instead of walking lazy collections. The entry columns are null for a slot
+ * without entries.
+ */
+public record MealSlotEntryRow(
+    UUID dayId,
+    UUID slotId,
+    MealSlot.SlotName slotName,
+    Integer slotOrder,
+    String slotNotes,
+    BigDecimal slotPheMg,
+    BigDecimal slotProteinG,
+    BigDecimal slotKcal,
+    BigDecimal slotFatG,
+    LocalDateTime slotCreatedAt,
+    LocalDateTime slotUpdatedAt,
+    UUID entryId,
+    MenuEntry.EntryType entryType,
+    String itemName,
+    BigDecimal plannedServingGrams,
+    BigDecimal calculatedPheMg,
+    BigDecimal calculatedProteinG,
+    BigDecimal calculatedKcal,
+    BigDecimal calculatedFatG,
+    Boolean isConsumed,
+    String entryNotes,
+    LocalDateTime entryCreatedAt,
+    LocalDateTime entryUpdatedAt) {
+
+  /** JPQL constructor resolving the item name the same way as {@link MenuEntry#getItemName()} */
+  public MealSlotEntryRow(
+      UUID dayId,
+      UUID slotId,
+      MealSlot.SlotName slotName,
+      Integer slotOrder,
+      String slotNotes,
+      BigDecimal slotPheMg,
+      BigDecimal slotProteinG,
+      BigDecimal slotKcal,
+      BigDecimal slotFatG,
+      LocalDateTime slotCreatedAt,
+      LocalDateTime slotUpdatedAt,
+      UUID entryId,
+      MenuEntry.EntryType entryType,
+      String productName,
+      String customProductName,
+      String dishName,
+      String customDishName,
+      BigDecimal plannedServingGrams,
+      BigDecimal calculatedPheMg,
+      BigDecimal calculatedProteinG,
+      BigDecimal calculatedKcal,
+      BigDecimal calculatedFatG,
+      Boolean isConsumed,
+      String entryNotes,
+      LocalDateTime entryCreatedAt,
+      LocalDateTime entryUpdatedAt) {
+    this(
+        dayId,
+        slotId,
+        slotName,
+        slotOrder,
+        slotNotes,
+        slotPheMg,
+        slotProteinG,
+        slotKcal,
+        slotFatG,
+        slotCreatedAt,
+        slotUpdatedAt,
+        entryId,
+        entryType,
+        entryType == null
+            ? null
+            : switch (entryType) {
+              case PRODUCT -> productName;
+              case CUSTOM_PRODUCT -> customProductName;
+              case DISH -> dishName;
+              case CUSTOM_DISH -> customDishName;
+            },
+        plannedServingGrams,
+        calculatedPheMg,
+        calculatedProteinG,
+        calculatedKcal,
+        calculatedFatG,
+        isConsumed,
+        entryNotes,
+        entryCreatedAt,
+        entryUpdatedAt);
+  }
+}
@@ -1,6 +1,8 @@
 package com.chubini.pku.menus;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,6 +13,25 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface MealSlotRepository extends JpaRepository<MealSlot, UUID> {
 
+  // Slots with their entries and item names in one statement; callers append WHERE and ORDER BY
+  String SLOT_ENTRY_ROWS =
+      """
+      SELECT new com.chubini.pku.menus.MealSlotEntryRow(
+        md.id, ms.id, ms.slotName, ms.slotOrder, ms.notes,
+        ms.actualPheMg, ms.actualProteinG, ms.actualKcal, ms.actualFatG, ms.createdAt, ms.updatedAt,
+        me.id, me.entryType, p.productName, cp.name, d.name, cd.name, me.plannedServingGrams,
+        me.calculatedPheMg, me.calculatedProteinG, me.calculatedKcal, me.calculatedFatG,
+        me.isConsumed, me.notes, me.createdAt, me.updatedAt
+      )
+      FROM MealSlot ms
+      JOIN ms.menuDay md
+      LEFT JOIN ms.menuEntries me
+      LEFT JOIN me.product p
+      LEFT JOIN me.customProduct cp
+      LEFT JOIN me.dish d
+      LEFT JOIN me.customDish cd
+      """;
+
   List<MealSlot> findByMenuDayIdOrderBySlotOrder(UUID menuDayId);
 
   List<MealSlot> findByMenuDayIdAndSlotName(UUID menuDayId, MealSlot.SlotName slotName);
@@ -24,5 +45,19 @@ public interface MealSlotRepository extends JpaRepository<MealSlot, UUID> {
       "SELECT ms FROM MealSlot ms WHERE ms.menuDay.id = :menuDayId AND ms.actualPheMg > ms.targetPheMg")
   List<MealSlot> findByMenuDayIdAndPheExceeded(@Param("menuDayId") UUID menuDayId);
 
+  @Query("SELECT ms.menuDay.id FROM MealSlot ms WHERE ms.id = :slotId")
+  Optional<UUID> findMenuDayIdById(@Param("slotId") UUID slotId);
+
+  @Query(
+      SLOT_ENTRY_ROWS
+          + " WHERE md.menuWeek.id IN :weekIds ORDER BY md.date, ms.slotOrder, me.createdAt")
+  List<MealSlotEntryRow> findEntryRowsByWeekIds(@Param("weekIds") Collection<UUID> weekIds);
+
+  @Query(SLOT_ENTRY_ROWS + " WHERE md.id = :dayId ORDER BY ms.slotOrder, me.createdAt")
+  List<MealSlotEntryRow> findEntryRowsByDayId(@Param("dayId") UUID dayId);
+
+  @Query(SLOT_ENTRY_ROWS + " WHERE ms.id = :slotId ORDER BY me.createdAt")
+  List<MealSlotEntryRow> findEntryRowsBySlotId(@Param("slotId") UUID slotId);
+
   long countByMenuDayIdAndIsConsumed(UUID menuDayId, Boolean isConsumed);
 }
@@ -1,15 +1,18 @@
 package com.chubini.pku.menus;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import com.chubini.pku.generator.SnackSuggestionService;
 import com.chubini.pku.generator.dto.SnackSuggestion;
 import com.chubini.pku.menus.dto.*;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -45,16 +48,24 @@ public class MenuController {
             content =
                 @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = MenuWeekDto.class)))
+                    schema = @Schema(implementation = MenuWeekDto.class))),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Menu weeks unchanged since the given ETag")
       })
   @GetMapping("/weeks/patient/{patientId}")
   public ResponseEntity<List<MenuWeekDto>> getMenuWeeksByPatient(
       @Parameter(description = "Patient unique identifier", required = true) @PathVariable
-          UUID patientId) {
+          UUID patientId,
+      WebRequest request) {
 
     log.info("Getting menu weeks for patient: {}", patientId);
+    Optional<String> etag = menuService.getMenuWeeksETagByPatient(patientId);
+    if (etag.isPresent() && request.checkNotModified(etag.get())) {
+      return null;
+    }
     List<MenuWeekDto> weeks = menuService.getMenuWeeksByPatient(patientId);
-    return ResponseEntity.ok(weeks);
+    return revalidated(etag).body(weeks);
   }
 
   @Operation(
@@ -69,16 +80,24 @@ public class MenuController {
                 @Content(
                     mediaType = "application/json",
                     schema = @Schema(implementation = MenuWeekDto.class))),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Menu week unchanged since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Menu week not found")
       })
   @GetMapping("/weeks/{weekId}")
   public ResponseEntity<MenuWeekDto> getMenuWeekById(
       @Parameter(description = "Menu week unique identifier", required = true) @PathVariable
-          UUID weekId) {
+          UUID weekId,
+      WebRequest request) {
 
     log.info("Getting menu week by ID: {}", weekId);
+    Optional<String> etag = menuService.getMenuWeekETag(weekId);
+    if (etag.isPresent() && request.checkNotModified(etag.get())) {
+      return null;
+    }
     MenuWeekDto week = menuService.getMenuWeekById(weekId);
-    return ResponseEntity.ok(week);
+    return revalidated(etag).body(week);
   }
 
   @Operation(
@@ -137,16 +156,22 @@ public class MenuController {
             content =
                 @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = MenuDayDto.class)))
+                    schema = @Schema(implementation = MenuDayDto.class))),
+        @ApiResponse(responseCode = "304", description = "Menu days unchanged since the given ETag")
       })
   @GetMapping("/weeks/{weekId}/days")
   public ResponseEntity<List<MenuDayDto>> getMenuDaysByWeek(
       @Parameter(description = "Menu week unique identifier", required = true) @PathVariable
-          UUID weekId) {
+          UUID weekId,
+      WebRequest request) {
 
     log.info("Getting menu days for week: {}", weekId);
+    Optional<String> etag = menuService.getMenuWeekETag(weekId);
+    if (etag.isPresent() && request.checkNotModified(etag.get())) {
+      return null;
+    }
     List<MenuDayDto> days = menuService.getMenuDaysByWeek(weekId);
-    return ResponseEntity.ok(days);
+    return revalidated(etag).body(days);
   }
 
   @Operation(
@@ -161,16 +186,22 @@ public class MenuController {
                 @Content(
                     mediaType = "application/json",
                     schema = @Schema(implementation = MenuDayDto.class))),
+        @ApiResponse(responseCode = "304", description = "Menu day unchanged since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Menu day not found")
       })
   @GetMapping("/days/{dayId}")
   public ResponseEntity<MenuDayDto> getMenuDayById(
       @Parameter(description = "Menu day unique identifier", required = true) @PathVariable
-          UUID dayId) {
+          UUID dayId,
+      WebRequest request) {
 
     log.info("Getting menu day by ID: {}", dayId);
+    Optional<String> etag = menuService.getMenuDayETag(dayId);
+    if (etag.isPresent() && request.checkNotModified(etag.get())) {
+      return null;
+    }
     MenuDayDto day = menuService.getMenuDayById(dayId);
-    return ResponseEntity.ok(day);
+    return revalidated(etag).body(day);
   }
 
   @Operation(summary = "Create new menu day", description = "Create a new daily menu")
@@ -226,16 +257,24 @@ public class MenuController {
             content =
                 @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = MealSlotDto.class)))
+                    schema = @Schema(implementation = MealSlotDto.class))),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Meal slots unchanged since the given ETag")
       })
   @GetMapping("/days/{dayId}/slots")
   public ResponseEntity<List<MealSlotDto>> getMealSlotsByDay(
       @Parameter(description = "Menu day unique identifier", required = true) @PathVariable
-          UUID dayId) {
+          UUID dayId,
+      WebRequest request) {
 
     log.info("Getting meal slots for day: {}", dayId);
+    Optional<String> etag = menuService.getMenuDayETag(dayId);
+    if (etag.isPresent() && request.checkNotModified(etag.get())) {
+      return null;
+    }
     List<MealSlotDto> slots = menuService.getMealSlotsByDay(dayId);
-    return ResponseEntity.ok(slots);
+    return revalidated(etag).body(slots);
   }
 
   // ========== Menu Entry Endpoints ==========
@@ -251,16 +290,24 @@ public class MenuController {
             content =
                 @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = MenuEntryDto.class)))
+                    schema = @Schema(implementation = MenuEntryDto.class))),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Menu entries unchanged since the given ETag")
       })
   @GetMapping("/slots/{slotId}/entries")
   public ResponseEntity<List<MenuEntryDto>> getMenuEntriesBySlot(
       @Parameter(description = "Meal slot unique identifier", required = true) @PathVariable
-          UUID slotId) {
+          UUID slotId,
+      WebRequest request) {
 
     log.info("Getting menu entries for slot: {}", slotId);
+    Optional<String> etag = menuService.getMealSlotETag(slotId);
+    if (etag.isPresent() && request.checkNotModified(etag.get())) {
+      return null;
+    }
     List<MenuEntryDto> entries = menuService.getMenuEntriesBySlot(slotId);
-    return ResponseEntity.ok(entries);
+    return revalidated(etag).body(entries);
   }
 
   @Operation(summary = "Add menu entry to slot", description = "Add a new food item to a meal slot")
@@ -426,4 +473,11 @@ public class MenuController {
         snackSuggestionService.generateSnackSuggestions(id);
     return ResponseEntity.ok(response);
   }
+
+  // Clients may keep responses but must revalidate them; reads of missing menus carry no ETag
+  private static ResponseEntity.BodyBuilder revalidated(Optional<String> etag) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+    etag.ifPresent(response::eTag);
+    return response;
+  }
 }
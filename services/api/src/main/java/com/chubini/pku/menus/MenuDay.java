@@ -56,6 +56,19 @@ public class MenuDay {
   @Column(name = "total_day_fat_g", precision = 8, scale = 2)
   private BigDecimal totalDayFatG;
 
+  // Running consumed totals; null until the day's running totals have been built
+  @Column(name = "consumed_day_phe_mg", precision = 8, scale = 2)
+  private BigDecimal consumedDayPheMg;
+
+  @Column(name = "consumed_day_protein_g", precision = 8, scale = 2)
+  private BigDecimal consumedDayProteinG;
+
+  @Column(name = "consumed_day_kcal", precision = 8, scale = 2)
+  private BigDecimal consumedDayKcal;
+
+  @Column(name = "consumed_day_fat_g", precision = 8, scale = 2)
+  private BigDecimal consumedDayFatG;
+
   @Column(name = "notes")
   private String notes;
 
@@ -82,4 +95,16 @@ public class MenuDay {
   protected void onUpdate() {
     updatedAt = LocalDateTime.now();
   }
+
+  /** Whether the planned and consumed day totals are maintained incrementally */
+  public boolean hasRunningTotals() {
+    return totalDayPheMg != null
+        && totalDayProteinG != null
+        && totalDayKcal != null
+        && totalDayFatG != null
+        && consumedDayPheMg != null
+        && consumedDayProteinG != null
+        && consumedDayKcal != null
+        && consumedDayFatG != null;
+  }
 }
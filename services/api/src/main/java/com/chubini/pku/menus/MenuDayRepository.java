@@ -1,6 +1,7 @@
 package com.chubini.pku.menus;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -10,6 +11,7 @@ import com.chubini.pku.patients.PatientProfile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -44,6 +46,31 @@ public interface MenuDayRepository extends JpaRepository<MenuDay, UUID> {
 
   long countByPatientIdAndStatus(UUID patientId, MenuWeek.MenuStatus status);
 
+  /** Lock a day row so its running totals can be updated without lost updates */
+  @Query(value = "SELECT id FROM menu_day WHERE id = :id FOR UPDATE", nativeQuery = true)
+  Optional<UUID> lockById(@Param("id") UUID id);
+
+  /** Days whose running totals are due for verification, never-verified days first */
+  @Query(
+      value =
+          "SELECT d.id FROM menu_day d LEFT JOIN menu_day_totals_check c ON c.menu_day_id = d.id"
+              + " WHERE c.verified_at IS NULL OR c.verified_at < :before"
+              + " ORDER BY c.verified_at ASC NULLS FIRST",
+      nativeQuery = true)
+  List<UUID> findIdsForTotalsVerification(@Param("before") LocalDateTime before, Pageable pageable);
+
+  /**
+   * Record that a day's running totals were verified. Kept off the menu_day row, so a day whose
+   * totals were already correct is not rewritten.
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO menu_day_totals_check (menu_day_id, verified_at) VALUES (:id, :verifiedAt)"
+              + " ON CONFLICT (menu_day_id) DO UPDATE SET verified_at = EXCLUDED.verified_at",
+      nativeQuery = true)
+  int markTotalsVerified(@Param("id") UUID id, @Param("verifiedAt") LocalDateTime verifiedAt);
+
   // Method for variety engine
   List<MenuDay> findByPatientAndDateBetweenOrderByDateDesc(
       PatientProfile patient, LocalDate startDate, LocalDate endDate);
@@ -1,6 +1,8 @@
 package com.chubini.pku.menus;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -32,7 +34,30 @@ public interface MenuEntryRepository extends JpaRepository<MenuEntry, UUID> {
   @Query("SELECT me FROM MenuEntry me WHERE me.customDish.id = :customDishId")
   List<MenuEntry> findByCustomDishId(@Param("customDishId") UUID customDishId);
 
+  @Query("SELECT me.mealSlot.menuDay.id FROM MenuEntry me WHERE me.id = :entryId")
+  Optional<UUID> findMenuDayIdById(@Param("entryId") UUID entryId);
+
   long countByMealSlotIdAndIsConsumed(UUID mealSlotId, Boolean isConsumed);
 
   List<MenuEntry> findByMealSlotIdOrderByCreatedAt(UUID mealSlotId);
+
+  // Single query for variety history: item names per day and slot within a date range
+  @Query(
+      """
+    SELECT new com.chubini.pku.menus.MenuItemUsage(
+      md.date, ms.slotName, me.entryType, p.productName, cp.name, d.name, cd.name
+    )
+    FROM MenuEntry me
+    JOIN me.mealSlot ms
+    JOIN ms.menuDay md
+    LEFT JOIN me.product p
+    LEFT JOIN me.customProduct cp
+    LEFT JOIN me.dish d
+    LEFT JOIN me.customDish cd
+    WHERE md.patient.id = :patientId AND md.date BETWEEN :startDate AND :endDate
+    """)
+  List<MenuItemUsage> findItemUsageByPatientIdAndDateRange(
+      @Param("patientId") UUID patientId,
+      @Param("startDate") LocalDate startDate,
+      @Param("endDate") LocalDate endDate);
 }
@@ -0,0 +1,27 @@
+package com.chubini.pku.menus;
+
+import java.time.LocalDate;
+
+/** Flat projection of a menu entry's item name by day and meal slot, used for variety checks */
+public record MenuItemUsage(LocalDate date, MealSlot.SlotName slotName, String itemName) {
+
+  /** JPQL constructor resolving the item name the same way as {@link MenuEntry#getItemName()} */
+  public MenuItemUsage(
+      LocalDate date,
+      MealSlot.SlotName slotName,
+      MenuEntry.EntryType entryType,
+      String productName,
+      String customProductName,
+      String dishName,
+      String customDishName) {
+    this(
+        date,
+        slotName,
+        switch (entryType) {
+          case PRODUCT -> productName;
+          case CUSTOM_PRODUCT -> customProductName;
+          case DISH -> dishName;
+          case CUSTOM_DISH -> customDishName;
+        });
+  }
+}
@@ -2,6 +2,7 @@ package com.chubini.pku.menus;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,6 +14,7 @@ import com.chubini.pku.norms.dto.NormPrescriptionDto;
 import com.chubini.pku.patients.PatientProfile;
 import com.chubini.pku.patients.PatientService;
 import com.chubini.pku.validation.*;
+import com.chubini.pku.validation.NutritionCalculator.EntryContribution;
 import com.chubini.pku.validation.dto.DayValidationResponse;
 
 import org.springframework.stereotype.Service;
@@ -38,23 +40,59 @@ public class MenuService {
   private final NormsValidator normsValidator;
   private final CriticalFactService criticalFactService;
 
+  // ========== Conditional GET ==========
+
+  /** ETag of a menu week with its days, slots and entries; empty when the week does not exist */
+  public Optional<String> getMenuWeekETag(UUID weekId) {
+    return menuWeekRepository.findFingerprintByWeekId(weekId).map(MenuService::etag);
+  }
+
+  /** ETag of all menu weeks of a patient; empty when the patient has none */
+  public Optional<String> getMenuWeeksETagByPatient(UUID patientId) {
+    return menuWeekRepository.findFingerprintByPatientId(patientId).map(MenuService::etag);
+  }
+
+  /** ETag of a menu day with its slots and entries; empty when the day does not exist */
+  public Optional<String> getMenuDayETag(UUID dayId) {
+    return menuWeekRepository.findFingerprintByDayId(dayId).map(MenuService::etag);
+  }
+
+  /** ETag of a meal slot with its entries; empty when the slot does not exist */
+  public Optional<String> getMealSlotETag(UUID slotId) {
+    return menuWeekRepository.findFingerprintBySlotId(slotId).map(MenuService::etag);
+  }
+
+  private static String etag(String fingerprint) {
+    return "\"" + fingerprint + "\"";
+  }
+
   // ========== MenuWeek Operations ==========
 
   /** Get all menu weeks for a patient */
   public List<MenuWeekDto> getMenuWeeksByPatient(UUID patientId) {
     log.debug("Getting menu weeks for patient: {}", patientId);
-    List<MenuWeek> weeks = menuWeekRepository.findByPatientIdOrderByWeekStartDateDesc(patientId);
-    return menuMapper.toWeekDto(weeks);
+    List<MenuWeek> weeks = menuWeekRepository.findWithDaysByPatientId(patientId);
+    if (weeks.isEmpty()) {
+      return List.of();
+    }
+    Map<UUID, List<MealSlotDto>> slotsByDay =
+        menuMapper.toSlotDtosByDay(
+            mealSlotRepository.findEntryRowsByWeekIds(
+                weeks.stream().map(MenuWeek::getId).toList()));
+    return weeks.stream().map(week -> menuMapper.toDto(week, slotsByDay)).toList();
   }
 
   /** Get menu week by ID */
   public MenuWeekDto getMenuWeekById(UUID weekId) {
     log.debug("Getting menu week by ID: {}", weekId);
+    // Week with days, then all slots and entries: two statements however large the week
     MenuWeek week =
         menuWeekRepository
-            .findById(weekId)
+            .findWithDaysById(weekId)
             .orElseThrow(() -> new MenuNotFoundException("Menu week not found with ID: " + weekId));
-    return menuMapper.toDto(week);
+    return menuMapper.toDto(
+        week,
+        menuMapper.toSlotDtosByDay(mealSlotRepository.findEntryRowsByWeekIds(List.of(weekId))));
   }
 
   /** Create a new menu week */
@@ -96,7 +134,14 @@ public class MenuService {
   public List<MenuDayDto> getMenuDaysByWeek(UUID weekId) {
     log.debug("Getting menu days for week: {}", weekId);
     List<MenuDay> days = menuDayRepository.findByMenuWeekIdOrderByDate(weekId);
-    return menuMapper.toDayDto(days);
+    if (days.isEmpty()) {
+      return List.of();
+    }
+    Map<UUID, List<MealSlotDto>> slotsByDay =
+        menuMapper.toSlotDtosByDay(mealSlotRepository.findEntryRowsByWeekIds(List.of(weekId)));
+    return days.stream()
+        .map(day -> menuMapper.toDto(day, slotsByDay.getOrDefault(day.getId(), List.of())))
+        .toList();
   }
 
   /** Get menu day by ID */
@@ -106,7 +151,7 @@ public class MenuService {
         menuDayRepository
             .findById(dayId)
             .orElseThrow(() -> new MenuNotFoundException("Menu day not found with ID: " + dayId));
-    return menuMapper.toDto(day);
+    return menuMapper.toDto(day, getMealSlotsByDay(dayId));
   }
 
   /** Create a new menu day */
@@ -130,8 +175,9 @@ public class MenuService {
       day.setPatient(week.getPatient());
     }
 
-    // Create default meal slots
+    // Create default meal slots and start the running totals at zero
     day = createDefaultMealSlots(day);
+    nutritionCalculator.recalculateTotals(day);
 
     // Save the day
     MenuDay savedDay = menuDayRepository.save(day);
@@ -158,8 +204,9 @@ public class MenuService {
   /** Get meal slots for a day */
   public List<MealSlotDto> getMealSlotsByDay(UUID dayId) {
     log.debug("Getting meal slots for day: {}", dayId);
-    List<MealSlot> slots = mealSlotRepository.findByMenuDayIdOrderBySlotOrder(dayId);
-    return menuMapper.toSlotDto(slots);
+    return menuMapper
+        .toSlotDtosByDay(mealSlotRepository.findEntryRowsByDayId(dayId))
+        .getOrDefault(dayId, List.of());
   }
 
   // ========== MenuEntry Operations ==========
@@ -167,8 +214,7 @@ public class MenuService {
   /** Get menu entries for a meal slot */
   public List<MenuEntryDto> getMenuEntriesBySlot(UUID slotId) {
     log.debug("Getting menu entries for slot: {}", slotId);
-    List<MenuEntry> entries = menuEntryRepository.findByMealSlotIdOrderByCreatedAt(slotId);
-    return menuMapper.toEntryDto(entries);
+    return menuMapper.toEntryDtoFromRows(mealSlotRepository.findEntryRowsBySlotId(slotId));
   }
 
   /** Add a menu entry to a meal slot */
@@ -177,23 +223,22 @@ public class MenuService {
     log.info("Adding menu entry to slot: {}", slotId);
 
     // Find the meal slot
-    MealSlot slot =
-        mealSlotRepository
-            .findById(slotId)
-            .orElseThrow(() -> new MenuNotFoundException("Meal slot not found with ID: " + slotId));
+    MealSlot slot = findSlotForUpdate(slotId);
 
     // Convert request to entity
     MenuEntry entry = menuMapper.toEntity(request);
     entry.setMealSlot(slot);
 
-    // TODO: Set the actual item references and calculate nutrition values
+    // TODO: Set the actual item references
     // This will be implemented when we have the product/dish services integrated
+    nutritionCalculator.updateEntryCalculatedValues(entry);
 
     // Save the entry
     MenuEntry savedEntry = menuEntryRepository.save(entry);
 
-    // Recalculate slot totals
-    recalculateSlotTotals(slot);
+    // Add its nutrition to the running totals
+    updateRunningTotals(
+        slot, EntryContribution.NONE, nutritionCalculator.contributionOf(savedEntry));
 
     log.info("Added menu entry with ID: {}", savedEntry.getId());
     return menuMapper.toDto(savedEntry);
@@ -205,22 +250,19 @@ public class MenuService {
     log.info("Updating menu entry: {}", entryId);
 
     // Find existing entry
-    MenuEntry existingEntry =
-        menuEntryRepository
-            .findById(entryId)
-            .orElseThrow(
-                () -> new MenuNotFoundException("Menu entry not found with ID: " + entryId));
+    MenuEntry existingEntry = findEntryForUpdate(entryId);
+    EntryContribution before = nutritionCalculator.contributionOf(existingEntry);
 
     // Update the entry with new data
     menuMapper.updateEntityFromRequest(request, existingEntry);
-
-    // TODO: Recalculate nutrition values if quantity changed
+    nutritionCalculator.updateEntryCalculatedValues(existingEntry);
 
     // Save the updated entry
     MenuEntry updatedEntry = menuEntryRepository.save(existingEntry);
 
-    // Recalculate slot totals
-    recalculateSlotTotals(existingEntry.getMealSlot());
+    // Move the running totals by the change in the entry's nutrition
+    updateRunningTotals(
+        existingEntry.getMealSlot(), before, nutritionCalculator.contributionOf(updatedEntry));
 
     log.info("Updated menu entry: {}", entryId);
     return menuMapper.toDto(updatedEntry);
@@ -231,18 +273,14 @@ public class MenuService {
   public void deleteMenuEntry(UUID entryId) {
     log.info("Deleting menu entry: {}", entryId);
 
-    MenuEntry entry =
-        menuEntryRepository
-            .findById(entryId)
-            .orElseThrow(
-                () -> new MenuNotFoundException("Menu entry not found with ID: " + entryId));
-
+    MenuEntry entry = findEntryForUpdate(entryId);
     MealSlot slot = entry.getMealSlot();
+    EntryContribution before = nutritionCalculator.contributionOf(entry);
 
     menuEntryRepository.deleteById(entryId);
 
-    // Recalculate slot totals
-    recalculateSlotTotals(slot);
+    // Take its nutrition out of the running totals
+    updateRunningTotals(slot, before, EntryContribution.NONE);
 
     log.info("Deleted menu entry: {}", entryId);
   }
@@ -252,14 +290,12 @@ public class MenuService {
   public MenuEntryDto markEntryAsConsumed(UUID entryId, boolean consumed) {
     log.info("Marking menu entry {} as consumed: {}", entryId, consumed);
 
-    MenuEntry entry =
-        menuEntryRepository
-            .findById(entryId)
-            .orElseThrow(
-                () -> new MenuNotFoundException("Menu entry not found with ID: " + entryId));
+    MenuEntry entry = findEntryForUpdate(entryId);
+    EntryContribution before = nutritionCalculator.contributionOf(entry);
 
     entry.setIsConsumed(consumed);
     MenuEntry updatedEntry = menuEntryRepository.save(entry);
+    updateRunningTotals(entry.getMealSlot(), before, nutritionCalculator.contributionOf(entry));
 
     return menuMapper.toDto(updatedEntry);
   }
@@ -285,71 +321,33 @@ public class MenuService {
     return day;
   }
 
-  /** Recalculate nutrition totals for a meal slot */
-  private void recalculateSlotTotals(MealSlot slot) {
-    List<MenuEntry> entries = menuEntryRepository.findByMealSlotIdOrderByCreatedAt(slot.getId());
-
-    BigDecimal totalPhe = BigDecimal.ZERO;
-    BigDecimal totalProtein = BigDecimal.ZERO;
-    BigDecimal totalKcal = BigDecimal.ZERO;
-    BigDecimal totalFat = BigDecimal.ZERO;
-
-    for (MenuEntry entry : entries) {
-      if (entry.getCalculatedPheMg() != null) {
-        totalPhe = totalPhe.add(entry.getCalculatedPheMg());
-      }
-      if (entry.getCalculatedProteinG() != null) {
-        totalProtein = totalProtein.add(entry.getCalculatedProteinG());
-      }
-      if (entry.getCalculatedKcal() != null) {
-        totalKcal = totalKcal.add(entry.getCalculatedKcal());
-      }
-      if (entry.getCalculatedFatG() != null) {
-        totalFat = totalFat.add(entry.getCalculatedFatG());
-      }
-    }
-
-    slot.setActualPheMg(totalPhe);
-    slot.setActualProteinG(totalProtein);
-    slot.setActualKcal(totalKcal);
-    slot.setActualFatG(totalFat);
-
-    mealSlotRepository.save(slot);
+  /** Find a slot, locking its day so concurrent entry changes cannot lose running total updates */
+  private MealSlot findSlotForUpdate(UUID slotId) {
+    mealSlotRepository.findMenuDayIdById(slotId).ifPresent(menuDayRepository::lockById);
+    return mealSlotRepository
+        .findById(slotId)
+        .orElseThrow(() -> new MenuNotFoundException("Meal slot not found with ID: " + slotId));
+  }
 
-    // Also update the day totals
-    recalculateDayTotals(slot.getMenuDay());
+  /** Find an entry, locking its day like {@link #findSlotForUpdate} */
+  private MenuEntry findEntryForUpdate(UUID entryId) {
+    menuEntryRepository.findMenuDayIdById(entryId).ifPresent(menuDayRepository::lockById);
+    return menuEntryRepository
+        .findById(entryId)
+        .orElseThrow(() -> new MenuNotFoundException("Menu entry not found with ID: " + entryId));
   }
 
-  /** Recalculate nutrition totals for a menu day */
-  private void recalculateDayTotals(MenuDay day) {
-    List<MealSlot> slots = mealSlotRepository.findByMenuDayIdOrderBySlotOrder(day.getId());
-
-    BigDecimal totalPhe = BigDecimal.ZERO;
-    BigDecimal totalProtein = BigDecimal.ZERO;
-    BigDecimal totalKcal = BigDecimal.ZERO;
-    BigDecimal totalFat = BigDecimal.ZERO;
-
-    for (MealSlot slot : slots) {
-      if (slot.getActualPheMg() != null) {
-        totalPhe = totalPhe.add(slot.getActualPheMg());
-      }
-      if (slot.getActualProteinG() != null) {
-        totalProtein = totalProtein.add(slot.getActualProteinG());
-      }
-      if (slot.getActualKcal() != null) {
-        totalKcal = totalKcal.add(slot.getActualKcal());
-      }
-      if (slot.getActualFatG() != null) {
-        totalFat = totalFat.add(slot.getActualFatG());
-      }
+  /** Apply an entry change to the running totals of its slot and day */
+  private void updateRunningTotals(
+      MealSlot slot, EntryContribution before, EntryContribution after) {
+    MenuDay day = slot.getMenuDay();
+    if (day.hasRunningTotals()) {
+      nutritionCalculator.applyEntryChange(slot, before, after);
+    } else {
+      // Running totals were never built for this day: build them from the flushed entries
+      menuEntryRepository.flush();
+      nutritionCalculator.recalculateTotals(day);
     }
-
-    day.setTotalDayPheMg(totalPhe);
-    day.setTotalDayProteinG(totalProtein);
-    day.setTotalDayKcal(totalKcal);
-    day.setTotalDayFatG(totalFat);
-
-    menuDayRepository.save(day);
   }
 
   // ========== New Validation and Consumed Quantity Operations ==========
@@ -360,15 +358,13 @@ public class MenuService {
       UUID entryId, UpdateConsumedQuantityRequest request) {
     log.debug("Updating consumed quantity for entry {}: {}", entryId, request.consumedQty());
 
-    MenuEntry entry =
-        menuEntryRepository
-            .findById(entryId)
-            .orElseThrow(
-                () -> new MenuNotFoundException("Menu entry not found with ID: " + entryId));
+    MenuEntry entry = findEntryForUpdate(entryId);
+    EntryContribution before = nutritionCalculator.contributionOf(entry);
 
     // Update consumed quantity
     entry.updateConsumedQuantity(request.consumedQty());
     menuEntryRepository.save(entry);
+    updateRunningTotals(entry.getMealSlot(), before, nutritionCalculator.contributionOf(entry));
 
     // Recalculate totals and validate
     MenuDay menuDay = entry.getMealSlot().getMenuDay();
@@ -389,13 +385,9 @@ public class MenuService {
 
   /** Helper method to validate a menu day and return comprehensive response */
   private DayValidationResponse validateAndReturnDayResponse(MenuDay menuDay) {
-    // Calculate current totals
-    NutritionCalculator.DayTotals planned = nutritionCalculator.calculatePlannedTotals(menuDay);
-    NutritionCalculator.DayTotals consumed = nutritionCalculator.calculateConsumedTotals(menuDay);
-
-    // Update stored totals
-    nutritionCalculator.updateDayTotals(menuDay);
-    menuDayRepository.save(menuDay);
+    // Read the running totals
+    NutritionCalculator.DayTotals planned = nutritionCalculator.plannedTotals(menuDay);
+    NutritionCalculator.DayTotals consumed = nutritionCalculator.consumedTotals(menuDay);
 
     // Get active norm for validation
     Optional<NormPrescriptionDto> normDto =
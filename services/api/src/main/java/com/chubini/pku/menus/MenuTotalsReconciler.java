@@ -0,0 +1,125 @@
+package com.chubini.pku.menus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.chubini.pku.validation.NutritionCalculator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Verifies the running planned and consumed totals of menu days against their entries in the
+ * background. Drift, e.g. after a product's nutrition values were corrected, is repaired and
+ * logged; days whose running totals were never built get them here.
+ */
+@Service
+@Slf4j
+public class MenuTotalsReconciler {
+
+  private final MenuDayRepository menuDayRepository;
+  private final NutritionCalculator nutritionCalculator;
+  private final TransactionTemplate transactionTemplate;
+  private final ScheduledExecutorService scheduler;
+  private final long intervalMinutes;
+  private final int batchSize;
+  private final Duration verifyAfter;
+
+  public MenuTotalsReconciler(
+      MenuDayRepository menuDayRepository,
+      NutritionCalculator nutritionCalculator,
+      PlatformTransactionManager transactionManager,
+      @Value("${pku.menus.totals.reconcile-interval-minutes:10}") long intervalMinutes,
+      @Value("${pku.menus.totals.reconcile-batch-size:200}") int batchSize,
+      @Value("${pku.menus.totals.verify-after-hours:24}") long verifyAfterHours) {
+    this.menuDayRepository = menuDayRepository;
+    this.nutritionCalculator = nutritionCalculator;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.intervalMinutes = intervalMinutes;
+    this.batchSize = batchSize;
+    this.verifyAfter = Duration.ofHours(verifyAfterHours);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "menu-totals-reconciler");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  void start() {
+    if (intervalMinutes > 0) {
+      scheduler.scheduleWithFixedDelay(
+          this::runScheduled, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+  }
+
+  private void runScheduled() {
+    try {
+      reconcileBatch();
+    } catch (RuntimeException e) {
+      log.warn("Menu totals reconciliation failed: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Verify the days that are due, never-verified ones first.
+   *
+   * @return the number of days whose stored totals had to be corrected
+   */
+  public int reconcileBatch() {
+    List<UUID> dayIds =
+        menuDayRepository.findIdsForTotalsVerification(
+            LocalDateTime.now().minus(verifyAfter), PageRequest.of(0, batchSize));
+
+    int corrected = 0;
+    for (UUID dayId : dayIds) {
+      if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcile(dayId)))) {
+        corrected++;
+      }
+    }
+    if (corrected > 0) {
+      log.info("Corrected running totals of {} of {} menu days", corrected, dayIds.size());
+    }
+    return corrected;
+  }
+
+  /** Recalculate one day under the same row lock that entry changes take */
+  boolean reconcile(UUID dayId) {
+    if (menuDayRepository.lockById(dayId).isEmpty()) {
+      return false;
+    }
+    MenuDay day = menuDayRepository.findById(dayId).orElse(null);
+    if (day == null) {
+      return false;
+    }
+
+    boolean built = day.hasRunningTotals();
+    // The day is only written when its totals changed; the check itself is recorded separately
+    boolean changed = nutritionCalculator.recalculateTotals(day);
+    menuDayRepository.markTotalsVerified(dayId, LocalDateTime.now());
+    if (changed && built) {
+      log.warn("Running totals of menu day {} drifted from its entries; corrected", dayId);
+    }
+    return changed && built;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
@@ -42,4 +42,59 @@ public interface MenuWeekRepository extends JpaRepository<MenuWeek, UUID> {
       @Param("patientId") UUID patientId, @Param("method") MenuWeek.GenerationMethod method);
 
   List<MenuWeek> findByPatientIdOrderByWeekStartDateDesc(UUID patientId);
+
+  // Weeks with their days fetched in the same statement, for full week reads
+  @Query("SELECT mw FROM MenuWeek mw LEFT JOIN FETCH mw.menuDays WHERE mw.id = :id")
+  Optional<MenuWeek> findWithDaysById(@Param("id") UUID id);
+
+  @Query(
+      "SELECT DISTINCT mw FROM MenuWeek mw LEFT JOIN FETCH mw.menuDays"
+          + " WHERE mw.patient.id = :patientId ORDER BY mw.weekStartDate DESC")
+  List<MenuWeek> findWithDaysByPatientId(@Param("patientId") UUID patientId);
+
+  // Every row a menu read returns, tagged with the week, day, slot and patient it belongs to and
+  // the state a reader sees: its update time and, for entries, the item names shown with them.
+  // Callers filter on one tag and hash the rest, so any update, insert or delete changes the hash.
+  String MENU_STATE_ROWS =
+      """
+      SELECT md5(string_agg(CONCAT_WS('|', r.id, r.state), ',' ORDER BY r.id))
+      FROM (
+        SELECT w.id, w.id AS week_id, NULL::uuid AS day_id, NULL::uuid AS slot_id,
+          w.patient_id, CONCAT_WS('|', w.updated_at) AS state
+        FROM menu_week w
+        UNION ALL
+        SELECT md.id, md.menu_week_id, md.id, NULL::uuid, md.patient_id,
+          CONCAT_WS('|', md.updated_at)
+        FROM menu_day md
+        UNION ALL
+        SELECT ms.id, md.menu_week_id, md.id, ms.id, md.patient_id, CONCAT_WS('|', ms.updated_at)
+        FROM meal_slot ms
+        JOIN menu_day md ON md.id = ms.menu_day_id
+        UNION ALL
+        SELECT me.id, md.menu_week_id, md.id, ms.id, md.patient_id,
+          CONCAT_WS('|', me.updated_at, p.product_name, cp.name, d.name, cd.name)
+        FROM menu_entry me
+        JOIN meal_slot ms ON ms.id = me.meal_slot_id
+        JOIN menu_day md ON md.id = ms.menu_day_id
+        LEFT JOIN products p ON p.id = me.product_id
+        LEFT JOIN custom_product cp ON cp.id = me.custom_product_id
+        LEFT JOIN dishes d ON d.id = me.dish_id
+        LEFT JOIN custom_dish cd ON cd.id = me.custom_dish_id
+      ) r
+      """;
+
+  // Fingerprints of menu reads, empty when nothing matches; each is one aggregate over ids
+  @Query(value = MENU_STATE_ROWS + " WHERE r.week_id = :weekId", nativeQuery = true)
+  Optional<String> findFingerprintByWeekId(@Param("weekId") UUID weekId);
+
+  @Query(
+      value = MENU_STATE_ROWS + " WHERE r.patient_id = :patientId AND r.week_id IS NOT NULL",
+      nativeQuery = true)
+  Optional<String> findFingerprintByPatientId(@Param("patientId") UUID patientId);
+
+  @Query(value = MENU_STATE_ROWS + " WHERE r.day_id = :dayId", nativeQuery = true)
+  Optional<String> findFingerprintByDayId(@Param("dayId") UUID dayId);
+
+  @Query(value = MENU_STATE_ROWS + " WHERE r.slot_id = :slotId", nativeQuery = true)
+  Optional<String> findFingerprintBySlotId(@Param("slotId") UUID slotId);
 }
@@ -1,6 +1,12 @@
 package com.chubini.pku.menus.mapper;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import com.chubini.pku.menus.*;
@@ -14,7 +20,24 @@ public class MenuMapper {
   // MenuWeek mappings
   public MenuWeekDto toDto(MenuWeek entity) {
     if (entity == null) return null;
+    return toWeekDto(entity, entity.getMenuDays() != null ? toDayDto(entity.getMenuDays()) : null);
+  }
+
+  /**
+   * Map a week whose days were fetched with it, taking slots and entries from {@code slotsByDay}
+   * (see {@link #toSlotDtosByDay}) instead of the lazy collections.
+   */
+  public MenuWeekDto toDto(MenuWeek entity, Map<UUID, List<MealSlotDto>> slotsByDay) {
+    if (entity == null) return null;
+    return toWeekDto(
+        entity,
+        entity.getMenuDays().stream()
+            .sorted(Comparator.comparing(MenuDay::getDate))
+            .map(day -> toDto(day, slotsByDay.getOrDefault(day.getId(), List.of())))
+            .toList());
+  }
 
+  private MenuWeekDto toWeekDto(MenuWeek entity, List<MenuDayDto> days) {
     return new MenuWeekDto(
         entity.getId(),
         entity.getPatient() != null ? entity.getPatient().getId() : null,
@@ -24,7 +47,7 @@ public class MenuMapper {
         entity.getStatus() != null ? entity.getStatus().name() : null,
         null, // title - not in entity
         entity.getNotes(),
-        entity.getMenuDays() != null ? toDayDto(entity.getMenuDays()) : null,
+        days,
         entity.getCreatedAt(),
         entity.getUpdatedAt());
   }
@@ -48,6 +71,12 @@ public class MenuMapper {
   // MenuDay mappings
   public MenuDayDto toDto(MenuDay entity) {
     if (entity == null) return null;
+    return toDto(entity, entity.getMealSlots() != null ? toSlotDto(entity.getMealSlots()) : null);
+  }
+
+  /** Map a day with already assembled slots */
+  public MenuDayDto toDto(MenuDay entity, List<MealSlotDto> slots) {
+    if (entity == null) return null;
 
     return new MenuDayDto(
         entity.getId(),
@@ -60,7 +89,7 @@ public class MenuMapper {
         entity.getTotalDayProteinG(),
         entity.getTotalDayKcal(),
         entity.getTotalDayFatG(),
-        entity.getMealSlots() != null ? toSlotDto(entity.getMealSlots()) : null,
+        slots,
         entity.getCreatedAt(),
         entity.getUpdatedAt());
   }
@@ -106,6 +135,64 @@ public class MenuMapper {
     return entities.stream().map(this::toDto).collect(Collectors.toList());
   }
 
+  /** Assemble slot DTOs with their entries from flat rows, grouped by day id in row order */
+  public Map<UUID, List<MealSlotDto>> toSlotDtosByDay(List<MealSlotEntryRow> rows) {
+    Map<UUID, List<MealSlotEntryRow>> rowsBySlot =
+        rows.stream()
+            .collect(
+                Collectors.groupingBy(
+                    MealSlotEntryRow::slotId, LinkedHashMap::new, Collectors.toList()));
+
+    Map<UUID, List<MealSlotDto>> slotsByDay = new HashMap<>();
+    for (List<MealSlotEntryRow> slotRows : rowsBySlot.values()) {
+      MealSlotEntryRow slot = slotRows.get(0);
+      slotsByDay
+          .computeIfAbsent(slot.dayId(), dayId -> new ArrayList<>())
+          .add(
+              new MealSlotDto(
+                  slot.slotId(),
+                  slot.dayId(),
+                  slot.slotName() != null ? slot.slotName().name() : null,
+                  null, // suggestedTime - not in entity
+                  slot.slotOrder(),
+                  slot.slotNotes(),
+                  slot.slotPheMg(),
+                  slot.slotProteinG(),
+                  slot.slotKcal(),
+                  slot.slotFatG(),
+                  toEntryDtoFromRows(slotRows),
+                  slot.slotCreatedAt(),
+                  slot.slotUpdatedAt()));
+    }
+    return slotsByDay;
+  }
+
+  /** Entry DTOs from flat rows, skipping the placeholder row of an empty slot */
+  public List<MenuEntryDto> toEntryDtoFromRows(List<MealSlotEntryRow> rows) {
+    return rows.stream()
+        .filter(row -> row.entryId() != null)
+        .map(
+            row ->
+                new MenuEntryDto(
+                    row.entryId(),
+                    row.slotId(),
+                    row.entryType() != null ? row.entryType().name() : null,
+                    null, // itemId - complex logic needed
+                    row.itemName(),
+                    row.plannedServingGrams(),
+                    "grams",
+                    row.calculatedPheMg(),
+                    row.calculatedProteinG(),
+                    row.calculatedKcal(),
+                    row.calculatedFatG(),
+                    row.isConsumed(),
+                    row.entryNotes(),
+                    null, // displayOrder - not in entity
+                    row.entryCreatedAt(),
+                    row.entryUpdatedAt()))
+        .toList();
+  }
+
   // MenuEntry mappings
   public MenuEntryDto toDto(MenuEntry entity) {
     if (entity == null) return null;
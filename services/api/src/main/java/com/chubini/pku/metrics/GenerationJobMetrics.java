@@ -0,0 +1,54 @@
+package com.chubini.pku.metrics;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+
+/** Metrics component for asynchronous menu generation jobs. */
+@Component
+@RequiredArgsConstructor
+public class GenerationJobMetrics {
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Registers queue depth and active worker gauges for the job pool.
+   *
+   * @param executor the generation job worker pool
+   */
+  public void bindExecutor(ThreadPoolExecutor executor) {
+    Gauge.builder("pku.generator.jobs.queue.depth", executor, e -> e.getQueue().size())
+        .description("Generation jobs waiting for a worker")
+        .register(meterRegistry);
+    Gauge.builder("pku.generator.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Generation jobs currently running")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Records a job submission.
+   *
+   * @param type the job type (e.g., "weekly", "daily")
+   * @param outcome "accepted", "deduplicated" or "rejected"
+   */
+  public void recordSubmitted(String type, String outcome) {
+    meterRegistry
+        .counter("pku.generator.jobs.submitted", "type", type, "outcome", outcome)
+        .increment();
+  }
+
+  /**
+   * Records a finished job.
+   *
+   * @param type the job type
+   * @param status the final job status
+   */
+  public void recordFinished(String type, String status) {
+    meterRegistry
+        .counter("pku.generator.jobs.finished", "type", type, "status", status)
+        .increment();
+  }
+}
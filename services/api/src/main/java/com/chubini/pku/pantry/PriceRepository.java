@@ -41,6 +41,10 @@ public interface PriceRepository extends JpaRepository<PriceEntry, UUID> {
   Optional<PriceEntry> findBestPriceForCustomProduct(
       @Param("customProduct") CustomProduct customProduct);
 
+  /** Find all current prices, cheapest first (bulk load for menu generation) */
+  @Query("SELECT pe FROM PriceEntry pe WHERE pe.isCurrent = true ORDER BY pe.pricePerUnit ASC")
+  List<PriceEntry> findCurrentPricesOrderByPricePerUnitAsc();
+
   /** Find prices recorded within date range */
   @Query(
       "SELECT pe FROM PriceEntry pe WHERE pe.recordedDate BETWEEN :startDate AND :endDate "
@@ -2,10 +2,13 @@ package com.chubini.pku.products;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -13,18 +16,61 @@ import org.apache.commons.csv.CSVRecord;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import lombok.extern.slf4j.Slf4j;
+
 @Service
+@Slf4j
 public class CsvUploadService {
 
+  /** Outcome of a streamed CSV read */
+  public record StreamResult(int rows, int skipped) {}
+
+  /**
+   * Products read from consecutive CSV records ending at record {@code lastRecord}, with messages
+   * for the records in that range that could not be parsed
+   */
+  public record Chunk(List<Product> products, long lastRecord, List<String> skipped) {}
+
   public List<Product> parseCsvFile(MultipartFile file) throws IOException {
     return parseCsvBytes(file.getBytes());
   }
 
   public List<Product> parseCsvBytes(byte[] csvData) throws IOException {
     List<Product> products = new ArrayList<>();
+    streamCsv(new ByteArrayInputStream(csvData), Integer.MAX_VALUE, products::addAll);
+    return products;
+  }
+
+  /**
+   * Read products from CSV lazily and hand them to {@code chunkConsumer} in chunks of at most
+   * {@code chunkSize}, so the whole file is never held in memory. Unparseable rows are skipped.
+   */
+  public StreamResult streamCsv(
+      InputStream inputStream, int chunkSize, Consumer<List<Product>> chunkConsumer)
+      throws IOException {
+    return streamCsv(
+        inputStream,
+        chunkSize,
+        0,
+        chunk -> {
+          if (!chunk.products().isEmpty()) {
+            chunkConsumer.accept(chunk.products());
+          }
+        });
+  }
 
-    try (ByteArrayInputStream inputStream = new ByteArrayInputStream(csvData);
-        InputStreamReader reader = new InputStreamReader(inputStream);
+  /**
+   * Like {@link #streamCsv(InputStream, int, Consumer)}, but skipping records up to {@code
+   * resumeAfterRecord} so an interrupted import can continue where it stopped. Skipped records
+   * still advance generated product codes, which therefore match the first run.
+   */
+  public StreamResult streamCsv(
+      InputStream inputStream, int chunkSize, long resumeAfterRecord, Consumer<Chunk> chunkConsumer)
+      throws IOException {
+    int rows = 0;
+    int skipped = 0;
+
+    try (InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
         CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader())) {
 
       // Detect optional product code header if present
@@ -33,8 +79,12 @@ public class CsvUploadService {
               .anyMatch(h -> h != null && h.trim().equalsIgnoreCase("product_code"));
 
       int generatedIndex = 1;
+      List<Product> chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+      List<String> chunkSkipped = new ArrayList<>();
+      long lastRecord = resumeAfterRecord;
 
       for (CSVRecord record : csvParser) {
+        boolean resumed = record.getRecordNumber() <= resumeAfterRecord;
         try {
           Product product =
               Product.builder()
@@ -62,15 +112,35 @@ public class CsvUploadService {
             product.setProductCode(String.format("PRD%04d", generatedIndex++));
           }
 
-          products.add(product);
+          if (resumed) {
+            continue;
+          }
+          chunk.add(product);
+          rows++;
         } catch (Exception e) {
+          if (resumed) {
+            continue;
+          }
           // Log error and continue with next record
-          System.err.println("Error parsing record: " + record + " - " + e.getMessage());
+          log.warn("Error parsing record {}: {}", record.getRecordNumber(), e.getMessage());
+          chunkSkipped.add("Skipped record " + record.getRecordNumber() + ": " + e.getMessage());
+          skipped++;
+        }
+        lastRecord = record.getRecordNumber();
+
+        if (chunk.size() >= chunkSize) {
+          chunkConsumer.accept(new Chunk(chunk, lastRecord, chunkSkipped));
+          chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+          chunkSkipped = new ArrayList<>();
         }
       }
+
+      if (!chunk.isEmpty() || !chunkSkipped.isEmpty()) {
+        chunkConsumer.accept(new Chunk(chunk, lastRecord, chunkSkipped));
+      }
     }
 
-    return products;
+    return new StreamResult(rows, skipped);
   }
 
   private BigDecimal parseBigDecimal(String value) {
@@ -0,0 +1,121 @@
+package com.chubini.pku.products;
+
+/**
+ * Bounded Levenshtein distance over Unicode code points. Only the diagonal band of width {@code 2 *
+ * maxDistance + 1} is computed, using two rows kept in thread-local buffers, so comparisons
+ * allocate nothing once the buffers have grown to the longest name seen by the thread.
+ */
+final class EditDistance {
+
+  private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+  private EditDistance() {}
+
+  /** Number of code points, the unit distances are measured in */
+  static int length(String s) {
+    return s.codePointCount(0, s.length());
+  }
+
+  /**
+   * Levenshtein distance between {@code a} and {@code b}, or {@code maxDistance + 1} as soon as the
+   * distance is known to exceed {@code maxDistance}
+   */
+  static int bounded(String a, String b, int maxDistance) {
+    if (maxDistance < 0) {
+      return maxDistance + 1;
+    }
+    Buffers buffers = BUFFERS.get();
+    int[] first = buffers.codePoints(0, a);
+    int[] second = buffers.codePoints(1, b);
+    int firstLength = buffers.lengths[0];
+    int secondLength = buffers.lengths[1];
+
+    // Iterate rows over the shorter string
+    int[] rowChars = first;
+    int[] columnChars = second;
+    int n = firstLength;
+    int m = secondLength;
+    if (n > m) {
+      rowChars = second;
+      columnChars = first;
+      n = secondLength;
+      m = firstLength;
+    }
+
+    int exceeded = maxDistance + 1;
+    if (m - n > maxDistance) {
+      return exceeded;
+    }
+
+    int[] previous = buffers.row(0, m + 1);
+    int[] current = buffers.row(1, m + 1);
+    for (int j = 0; j <= m; j++) {
+      previous[j] = j <= maxDistance ? j : exceeded;
+    }
+
+    for (int i = 1; i <= n; i++) {
+      int from = Math.max(1, i - maxDistance);
+      int to = Math.min(m, i + maxDistance);
+
+      // Cells just outside the band count as already over the limit
+      current[from - 1] = from == 1 ? Math.min(i, exceeded) : exceeded;
+      int rowMin = current[from - 1];
+      int rowChar = rowChars[i - 1];
+
+      for (int j = from; j <= to; j++) {
+        int substitution = previous[j - 1] + (rowChar == columnChars[j - 1] ? 0 : 1);
+        int value = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+        if (value > exceeded) {
+          value = exceeded;
+        }
+        current[j] = value;
+        if (value < rowMin) {
+          rowMin = value;
+        }
+      }
+      if (to < m) {
+        current[to + 1] = exceeded;
+      }
+
+      // Distances never decrease from one row to the next
+      if (rowMin > maxDistance) {
+        return exceeded;
+      }
+
+      int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+
+    return Math.min(previous[m], exceeded);
+  }
+
+  /** Per-thread scratch space, grown on demand and never shrunk */
+  private static final class Buffers {
+    private final int[][] codePoints = {new int[64], new int[64]};
+    private final int[] lengths = new int[2];
+    private final int[][] rows = {new int[65], new int[65]};
+
+    int[] codePoints(int index, String s) {
+      if (codePoints[index].length < s.length()) {
+        codePoints[index] = new int[s.length()];
+      }
+      int[] target = codePoints[index];
+      int count = 0;
+      for (int i = 0; i < s.length(); ) {
+        int codePoint = s.codePointAt(i);
+        target[count++] = codePoint;
+        i += Character.charCount(codePoint);
+      }
+      lengths[index] = count;
+      return target;
+    }
+
+    int[] row(int index, int size) {
+      if (rows[index].length < size) {
+        rows[index] = new int[size];
+      }
+      return rows[index];
+    }
+  }
+}
@@ -3,6 +3,8 @@ package com.chubini.pku.products;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import com.chubini.pku.util.TopK;
+
 import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
@@ -14,6 +16,9 @@ import lombok.extern.slf4j.Slf4j;
  *
  * <p>Features: - Exact matching (highest priority) - Fuzzy string matching using Levenshtein
  * distance - Synonym matching - Category-based suggestions - Multi-language support
+ *
+ * <p>Candidates come from the {@link ProductNameIndex} trigram index, so only a shortlist is scored
+ * and only the returned products are loaded from the database.
  */
 @Service
 @RequiredArgsConstructor
@@ -21,6 +26,14 @@ import lombok.extern.slf4j.Slf4j;
 public class IntelligentProductMatcher {
 
   private final ProductRepository productRepository;
+  private final ProductNameIndex productNameIndex;
+
+  // Fuzzy scoring only runs on the best trigram matches; this many per requested result
+  private static final int SHORTLIST_PER_RESULT = 20;
+  private static final int MIN_SHORTLIST = 100;
+
+  // Matches at or below this confidence are dropped
+  private static final double MIN_CONFIDENCE = 0.1;
 
   // Common food synonyms and variations
   private static final Map<String, List<String>> FOOD_SYNONYMS =
@@ -44,31 +57,96 @@ public class IntelligentProductMatcher {
    * @return List of ProductMatchResult ordered by confidence score
    */
   public List<ProductMatchResult> findProductsIntelligently(String searchName, int maxResults) {
+    return findProductsIntelligently(searchName, maxResults, null);
+  }
+
+  /**
+   * Find products using intelligent matching against product names and their translations
+   *
+   * @param searchName The name to search for, in any script
+   * @param maxResults Maximum number of results to return
+   * @param lang Locale whose translations are searched besides the product names; null searches all
+   *     locales
+   * @return List of ProductMatchResult ordered by confidence score
+   */
+  public List<ProductMatchResult> findProductsIntelligently(
+      String searchName, int maxResults, String lang) {
     if (searchName == null || searchName.trim().isEmpty()) {
       return Collections.emptyList();
     }
 
-    String normalizedSearch = normalizeString(searchName);
-    List<Product> allProducts = productRepository.findAll();
-
-    List<ProductMatchResult> matches = new ArrayList<>();
-
-    for (Product product : allProducts) {
-      String productName = normalizeString(product.getProductName());
-      double confidence = calculateMatchConfidence(normalizedSearch, productName, product);
+    String locale = normalizeLocale(lang);
+    String normalizedSearch = ProductNameIndex.normalize(searchName);
+    if (normalizedSearch.isEmpty()) {
+      // Only punctuation or symbols; an empty term would be contained in every name and category
+      return Collections.emptyList();
+    }
+    String latinSearch = Transliteration.toLatin(normalizedSearch);
+    int shortlistSize = Math.max(MIN_SHORTLIST, maxResults * SHORTLIST_PER_RESULT);
+
+    // Trigram neighbours of the search term and of its synonyms, plus products from categories
+    // the term points at; products outside this set could only score below MIN_CONFIDENCE or on
+    // weaker category hints
+    List<String> terms = searchTerms(latinSearch);
+    if (!latinSearch.equals(normalizedSearch)) {
+      terms.add(normalizedSearch);
+    }
+    Set<ProductNameIndex.Entry> candidates =
+        new LinkedHashSet<>(productNameIndex.shortlist(terms, locale, shortlistSize));
+    candidates.addAll(
+        productNameIndex.inCategories(
+            category -> calculateCategoryMatch(latinSearch, category) > 0, shortlistSize));
+
+    // A product can match through several of its names; keep its best one
+    Map<UUID, ScoredEntry> bestByProduct = new LinkedHashMap<>();
+    for (ProductNameIndex.Entry entry : candidates) {
+      double confidence =
+          calculateMatchConfidence(normalizedSearch, entry.normalizedName(), entry.category());
+      if (!latinSearch.equals(normalizedSearch)
+          || !entry.latinName().equals(entry.normalizedName())) {
+        confidence =
+            Math.max(
+                confidence,
+                calculateMatchConfidence(latinSearch, entry.latinName(), entry.category()));
+      }
+      if (confidence > MIN_CONFIDENCE) {
+        ScoredEntry scored = new ScoredEntry(entry, confidence);
+        bestByProduct.merge(
+            entry.productId(), scored, (a, b) -> b.confidence() > a.confidence() ? b : a);
+      }
+    }
+    // Equal confidences keep shortlist order, i.e. the closer trigram match first
+    TopK<ScoredEntry> best = TopK.highest(maxResults);
+    for (ScoredEntry scored : bestByProduct.values()) {
+      best.offer(scored, scored.confidence());
+    }
+    List<ScoredEntry> top = best.toSortedList();
+    if (top.isEmpty()) {
+      return Collections.emptyList();
+    }
 
-      if (confidence > 0.1) { // Only include matches with >10% confidence
+    // Only the final results are loaded as entities
+    Map<UUID, Product> productsById =
+        productRepository
+            .findAllById(top.stream().map(s -> s.entry().productId()).toList())
+            .stream()
+            .collect(Collectors.toMap(Product::getId, p -> p));
+
+    List<ProductMatchResult> matches = new ArrayList<>(top.size());
+    for (ScoredEntry match : top) {
+      ProductNameIndex.Entry entry = match.entry();
+      Product product = productsById.get(entry.productId());
+      if (product != null) {
         matches.add(
             new ProductMatchResult(
-                product, confidence, getMatchReason(normalizedSearch, productName)));
+                product,
+                match.confidence(),
+                getMatchReason(normalizedSearch, entry.normalizedName()),
+                entry.name(),
+                entry.locale()));
       }
     }
-
-    // Sort by confidence (highest first) and return top results
-    return matches.stream()
-        .sorted((a, b) -> Double.compare(b.getConfidence(), a.getConfidence()))
-        .limit(maxResults)
-        .collect(Collectors.toList());
+    return matches;
   }
 
   /**
@@ -83,17 +161,28 @@ public class IntelligentProductMatcher {
   }
 
   /** Calculate match confidence using multiple algorithms */
-  private double calculateMatchConfidence(String searchName, String productName, Product product) {
+  private double calculateMatchConfidence(String searchName, String productName, String category) {
     double exactMatch = calculateExactMatch(searchName, productName);
     if (exactMatch == 1.0) return 1.0;
 
-    double fuzzyMatch = calculateFuzzyMatch(searchName, productName);
     double synonymMatch = calculateSynonymMatch(searchName, productName);
-    double categoryMatch = calculateCategoryMatch(searchName, product);
+    double categoryMatch = calculateCategoryMatch(searchName, category);
+
+    // Weighted combination of different matching strategies; fuzzy matching only matters if it
+    // can beat the others, which bounds the edit distance worth computing
+    double floor = Math.max(MIN_CONFIDENCE, Math.max(synonymMatch * 0.7, categoryMatch * 0.6));
+    double fuzzyMatch = calculateFuzzyMatch(searchName, productName, floor / 0.8);
+
+    return Math.max(exactMatch, Math.max(fuzzyMatch * 0.8, floor));
+  }
 
-    // Weighted combination of different matching strategies
-    return Math.max(
-        exactMatch, Math.max(fuzzyMatch * 0.8, Math.max(synonymMatch * 0.7, categoryMatch * 0.6)));
+  /** Two-letter locale code ("ka-GE" -> "ka"), or null when no locale was requested */
+  private String normalizeLocale(String lang) {
+    if (lang == null || lang.isBlank()) {
+      return null;
+    }
+    String trimmed = lang.trim().toLowerCase(Locale.ROOT);
+    return trimmed.length() > 2 ? trimmed.substring(0, 2) : trimmed;
   }
 
   /** Exact match (case-insensitive) */
@@ -101,13 +190,34 @@ public class IntelligentProductMatcher {
     return searchName.equals(productName) ? 1.0 : 0.0;
   }
 
-  /** Fuzzy string matching using Levenshtein distance */
-  private double calculateFuzzyMatch(String searchName, String productName) {
-    int maxLength = Math.max(searchName.length(), productName.length());
+  /** Fuzzy string matching using Levenshtein distance; 0 unless the score exceeds minScore */
+  private double calculateFuzzyMatch(String searchName, String productName, double minScore) {
+    int maxLength = Math.max(EditDistance.length(searchName), EditDistance.length(productName));
     if (maxLength == 0) return 0.0;
 
-    int distance = levenshteinDistance(searchName, productName);
-    return 1.0 - (double) distance / maxLength;
+    // score > minScore  <=>  distance < maxLength * (1 - minScore)
+    int maxDistance = (int) Math.ceil(maxLength * (1.0 - minScore)) - 1;
+    if (maxDistance < 0) return 0.0;
+
+    int distance = EditDistance.bounded(searchName, productName, maxDistance);
+    return distance > maxDistance ? 0.0 : 1.0 - (double) distance / maxLength;
+  }
+
+  /** Lookup terms for the index: the search itself plus synonyms of any food word it mentions */
+  private List<String> searchTerms(String searchName) {
+    List<String> terms = new ArrayList<>();
+    terms.add(searchName);
+    for (Map.Entry<String, List<String>> entry : FOOD_SYNONYMS.entrySet()) {
+      String baseWord = entry.getKey();
+      List<String> synonyms = entry.getValue();
+      if (searchName.contains(baseWord)) {
+        terms.addAll(synonyms);
+        terms.add(baseWord);
+      } else if (synonyms.stream().anyMatch(searchName::contains)) {
+        terms.add(baseWord);
+      }
+    }
+    return terms;
   }
 
   /** Synonym-based matching */
@@ -139,10 +249,10 @@ public class IntelligentProductMatcher {
   }
 
   /** Category-based matching */
-  private double calculateCategoryMatch(String searchName, Product product) {
-    if (product.getCategory() == null) return 0.0;
+  private double calculateCategoryMatch(String searchName, String productCategory) {
+    if (productCategory == null || searchName.isEmpty()) return 0.0;
 
-    String category = product.getCategory().toLowerCase();
+    String category = productCategory.toLowerCase();
     String normalizedSearch = searchName.toLowerCase();
 
     // Check if search term is contained in category
@@ -172,37 +282,6 @@ public class IntelligentProductMatcher {
     return 0.0;
   }
 
-  /** Calculate Levenshtein distance between two strings */
-  private int levenshteinDistance(String s1, String s2) {
-    int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-
-    for (int i = 0; i <= s1.length(); i++) {
-      for (int j = 0; j <= s2.length(); j++) {
-        if (i == 0) {
-          dp[i][j] = j;
-        } else if (j == 0) {
-          dp[i][j] = i;
-        } else {
-          dp[i][j] =
-              Math.min(
-                  Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                  dp[i - 1][j - 1] + (s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1));
-        }
-      }
-    }
-
-    return dp[s1.length()][s2.length()];
-  }
-
-  /** Normalize string for comparison */
-  private String normalizeString(String input) {
-    return input
-        .toLowerCase()
-        .replaceAll("[^a-z0-9\\s]", "") // Remove special characters
-        .replaceAll("\\s+", " ") // Normalize whitespace
-        .trim();
-  }
-
   /** Get human-readable match reason */
   private String getMatchReason(String searchName, String productName) {
     if (searchName.equals(productName)) {
@@ -216,16 +295,31 @@ public class IntelligentProductMatcher {
     }
   }
 
+  private record ScoredEntry(ProductNameIndex.Entry entry, double confidence) {}
+
   /** Result class for product matches */
   public static class ProductMatchResult {
     private final Product product;
     private final double confidence;
     private final String matchReason;
+    private final String matchedName;
+    private final String matchedLocale;
 
     public ProductMatchResult(Product product, double confidence, String matchReason) {
+      this(product, confidence, matchReason, product.getProductName(), null);
+    }
+
+    public ProductMatchResult(
+        Product product,
+        double confidence,
+        String matchReason,
+        String matchedName,
+        String matchedLocale) {
       this.product = product;
       this.confidence = confidence;
       this.matchReason = matchReason;
+      this.matchedName = matchedName;
+      this.matchedLocale = matchedLocale;
     }
 
     public Product getProduct() {
@@ -240,6 +334,16 @@ public class IntelligentProductMatcher {
       return matchReason;
     }
 
+    /** The product name or translation that matched */
+    public String getMatchedName() {
+      return matchedName;
+    }
+
+    /** Locale of the matched translation, or null when the product name itself matched */
+    public String getMatchedLocale() {
+      return matchedLocale;
+    }
+
     public boolean isHighConfidence() {
       return confidence >= 0.8;
     }
@@ -0,0 +1,80 @@
+package com.chubini.pku.products;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holder for one {@link LocalizedProductListing} per locale. Each listing is built lazily on first
+ * access and rebuilt on the next access after a committed {@link ProductCatalogChangedEvent}
+ * affecting it: product changes and English translations (the fallback for every locale) stale all
+ * locales, other translation uploads only their own.
+ */
+@Component
+@Slf4j
+public class LocalizedProductCatalog {
+
+  private static final String FALLBACK_LOCALE = "en";
+
+  private final ProductRepository productRepository;
+
+  // Bumped on every committed change; a listing is current while no change is newer than it
+  private final AtomicLong changes = new AtomicLong();
+  private volatile long allLocalesChangedAt;
+  private final Map<String, Long> localeChangedAt = new ConcurrentHashMap<>();
+  private final Map<String, LocalizedProductListing> listings = new ConcurrentHashMap<>();
+
+  public LocalizedProductCatalog(ProductRepository productRepository) {
+    this.productRepository = productRepository;
+  }
+
+  /** Get the listing for a normalized locale, rebuilding it if its products changed */
+  public LocalizedProductListing listing(String locale) {
+    LocalizedProductListing current = listings.get(locale);
+    if (isCurrent(current, locale)) {
+      return current;
+    }
+
+    synchronized (this) {
+      current = listings.get(locale);
+      if (!isCurrent(current, locale)) {
+        // Read the version first so a change committed during the load stales the result
+        long version = changes.get();
+        current = LocalizedProductListing.of(version, productRepository.findAllLocalized(locale));
+        listings.put(locale, current);
+        log.info(
+            "Built localized product listing '{}' v{} with {} products",
+            locale,
+            version,
+            current.size());
+      }
+      return current;
+    }
+  }
+
+  // Invalidate before CatalogVersions hands out a new ETag for the changed products
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCatalogChanged(ProductCatalogChangedEvent event) {
+    long change = changes.incrementAndGet();
+    if (event.locale() == null || FALLBACK_LOCALE.equals(event.locale())) {
+      allLocalesChangedAt = change;
+    } else {
+      localeChangedAt.put(event.locale(), change);
+    }
+    log.debug("Localized product listings invalidated by {}", event.changeType());
+  }
+
+  private boolean isCurrent(LocalizedProductListing listing, String locale) {
+    return listing != null
+        && listing.version() >= allLocalesChangedAt
+        && listing.version() >= localeChangedAt.getOrDefault(locale, 0L);
+  }
+}
@@ -0,0 +1,218 @@
+package com.chubini.pku.products;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import com.chubini.pku.facets.CategoryFacet;
+import com.chubini.pku.facets.CategoryFacets;
+import com.chubini.pku.facets.FacetsByThreshold;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Immutable, versioned listing of every product localized to one locale, sorted by localized name,
+ * that serves the product browse endpoints without a query. Name search binary-searches the sorted
+ * word-start suffixes of all names, so "app" finds both "Apple" and "Green apple"; category filters
+ * and the low-PHE view read position lists computed once at build time, and category facets are
+ * counted once per max-PHE threshold and kept for the life of the listing.
+ */
+public final class LocalizedProductListing {
+
+  private static final int[] NONE = new int[0];
+
+  private final long version;
+  private final ProductDto[] products;
+  // Lower-case name suffixes starting at a word boundary, sorted, with the product position of each
+  private final String[] suffixes;
+  private final int[] suffixOwners;
+  private final Map<String, int[]> positionsByCategory;
+  // Category as first spelled in name order, by its normalized key
+  private final Map<String, String> categoryNames;
+  // Positions of products with a phenylalanine value, lowest value first
+  private final int[] positionsByPhenylalanine;
+  private final FacetsByThreshold facetsByMaxPhe = new FacetsByThreshold();
+
+  private LocalizedProductListing(long version, ProductDto[] products) {
+    this.version = version;
+    this.products = products;
+
+    List<Map.Entry<String, Integer>> nameSuffixes = new ArrayList<>(products.length * 2);
+    Map<String, List<Integer>> byCategory = new HashMap<>();
+    Map<String, String> names = new HashMap<>();
+    List<Integer> withPhenylalanine = new ArrayList<>(products.length);
+    for (int position = 0; position < products.length; position++) {
+      ProductDto product = products[position];
+      String name = normalize(product.name());
+      for (int i = 0; i < name.length(); i++) {
+        boolean wordStart =
+            i == 0
+                || (!Character.isLetterOrDigit(name.charAt(i - 1))
+                    && Character.isLetterOrDigit(name.charAt(i)));
+        if (wordStart) {
+          nameSuffixes.add(Map.entry(name.substring(i), position));
+        }
+      }
+      String category = normalize(product.category());
+      byCategory.computeIfAbsent(category, c -> new ArrayList<>()).add(position);
+      if (!category.isEmpty()) {
+        names.putIfAbsent(category, product.category().strip());
+      }
+      if (product.phenylalanine() != null) {
+        withPhenylalanine.add(position);
+      }
+    }
+
+    nameSuffixes.sort(Map.Entry.comparingByKey());
+    this.suffixes = new String[nameSuffixes.size()];
+    this.suffixOwners = new int[nameSuffixes.size()];
+    for (int i = 0; i < suffixes.length; i++) {
+      suffixes[i] = nameSuffixes.get(i).getKey();
+      suffixOwners[i] = nameSuffixes.get(i).getValue();
+    }
+
+    Map<String, int[]> categories = new HashMap<>();
+    byCategory.forEach(
+        (category, positions) ->
+            categories.put(category, positions.stream().mapToInt(Integer::intValue).toArray()));
+    this.positionsByCategory = Map.copyOf(categories);
+    this.categoryNames = Map.copyOf(names);
+
+    // Stable sort keeps name order among equal values
+    withPhenylalanine.sort(Comparator.comparing(position -> products[position].phenylalanine()));
+    this.positionsByPhenylalanine =
+        withPhenylalanine.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /** Build a listing from the localized products of one locale, in any order */
+  public static LocalizedProductListing of(long version, List<ProductDto> products) {
+    ProductDto[] sorted = products.toArray(ProductDto[]::new);
+    Arrays.sort(
+        sorted,
+        Comparator.comparing((ProductDto product) -> normalize(product.name()))
+            .thenComparing(ProductDto::id, Comparator.nullsLast(Comparator.naturalOrder())));
+    return new LocalizedProductListing(version, sorted);
+  }
+
+  public long version() {
+    return version;
+  }
+
+  public int size() {
+    return products.length;
+  }
+
+  /**
+   * Page of products in name order, limited to names with a word starting with {@code query} when
+   * it is not blank and to one category (case-insensitive) when {@code category} is not blank
+   */
+  public Page<ProductDto> search(String query, String category, Pageable pageable) {
+    String prefix = normalize(query);
+    int[] inCategory =
+        category == null || category.isBlank()
+            ? null
+            : positionsByCategory.getOrDefault(normalize(category), NONE);
+
+    if (prefix.isEmpty()) {
+      return inCategory == null ? page(pageable) : page(inCategory, inCategory.length, pageable);
+    }
+
+    BitSet matches = new BitSet(products.length);
+    for (int i = lowerBound(prefix); i < suffixes.length && suffixes[i].startsWith(prefix); i++) {
+      matches.set(suffixOwners[i]);
+    }
+    if (inCategory != null) {
+      BitSet categoryBits = new BitSet(products.length);
+      for (int position : inCategory) {
+        categoryBits.set(position);
+      }
+      matches.and(categoryBits);
+    }
+    return page(matches.stream().toArray(), matches.cardinality(), pageable);
+  }
+
+  /** Page of products with phenylalanine at or below {@code maxPhe}, lowest first */
+  public Page<ProductDto> withMaxPhenylalanine(double maxPhe, Pageable pageable) {
+    return page(positionsByPhenylalanine, countAtMost(BigDecimal.valueOf(maxPhe)), pageable);
+  }
+
+  /**
+   * Categories with their product counts in name order, counting only products with phenylalanine
+   * at or below {@code maxPhe} when it is given. Products without a category are left out.
+   */
+  public CategoryFacets categoryFacets(Double maxPhe) {
+    return facetsByMaxPhe.get(maxPhe, version, this::countCategories);
+  }
+
+  private CategoryFacets countCategories(Double maxPhe) {
+    Map<String, Long> counts = new HashMap<>();
+    if (maxPhe == null) {
+      positionsByCategory.forEach(
+          (category, positions) -> counts.put(category, (long) positions.length));
+    } else {
+      int count = countAtMost(BigDecimal.valueOf(maxPhe));
+      for (int i = 0; i < count; i++) {
+        counts.merge(normalize(products[positionsByPhenylalanine[i]].category()), 1L, Long::sum);
+      }
+    }
+    counts.remove("");
+
+    List<CategoryFacet> facets = new ArrayList<>(counts.size());
+    counts.forEach(
+        (category, count) -> facets.add(new CategoryFacet(categoryNames.get(category), count)));
+    facets.sort(Comparator.comparing(CategoryFacet::name));
+    return CategoryFacets.of(facets);
+  }
+
+  private Page<ProductDto> page(Pageable pageable) {
+    int from = (int) Math.min(pageable.getOffset(), products.length);
+    int to = Math.min(from + pageable.getPageSize(), products.length);
+    return new PageImpl<>(List.of(Arrays.copyOfRange(products, from, to)), pageable, size());
+  }
+
+  // Page over the first count positions
+  private Page<ProductDto> page(int[] positions, int count, Pageable pageable) {
+    int from = (int) Math.min(pageable.getOffset(), count);
+    int to = Math.min(from + pageable.getPageSize(), count);
+    List<ProductDto> content = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      content.add(products[positions[i]]);
+    }
+    return new PageImpl<>(content, pageable, count);
+  }
+
+  // Number of products with phenylalanine at or below the limit
+  private int countAtMost(BigDecimal limit) {
+    int low = 0;
+    int high = positionsByPhenylalanine.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (products[positionsByPhenylalanine[mid]].phenylalanine().compareTo(limit) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  // First suffix not less than the prefix
+  private int lowerBound(String prefix) {
+    int low = 0;
+    int high = suffixes.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (suffixes[mid].compareTo(prefix) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static String normalize(String value) {
+    return value == null ? "" : value.strip().toLowerCase(Locale.ROOT);
+  }
+}
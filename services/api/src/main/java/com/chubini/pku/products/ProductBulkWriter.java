@@ -0,0 +1,184 @@
+package com.chubini.pku.products;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Set-based product and translation upserts for bulk imports. Each chunk is written with a single
+ * multi-row {@code INSERT ... ON CONFLICT DO UPDATE} statement against the table's unique key,
+ * instead of a lookup and a Hibernate save per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBulkWriter {
+
+  // PostgreSQL accepts at most 32767 bind parameters per statement
+  static final int MAX_ROWS_PER_STATEMENT = 32767 / 13;
+
+  static final int MAX_TRANSLATIONS_PER_STATEMENT = 32767 / 4;
+
+  private static final String INSERT_PREFIX =
+      "INSERT INTO products (id, product_code, product_name, category, phenylalanine, leucine,"
+          + " tyrosine, methionine, kilojoules, kilocalories, protein, carbohydrates, fats) VALUES ";
+
+  private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  // xmax is 0 only for freshly inserted rows, which tells inserts and updates apart
+  private static final String UPSERT_SUFFIX =
+      " ON CONFLICT (product_code) DO UPDATE SET"
+          + " product_name = EXCLUDED.product_name,"
+          + " category = EXCLUDED.category,"
+          + " phenylalanine = EXCLUDED.phenylalanine,"
+          + " leucine = EXCLUDED.leucine,"
+          + " tyrosine = EXCLUDED.tyrosine,"
+          + " methionine = EXCLUDED.methionine,"
+          + " kilojoules = EXCLUDED.kilojoules,"
+          + " kilocalories = EXCLUDED.kilocalories,"
+          + " protein = EXCLUDED.protein,"
+          + " carbohydrates = EXCLUDED.carbohydrates,"
+          + " fats = EXCLUDED.fats"
+          + " RETURNING id, (xmax = 0) AS inserted";
+
+  private static final String FIND_IDS_BY_CODES =
+      "SELECT product_code, id FROM products WHERE product_code = ANY (?)";
+
+  private static final String INSERT_TRANSLATIONS_PREFIX =
+      "INSERT INTO product_translations (product_id, locale, product_name, category) VALUES ";
+
+  private static final String TRANSLATION_PLACEHOLDERS = "(?, ?, ?, ?)";
+
+  private static final String UPSERT_TRANSLATIONS_SUFFIX =
+      " ON CONFLICT (product_id, locale) DO UPDATE SET"
+          + " product_name = EXCLUDED.product_name,"
+          + " category = EXCLUDED.category,"
+          + " updated_at = now()";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Ids of the written products and how many of them were new */
+  public record UpsertResult(List<UUID> productIds, int created, int updated) {}
+
+  /**
+   * Insert or update the given products by product code. Rows repeating a product code within the
+   * chunk collapse to the last one, as PostgreSQL cannot update the same row twice in one
+   * statement.
+   */
+  public UpsertResult upsert(List<Product> products) {
+    Map<String, Product> byCode = new LinkedHashMap<>();
+    for (Product product : products) {
+      byCode.put(product.getProductCode(), product);
+    }
+
+    List<UUID> ids = new ArrayList<>(byCode.size());
+    int created = 0;
+    List<Product> unique = new ArrayList<>(byCode.values());
+    for (int from = 0; from < unique.size(); from += MAX_ROWS_PER_STATEMENT) {
+      List<Product> rows =
+          unique.subList(from, Math.min(unique.size(), from + MAX_ROWS_PER_STATEMENT));
+      List<Boolean> inserted = new ArrayList<>(rows.size());
+      jdbcTemplate.query(
+          upsertSql(rows.size()),
+          rs -> {
+            ids.add(rs.getObject("id", UUID.class));
+            inserted.add(rs.getBoolean("inserted"));
+          },
+          parameters(rows));
+      created += (int) inserted.stream().filter(Boolean::booleanValue).count();
+    }
+
+    return new UpsertResult(ids, created, ids.size() - created);
+  }
+
+  /** Product ids for the given codes in one round trip; unknown codes are absent from the map */
+  public Map<String, UUID> findIdsByCodes(Collection<String> productCodes) {
+    Map<String, UUID> ids = new HashMap<>(productCodes.size() * 2);
+    if (productCodes.isEmpty()) {
+      return ids;
+    }
+    PreparedStatementSetter codes =
+        ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", productCodes.toArray()));
+    RowCallbackHandler collect =
+        rs -> ids.put(rs.getString("product_code"), rs.getObject("id", UUID.class));
+    jdbcTemplate.query(FIND_IDS_BY_CODES, codes, collect);
+    return ids;
+  }
+
+  /** Insert or update one translation per product for the given locale */
+  public int upsertTranslations(String locale, Map<UUID, TranslationUploadRow> rowsByProduct) {
+    List<Map.Entry<UUID, TranslationUploadRow>> rows = new ArrayList<>(rowsByProduct.entrySet());
+    int written = 0;
+    for (int from = 0; from < rows.size(); from += MAX_TRANSLATIONS_PER_STATEMENT) {
+      List<Map.Entry<UUID, TranslationUploadRow>> statementRows =
+          rows.subList(from, Math.min(rows.size(), from + MAX_TRANSLATIONS_PER_STATEMENT));
+      Object[] params = new Object[statementRows.size() * 4];
+      int i = 0;
+      for (Map.Entry<UUID, TranslationUploadRow> row : statementRows) {
+        params[i++] = row.getKey();
+        params[i++] = locale;
+        params[i++] = row.getValue().name();
+        params[i++] = row.getValue().category();
+      }
+      written +=
+          jdbcTemplate.update(
+              multiRowSql(
+                  INSERT_TRANSLATIONS_PREFIX,
+                  TRANSLATION_PLACEHOLDERS,
+                  statementRows.size(),
+                  UPSERT_TRANSLATIONS_SUFFIX),
+              params);
+    }
+    return written;
+  }
+
+  static String upsertSql(int rowCount) {
+    return multiRowSql(INSERT_PREFIX, ROW_PLACEHOLDERS, rowCount, UPSERT_SUFFIX);
+  }
+
+  private static String multiRowSql(
+      String prefix, String placeholders, int rowCount, String suffix) {
+    StringBuilder sql =
+        new StringBuilder(
+            prefix.length() + rowCount * (placeholders.length() + 2) + suffix.length());
+    sql.append(prefix);
+    for (int i = 0; i < rowCount; i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(placeholders);
+    }
+    return sql.append(suffix).toString();
+  }
+
+  private static Object[] parameters(List<Product> rows) {
+    Object[] params = new Object[rows.size() * 13];
+    int i = 0;
+    for (Product product : rows) {
+      params[i++] = product.getId() != null ? product.getId() : UUID.randomUUID();
+      params[i++] = product.getProductCode();
+      params[i++] = product.getProductName();
+      params[i++] = product.getCategory();
+      params[i++] = product.getPhenylalanine();
+      params[i++] = product.getLeucine();
+      params[i++] = product.getTyrosine();
+      params[i++] = product.getMethionine();
+      params[i++] = product.getKilojoules();
+      params[i++] = product.getKilocalories();
+      params[i++] = product.getProtein();
+      params[i++] = product.getCarbohydrates();
+      params[i++] = product.getFats();
+    }
+    return params;
+  }
+}
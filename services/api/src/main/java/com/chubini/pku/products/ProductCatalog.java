@@ -0,0 +1,82 @@
+package com.chubini.pku.products;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holder for the in-memory product catalog snapshot used by menu generation. The snapshot is built
+ * lazily on first access and rebuilt on the next access after a {@link ProductCatalogChangedEvent}
+ * has been committed.
+ */
+@Component
+@Slf4j
+public class ProductCatalog {
+
+  private final ProductRepository productRepository;
+  private final TransactionTemplate readOnlyTransaction;
+
+  // Bumped on every committed catalog change; a snapshot is current while versions match
+  private final AtomicLong version = new AtomicLong(1);
+  private volatile ProductCatalogSnapshot snapshot;
+
+  public ProductCatalog(
+      ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+    this.productRepository = productRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  /** Get the current snapshot, rebuilding it if the catalog changed since it was built */
+  public ProductCatalogSnapshot current() {
+    ProductCatalogSnapshot current = snapshot;
+    if (current != null && current.version() == version.get()) {
+      return current;
+    }
+
+    synchronized (this) {
+      current = snapshot;
+      long targetVersion = version.get();
+      if (current == null || current.version() != targetVersion) {
+        current = load(targetVersion);
+        snapshot = current;
+      }
+      return current;
+    }
+  }
+
+  /** Current catalog version, incremented on every committed product change */
+  public long version() {
+    return version.get();
+  }
+
+  /** Mark the snapshot stale; the next {@link #current()} call reloads it */
+  public void invalidate() {
+    long newVersion = version.incrementAndGet();
+    log.debug("Product catalog invalidated, new version {}", newVersion);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCatalogChanged(ProductCatalogChangedEvent event) {
+    log.debug("Product catalog changed: {}", event.changeType());
+    invalidate();
+  }
+
+  private ProductCatalogSnapshot load(long targetVersion) {
+    // Load in a separate read-only transaction so the entities are detached once it completes
+    // and never become part of a caller's persistence context
+    List<Product> products = readOnlyTransaction.execute(status -> productRepository.findAll());
+    ProductCatalogSnapshot loaded =
+        ProductCatalogSnapshot.of(targetVersion, products != null ? products : List.of());
+    log.info("Built product catalog snapshot v{} with {} products", targetVersion, loaded.size());
+    return loaded;
+  }
+}
@@ -0,0 +1,35 @@
+package com.chubini.pku.products;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Event published after products are created, updated, deleted or bulk uploaded. An empty {@code
+ * productIds} means the affected products are unknown and listeners should reload everything. A
+ * non-null {@code locale} means only that locale's translations changed.
+ */
+public record ProductCatalogChangedEvent(
+    String changeType, List<UUID> productIds, String locale, LocalDateTime timestamp) {
+
+  public ProductCatalogChangedEvent {
+    productIds = productIds != null ? List.copyOf(productIds) : List.of();
+  }
+
+  public ProductCatalogChangedEvent(String changeType) {
+    this(changeType, List.of(), null, LocalDateTime.now());
+  }
+
+  public ProductCatalogChangedEvent(String changeType, Collection<UUID> productIds) {
+    this(changeType, null, productIds);
+  }
+
+  public ProductCatalogChangedEvent(String changeType, String locale, Collection<UUID> productIds) {
+    this(
+        changeType,
+        productIds != null ? List.copyOf(productIds) : List.of(),
+        locale,
+        LocalDateTime.now());
+  }
+}
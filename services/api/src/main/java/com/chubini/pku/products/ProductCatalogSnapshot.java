@@ -0,0 +1,36 @@
+package com.chubini.pku.products;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Immutable, versioned view of the product table shared by all menu generation requests. Products
+ * held here are detached entities and must be treated as read-only.
+ */
+public record ProductCatalogSnapshot(
+    long version, List<Product> products, Map<UUID, Product> productsById, LocalDateTime builtAt) {
+
+  public ProductCatalogSnapshot {
+    products = List.copyOf(products);
+    productsById = Map.copyOf(productsById);
+  }
+
+  /** Build a snapshot from a freshly loaded product list */
+  public static ProductCatalogSnapshot of(long version, List<Product> products) {
+    Map<UUID, Product> byId = new HashMap<>(products.size() * 2);
+    for (Product product : products) {
+      if (product.getId() != null) {
+        byId.put(product.getId(), product);
+      }
+    }
+    return new ProductCatalogSnapshot(version, products, byId, LocalDateTime.now());
+  }
+
+  public Optional<Product> findById(UUID id) {
+    return Optional.ofNullable(productsById.get(id));
+  }
+
+  public int size() {
+    return products.size();
+  }
+}
@@ -6,11 +6,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import com.chubini.pku.facets.CategoryFacet;
+import com.chubini.pku.facets.CategoryFacets;
 import com.chubini.pku.validation.FileValidationService;
 
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -41,9 +46,10 @@ public class ProductController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+        @ApiResponse(responseCode = "304", description = "Products unchanged since the given ETag"),
         @ApiResponse(responseCode = "400", description = "Invalid pagination parameters")
       })
-  public Page<ProductDto> list(
+  public ResponseEntity<Page<ProductDto>> list(
       @Parameter(description = "Language code (ka, ru, en, uk)") @RequestParam(required = false)
           String lang,
       @Parameter(description = "Accept-Language header for fallback")
@@ -53,11 +59,17 @@ public class ProductController {
           String query,
       @Parameter(description = "Category filter") @RequestParam(required = false) String category,
       @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+      WebRequest request) {
 
     // Use explicit lang parameter or fall back to Accept-Language header
     String language = (lang != null && !lang.isBlank()) ? lang : acceptLang;
-    return productService.listLocalized(language, query, category, page, size);
+    String etag = productService.getCatalogETag(language);
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    return revalidated(etag)
+        .body(productService.listLocalized(language, query, category, page, size));
   }
 
   @GetMapping("/{id}")
@@ -67,6 +79,7 @@ public class ProductController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved product"),
+        @ApiResponse(responseCode = "304", description = "Product unchanged since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Product not found")
       })
   public ResponseEntity<ProductDto> getById(
@@ -75,10 +88,15 @@ public class ProductController {
           String lang,
       @Parameter(description = "Accept-Language header for fallback")
           @RequestHeader(value = "Accept-Language", required = false)
-          String acceptLang) {
+          String acceptLang,
+      WebRequest request) {
     String language = (lang != null && !lang.isBlank()) ? lang : acceptLang;
+    String etag = productService.getCatalogETag(language);
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
     ProductDto product = productService.getProductByIdLocalized(id, language);
-    return ResponseEntity.ok(product);
+    return revalidated(etag).body(product);
   }
 
   @PostMapping
@@ -143,9 +161,43 @@ public class ProductController {
           String lang,
       @Parameter(description = "Accept-Language header for fallback")
           @RequestHeader(value = "Accept-Language", required = false)
-          String acceptLang) {
+          String acceptLang,
+      WebRequest request) {
+    String language = (lang != null && !lang.isBlank()) ? lang : acceptLang;
+    CategoryFacets facets = productService.getCategoryFacetsLocalized(language, null);
+    if (request.checkNotModified(facets.etag())) {
+      return null;
+    }
+    return revalidated(facets.etag()).body(facets.names());
+  }
+
+  @GetMapping("/category-facets")
+  @Operation(
+      summary = "Get localized category facets",
+      description =
+          "Retrieve localized product categories with product counts, optionally counting only"
+              + " products at or below a phenylalanine threshold")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved facets"),
+        @ApiResponse(responseCode = "304", description = "Facets unchanged since the given ETag")
+      })
+  public ResponseEntity<List<CategoryFacet>> getCategoryFacetsLocalized(
+      @Parameter(description = "Language code (ka, ru, en, uk)") @RequestParam(required = false)
+          String lang,
+      @Parameter(description = "Accept-Language header for fallback")
+          @RequestHeader(value = "Accept-Language", required = false)
+          String acceptLang,
+      @Parameter(description = "Count only products with phenylalanine at or below this value")
+          @RequestParam(required = false)
+          Double maxPhe,
+      WebRequest request) {
     String language = (lang != null && !lang.isBlank()) ? lang : acceptLang;
-    return ResponseEntity.ok(productService.getAllCategoriesLocalized(language));
+    CategoryFacets facets = productService.getCategoryFacetsLocalized(language, maxPhe);
+    if (request.checkNotModified(facets.etag())) {
+      return null;
+    }
+    return revalidated(facets.etag()).body(facets.categories());
   }
 
   @GetMapping("/category/{category}")
@@ -155,9 +207,10 @@ public class ProductController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+        @ApiResponse(responseCode = "304", description = "Products unchanged since the given ETag"),
         @ApiResponse(responseCode = "400", description = "Invalid pagination parameters")
       })
-  public Page<ProductDto> getByCategory(
+  public ResponseEntity<Page<ProductDto>> getByCategory(
       @Parameter(description = "Language code (ka, ru, en)") @RequestParam(required = false)
           String lang,
       @Parameter(description = "Accept-Language header for fallback")
@@ -165,10 +218,16 @@ public class ProductController {
           String acceptLang,
       @Parameter(description = "Product category") @PathVariable String category,
       @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+      WebRequest request) {
 
     String language = (lang != null && !lang.isBlank()) ? lang : acceptLang;
-    return productService.getProductsByCategoryLocalized(language, category, page, size);
+    String etag = productService.getCatalogETag(language);
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    return revalidated(etag)
+        .body(productService.getProductsByCategoryLocalized(language, category, page, size));
   }
 
   @GetMapping("/low-phe")
@@ -178,9 +237,10 @@ public class ProductController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+        @ApiResponse(responseCode = "304", description = "Products unchanged since the given ETag"),
         @ApiResponse(responseCode = "400", description = "Invalid pagination parameters")
       })
-  public Page<ProductDto> getLowPheProducts(
+  public ResponseEntity<Page<ProductDto>> getLowPheProducts(
       @Parameter(description = "Language code (ka, ru, en)") @RequestParam(required = false)
           String lang,
       @Parameter(description = "Accept-Language header for fallback")
@@ -188,10 +248,16 @@ public class ProductController {
           String acceptLang,
       @Parameter(description = "Maximum PHE per 100g") @RequestParam Double maxPhe,
       @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+      WebRequest request) {
 
     String language = (lang != null && !lang.isBlank()) ? lang : acceptLang;
-    return productService.getLowPheProductsLocalized(language, maxPhe, page, size);
+    String etag = productService.getCatalogETag(language);
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    return revalidated(etag)
+        .body(productService.getLowPheProductsLocalized(language, maxPhe, page, size));
   }
 
   @PostMapping("/upload-csv")
@@ -212,8 +278,9 @@ public class ProductController {
       // Validate file before processing
       fileValidationService.validateFile(file);
 
-      String result = productService.uploadProductsFromCsv(file.getBytes());
-      return ResponseEntity.ok(result);
+      try (var in = file.getInputStream()) {
+        return ResponseEntity.ok(productService.uploadProductsFromCsv(in));
+      }
     } catch (ProductUploadException e) {
       return ResponseEntity.badRequest().body("File validation error: " + e.getMessage());
     } catch (Exception e) {
@@ -241,7 +308,10 @@ public class ProductController {
       // Validate file before processing
       fileValidationService.validateFile(file);
 
-      List<String> errors = productService.uploadTranslations(locale, file.getBytes());
+      List<String> errors;
+      try (var in = file.getInputStream()) {
+        errors = productService.uploadTranslations(locale, in);
+      }
 
       Map<String, Object> response = new HashMap<>();
       response.put("locale", locale);
@@ -288,4 +358,12 @@ public class ProductController {
       return ResponseEntity.notFound().build();
     }
   }
+
+  // Clients must revalidate before reuse, and without a lang parameter the body follows the header
+  private static ResponseEntity.BodyBuilder revalidated(String etag) {
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(CacheControl.noCache())
+        .varyBy(HttpHeaders.ACCEPT_LANGUAGE);
+  }
 }
@@ -38,16 +38,19 @@ public class ProductMatchingController {
           String query,
       @Parameter(description = "Maximum number of results to return")
           @RequestParam(defaultValue = "10")
-          int maxResults) {
+          int maxResults,
+      @Parameter(description = "Also match translations in this language (e.g. ka, ru, uk, en)")
+          @RequestParam(required = false)
+          String lang) {
 
-    log.info("Intelligent product search for: '{}' (max: {})", query, maxResults);
+    log.info("Intelligent product search for: '{}' (max: {}, lang: {})", query, maxResults, lang);
 
     if (query == null || query.trim().isEmpty()) {
       return ResponseEntity.badRequest().build();
     }
 
     List<IntelligentProductMatcher.ProductMatchResult> results =
-        intelligentMatcher.findProductsIntelligently(query.trim(), maxResults);
+        intelligentMatcher.findProductsIntelligently(query.trim(), maxResults, lang);
 
     log.info("Found {} matching products for query: '{}'", results.size(), query);
     return ResponseEntity.ok(results);
@@ -0,0 +1,515 @@
+package com.chubini.pku.products;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+
+import com.chubini.pku.util.TopK;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory trigram inverted index over normalized product names and their {@link
+ * ProductTranslation}s, used by {@link IntelligentProductMatcher} to shortlist fuzzy match
+ * candidates without scanning the whole catalog. Every name is indexed under its own trigrams and
+ * those of its Latin transliteration, so Georgian and Cyrillic names are found whether the search
+ * is typed in the native script or in Latin letters. Built lazily on first use and kept current
+ * from {@link ProductCatalogChangedEvent}s: events naming specific products are applied
+ * incrementally, events without product ids trigger a full rebuild on the next lookup.
+ */
+@Component
+@Slf4j
+public class ProductNameIndex {
+
+  /**
+   * One indexed name of a product: the product name itself ({@code locale} null) or one of its
+   * translations; holds no entity references
+   */
+  public record Entry(
+      UUID productId,
+      String locale,
+      String name,
+      String normalizedName,
+      String latinName,
+      String category,
+      Set<String> trigrams) {
+
+    /** Whether this name is searched for the given locale; a null locale searches all names */
+    public boolean servesLocale(String requestedLocale) {
+      return locale == null || requestedLocale == null || locale.equals(requestedLocale);
+    }
+  }
+
+  private static final Comparator<Entry> BY_NAME =
+      Comparator.comparing(Entry::normalizedName)
+          .thenComparing(Entry::productId)
+          .thenComparing(Entry::locale, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private final ProductRepository productRepository;
+  private final ProductTranslationRepository translationRepository;
+  private final TransactionTemplate readOnlyTransaction;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // Serializes loads, so a slower, older load never overwrites a newer one
+  private final Object changeLock = new Object();
+  private Index index = new Index();
+  private boolean built;
+  // Bumped by every full-rebuild request, so a rebuild that loaded before one stays stale
+  private long rebuildRequests;
+
+  public ProductNameIndex(
+      ProductRepository productRepository,
+      ProductTranslationRepository translationRepository,
+      PlatformTransactionManager transactionManager) {
+    this.productRepository = productRepository;
+    this.translationRepository = translationRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  /**
+   * Shortlist names serving {@code locale} (null for all) that share the most trigrams with any of
+   * the given normalized terms, best overlap first. A product may appear once per matching name.
+   */
+  public List<Entry> shortlist(Collection<String> normalizedTerms, String locale, int limit) {
+    ensureBuilt();
+    lock.readLock().lock();
+    try {
+      List<Set<String>> termTrigrams = new ArrayList<>(normalizedTerms.size());
+      int touchedSlots = 0;
+      for (String term : normalizedTerms) {
+        Set<String> trigrams = trigrams(term);
+        termTrigrams.add(trigrams);
+        for (String trigram : trigrams) {
+          BitSet slotBits = index.postings.get(trigram);
+          if (slotBits != null) {
+            touchedSlots += slotBits.cardinality();
+          }
+        }
+      }
+      if (touchedSlots == 0) {
+        return List.of();
+      }
+
+      SlotScores scores = new SlotScores(touchedSlots);
+      for (Set<String> trigrams : termTrigrams) {
+        if (trigrams.isEmpty()) {
+          continue;
+        }
+        scores.startTerm();
+        for (String trigram : trigrams) {
+          BitSet slotBits = index.postings.get(trigram);
+          if (slotBits == null) {
+            continue;
+          }
+          for (int slot = slotBits.nextSetBit(0); slot >= 0; slot = slotBits.nextSetBit(slot + 1)) {
+            if (locale == null || index.slots.get(slot).servesLocale(locale)) {
+              scores.countShared(slot);
+            }
+          }
+        }
+        scores.endTerm(trigrams.size(), slot -> index.slots.get(slot).trigrams().size());
+      }
+
+      // Equal overlaps keep slot order
+      int[] hits = scores.slots();
+      Arrays.sort(hits);
+      TopK<Entry> best = TopK.highest(limit);
+      for (int slot : hits) {
+        best.offer(index.slots.get(slot), scores.overlap(slot));
+      }
+      return best.toSortedList();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Up to {@code limitPerCategory} product-name entries from each product category accepted by the
+   * filter
+   */
+  public List<Entry> inCategories(Predicate<String> categoryFilter, int limitPerCategory) {
+    ensureBuilt();
+    lock.readLock().lock();
+    try {
+      List<Entry> result = new ArrayList<>();
+      for (Map.Entry<String, NavigableSet<Entry>> category : index.entriesByCategory.entrySet()) {
+        if (categoryFilter.test(category.getKey())) {
+          category.getValue().stream().limit(limitPerCategory).forEach(result::add);
+        }
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Number of indexed products */
+  public int size() {
+    ensureBuilt();
+    lock.readLock().lock();
+    try {
+      return index.slotsByProduct.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Apply a committed catalog change. Products and translations are loaded and their entries built
+   * without holding the index lock; the write lock is held only while the entries are swapped in.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCatalogChanged(ProductCatalogChangedEvent event) {
+    if (event.productIds().isEmpty()) {
+      lock.writeLock().lock();
+      try {
+        rebuildRequests++;
+        if (built) {
+          built = false;
+          log.debug("Product name index marked for rebuild after {}", event.changeType());
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+      return;
+    }
+
+    synchronized (changeLock) {
+      if (!isBuilt()) {
+        return;
+      }
+      Map<UUID, List<ProductTranslation>> translations =
+          readOnlyTransaction.execute(
+              status -> byProduct(translationRepository.findByProductIdIn(event.productIds())));
+      List<Product> products =
+          readOnlyTransaction.execute(status -> productRepository.findAllById(event.productIds()));
+      Map<UUID, List<Entry>> entriesByProduct = new HashMap<>();
+      if (products != null) {
+        for (Product product : products) {
+          if (product.getId() != null) {
+            entriesByProduct.put(
+                product.getId(),
+                entriesFor(product, translations.getOrDefault(product.getId(), List.of())));
+          }
+        }
+      }
+
+      lock.writeLock().lock();
+      try {
+        if (!built) {
+          return;
+        }
+        for (UUID id : event.productIds()) {
+          // Ids that no longer load were deleted
+          index.replace(id, entriesByProduct.getOrDefault(id, List.of()));
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+    log.debug(
+        "Product name index applied {} for {} products",
+        event.changeType(),
+        event.productIds().size());
+  }
+
+  private boolean isBuilt() {
+    lock.readLock().lock();
+    try {
+      return built;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Build the index if needed. The catalog is loaded and the new index built without holding the
+   * index lock; the write lock is held only while it is swapped in.
+   */
+  private void ensureBuilt() {
+    if (isBuilt()) {
+      return;
+    }
+
+    synchronized (changeLock) {
+      long requests;
+      lock.readLock().lock();
+      try {
+        if (built) {
+          return;
+        }
+        requests = rebuildRequests;
+      } finally {
+        lock.readLock().unlock();
+      }
+
+      Map<UUID, List<ProductTranslation>> translations =
+          readOnlyTransaction.execute(status -> byProduct(translationRepository.findAll()));
+      List<Product> products = readOnlyTransaction.execute(status -> productRepository.findAll());
+      Index fresh = new Index();
+      if (products != null) {
+        for (Product product : products) {
+          if (product.getId() != null) {
+            fresh.replace(
+                product.getId(),
+                entriesFor(product, translations.getOrDefault(product.getId(), List.of())));
+          }
+        }
+      }
+
+      lock.writeLock().lock();
+      try {
+        index = fresh;
+        // A rebuild requested while loading may not be reflected; the next lookup loads again
+        built = requests == rebuildRequests;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      log.info(
+          "Built product name index with {} products and {} names",
+          fresh.slotsByProduct.size(),
+          fresh.slots.size() - fresh.freeSlots.size());
+    }
+  }
+
+  private static Map<UUID, List<ProductTranslation>> byProduct(
+      List<ProductTranslation> translations) {
+    Map<UUID, List<ProductTranslation>> result = new HashMap<>();
+    for (ProductTranslation translation : translations) {
+      // Reading the id does not initialize the lazy product proxy
+      result
+          .computeIfAbsent(translation.getProduct().getId(), k -> new ArrayList<>())
+          .add(translation);
+    }
+    return result;
+  }
+
+  /** Index entries for a product: its own name first, then its non-blank translations */
+  private static List<Entry> entriesFor(Product product, List<ProductTranslation> translations) {
+    String category = product.getCategory() != null ? product.getCategory().toLowerCase() : null;
+    List<Entry> entries = new ArrayList<>(1 + translations.size());
+    entries.add(newEntry(product.getId(), null, product.getProductName(), category));
+    for (ProductTranslation translation : translations) {
+      if (translation.getProductName() != null && !translation.getProductName().isBlank()) {
+        entries.add(
+            newEntry(
+                product.getId(),
+                translation.getLocale(),
+                translation.getProductName(),
+                translation.getCategory() != null
+                    ? translation.getCategory().toLowerCase()
+                    : category));
+      }
+    }
+    return entries;
+  }
+
+  private static Entry newEntry(UUID productId, String locale, String rawName, String category) {
+    String name = normalize(rawName);
+    String latinName = Transliteration.toLatin(name);
+    Set<String> nameTrigrams = trigrams(name);
+    if (!latinName.equals(name)) {
+      nameTrigrams.addAll(trigrams(latinName));
+    }
+    return new Entry(productId, locale, rawName, name, latinName, category, nameTrigrams);
+  }
+
+  /**
+   * Lower-case, strip accents and other combining marks, drop everything except letters, digits and
+   * whitespace in any script, and collapse whitespace runs to a single space
+   */
+  public static String normalize(String input) {
+    if (input == null) {
+      return "";
+    }
+    String decomposed =
+        Transliteration.isAscii(input) ? input : Normalizer.normalize(input, Normalizer.Form.NFKD);
+    StringBuilder sb = new StringBuilder(decomposed.length());
+    boolean pendingSpace = false;
+    for (int i = 0; i < decomposed.length(); ) {
+      int codePoint = decomposed.codePointAt(i);
+      i += Character.charCount(codePoint);
+      if (Character.isLetterOrDigit(codePoint)) {
+        if (pendingSpace && sb.length() > 0) {
+          sb.append(' ');
+        }
+        pendingSpace = false;
+        sb.appendCodePoint(Character.toLowerCase(codePoint));
+      } else if (Character.isWhitespace(codePoint) || Character.isSpaceChar(codePoint)) {
+        pendingSpace = true;
+      }
+    }
+    return sb.toString();
+  }
+
+  /** Trigrams of each word, padded with two leading and one trailing space like pg_trgm */
+  static Set<String> trigrams(String normalized) {
+    Set<String> result = new HashSet<>();
+    for (String word : normalized.split(" ")) {
+      if (word.isEmpty()) {
+        continue;
+      }
+      String padded = "  " + word + " ";
+      for (int i = 0; i + 3 <= padded.length(); i++) {
+        result.add(padded.substring(i, i + 3));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The index data. Guarded by the index lock once published; a full rebuild fills a new one
+   * privately and swaps it in.
+   */
+  private static final class Index {
+
+    // Entries live in dense slots so posting lists can be bit sets over slot numbers
+    private final List<Entry> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<UUID, List<Integer>> slotsByProduct = new HashMap<>();
+    private final Map<String, BitSet> postings = new HashMap<>();
+    // Kept sorted by name so category lookups can stop after the first few entries
+    private final Map<String, NavigableSet<Entry>> entriesByCategory = new HashMap<>();
+
+    // An empty entry list removes the product
+    void replace(UUID productId, List<Entry> entries) {
+      remove(productId);
+      for (Entry entry : entries) {
+        addEntry(entry);
+        if (entry.locale() == null && entry.category() != null) {
+          entriesByCategory
+              .computeIfAbsent(entry.category(), k -> new TreeSet<>(BY_NAME))
+              .add(entry);
+        }
+      }
+    }
+
+    private void addEntry(Entry entry) {
+      int slot;
+      if (freeSlots.isEmpty()) {
+        slot = slots.size();
+        slots.add(entry);
+      } else {
+        slot = freeSlots.pop();
+        slots.set(slot, entry);
+      }
+      slotsByProduct.computeIfAbsent(entry.productId(), k -> new ArrayList<>(2)).add(slot);
+      for (String trigram : entry.trigrams()) {
+        postings.computeIfAbsent(trigram, k -> new BitSet()).set(slot);
+      }
+    }
+
+    private void remove(UUID productId) {
+      List<Integer> productSlots = slotsByProduct.remove(productId);
+      if (productSlots == null) {
+        return;
+      }
+      for (int slot : productSlots) {
+        Entry existing = slots.set(slot, null);
+        freeSlots.push(slot);
+        for (String trigram : existing.trigrams()) {
+          BitSet slotBits = postings.get(trigram);
+          if (slotBits != null) {
+            slotBits.clear(slot);
+            if (slotBits.isEmpty()) {
+              postings.remove(trigram);
+            }
+          }
+        }
+        if (existing.locale() == null && existing.category() != null) {
+          NavigableSet<Entry> categoryEntries = entriesByCategory.get(existing.category());
+          if (categoryEntries != null
+              && categoryEntries.remove(existing)
+              && categoryEntries.isEmpty()) {
+            entriesByCategory.remove(existing.category());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Per-query trigram counters for the slots a query touches, in open-addressing arrays sized to
+   * the posting lists it reads rather than to the whole index
+   */
+  private static final class SlotScores {
+
+    private final int[] keys; // slot + 1; 0 marks a free cell
+    private final int[] shared;
+    private final double[] overlap;
+    private final int[] hitCells;
+    private final int[] termCells;
+    private int hitCount;
+    private int termCount;
+
+    SlotScores(int expectedSlots) {
+      int capacity = Integer.highestOneBit(Math.max(8, expectedSlots * 2) - 1) << 1;
+      keys = new int[capacity];
+      shared = new int[capacity];
+      overlap = new double[capacity];
+      hitCells = new int[Math.min(capacity, expectedSlots)];
+      termCells = new int[hitCells.length];
+    }
+
+    void startTerm() {
+      termCount = 0;
+    }
+
+    void countShared(int slot) {
+      int cell = cell(slot);
+      if (shared[cell]++ == 0) {
+        termCells[termCount++] = cell;
+      }
+    }
+
+    /**
+     * Fold the term's shared counts into the best Dice overlap per slot, then reset them. Dice so
+     * long names don't win just by containing more trigrams.
+     */
+    void endTerm(int termTrigrams, IntUnaryOperator slotTrigrams) {
+      for (int i = 0; i < termCount; i++) {
+        int cell = termCells[i];
+        double dice = 2.0 * shared[cell] / (termTrigrams + slotTrigrams.applyAsInt(keys[cell] - 1));
+        overlap[cell] = Math.max(overlap[cell], dice);
+        shared[cell] = 0;
+      }
+    }
+
+    /** Slots that share at least one trigram with any term */
+    int[] slots() {
+      int[] result = new int[hitCount];
+      for (int i = 0; i < hitCount; i++) {
+        result[i] = keys[hitCells[i]] - 1;
+      }
+      return result;
+    }
+
+    double overlap(int slot) {
+      return overlap[cell(slot)];
+    }
+
+    private int cell(int slot) {
+      int mask = keys.length - 1;
+      int cell = (slot * 0x9E3779B9) >>> 1 & mask;
+      while (keys[cell] != 0 && keys[cell] != slot + 1) {
+        cell = (cell + 1) & mask;
+      }
+      if (keys[cell] == 0) {
+        keys[cell] = slot + 1;
+        hitCells[hitCount++] = cell;
+      }
+      return cell;
+    }
+  }
+}
@@ -4,36 +4,70 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import com.chubini.pku.util.LikePatterns;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+
 public interface ProductRepository extends JpaRepository<Product, UUID> {
-  // Fix: use productName instead of name
-  Page<Product> findByProductNameContainingIgnoreCase(String productName, Pageable pageable);
+  // Products whose own or translated name contains or resembles :q, best match first. Each branch
+  // can use its trigram index (V32) instead of scanning the table.
+  @Query(
+      value =
+          """
+    WITH matches AS (
+      SELECT p.id, similarity(p.product_name, :q) AS score
+      FROM products p
+      WHERE p.product_name ILIKE :pattern ESCAPE '\\' OR p.product_name % :q
+      UNION ALL
+      SELECT t.product_id, similarity(t.product_name, :q)
+      FROM product_translations t
+      WHERE t.product_name ILIKE :pattern ESCAPE '\\' OR t.product_name % :q
+    )
+    SELECT p.*
+    FROM products p
+    JOIN (SELECT id, MAX(score) AS score FROM matches GROUP BY id) m ON m.id = p.id
+    ORDER BY m.score DESC, p.product_name, p.id
+    """,
+      countQuery =
+          """
+    SELECT COUNT(DISTINCT matches.id) FROM (
+      SELECT p.id
+      FROM products p
+      WHERE p.product_name ILIKE :pattern ESCAPE '\\' OR p.product_name % :q
+      UNION ALL
+      SELECT t.product_id
+      FROM product_translations t
+      WHERE t.product_name ILIKE :pattern ESCAPE '\\' OR t.product_name % :q
+    ) matches
+    """,
+      nativeQuery = true)
+  Page<Product> searchByNameSimilarity(
+      @Param("q") String query, @Param("pattern") String containsPattern, Pageable pageable);
+
+  /** Search as above, matching %, _ and \ in the query literally */
+  default Page<Product> searchByNameSimilarity(String query, Pageable pageable) {
+    return searchByNameSimilarity(query, LikePatterns.contains(query), pageable);
+  }
 
   Page<Product> findByCategory(String category, Pageable pageable);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   @Query("SELECT DISTINCT p.category FROM Product p ORDER BY p.category")
   List<String> findAllCategories();
 
-  // Localized distinct categories with fallback to English
-  @Query(
-      """
-    SELECT DISTINCT COALESCE(tReq.category, tEn.category, p.category)
-    FROM Product p
-    LEFT JOIN ProductTranslation tReq ON tReq.product = p AND tReq.locale = :lang
-    LEFT JOIN ProductTranslation tEn ON tEn.product = p AND tEn.locale = 'en'
-    ORDER BY COALESCE(tReq.category, tEn.category, p.category)
-    """)
-  List<String> findAllCategoriesLocalized(@Param("lang") String lang);
-
   @Query("SELECT p FROM Product p WHERE p.phenylalanine <= :maxPhe ORDER BY p.phenylalanine")
   Page<Product> findByMaxPhePer100g(@Param("maxPhe") Double maxPhe, Pageable pageable);
 
   // Find product by product code
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<Product> findByProductCode(String productCode);
 
   // Localized product by ID with fallback to English
@@ -53,65 +87,7 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     """)
   Optional<ProductDto> findByIdLocalized(@Param("lang") String lang, @Param("id") UUID id);
 
-  // Localized product list with fallback to English
-  @Query(
-      """
-    SELECT new com.chubini.pku.products.ProductDto(
-      p.id, p.productCode,
-      COALESCE(tReq.productName, tEn.productName, p.productName),
-      COALESCE(tReq.category, tEn.category, p.category),
-      p.phenylalanine, p.leucine, p.tyrosine, p.methionine,
-      p.kilojoules, p.kilocalories, p.protein, p.carbohydrates, p.fats
-    )
-    FROM Product p
-    LEFT JOIN ProductTranslation tReq ON tReq.product = p AND tReq.locale = :lang
-    LEFT JOIN ProductTranslation tEn ON tEn.product = p AND tEn.locale = 'en'
-    WHERE (:q IS NULL OR LOWER(COALESCE(tReq.productName, tEn.productName, p.productName)) LIKE LOWER(CONCAT('%', :q, '%')))
-    """)
-  Page<ProductDto> findAllLocalized(
-      @Param("lang") String lang, @Param("q") String q, Pageable pageable);
-
-  // Localized product list by category with fallback to English
-  @Query(
-      """
-    SELECT new com.chubini.pku.products.ProductDto(
-      p.id, p.productCode,
-      COALESCE(tReq.productName, tEn.productName, p.productName),
-      COALESCE(tReq.category, tEn.category, p.category),
-      p.phenylalanine, p.leucine, p.tyrosine, p.methionine,
-      p.kilojoules, p.kilocalories, p.protein, p.carbohydrates, p.fats
-    )
-    FROM Product p
-    LEFT JOIN ProductTranslation tReq ON tReq.product = p AND tReq.locale = :lang
-    LEFT JOIN ProductTranslation tEn ON tEn.product = p AND tEn.locale = 'en'
-    WHERE LOWER(COALESCE(tReq.category, tEn.category, p.category)) = LOWER(:category)
-    """)
-  Page<ProductDto> findByCategoryLocalized(
-      @Param("lang") String lang, @Param("category") String category, Pageable pageable);
-
-  // Localized products by category with search query and fallback to English
-  @Query(
-      """
-    SELECT new com.chubini.pku.products.ProductDto(
-      p.id, p.productCode,
-      COALESCE(tReq.productName, tEn.productName, p.productName),
-      COALESCE(tReq.category, tEn.category, p.category),
-      p.phenylalanine, p.leucine, p.tyrosine, p.methionine,
-      p.kilojoules, p.kilocalories, p.protein, p.carbohydrates, p.fats
-    )
-    FROM Product p
-    LEFT JOIN ProductTranslation tReq ON tReq.product = p AND tReq.locale = :lang
-    LEFT JOIN ProductTranslation tEn ON tEn.product = p AND tEn.locale = 'en'
-    WHERE LOWER(COALESCE(tReq.category, tEn.category, p.category)) = LOWER(:category)
-    AND (:q IS NULL OR LOWER(COALESCE(tReq.productName, tEn.productName, p.productName)) LIKE LOWER(CONCAT('%', :q, '%')))
-    """)
-  Page<ProductDto> findByCategoryLocalized(
-      @Param("lang") String lang,
-      @Param("category") String category,
-      @Param("q") String query,
-      Pageable pageable);
-
-  // Localized low PHE products with fallback to English
+  // Every product localized with fallback to English, for the in-memory listing
   @Query(
       """
     SELECT new com.chubini.pku.products.ProductDto(
@@ -124,9 +100,6 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     FROM Product p
     LEFT JOIN ProductTranslation tReq ON tReq.product = p AND tReq.locale = :lang
     LEFT JOIN ProductTranslation tEn ON tEn.product = p AND tEn.locale = 'en'
-    WHERE p.phenylalanine <= :maxPhe
-    ORDER BY p.phenylalanine
     """)
-  Page<ProductDto> findByMaxPhePer100gLocalized(
-      @Param("lang") String lang, @Param("maxPhe") Double maxPhe, Pageable pageable);
+  List<ProductDto> findAllLocalized(@Param("lang") String lang);
 }
@@ -1,13 +1,21 @@
 package com.chubini.pku.products;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
 
+import com.chubini.pku.config.CatalogVersions;
+import com.chubini.pku.facets.CategoryFacets;
+import com.chubini.pku.imports.ImportCheckpoint;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -19,18 +27,33 @@ public class ProductService {
   private final CsvUploadService csvUploadService;
   private final TranslationCsvService translationCsvService;
   private final com.chubini.pku.products.mapper.ProductMapper productMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ProductBulkWriter bulkWriter;
+  private final LocalizedProductCatalog localizedCatalog;
+  private final CatalogVersions catalogVersions;
+
+  @Value("${pku.products.import.chunk-size:1000}")
+  private int importChunkSize = 1000;
 
   public ProductService(
       ProductRepository repository,
       ProductTranslationRepository translationRepository,
       CsvUploadService csvUploadService,
       TranslationCsvService translationCsvService,
-      com.chubini.pku.products.mapper.ProductMapper productMapper) {
+      com.chubini.pku.products.mapper.ProductMapper productMapper,
+      ApplicationEventPublisher eventPublisher,
+      ProductBulkWriter bulkWriter,
+      LocalizedProductCatalog localizedCatalog,
+      CatalogVersions catalogVersions) {
     this.repository = repository;
     this.translationRepository = translationRepository;
     this.csvUploadService = csvUploadService;
     this.translationCsvService = translationCsvService;
     this.productMapper = productMapper;
+    this.eventPublisher = eventPublisher;
+    this.bulkWriter = bulkWriter;
+    this.localizedCatalog = localizedCatalog;
+    this.catalogVersions = catalogVersions;
   }
 
   // ... existing code ...
@@ -38,12 +61,17 @@ public class ProductService {
     if (query == null || query.isBlank()) {
       return repository.findAll(PageRequest.of(page, size));
     }
-    // Fix: use the correct method name
-    return repository.findByProductNameContainingIgnoreCase(query, PageRequest.of(page, size));
+    return repository.searchByNameSimilarity(query, PageRequest.of(page, size));
   }
 
   // ... existing code ...
 
+  /** ETag of the product reads localized to provided language, checked without a query */
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+  public String getCatalogETag(String lang) {
+    return catalogVersions.productsETag(normalizeLang(lang));
+  }
+
   public Product getProductById(UUID id) {
     return repository
         .findById(id)
@@ -61,13 +89,17 @@ public class ProductService {
 
   public Product createProduct(ProductUpsertDto dto) {
     Product product = productMapper.toEntity(dto);
-    return repository.save(product);
+    Product saved = repository.save(product);
+    eventPublisher.publishEvent(new ProductCatalogChangedEvent("CREATE", List.of(saved.getId())));
+    return saved;
   }
 
   public Product updateProduct(UUID id, ProductUpsertDto dto) {
     Product existingProduct = getProductById(id);
     productMapper.updateEntityFromDto(dto, existingProduct);
-    return repository.save(existingProduct);
+    Product saved = repository.save(existingProduct);
+    eventPublisher.publishEvent(new ProductCatalogChangedEvent("UPDATE", List.of(saved.getId())));
+    return saved;
   }
 
   public void deleteProduct(UUID id) {
@@ -75,17 +107,20 @@ public class ProductService {
       throw new ProductNotFoundException("Product not found with id: " + id);
     }
     repository.deleteById(id);
+    eventPublisher.publishEvent(new ProductCatalogChangedEvent("DELETE", List.of(id)));
   }
 
   public List<String> getAllCategories() {
     return repository.findAllCategories();
   }
 
-  /** Get distinct categories localized to provided language with fallback to English */
-  @Transactional(readOnly = true)
-  public List<String> getAllCategoriesLocalized(String lang) {
-    String normalizedLang = normalizeLang(lang);
-    return repository.findAllCategoriesLocalized(normalizedLang);
+  /**
+   * Get categories localized to provided language with fallback to English, with product counts
+   * limited to products at or below {@code maxPhe} when it is given
+   */
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+  public CategoryFacets getCategoryFacetsLocalized(String lang, Double maxPhe) {
+    return localizedCatalog.listing(normalizeLang(lang)).categoryFacets(maxPhe);
   }
 
   public Page<Product> getProductsByCategory(String category, int page, int size) {
@@ -96,103 +131,115 @@ public class ProductService {
     return repository.findByMaxPhePer100g(maxPhe, PageRequest.of(page, size));
   }
 
-  public String uploadProductsFromCsv(byte[] csvData) {
+  /**
+   * Stream a product CSV into the catalog chunk by chunk. Each chunk is one upsert statement that
+   * commits on its own, so a large file never holds a transaction or its rows in memory at once.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public String uploadProductsFromCsv(InputStream csvData) {
+    return importProducts(csvData, 0, ImportCheckpoint.NONE);
+  }
+
+  /**
+   * Stream a product CSV into the catalog, starting after record {@code resumeAfterRecord}. Each
+   * chunk's upsert is committed through {@code checkpoint}.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public String importProducts(
+      InputStream csvData, long resumeAfterRecord, ImportCheckpoint checkpoint) {
+    int[] created = {0};
+    int[] updated = {0};
     try {
-      List<Product> products = csvUploadService.parseCsvBytes(csvData);
-
-      int created = 0;
-      int updated = 0;
-
-      for (Product incoming : products) {
-        // Upsert by product_code to allow re-uploads without failing on uniques
-        var existingOpt = repository.findByProductCode(incoming.getProductCode());
-        if (existingOpt.isPresent()) {
-          Product existing = existingOpt.get();
-          existing.setProductName(incoming.getProductName());
-          existing.setCategory(incoming.getCategory());
-          existing.setPhenylalanine(incoming.getPhenylalanine());
-          existing.setLeucine(incoming.getLeucine());
-          existing.setTyrosine(incoming.getTyrosine());
-          existing.setMethionine(incoming.getMethionine());
-          existing.setKilojoules(incoming.getKilojoules());
-          existing.setKilocalories(incoming.getKilocalories());
-          existing.setProtein(incoming.getProtein());
-          existing.setCarbohydrates(incoming.getCarbohydrates());
-          existing.setFats(incoming.getFats());
-          repository.save(existing);
-          updated++;
-        } else {
-          repository.save(incoming);
-          created++;
-        }
-      }
-
-      return "Upload complete: created=" + created + ", updated=" + updated;
+      CsvUploadService.StreamResult result =
+          csvUploadService.streamCsv(
+              csvData,
+              Math.min(importChunkSize, ProductBulkWriter.MAX_ROWS_PER_STATEMENT),
+              resumeAfterRecord,
+              chunk ->
+                  checkpoint.commit(
+                      chunk.lastRecord(),
+                      chunk.products().size(),
+                      chunk.skipped(),
+                      () -> {
+                        ProductBulkWriter.UpsertResult upsert = bulkWriter.upsert(chunk.products());
+                        created[0] += upsert.created();
+                        updated[0] += upsert.updated();
+                        eventPublisher.publishEvent(
+                            new ProductCatalogChangedEvent("CSV_UPLOAD", upsert.productIds()));
+                      }));
+
+      String summary = "Upload complete: created=" + created[0] + ", updated=" + updated[0];
+      return result.skipped() > 0 ? summary + ", skipped=" + result.skipped() : summary;
     } catch (Exception e) {
-      throw new ProductUploadException("Error uploading CSV: " + e.getMessage());
+      throw new ProductUploadException(
+          "Error uploading CSV after "
+              + (created[0] + updated[0])
+              + " committed rows: "
+              + e.getMessage());
     }
   }
 
   // ===== LOCALIZATION METHODS =====
 
-  /** Get localized product list with fallback to English */
-  @Transactional(readOnly = true)
+  /**
+   * Get localized product list with fallback to English, in name order. {@code query} matches the
+   * start of any word in the localized name. Served from memory, so no transaction is started
+   * unless the listing has to be rebuilt.
+   */
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
   public Page<ProductDto> listLocalized(
       String lang, String query, String category, int page, int size) {
-    String normalizedLang = normalizeLang(lang);
-
-    // If category is specified, use category-specific query
-    if (category != null && !category.isBlank()) {
-      return repository.findByCategoryLocalized(
-          normalizedLang, category, query, PageRequest.of(page, size));
-    }
-
-    // Otherwise, use general query
-    return repository.findAllLocalized(normalizedLang, query, PageRequest.of(page, size));
+    return localizedCatalog
+        .listing(normalizeLang(lang))
+        .search(query, category, PageRequest.of(page, size));
   }
 
   /** Get localized products by category with fallback to English */
-  @Transactional(readOnly = true)
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
   public Page<ProductDto> getProductsByCategoryLocalized(
       String lang, String category, int page, int size) {
-    String normalizedLang = normalizeLang(lang);
-    return repository.findByCategoryLocalized(normalizedLang, category, PageRequest.of(page, size));
+    return localizedCatalog
+        .listing(normalizeLang(lang))
+        .search(null, category, PageRequest.of(page, size));
   }
 
   /** Get localized low PHE products with fallback to English */
-  @Transactional(readOnly = true)
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
   public Page<ProductDto> getLowPheProductsLocalized(
       String lang, Double maxPhe, int page, int size) {
-    String normalizedLang = normalizeLang(lang);
-    return repository.findByMaxPhePer100gLocalized(
-        normalizedLang, maxPhe, PageRequest.of(page, size));
+    return localizedCatalog
+        .listing(normalizeLang(lang))
+        .withMaxPhenylalanine(maxPhe, PageRequest.of(page, size));
   }
 
   /** Upload translations from CSV */
-  @Transactional
-  public List<String> uploadTranslations(String locale, byte[] csvBytes) throws IOException {
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public List<String> uploadTranslations(String locale, InputStream csvData) throws IOException {
+    return importTranslations(locale, csvData, 0, ImportCheckpoint.NONE);
+  }
+
+  /**
+   * Import translations from CSV, starting after record {@code resumeAfterRecord}. Each batch
+   * commits on its own through {@code checkpoint}, so a failed batch can be retried row by row.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public List<String> importTranslations(
+      String locale, InputStream csvData, long resumeAfterRecord, ImportCheckpoint checkpoint)
+      throws IOException {
     String normalizedLocale = normalizeLang(locale);
 
     return translationCsvService.importTranslations(
-        csvBytes,
+        csvData,
         normalizedLocale,
-        code -> repository.findByProductCode(code),
-        (product, row) -> {
-          var existing =
-              translationRepository
-                  .findByProductIdAndLocale(product.getId(), normalizedLocale)
-                  .orElseGet(
-                      () -> {
-                        var translation = new ProductTranslation();
-                        translation.setProduct(product);
-                        translation.setLocale(normalizedLocale);
-                        return translation;
-                      });
-
-          existing.setProductName(row.name());
-          existing.setCategory(row.category());
-          translationRepository.save(existing);
-        });
+        resumeAfterRecord,
+        bulkWriter::findIdsByCodes,
+        batch -> {
+          bulkWriter.upsertTranslations(normalizedLocale, batch);
+          eventPublisher.publishEvent(
+              new ProductCatalogChangedEvent(
+                  "TRANSLATION_UPLOAD", normalizedLocale, batch.keySet()));
+        },
+        checkpoint);
   }
 
   /** Validate CSV headers for translation upload */
@@ -4,10 +4,15 @@ import java.time.Instant;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(
     name = "product_translations",
     uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "locale"}))
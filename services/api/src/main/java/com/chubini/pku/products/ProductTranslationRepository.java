@@ -23,6 +23,9 @@ public interface ProductTranslationRepository extends JpaRepository<ProductTrans
   /** Find all translations for a specific product */
   List<ProductTranslation> findByProductId(UUID productId);
 
+  /** Find all translations for the given products */
+  List<ProductTranslation> findByProductIdIn(Collection<UUID> productIds);
+
   /** Find all translations for a specific locale */
   List<ProductTranslation> findByLocale(String locale);
 
@@ -2,18 +2,27 @@ package com.chubini.pku.products;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.BiConsumer;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import com.chubini.pku.imports.ImportCheckpoint;
+
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -23,6 +32,13 @@ import org.springframework.stereotype.Service;
 @Service
 public class TranslationCsvService {
 
+  @Value("${pku.products.import.chunk-size:1000}")
+  private int batchSize = 1000;
+
+  private record ParsedRow(long line, TranslationUploadRow row) {}
+
+  private record LineError(long line, String message) {}
+
   /** Headers mapping for different languages */
   record Headers(String code, String name, String category) {}
 
@@ -65,26 +81,52 @@ public class TranslationCsvService {
   }
 
   /**
-   * Import translations from CSV with UTF-8 encoding
+   * Import translations from CSV with UTF-8 encoding. Rows are read in batches; each batch's
+   * product codes are resolved with a single lookup and its rows handed to {@code upsertBatch}
+   * keyed by product id before the next batch is read. When a batch fails, its rows are retried one
+   * at a time so errors stay attributed to lines.
    *
    * @param csvBytes CSV file bytes
    * @param locale Target locale (ka, ru, en)
-   * @param findByCode Function to find product by code
-   * @param upsert Function to upsert translation
-   * @return List of error messages
+   * @param resolveCodes Function mapping product codes to ids; unknown codes are left out
+   * @param upsertBatch Function to upsert a batch of translations by product id
+   * @return List of error messages, in line order
    * @throws IOException if CSV parsing fails
    */
   public List<String> importTranslations(
       byte[] csvBytes,
       String locale,
-      Function<String, java.util.Optional<Product>> findByCode,
-      BiConsumer<Product, TranslationUploadRow> upsert)
+      Function<Set<String>, Map<String, UUID>> resolveCodes,
+      Consumer<Map<UUID, TranslationUploadRow>> upsertBatch)
       throws IOException {
+    return importTranslations(
+        new ByteArrayInputStream(csvBytes),
+        locale,
+        0,
+        resolveCodes,
+        upsertBatch,
+        ImportCheckpoint.NONE);
+  }
 
-    List<String> errors = new ArrayList<>();
+  /**
+   * Import translations from a CSV stream, skipping records up to {@code resumeAfterRecord}. Each
+   * batch is written through {@code checkpoint} together with the errors of the lines it covers.
+   */
+  public List<String> importTranslations(
+      InputStream csv,
+      String locale,
+      long resumeAfterRecord,
+      Function<Set<String>, Map<String, UUID>> resolveCodes,
+      Consumer<Map<UUID, TranslationUploadRow>> upsertBatch,
+      ImportCheckpoint checkpoint)
+      throws IOException {
 
-    try (var inputStream = new ByteArrayInputStream(csvBytes);
-        var reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    List<LineError> pending = new ArrayList<>();
+    List<LineError> reported = new ArrayList<>();
+    List<ParsedRow> rows = new ArrayList<>(batchSize);
+    long lastRecord = resumeAfterRecord;
+
+    try (var reader = new InputStreamReader(csv, StandardCharsets.UTF_8);
         var parser =
             new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader().withTrim())) {
 
@@ -92,6 +134,11 @@ public class TranslationCsvService {
       var headers = resolveHeaders(headerMap);
 
       for (CSVRecord record : parser) {
+        long line = record.getRecordNumber();
+        if (line <= resumeAfterRecord) {
+          continue;
+        }
+        lastRecord = line;
         try {
           String code = record.get(headers.code);
           String name = record.get(headers.name);
@@ -99,35 +146,136 @@ public class TranslationCsvService {
 
           // Validate required fields
           if (code == null || code.isBlank()) {
-            errors.add("Missing product_code at line " + record.getRecordNumber());
+            pending.add(new LineError(line, "Missing product_code at line " + line));
             continue;
           }
 
           if (name == null || name.isBlank()) {
-            errors.add(
-                "Missing name for code " + code + " (line " + record.getRecordNumber() + ")");
+            pending.add(
+                new LineError(line, "Missing name for code " + code + " (line " + line + ")"));
             continue;
           }
 
-          // Find product by code
-          var product = findByCode.apply(code.trim());
-          if (product.isEmpty()) {
-            errors.add(
-                "Unknown product_code: " + code + " (line " + record.getRecordNumber() + ")");
-            continue;
-          }
-
-          // Upsert translation
-          upsert.accept(
-              product.get(), new TranslationUploadRow(code.trim(), name.trim(), category));
-
+          rows.add(
+              new ParsedRow(line, new TranslationUploadRow(code.trim(), name.trim(), category)));
         } catch (Exception e) {
-          errors.add("Error processing line " + record.getRecordNumber() + ": " + e.getMessage());
+          pending.add(new LineError(line, errorAt(line, e)));
+        }
+
+        if (rows.size() >= batchSize) {
+          upsert(rows, line, resolveCodes, upsertBatch, checkpoint, pending, reported);
+          rows = new ArrayList<>(batchSize);
         }
       }
     }
 
-    return errors;
+    if (!rows.isEmpty() || !pending.isEmpty()) {
+      upsert(rows, lastRecord, resolveCodes, upsertBatch, checkpoint, pending, reported);
+    }
+
+    reported.sort(Comparator.comparingLong(LineError::line));
+    return reported.stream().map(LineError::message).toList();
+  }
+
+  // Resolve a batch's product codes with one lookup, then write the rows that have a product
+  private void upsert(
+      List<ParsedRow> rows,
+      long lastRecord,
+      Function<Set<String>, Map<String, UUID>> resolveCodes,
+      Consumer<Map<UUID, TranslationUploadRow>> upsertBatch,
+      ImportCheckpoint checkpoint,
+      List<LineError> pending,
+      List<LineError> reported) {
+    Set<String> codes = new HashSet<>();
+    rows.forEach(row -> codes.add(row.row().productCode()));
+    Map<String, UUID> productIds = codes.isEmpty() ? Map.of() : resolveCodes.apply(codes);
+
+    List<ParsedRow> batch = new ArrayList<>(rows.size());
+    for (ParsedRow row : rows) {
+      if (productIds.containsKey(row.row().productCode())) {
+        batch.add(row);
+      } else {
+        pending.add(
+            new LineError(
+                row.line(),
+                "Unknown product_code: " + row.row().productCode() + " (line " + row.line() + ")"));
+      }
+    }
+    upsert(batch, lastRecord, productIds, upsertBatch, checkpoint, pending, reported);
+  }
+
+  // Write a batch ending at record lastRecord, along with the pending errors it covers
+  private void upsert(
+      List<ParsedRow> batch,
+      long lastRecord,
+      Map<String, UUID> productIds,
+      Consumer<Map<UUID, TranslationUploadRow>> upsertBatch,
+      ImportCheckpoint checkpoint,
+      List<LineError> pending,
+      List<LineError> reported) {
+    // A product listed twice keeps its last row, as it would with row-by-row saves
+    Map<UUID, TranslationUploadRow> byProduct = new LinkedHashMap<>();
+    batch.forEach(row -> byProduct.put(productIds.get(row.row().productCode()), row.row()));
+    List<LineError> errors = drainUpTo(pending, lastRecord);
+    try {
+      checkpoint.commit(
+          lastRecord,
+          batch.size(),
+          messages(errors),
+          () -> {
+            if (!byProduct.isEmpty()) {
+              upsertBatch.accept(byProduct);
+            }
+          });
+      reported.addAll(errors);
+      return;
+    } catch (Exception batchFailure) {
+      // Nothing was committed; retry row by row below
+      pending.addAll(errors);
+    }
+
+    for (ParsedRow row : batch) {
+      List<LineError> rowErrors = drainUpTo(pending, row.line());
+      try {
+        checkpoint.commit(
+            row.line(),
+            1,
+            messages(rowErrors),
+            () -> upsertBatch.accept(Map.of(productIds.get(row.row().productCode()), row.row())));
+      } catch (Exception e) {
+        rowErrors.add(new LineError(row.line(), errorAt(row.line(), e)));
+        checkpoint.commit(row.line(), 0, messages(rowErrors), () -> {});
+      }
+      reported.addAll(rowErrors);
+    }
+    List<LineError> remaining = drainUpTo(pending, lastRecord);
+    if (!remaining.isEmpty()) {
+      checkpoint.commit(lastRecord, 0, messages(remaining), () -> {});
+      reported.addAll(remaining);
+    }
+  }
+
+  // Remove and return the pending errors at or before the given record, in line order
+  private static List<LineError> drainUpTo(List<LineError> pending, long record) {
+    List<LineError> drained = new ArrayList<>();
+    pending.removeIf(
+        error -> {
+          if (error.line() <= record) {
+            drained.add(error);
+            return true;
+          }
+          return false;
+        });
+    drained.sort(Comparator.comparingLong(LineError::line));
+    return drained;
+  }
+
+  private static List<String> messages(List<LineError> errors) {
+    return errors.stream().map(LineError::message).toList();
+  }
+
+  private static String errorAt(long line, Exception e) {
+    return "Error processing line " + line + ": " + e.getMessage();
   }
 
   /** Validate CSV file format and headers */
@@ -0,0 +1,68 @@
+package com.chubini.pku.products;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Latin transliteration keys for Georgian and Cyrillic (Russian and Ukrainian) names, so a search
+ * typed in Latin letters still finds "ვაშლი" or "яблоко". Keys are only compared with each other,
+ * so the mapping favours simplicity over any official romanization standard.
+ */
+final class Transliteration {
+
+  private static final Map<Integer, String> LATIN = new HashMap<>();
+
+  static {
+    // Georgian Mkhedruli (national romanization without apostrophes)
+    map("ა", "a", "ბ", "b", "გ", "g", "დ", "d", "ე", "e", "ვ", "v", "ზ", "z", "თ", "t");
+    map("ი", "i", "კ", "k", "ლ", "l", "მ", "m", "ნ", "n", "ო", "o", "პ", "p", "ჟ", "zh");
+    map("რ", "r", "ს", "s", "ტ", "t", "უ", "u", "ფ", "p", "ქ", "k", "ღ", "gh", "ყ", "q");
+    map("შ", "sh", "ჩ", "ch", "ც", "ts", "ძ", "dz", "წ", "ts", "ჭ", "ch", "ხ", "kh", "ჯ", "j");
+    map("ჰ", "h");
+
+    // Russian; ё and й arrive as е and и once combining marks are stripped
+    map("а", "a", "б", "b", "в", "v", "г", "g", "д", "d", "е", "e", "ж", "zh", "з", "z");
+    map("и", "i", "к", "k", "л", "l", "м", "m", "н", "n", "о", "o", "п", "p", "р", "r");
+    map("с", "s", "т", "t", "у", "u", "ф", "f", "х", "kh", "ц", "ts", "ч", "ch", "ш", "sh");
+    map("щ", "shch", "ъ", "", "ы", "y", "ь", "", "э", "e", "ю", "yu", "я", "ya");
+
+    // Ukrainian additions; ї arrives as і
+    map("є", "ye", "і", "i", "ґ", "g");
+  }
+
+  private Transliteration() {}
+
+  /** Transliterate an already normalized (lower-case, mark-free) string; ASCII passes through */
+  static String toLatin(String normalized) {
+    if (isAscii(normalized)) {
+      return normalized;
+    }
+    StringBuilder sb = new StringBuilder(normalized.length() + 8);
+    for (int i = 0; i < normalized.length(); ) {
+      int codePoint = normalized.codePointAt(i);
+      String latin = LATIN.get(codePoint);
+      if (latin != null) {
+        sb.append(latin);
+      } else {
+        sb.appendCodePoint(codePoint);
+      }
+      i += Character.charCount(codePoint);
+    }
+    return sb.toString();
+  }
+
+  static boolean isAscii(String s) {
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void map(String... pairs) {
+    for (int i = 0; i < pairs.length; i += 2) {
+      LATIN.put(pairs[i].codePointAt(0), pairs[i + 1]);
+    }
+  }
+}
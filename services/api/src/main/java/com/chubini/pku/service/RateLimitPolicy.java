@@ -109,9 +109,13 @@ public class RateLimitPolicy {
     String method = request.getMethod();
     String uri = request.getRequestURI();
 
-    // POST upload/import endpoints require Idempotency-Key
+    // POST upload/import endpoints and generation job submissions require Idempotency-Key
     return "POST".equals(method)
-        && (uri.contains("/upload") || uri.contains("/import") || uri.contains("/csv"));
+        && (uri.contains("/upload")
+            || uri.contains("/import")
+            || uri.contains("/csv")
+            || uri.contains("/generator/jobs")
+            || uri.contains("/generator/weekly/bulk"));
   }
 
   private RouteTier determineRouteTier(HttpServletRequest request) {
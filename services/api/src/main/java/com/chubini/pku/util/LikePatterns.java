@@ -0,0 +1,31 @@
+package com.chubini.pku.util;
+
+/**
+ * Builds SQL LIKE / ILIKE patterns from user input. The pattern must be used with {@code ESCAPE
+ * '\'}, so {@code %}, {@code _} and {@code \} in the input match themselves.
+ */
+public final class LikePatterns {
+
+  private LikePatterns() {}
+
+  /** Pattern matching values that contain {@code term} literally */
+  public static String contains(String term) {
+    return "%" + escape(term) + "%";
+  }
+
+  /** Escape the LIKE wildcards and the escape character itself */
+  public static String escape(String term) {
+    if (term == null) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder(term.length() + 8);
+    for (int i = 0; i < term.length(); i++) {
+      char c = term.charAt(i);
+      if (c == '\\' || c == '%' || c == '_') {
+        sb.append('\\');
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+}
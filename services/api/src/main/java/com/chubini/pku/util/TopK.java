@@ -0,0 +1,161 @@
+package com.chubini.pku.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded selection of the {@code k} best-scored elements in O(n log k), backed by a fixed-size
+ * binary heap over primitive scores whose root is the weakest element kept. Elements with equal
+ * scores keep their offer order, so the result matches a stable sort followed by {@code limit(k)}.
+ * NaN scores always rank last. Not thread-safe.
+ */
+public final class TopK<T> {
+
+  private final boolean lowestFirst;
+  private final double[] scores;
+  private final long[] order;
+  private final Object[] items;
+  private int size;
+  private long offered;
+
+  private TopK(int k, boolean lowestFirst) {
+    if (k < 0) {
+      throw new IllegalArgumentException("k must not be negative: " + k);
+    }
+    this.lowestFirst = lowestFirst;
+    this.scores = new double[k];
+    this.order = new long[k];
+    this.items = new Object[k];
+  }
+
+  /** Keep the {@code k} elements with the highest scores */
+  public static <T> TopK<T> highest(int k) {
+    return new TopK<>(k, false);
+  }
+
+  /** Keep the {@code k} elements with the lowest scores */
+  public static <T> TopK<T> lowest(int k) {
+    return new TopK<>(k, true);
+  }
+
+  /** Offer an element; returns whether it is currently among the best {@code k} */
+  public boolean offer(T item, double score) {
+    long sequence = offered++;
+    if (size < scores.length) {
+      scores[size] = score;
+      order[size] = sequence;
+      items[size] = item;
+      siftUp(size++);
+      return true;
+    }
+    if (size == 0 || !ranksBefore(score, sequence, scores[0], order[0])) {
+      return false;
+    }
+    scores[0] = score;
+    order[0] = sequence;
+    items[0] = item;
+    siftDown(0);
+    return true;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** The kept elements, best first */
+  @SuppressWarnings("unchecked")
+  public List<T> toSortedList() {
+    Integer[] positions = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      positions[i] = i;
+    }
+    Arrays.sort(
+        positions,
+        (a, b) -> {
+          if (ranksBefore(scores[a], order[a], scores[b], order[b])) return -1;
+          if (ranksBefore(scores[b], order[b], scores[a], order[a])) return 1;
+          return 0;
+        });
+    List<T> result = new ArrayList<>(size);
+    for (Integer position : positions) {
+      result.add((T) items[position]);
+    }
+    return result;
+  }
+
+  /**
+   * The {@code k}-th smallest value (1-based) without sorting a copy of the array, or NaN when
+   * there are fewer than {@code k} values
+   */
+  public static double kthLowest(double[] values, int k) {
+    if (k <= 0 || k > values.length) {
+      return Double.NaN;
+    }
+    TopK<Void> lowest = lowest(k);
+    for (double value : values) {
+      lowest.offer(null, value);
+    }
+    return lowest.scores[0];
+  }
+
+  // Whether (score, sequence) belongs before (otherScore, otherSequence) in the result
+  private boolean ranksBefore(double score, long sequence, double otherScore, long otherSequence) {
+    boolean nan = Double.isNaN(score);
+    boolean otherNan = Double.isNaN(otherScore);
+    if (nan != otherNan) {
+      return otherNan;
+    }
+    if (!nan && score != otherScore) {
+      return lowestFirst ? score < otherScore : score > otherScore;
+    }
+    return sequence < otherSequence;
+  }
+
+  // The root holds the element ranked last
+  private boolean weaker(int i, int j) {
+    return ranksBefore(scores[j], order[j], scores[i], order[i]);
+  }
+
+  private void siftUp(int i) {
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!weaker(i, parent)) {
+        return;
+      }
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int i) {
+    while (true) {
+      int left = 2 * i + 1;
+      if (left >= size) {
+        return;
+      }
+      int weakest = left;
+      int right = left + 1;
+      if (right < size && weaker(right, left)) {
+        weakest = right;
+      }
+      if (!weaker(weakest, i)) {
+        return;
+      }
+      swap(i, weakest);
+      i = weakest;
+    }
+  }
+
+  private void swap(int i, int j) {
+    double score = scores[i];
+    scores[i] = scores[j];
+    scores[j] = score;
+    long sequence = order[i];
+    order[i] = order[j];
+    order[j] = sequence;
+    Object item = items[i];
+    items[i] = items[j];
+    items[j] = item;
+  }
+}
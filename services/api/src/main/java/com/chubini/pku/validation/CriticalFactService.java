@@ -42,9 +42,9 @@ public class CriticalFactService {
 
     List<CriticalFact> criticalFacts = new ArrayList<>();
 
-    // Calculate current totals for context
-    NutritionCalculator.DayTotals planned = nutritionCalculator.calculatePlannedTotals(menuDay);
-    NutritionCalculator.DayTotals consumed = nutritionCalculator.calculateConsumedTotals(menuDay);
+    // Current running totals for context
+    NutritionCalculator.DayTotals planned = nutritionCalculator.plannedTotals(menuDay);
+    NutritionCalculator.DayTotals consumed = nutritionCalculator.consumedTotals(menuDay);
 
     // Process each delta that represents a breach
     for (Map.Entry<String, BigDecimal> entry : result.deltas().entrySet()) {
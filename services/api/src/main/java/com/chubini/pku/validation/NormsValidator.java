@@ -34,9 +34,9 @@ public class NormsValidator {
 
     log.debug("Validating menu day {} against norm prescription {}", menuDay.getId(), norm.getId());
 
-    // Calculate planned and consumed totals
-    NutritionCalculator.DayTotals planned = nutritionCalculator.calculatePlannedTotals(menuDay);
-    NutritionCalculator.DayTotals consumed = nutritionCalculator.calculateConsumedTotals(menuDay);
+    // Read planned and consumed running totals
+    NutritionCalculator.DayTotals planned = nutritionCalculator.plannedTotals(menuDay);
+    NutritionCalculator.DayTotals consumed = nutritionCalculator.consumedTotals(menuDay);
 
     // Validate both planned and consumed values
     ValidationResult plannedResult = validateTotals(planned, norm, "planned");
@@ -154,7 +154,7 @@ public class NormsValidator {
     log.debug(
         "Calculating progress for menu day {} against norm {}", menuDay.getId(), norm.getId());
 
-    NutritionCalculator.DayTotals totals = nutritionCalculator.calculatePlannedTotals(menuDay);
+    NutritionCalculator.DayTotals totals = nutritionCalculator.plannedTotals(menuDay);
 
     Map<String, BigDecimal> deltas = new HashMap<>();
     List<String> messages = new ArrayList<>();
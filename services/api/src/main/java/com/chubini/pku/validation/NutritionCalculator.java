@@ -41,7 +41,7 @@ public class NutritionCalculator {
     };
   }
 
-  /** Calculate planned nutrition totals for a menu day */
+  /** Calculate planned nutrition totals for a menu day by walking all of its entries */
   public DayTotals calculatePlannedTotals(MenuDay menuDay) {
     if (menuDay == null || menuDay.getMealSlots() == null) {
       return DayTotals.zero();
@@ -49,35 +49,18 @@ public class NutritionCalculator {
 
     log.debug("Calculating planned totals for menu day: {}", menuDay.getId());
 
-    BigDecimal totalPheMg = BigDecimal.ZERO;
-    BigDecimal totalProteinG = BigDecimal.ZERO;
-    Integer totalKcal = 0;
-    BigDecimal totalFatG = BigDecimal.ZERO;
-
+    DayTotals totals = DayTotals.zero();
     for (MealSlot mealSlot : menuDay.getMealSlots()) {
       if (mealSlot.getMenuEntries() != null) {
         for (MenuEntry entry : mealSlot.getMenuEntries()) {
-          if (entry.getPlannedServingGrams() != null) {
-            NutritionBreakdown nutrition =
-                calculateEntryNutrition(entry, entry.getPlannedServingGrams(), "G");
-
-            totalPheMg = totalPheMg.add(nutrition.pheMg());
-            totalProteinG = totalProteinG.add(nutrition.proteinG());
-            totalKcal += nutrition.kcal();
-            totalFatG = totalFatG.add(nutrition.fatG());
-          }
+          totals = totals.plus(plannedContribution(entry));
         }
       }
     }
-
-    return new DayTotals(
-        totalPheMg.setScale(SCALE, RoundingMode.HALF_UP),
-        totalProteinG.setScale(SCALE, RoundingMode.HALF_UP),
-        totalKcal,
-        totalFatG.setScale(SCALE, RoundingMode.HALF_UP));
+    return totals.rounded();
   }
 
-  /** Calculate consumed nutrition totals for a menu day */
+  /** Calculate consumed nutrition totals for a menu day by walking all of its entries */
   public DayTotals calculateConsumedTotals(MenuDay menuDay) {
     if (menuDay == null || menuDay.getMealSlots() == null) {
       return DayTotals.zero();
@@ -85,32 +68,163 @@ public class NutritionCalculator {
 
     log.debug("Calculating consumed totals for menu day: {}", menuDay.getId());
 
-    BigDecimal totalPheMg = BigDecimal.ZERO;
-    BigDecimal totalProteinG = BigDecimal.ZERO;
-    Integer totalKcal = 0;
-    BigDecimal totalFatG = BigDecimal.ZERO;
-
+    DayTotals totals = DayTotals.zero();
     for (MealSlot mealSlot : menuDay.getMealSlots()) {
       if (mealSlot.getMenuEntries() != null) {
         for (MenuEntry entry : mealSlot.getMenuEntries()) {
-          if (entry.getIsConsumed() && entry.getEffectiveConsumedQuantity() != null) {
-            NutritionBreakdown nutrition =
-                calculateEntryNutrition(entry, entry.getEffectiveConsumedQuantity(), "G");
-
-            totalPheMg = totalPheMg.add(nutrition.pheMg());
-            totalProteinG = totalProteinG.add(nutrition.proteinG());
-            totalKcal += nutrition.kcal();
-            totalFatG = totalFatG.add(nutrition.fatG());
-          }
+          totals = totals.plus(consumedContribution(entry));
         }
       }
     }
+    return totals.rounded();
+  }
 
+  /**
+   * Planned totals of a menu day, read from its running totals. Days whose running totals have not
+   * been built yet are calculated from their entries.
+   */
+  public DayTotals plannedTotals(MenuDay menuDay) {
+    if (menuDay == null || !menuDay.hasRunningTotals()) {
+      return calculatePlannedTotals(menuDay);
+    }
     return new DayTotals(
-        totalPheMg.setScale(SCALE, RoundingMode.HALF_UP),
-        totalProteinG.setScale(SCALE, RoundingMode.HALF_UP),
-        totalKcal,
-        totalFatG.setScale(SCALE, RoundingMode.HALF_UP));
+        menuDay.getTotalDayPheMg(),
+        menuDay.getTotalDayProteinG(),
+        menuDay.getTotalDayKcal().intValue(),
+        menuDay.getTotalDayFatG());
+  }
+
+  /** Consumed totals of a menu day, read from its running totals like {@link #plannedTotals} */
+  public DayTotals consumedTotals(MenuDay menuDay) {
+    if (menuDay == null || !menuDay.hasRunningTotals()) {
+      return calculateConsumedTotals(menuDay);
+    }
+    return new DayTotals(
+        menuDay.getConsumedDayPheMg(),
+        menuDay.getConsumedDayProteinG(),
+        menuDay.getConsumedDayKcal().intValue(),
+        menuDay.getConsumedDayFatG());
+  }
+
+  /** What a single entry adds to its slot's and day's running totals */
+  public EntryContribution contributionOf(MenuEntry entry) {
+    return new EntryContribution(plannedContribution(entry), consumedContribution(entry));
+  }
+
+  /**
+   * Move the running totals of a slot and its day from an entry's previous contribution to its
+   * current one. Pass {@link EntryContribution#NONE} as {@code before} for a new entry and as
+   * {@code after} for a removed one. The day must already have running totals.
+   */
+  public void applyEntryChange(MealSlot slot, EntryContribution before, EntryContribution after) {
+    MenuDay menuDay = slot.getMenuDay();
+    DayTotals planned = after.planned().minus(before.planned());
+    DayTotals consumed = after.consumed().minus(before.consumed());
+
+    slot.setActualPheMg(add(slot.getActualPheMg(), planned.pheMg()));
+    slot.setActualProteinG(add(slot.getActualProteinG(), planned.proteinG()));
+    slot.setActualKcal(add(slot.getActualKcal(), BigDecimal.valueOf(planned.kcal())));
+    slot.setActualFatG(add(slot.getActualFatG(), planned.fatG()));
+    slot.setConsumedPheMg(add(slot.getConsumedPheMg(), consumed.pheMg()));
+    slot.setConsumedProteinG(add(slot.getConsumedProteinG(), consumed.proteinG()));
+    slot.setConsumedKcal(add(slot.getConsumedKcal(), BigDecimal.valueOf(consumed.kcal())));
+    slot.setConsumedFatG(add(slot.getConsumedFatG(), consumed.fatG()));
+
+    menuDay.setTotalDayPheMg(menuDay.getTotalDayPheMg().add(planned.pheMg()));
+    menuDay.setTotalDayProteinG(menuDay.getTotalDayProteinG().add(planned.proteinG()));
+    menuDay.setTotalDayKcal(menuDay.getTotalDayKcal().add(BigDecimal.valueOf(planned.kcal())));
+    menuDay.setTotalDayFatG(menuDay.getTotalDayFatG().add(planned.fatG()));
+    menuDay.setConsumedDayPheMg(menuDay.getConsumedDayPheMg().add(consumed.pheMg()));
+    menuDay.setConsumedDayProteinG(menuDay.getConsumedDayProteinG().add(consumed.proteinG()));
+    menuDay.setConsumedDayKcal(
+        menuDay.getConsumedDayKcal().add(BigDecimal.valueOf(consumed.kcal())));
+    menuDay.setConsumedDayFatG(menuDay.getConsumedDayFatG().add(consumed.fatG()));
+  }
+
+  /**
+   * Rebuild the running totals of a day and its slots from all entries.
+   *
+   * @return whether any stored total differed from the recalculated value
+   */
+  public boolean recalculateTotals(MenuDay menuDay) {
+    log.debug("Recalculating running totals for menu day: {}", menuDay.getId());
+
+    boolean changed = false;
+    DayTotals dayPlanned = DayTotals.zero();
+    DayTotals dayConsumed = DayTotals.zero();
+    for (MealSlot slot : menuDay.getMealSlots()) {
+      DayTotals planned = DayTotals.zero();
+      DayTotals consumed = DayTotals.zero();
+      for (MenuEntry entry : slot.getMenuEntries()) {
+        planned = planned.plus(plannedContribution(entry));
+        consumed = consumed.plus(consumedContribution(entry));
+      }
+      planned = planned.rounded();
+      consumed = consumed.rounded();
+
+      changed |=
+          !same(slot.getActualPheMg(), planned.pheMg())
+              || !same(slot.getActualProteinG(), planned.proteinG())
+              || !same(slot.getActualKcal(), BigDecimal.valueOf(planned.kcal()))
+              || !same(slot.getActualFatG(), planned.fatG())
+              || !same(slot.getConsumedPheMg(), consumed.pheMg())
+              || !same(slot.getConsumedProteinG(), consumed.proteinG())
+              || !same(slot.getConsumedKcal(), BigDecimal.valueOf(consumed.kcal()))
+              || !same(slot.getConsumedFatG(), consumed.fatG());
+      slot.setActualPheMg(planned.pheMg());
+      slot.setActualProteinG(planned.proteinG());
+      slot.setActualKcal(BigDecimal.valueOf(planned.kcal()));
+      slot.setActualFatG(planned.fatG());
+      slot.setConsumedPheMg(consumed.pheMg());
+      slot.setConsumedProteinG(consumed.proteinG());
+      slot.setConsumedKcal(BigDecimal.valueOf(consumed.kcal()));
+      slot.setConsumedFatG(consumed.fatG());
+
+      dayPlanned = dayPlanned.plus(planned);
+      dayConsumed = dayConsumed.plus(consumed);
+    }
+
+    changed |=
+        !same(menuDay.getTotalDayPheMg(), dayPlanned.pheMg())
+            || !same(menuDay.getTotalDayProteinG(), dayPlanned.proteinG())
+            || !same(menuDay.getTotalDayKcal(), BigDecimal.valueOf(dayPlanned.kcal()))
+            || !same(menuDay.getTotalDayFatG(), dayPlanned.fatG())
+            || !same(menuDay.getConsumedDayPheMg(), dayConsumed.pheMg())
+            || !same(menuDay.getConsumedDayProteinG(), dayConsumed.proteinG())
+            || !same(menuDay.getConsumedDayKcal(), BigDecimal.valueOf(dayConsumed.kcal()))
+            || !same(menuDay.getConsumedDayFatG(), dayConsumed.fatG());
+    menuDay.setTotalDayPheMg(dayPlanned.pheMg());
+    menuDay.setTotalDayProteinG(dayPlanned.proteinG());
+    menuDay.setTotalDayKcal(BigDecimal.valueOf(dayPlanned.kcal()));
+    menuDay.setTotalDayFatG(dayPlanned.fatG());
+    menuDay.setConsumedDayPheMg(dayConsumed.pheMg());
+    menuDay.setConsumedDayProteinG(dayConsumed.proteinG());
+    menuDay.setConsumedDayKcal(BigDecimal.valueOf(dayConsumed.kcal()));
+    menuDay.setConsumedDayFatG(dayConsumed.fatG());
+    return changed;
+  }
+
+  private DayTotals plannedContribution(MenuEntry entry) {
+    if (entry.getPlannedServingGrams() == null) {
+      return DayTotals.zero();
+    }
+    return DayTotals.of(calculateEntryNutrition(entry, entry.getPlannedServingGrams(), "G"));
+  }
+
+  private DayTotals consumedContribution(MenuEntry entry) {
+    if (!Boolean.TRUE.equals(entry.getIsConsumed())
+        || entry.getEffectiveConsumedQuantity() == null) {
+      return DayTotals.zero();
+    }
+    return DayTotals.of(calculateEntryNutrition(entry, entry.getEffectiveConsumedQuantity(), "G"));
+  }
+
+  private static BigDecimal add(BigDecimal total, BigDecimal delta) {
+    return total != null ? total.add(delta) : delta;
+  }
+
+  private static boolean same(BigDecimal stored, BigDecimal calculated) {
+    return stored != null && stored.compareTo(calculated) == 0;
   }
 
   /** Update calculated nutrition values for a menu entry */
@@ -130,26 +244,45 @@ public class NutritionCalculator {
     entry.setCalculatedFatG(nutrition.fatG());
   }
 
-  /** Update totals for a menu day */
-  public void updateDayTotals(MenuDay menuDay) {
-    if (menuDay == null) {
-      return;
+  /** Data class for day totals */
+  public record DayTotals(BigDecimal pheMg, BigDecimal proteinG, Integer kcal, BigDecimal fatG) {
+    public static DayTotals zero() {
+      return new DayTotals(BigDecimal.ZERO, BigDecimal.ZERO, 0, BigDecimal.ZERO);
     }
 
-    log.debug("Updating day totals for menu day: {}", menuDay.getId());
+    static DayTotals of(NutritionBreakdown nutrition) {
+      return new DayTotals(
+          nutrition.pheMg(), nutrition.proteinG(), nutrition.kcal(), nutrition.fatG());
+    }
 
-    DayTotals planned = calculatePlannedTotals(menuDay);
+    DayTotals plus(DayTotals other) {
+      return new DayTotals(
+          pheMg.add(other.pheMg),
+          proteinG.add(other.proteinG),
+          kcal + other.kcal,
+          fatG.add(other.fatG));
+    }
 
-    menuDay.setTotalDayPheMg(planned.pheMg());
-    menuDay.setTotalDayProteinG(planned.proteinG());
-    menuDay.setTotalDayKcal(planned.kcal() != null ? BigDecimal.valueOf(planned.kcal()) : null);
-    menuDay.setTotalDayFatG(planned.fatG());
-  }
+    DayTotals minus(DayTotals other) {
+      return new DayTotals(
+          pheMg.subtract(other.pheMg),
+          proteinG.subtract(other.proteinG),
+          kcal - other.kcal,
+          fatG.subtract(other.fatG));
+    }
 
-  /** Data class for day totals */
-  public record DayTotals(BigDecimal pheMg, BigDecimal proteinG, Integer kcal, BigDecimal fatG) {
-    public static DayTotals zero() {
-      return new DayTotals(BigDecimal.ZERO, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+    DayTotals rounded() {
+      return new DayTotals(
+          pheMg.setScale(SCALE, RoundingMode.HALF_UP),
+          proteinG.setScale(SCALE, RoundingMode.HALF_UP),
+          kcal,
+          fatG.setScale(SCALE, RoundingMode.HALF_UP));
     }
   }
+
+  /** Planned and consumed nutrition one entry adds to the running totals */
+  public record EntryContribution(DayTotals planned, DayTotals consumed) {
+    public static final EntryContribution NONE =
+        new EntryContribution(DayTotals.zero(), DayTotals.zero());
+  }
 }
@@ -0,0 +1,27 @@
+-- V30__create_import_jobs.sql
+-- Background CSV import jobs; checkpoint_record is the last CSV record whose chunk was committed
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+  id UUID PRIMARY KEY,
+  type TEXT NOT NULL CHECK (type IN ('PRODUCTS', 'TRANSLATIONS', 'DISHES')),
+  locale VARCHAR(8),
+  file_name TEXT,
+  spool_path TEXT NOT NULL,
+  status TEXT NOT NULL CHECK (status IN ('QUEUED', 'RUNNING', 'SUCCEEDED', 'FAILED')),
+  checkpoint_record BIGINT NOT NULL DEFAULT 0,
+  rows_committed INTEGER NOT NULL DEFAULT 0,
+  error_count INTEGER NOT NULL DEFAULT 0,
+  errors TEXT,
+  message TEXT,
+  attempts INTEGER NOT NULL DEFAULT 0,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  started_at TIMESTAMPTZ,
+  finished_at TIMESTAMPTZ,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Recovery looks for unfinished jobs whose owner stopped heartbeating
+CREATE INDEX IF NOT EXISTS idx_import_jobs_status_updated ON import_jobs(status, updated_at);
+
+COMMENT ON TABLE import_jobs IS 'CSV uploads processed in the background with resumable chunked commits';
+COMMENT ON COLUMN import_jobs.updated_at IS 'Heartbeat of the instance processing the job; stale unfinished jobs are resumed';
@@ -0,0 +1,22 @@
+-- V31: Running consumed totals on menu days and meal slots
+-- Planned totals already live in menu_day.total_day_* and meal_slot.actual_*; both are now kept
+-- up to date by delta on every entry change. NULL consumed totals mark days whose running totals
+-- have not been built yet; the reconciliation job fills them in.
+
+ALTER TABLE "menu_day"
+    ADD COLUMN IF NOT EXISTS "consumed_day_phe_mg" NUMERIC(8,2),
+    ADD COLUMN IF NOT EXISTS "consumed_day_protein_g" NUMERIC(8,2),
+    ADD COLUMN IF NOT EXISTS "consumed_day_kcal" NUMERIC(8,2),
+    ADD COLUMN IF NOT EXISTS "consumed_day_fat_g" NUMERIC(8,2),
+    ADD COLUMN IF NOT EXISTS "totals_verified_at" TIMESTAMP WITH TIME ZONE;
+
+ALTER TABLE "meal_slot"
+    ADD COLUMN IF NOT EXISTS "consumed_phe_mg" NUMERIC(8,2),
+    ADD COLUMN IF NOT EXISTS "consumed_protein_g" NUMERIC(8,2),
+    ADD COLUMN IF NOT EXISTS "consumed_kcal" NUMERIC(8,2),
+    ADD COLUMN IF NOT EXISTS "consumed_fat_g" NUMERIC(8,2);
+
+-- Reconciliation visits never-verified days first, then the longest unverified
+CREATE INDEX IF NOT EXISTS idx_menu_day_totals_verified ON "menu_day"("totals_verified_at" NULLS FIRST);
+
+COMMENT ON COLUMN "menu_day"."totals_verified_at" IS 'Last time the running totals were checked against the entries';
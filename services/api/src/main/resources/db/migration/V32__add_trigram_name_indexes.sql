@@ -0,0 +1,10 @@
+-- V32: Trigram indexes for name search
+-- B-tree indexes such as idx_products_name cannot serve '%term%' patterns or similarity ranking.
+-- GIN indexes with gin_trgm_ops serve ILIKE '%term%' as well as the pg_trgm similarity operator (%),
+-- so name search stays an index scan as the catalog grows.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (product_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_trgm_translations_name ON product_translations USING gin (product_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_dishes_name_trgm ON "dishes" USING gin ("name" gin_trgm_ops);
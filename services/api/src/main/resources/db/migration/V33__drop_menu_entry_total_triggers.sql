@@ -0,0 +1,11 @@
+-- V33: Leave menu entry nutrition and slot totals to the application
+-- Entry nutrition (menu_entry.calculated_*) and the running slot and day totals are written by the
+-- application, which moves slot and day totals together by delta (V31). The V16 triggers computed
+-- entry nutrition with their own math and re-summed meal_slot.actual_* on every entry write, so a
+-- deleted entry could leave a slot's totals out of step with its day's.
+
+DROP TRIGGER IF EXISTS update_meal_slot_totals_trigger ON "menu_entry";
+DROP TRIGGER IF EXISTS calculate_menu_entry_nutrition_trigger ON "menu_entry";
+
+DROP FUNCTION IF EXISTS update_meal_slot_totals();
+DROP FUNCTION IF EXISTS calculate_menu_entry_nutrition();
@@ -0,0 +1,21 @@
+-- V34: Keep running totals verification state outside menu_day
+-- Stamping menu_day.totals_verified_at on every reconciliation pass rewrote each day (and bumped
+-- its updated_at, which feeds the menu ETags) even when its totals were already correct. The
+-- timestamp now lives in its own table, so only an actual correction touches menu_day.
+
+CREATE TABLE IF NOT EXISTS "menu_day_totals_check" (
+    "menu_day_id" UUID PRIMARY KEY REFERENCES "menu_day"("id") ON DELETE CASCADE,
+    "verified_at" TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+INSERT INTO "menu_day_totals_check" ("menu_day_id", "verified_at")
+SELECT "id", "totals_verified_at" FROM "menu_day" WHERE "totals_verified_at" IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+DROP INDEX IF EXISTS idx_menu_day_totals_verified;
+ALTER TABLE "menu_day" DROP COLUMN IF EXISTS "totals_verified_at";
+
+-- Reconciliation visits never-verified days first, then the longest unverified
+CREATE INDEX IF NOT EXISTS idx_menu_day_totals_check_verified ON "menu_day_totals_check"("verified_at");
+
+COMMENT ON TABLE "menu_day_totals_check" IS 'Last time each day''s running totals were checked against its entries';
@@ -0,0 +1,10 @@
+-- V35: De-duplicate import submissions by Idempotency-Key
+-- A retried upload carrying the same key returns the job created by the first attempt instead of
+-- importing the file again. Keys are scoped to the caller by the application; jobs without a key
+-- are never matched.
+
+ALTER TABLE import_jobs ADD COLUMN IF NOT EXISTS idempotency_key TEXT;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_import_jobs_idempotency_key ON import_jobs(idempotency_key);
+
+COMMENT ON COLUMN import_jobs.idempotency_key IS 'Caller-scoped Idempotency-Key of the submitting request; unique while the job is retained';
@@ -0,0 +1,42 @@
+package com.chubini.pku.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.chubini.pku.dishes.DishCatalogChangedEvent;
+import com.chubini.pku.products.ProductCatalogChangedEvent;
+
+import org.junit.jupiter.api.Test;
+
+class CatalogVersionsTest {
+
+  private final CatalogVersions versions = new CatalogVersions();
+
+  @Test
+  void productsETag_ChangesWithProductsAndLocale() {
+    String ka = versions.productsETag("ka");
+
+    assertThat(versions.productsETag("ka")).isEqualTo(ka).startsWith("\"").endsWith("\"");
+    assertThat(versions.productsETag("ru")).isNotEqualTo(ka);
+
+    versions.onProductsChanged(
+        new ProductCatalogChangedEvent("UPDATE", List.of(UUID.randomUUID())));
+    assertThat(versions.productsETag("ka")).isNotEqualTo(ka);
+  }
+
+  @Test
+  void dishesETag_ChangesWithDishesAndTheirProducts() {
+    String before = versions.dishesETag();
+    String productsBefore = versions.productsETag("en");
+
+    versions.onDishesChanged(new DishCatalogChangedEvent("CREATE", List.of(UUID.randomUUID())));
+    String afterDishChange = versions.dishesETag();
+    versions.onProductsChanged(new ProductCatalogChangedEvent("CSV_UPLOAD"));
+
+    assertThat(afterDishChange).isNotEqualTo(before);
+    assertThat(versions.dishesETag()).isNotEqualTo(afterDishChange);
+    assertThat(versions.productsETag("en")).isNotEqualTo(productsBefore);
+  }
+}
@@ -74,6 +74,28 @@ class RateLimitingUnitTest {
     assertTrue(requiresKey, "POST import endpoints should require Idempotency-Key");
   }
 
+  @Test
+  void shouldRequireIdempotencyKeyForGenerationJobSubmission() {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getMethod()).thenReturn("POST");
+    when(request.getRequestURI()).thenReturn("/api/v1/generator/jobs/weekly");
+
+    boolean requiresKey = rateLimitPolicy.requiresIdempotencyKey(request);
+
+    assertTrue(requiresKey, "POST generation job endpoints should require Idempotency-Key");
+  }
+
+  @Test
+  void shouldRequireIdempotencyKeyForBulkGenerationSubmission() {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getMethod()).thenReturn("POST");
+    when(request.getRequestURI()).thenReturn("/api/v1/generator/weekly/bulk");
+
+    boolean requiresKey = rateLimitPolicy.requiresIdempotencyKey(request);
+
+    assertTrue(requiresKey, "POST bulk generation should require Idempotency-Key");
+  }
+
   @Test
   void shouldNotRequireIdempotencyKeyForRegularEndpoints() {
     HttpServletRequest request = mock(HttpServletRequest.class);
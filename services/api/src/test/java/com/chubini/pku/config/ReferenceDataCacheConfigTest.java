@@ -0,0 +1,74 @@
+package com.chubini.pku.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+import com.chubini.pku.products.Product;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReferenceDataCacheConfigTest {
+
+  private final ReferenceDataCacheConfig config = new ReferenceDataCacheConfig();
+  private final CacheManager cacheManager = config.referenceDataCacheManager(2, 2, 60);
+
+  @AfterEach
+  void tearDown() {
+    cacheManager.close();
+  }
+
+  @Test
+  void referenceDataCacheManager_CreatesEveryRegionBounded() {
+    assertThat(cacheManager.getCacheNames())
+        .containsAll(ReferenceDataCacheConfig.ENTITY_REGIONS)
+        .contains(
+            ReferenceDataCacheConfig.QUERY_RESULTS_REGION,
+            ReferenceDataCacheConfig.UPDATE_TIMESTAMPS_REGION);
+
+    assertThat(
+            cacheManager
+                .getCache(Product.class.getName())
+                .getConfiguration(CaffeineConfiguration.class)
+                .getMaximumSize())
+        .hasValue(2);
+    assertThat(
+            cacheManager
+                .getCache(ReferenceDataCacheConfig.UPDATE_TIMESTAMPS_REGION)
+                .getConfiguration(CaffeineConfiguration.class)
+                .getExpireAfterWrite())
+        .isEmpty();
+  }
+
+  @Test
+  void referenceDataCacheMetrics_ReportsHitsAndMissesPerRegion() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    config.referenceDataCacheMetrics(cacheManager).bindTo(registry);
+
+    Cache<Object, Object> products = cacheManager.getCache(Product.class.getName());
+    products.put("id", "product");
+    products.get("id");
+    products.get("id");
+    products.get("missing");
+
+    assertThat(
+            registry
+                .get("cache.gets")
+                .tags("cache", Product.class.getName(), "result", "hit")
+                .functionCounter()
+                .count())
+        .isEqualTo(2);
+    assertThat(
+            registry
+                .get("cache.gets")
+                .tags("cache", Product.class.getName(), "result", "miss")
+                .functionCounter()
+                .count())
+        .isEqualTo(1);
+  }
+}
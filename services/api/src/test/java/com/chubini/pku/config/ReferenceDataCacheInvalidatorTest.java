@@ -0,0 +1,76 @@
+package com.chubini.pku.config;
+
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.chubini.pku.dishes.Dish;
+import com.chubini.pku.dishes.DishCatalogChangedEvent;
+import com.chubini.pku.dishes.DishIngredient;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.products.ProductCatalogChangedEvent;
+import com.chubini.pku.products.ProductTranslation;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheInvalidatorTest {
+
+  @Mock private EntityManagerFactory entityManagerFactory;
+
+  @Mock private SessionFactory sessionFactory;
+
+  @Mock private Cache cache;
+
+  private ReferenceDataCacheInvalidator invalidator;
+
+  @BeforeEach
+  void setUp() {
+    when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+    when(sessionFactory.getCache()).thenReturn(cache);
+    invalidator = new ReferenceDataCacheInvalidator(entityManagerFactory);
+  }
+
+  @Test
+  void onProductsChanged_EvictsListedProductsTranslationsAndQueries() {
+    UUID id = UUID.randomUUID();
+
+    invalidator.onProductsChanged(new ProductCatalogChangedEvent("CSV_UPLOAD", List.of(id)));
+
+    verify(cache).evictEntityData(Product.class, id);
+    verify(cache).evictCollectionData(ReferenceDataCacheInvalidator.PRODUCT_TRANSLATIONS, id);
+    verify(cache).evictEntityData(ProductTranslation.class);
+    verify(cache).evictQueryRegions();
+    verify(cache, never()).evictEntityData(Product.class);
+  }
+
+  @Test
+  void onProductsChanged_WithoutIdsEvictsWholeRegions() {
+    invalidator.onProductsChanged(new ProductCatalogChangedEvent("RELOAD"));
+
+    verify(cache).evictEntityData(Product.class);
+    verify(cache).evictCollectionData(ReferenceDataCacheInvalidator.PRODUCT_TRANSLATIONS);
+    verify(cache).evictQueryRegions();
+  }
+
+  @Test
+  void onDishesChanged_EvictsListedDishesIngredientsAndQueries() {
+    UUID id = UUID.randomUUID();
+
+    invalidator.onDishesChanged(new DishCatalogChangedEvent("CSV_UPLOAD", List.of(id)));
+
+    verify(cache).evictEntityData(Dish.class, id);
+    verify(cache).evictCollectionData(ReferenceDataCacheInvalidator.DISH_INGREDIENTS, id);
+    verify(cache).evictEntityData(DishIngredient.class);
+    verify(cache).evictQueryRegions();
+  }
+}
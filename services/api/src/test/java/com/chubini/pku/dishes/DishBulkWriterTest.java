@@ -0,0 +1,70 @@
+package com.chubini.pku.dishes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import com.chubini.pku.products.Product;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class DishBulkWriterTest {
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @InjectMocks private DishBulkWriter dishBulkWriter;
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void insert_BatchesDishesAndIngredientsWithClientSideIds() {
+    Product potato = Product.builder().id(UUID.randomUUID()).productName("Potato").build();
+    Dish soup = dish("Soup", potato);
+    Dish stew = dish("Stew", potato);
+
+    List<UUID> ids = dishBulkWriter.insert(List.of(soup, stew));
+
+    ArgumentCaptor<List<Object[]>> dishRows = ArgumentCaptor.forClass(List.class);
+    ArgumentCaptor<List<Object[]>> ingredientRows = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate).batchUpdate(eq(DishBulkWriter.INSERT_DISH), dishRows.capture());
+    verify(jdbcTemplate)
+        .batchUpdate(eq(DishBulkWriter.INSERT_INGREDIENT), ingredientRows.capture());
+
+    assertThat(soup.getId()).isNotNull();
+    assertThat(ids).containsExactly(soup.getId(), stew.getId());
+    assertThat(dishRows.getValue()).hasSize(2);
+    assertThat(dishRows.getValue().get(0)).hasSize(29).startsWith(soup.getId(), "Soup");
+    assertThat(dishRows.getValue().get(0)[25]).isEqualTo("MEDIUM");
+    assertThat(ingredientRows.getValue())
+        .extracting(row -> row[1])
+        .containsExactly(soup.getId(), stew.getId());
+    assertThat(ingredientRows.getValue().get(0)[2]).isEqualTo(potato.getId());
+  }
+
+  private static Dish dish(String name, Product product) {
+    Dish dish =
+        Dish.builder()
+            .name(name)
+            .nominalServingGrams(BigDecimal.valueOf(200))
+            .difficultyLevel(Dish.DifficultyLevel.MEDIUM)
+            .build();
+    dish.getIngredients()
+        .add(
+            DishIngredient.builder()
+                .dish(dish)
+                .product(product)
+                .quantityGrams(BigDecimal.TEN)
+                .build());
+    return dish;
+  }
+}
@@ -0,0 +1,61 @@
+package com.chubini.pku.dishes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import com.chubini.pku.facets.CategoryFacet;
+import com.chubini.pku.facets.CategoryFacets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DishCategoryFacetsTest {
+
+  @Mock private DishRepository dishRepository;
+
+  private DishCategoryFacets categoryFacets;
+
+  @BeforeEach
+  void setUp() {
+    categoryFacets = new DishCategoryFacets(dishRepository);
+  }
+
+  @Test
+  void facets_CountsOncePerThreshold() {
+    when(dishRepository.countVisibleByCategory(null))
+        .thenReturn(List.of(new CategoryFacet("Salads", 3), new CategoryFacet("Soups", 2)));
+    when(dishRepository.countVisibleByCategory(20.0))
+        .thenReturn(List.of(new CategoryFacet("Salads", 1)));
+
+    CategoryFacets all = categoryFacets.facets(null);
+    categoryFacets.facets(null);
+    CategoryFacets lowPhe = categoryFacets.facets(20.0);
+    categoryFacets.facets(20.0);
+
+    assertThat(all.names()).containsExactly("Salads", "Soups");
+    assertThat(lowPhe.categories()).containsExactly(new CategoryFacet("Salads", 1));
+    verify(dishRepository, times(1)).countVisibleByCategory(null);
+    verify(dishRepository, times(1)).countVisibleByCategory(20.0);
+  }
+
+  @Test
+  void dishChange_RecountsWithNewEtag() {
+    when(dishRepository.countVisibleByCategory(null))
+        .thenReturn(List.of(new CategoryFacet("Salads", 3)))
+        .thenReturn(List.of(new CategoryFacet("Salads", 4)));
+    CategoryFacets before = categoryFacets.facets(null);
+
+    categoryFacets.onDishesChanged(new DishCatalogChangedEvent("CREATE", List.of()));
+    CategoryFacets after = categoryFacets.facets(null);
+
+    assertThat(after.categories()).containsExactly(new CategoryFacet("Salads", 4));
+    assertThat(after.etag()).isNotEqualTo(before.etag());
+    verify(dishRepository, times(2)).countVisibleByCategory(null);
+  }
+}
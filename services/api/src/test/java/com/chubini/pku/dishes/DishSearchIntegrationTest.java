@@ -0,0 +1,56 @@
+package com.chubini.pku.dishes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import com.chubini.pku.BaseIntegrationTest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Trigram dish name search (V32) */
+@Tag("it")
+@Transactional
+@DisabledIfSystemProperty(
+    named = "skipDockerTests",
+    matches = "true",
+    disabledReason = "Docker/Testcontainers not available")
+class DishSearchIntegrationTest extends BaseIntegrationTest {
+
+  @Autowired private DishRepository dishRepository;
+
+  @Test
+  void searchByNameSimilarity_ToleratesTyposAndSkipsHiddenDishes() {
+    Dish stew = save("Quokkafruit stew", true);
+    save("Quokkafruit stew (old)", false);
+
+    assertThat(dishRepository.searchByNameSimilarity("quokafruit stew", PageRequest.of(0, 10)))
+        .extracting(Dish::getId)
+        .containsExactly(stew.getId());
+  }
+
+  @Test
+  void searchByNameSimilarity_MatchesWildcardsLiterally() {
+    Dish snakeCase = save("quokka_stew", true);
+    Dish spaced = save("quokka stew", true);
+
+    assertThat(dishRepository.searchByNameSimilarity("a_s", PageRequest.of(0, 100)))
+        .extracting(Dish::getId)
+        .contains(snakeCase.getId())
+        .doesNotContain(spaced.getId());
+  }
+
+  private Dish save(String name, boolean visible) {
+    return dishRepository.save(
+        Dish.builder()
+            .name(name)
+            .nominalServingGrams(BigDecimal.valueOf(200))
+            .isVisible(visible)
+            .build());
+  }
+}
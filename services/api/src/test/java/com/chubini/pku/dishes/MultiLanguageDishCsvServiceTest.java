@@ -0,0 +1,252 @@
+package com.chubini.pku.dishes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import com.chubini.pku.products.IntelligentProductMatcher;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.products.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class MultiLanguageDishCsvServiceTest {
+
+  private static final String HEADER =
+      "dish_name_ka,dish_name_ru,dish_name_en,category_en,final_dish_weight,"
+          + "ingredient_1,ingredient_1_grams,ingredient_2,ingredient_2_grams\n";
+
+  @Mock private ProductRepository productRepository;
+
+  @Mock private IntelligentProductMatcher intelligentMatcher;
+
+  @Mock private DishRepository dishRepository;
+
+  @Mock private DishBulkWriter dishBulkWriter;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  private MultiLanguageDishCsvService service;
+
+  private final Product potato = product("Potato", "20");
+  private final Product carrot = product("Carrot", "30");
+
+  @BeforeEach
+  void setUp() {
+    DishService dishService =
+        new DishService(dishRepository, productRepository, intelligentMatcher, eventPublisher);
+    service =
+        new MultiLanguageDishCsvService(
+            productRepository, dishService, dishBulkWriter, eventPublisher);
+    ReflectionTestUtils.setField(service, "parallelism", 4);
+    ReflectionTestUtils.setField(service, "queueCapacity", 2);
+    ReflectionTestUtils.setField(service, "batchSize", 3);
+
+    lenient().when(productRepository.findByProductCode(anyString())).thenReturn(Optional.empty());
+    lenient().when(productRepository.findByProductCode("PRD0002")).thenReturn(Optional.of(carrot));
+    lenient()
+        .when(intelligentMatcher.findBestMatch(anyString()))
+        .thenAnswer(
+            invocation ->
+                "Potato".equals(invocation.getArgument(0))
+                    ? Optional.of(
+                        new IntelligentProductMatcher.ProductMatchResult(potato, 1.0, "exact"))
+                    : Optional.empty());
+  }
+
+  @Test
+  void importMultiLanguageCsv_ResolvesEachIngredientOnceAndKeepsFileOrder() throws IOException {
+    StringBuilder csv = new StringBuilder(HEADER);
+    for (int i = 1; i <= 20; i++) {
+      csv.append(",,Soup ").append(i).append(",Soups,200,Potato,50,PRD0002,100\n");
+    }
+    List<List<String>> batches = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              List<Dish> batch = invocation.getArgument(0);
+              batches.add(batch.stream().map(Dish::getName).toList());
+              return null;
+            })
+        .when(dishBulkWriter)
+        .insert(anyList());
+
+    MultiLanguageDishCsvService.ImportResult result = service.importMultiLanguageCsv(stream(csv));
+
+    assertThat(result.saved()).isEqualTo(20);
+    assertThat(result.total()).isEqualTo(20);
+    assertThat(result.errors()).isEmpty();
+    assertThat(batches).hasSize(7);
+    assertThat(batches.stream().flatMap(List::stream))
+        .containsExactlyElementsOf(
+            IntStream.rangeClosed(1, 20).mapToObj(i -> "Soup " + i).toList());
+    verify(eventPublisher, times(7)).publishEvent(any(DishCatalogChangedEvent.class));
+    verify(intelligentMatcher, times(1)).findBestMatch("Potato");
+    verify(productRepository, times(1)).findByProductCode("PRD0002");
+  }
+
+  @Test
+  void importMultiLanguageCsv_ComputesNutritionBeforePersisting() throws IOException {
+    String csv = HEADER + ",,Soup,Soups,200,Potato,50,PRD0002,100\n";
+    List<Dish> saved = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              saved.addAll(invocation.getArgument(0));
+              return List.of();
+            })
+        .when(dishBulkWriter)
+        .insert(anyList());
+
+    service.importMultiLanguageCsv(stream(new StringBuilder(csv)));
+
+    // 50g potato at 20 mg/100g plus 100g carrot at 30 mg/100g
+    assertThat(saved).singleElement();
+    assertThat(saved.get(0).getTotalPhenylalanine()).isEqualByComparingTo("40");
+    assertThat(saved.get(0).getPer100Phenylalanine()).isEqualByComparingTo("20");
+    assertThat(saved.get(0).getIngredients())
+        .extracting(DishIngredient::getProduct)
+        .containsExactly(potato, carrot);
+  }
+
+  @Test
+  void importMultiLanguageCsv_UnknownIngredientFailsBeforeSaving() {
+    StringBuilder csv = new StringBuilder(HEADER);
+    csv.append(",,Soup 1,Soups,200,Potato,50,,\n");
+    csv.append(",,Soup 2,Soups,200,Unobtainium,50,,\n");
+    csv.append(",,Soup 3,Soups,200,Potato,50,,\n");
+
+    assertThatThrownBy(() -> service.importMultiLanguageCsv(stream(csv)))
+        .hasMessage("Failed to parse dish from record 2")
+        .hasRootCauseMessage("Product not found: Unobtainium");
+    verify(dishBulkWriter, never()).insert(any());
+  }
+
+  @Test
+  void importMultiLanguageCsv_UnknownIngredientKeepsBatchesBeforeIt() {
+    StringBuilder csv = new StringBuilder(HEADER);
+    for (int i = 1; i <= 8; i++) {
+      String ingredient = i == 5 ? "Unobtainium" : "Potato";
+      csv.append(",,Soup ").append(i).append(",Soups,200,").append(ingredient).append(",50,,\n");
+    }
+    List<List<String>> batches = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              List<Dish> batch = invocation.getArgument(0);
+              batches.add(batch.stream().map(Dish::getName).toList());
+              return null;
+            })
+        .when(dishBulkWriter)
+        .insert(anyList());
+
+    assertThatThrownBy(() -> service.importMultiLanguageCsv(stream(csv)))
+        .hasMessage("Failed to parse dish from record 5");
+    assertThat(batches).containsExactly(List.of("Soup 1", "Soup 2", "Soup 3"));
+  }
+
+  @Test
+  @Timeout(10)
+  void importMultiLanguageCsv_SavesFirstBatchWhileLaterRowsAreStillResolving() throws Exception {
+    StringBuilder csv = new StringBuilder(HEADER);
+    for (int i = 1; i <= 3; i++) {
+      csv.append(",,Soup ").append(i).append(",Soups,200,Potato,50,,\n");
+    }
+    csv.append(",,Late soup,Soups,200,Late,50,,\n");
+    CountDownLatch firstBatchSaved = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              firstBatchSaved.countDown();
+              return null;
+            })
+        .when(dishBulkWriter)
+        .insert(anyList());
+    AtomicBoolean savedBeforeLateRow = new AtomicBoolean();
+    when(intelligentMatcher.findBestMatch("Late"))
+        .thenAnswer(
+            invocation -> {
+              savedBeforeLateRow.set(firstBatchSaved.await(5, TimeUnit.SECONDS));
+              return Optional.of(new IntelligentProductMatcher.ProductMatchResult(potato, 1.0, ""));
+            });
+
+    MultiLanguageDishCsvService.ImportResult result = service.importMultiLanguageCsv(stream(csv));
+
+    assertThat(result.saved()).isEqualTo(4);
+    assertThat(savedBeforeLateRow).isTrue();
+    verify(dishBulkWriter, times(2)).insert(anyList());
+  }
+
+  @Test
+  @Timeout(10)
+  void importMultiLanguageCsv_WorkerDyingFromErrorFailsImportInsteadOfHanging() {
+    ReflectionTestUtils.setField(service, "parallelism", 1);
+    StringBuilder csv = new StringBuilder(HEADER);
+    for (int i = 1; i <= 50; i++) {
+      csv.append(",,Soup ").append(i).append(",Soups,200,Cursed ").append(i).append(",50,,\n");
+    }
+    when(intelligentMatcher.findBestMatch(startsWith("Cursed")))
+        .thenThrow(new LinkageError("broken matcher"));
+
+    assertThatThrownBy(() -> service.importMultiLanguageCsv(stream(csv)))
+        .isInstanceOf(IllegalStateException.class)
+        .hasRootCauseInstanceOf(LinkageError.class);
+    verify(dishBulkWriter, never()).insert(any());
+  }
+
+  @Test
+  void importMultiLanguageCsv_RetriesFailedBatchPerDish() throws IOException {
+    StringBuilder csv = new StringBuilder(HEADER);
+    csv.append(",,Soup 1,Soups,200,Potato,50,,\n");
+    csv.append(",,Broken soup,Soups,200,Potato,50,,\n");
+    doAnswer(
+            invocation -> {
+              List<Dish> batch = invocation.getArgument(0);
+              if (batch.stream().anyMatch(d -> d.getName().startsWith("Broken"))) {
+                throw new IllegalStateException("constraint violation");
+              }
+              return null;
+            })
+        .when(dishBulkWriter)
+        .insert(anyList());
+
+    MultiLanguageDishCsvService.ImportResult result = service.importMultiLanguageCsv(stream(csv));
+
+    assertThat(result.saved()).isEqualTo(1);
+    assertThat(result.errors())
+        .containsExactly("Error saving dish 'Broken soup': constraint violation");
+  }
+
+  private static ByteArrayInputStream stream(StringBuilder csv) {
+    return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Product product(String name, String phenylalanine) {
+    return Product.builder()
+        .id(UUID.randomUUID())
+        .productName(name)
+        .phenylalanine(new BigDecimal(phenylalanine))
+        .build();
+  }
+}
@@ -0,0 +1,55 @@
+package com.chubini.pku.facets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+class FacetsByThresholdTest {
+
+  private final FacetsByThreshold facetsByThreshold = new FacetsByThreshold();
+  private final List<Double> counted = new ArrayList<>();
+  private final Function<Double, CategoryFacets> count =
+      maxPhe -> {
+        counted.add(maxPhe);
+        return CategoryFacets.of(List.of(new CategoryFacet("Fruit", counted.size())));
+      };
+
+  @Test
+  void get_EqualThresholdsShareOneCount() {
+    CategoryFacets first = facetsByThreshold.get(100.0, 1, count);
+    CategoryFacets second = facetsByThreshold.get(100.00, 1, count);
+    facetsByThreshold.get(null, 1, count);
+    facetsByThreshold.get(null, 1, count);
+
+    assertThat(second).isSameAs(first);
+    assertThat(counted).containsExactly(100.0, null);
+  }
+
+  @Test
+  void get_NewVersionRecounts() {
+    CategoryFacets stale = facetsByThreshold.get(50.0, 1, count);
+    CategoryFacets current = facetsByThreshold.get(50.0, 2, count);
+
+    assertThat(current.etag()).isNotEqualTo(stale.etag());
+    assertThat(facetsByThreshold.get(50.0, 2, count)).isSameAs(current);
+    assertThat(counted).hasSize(2);
+  }
+
+  @Test
+  void get_StopsCachingNewThresholdsAtTheCap() {
+    for (int i = 0; i < 40; i++) {
+      facetsByThreshold.get((double) i, 1, count);
+    }
+    counted.clear();
+
+    facetsByThreshold.get(0.0, 1, count);
+    facetsByThreshold.get(39.0, 1, count);
+    facetsByThreshold.get(39.0, 1, count);
+
+    assertThat(counted).containsExactly(39.0, 39.0);
+  }
+}
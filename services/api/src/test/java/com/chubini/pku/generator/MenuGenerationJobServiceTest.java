@@ -0,0 +1,194 @@
+package com.chubini.pku.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.chubini.pku.generator.dto.BulkMenuGenerationRequest;
+import com.chubini.pku.generator.dto.BulkMenuGenerationResult;
+import com.chubini.pku.generator.dto.MenuGenerationRequest;
+import com.chubini.pku.generator.dto.MenuGenerationResult;
+import com.chubini.pku.metrics.GenerationJobMetrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class MenuGenerationJobServiceTest {
+
+  @Mock private MenuGenerationService menuGenerationService;
+
+  private SimpleMeterRegistry meterRegistry;
+  private MenuGenerationJobService jobService;
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    // One worker and one queue slot so tests control what is running and what is queued
+    jobService =
+        new MenuGenerationJobService(
+            menuGenerationService, new GenerationJobMetrics(meterRegistry), 1, 1, 60, 0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    jobService.shutdown();
+  }
+
+  @Test
+  void submit_SameIdempotencyKey_ReturnsExistingJob() throws Exception {
+    when(menuGenerationService.generateWeeklyMenu(any()))
+        .thenReturn(MenuGenerationResult.success(UUID.randomUUID(), "ok"));
+
+    GenerationJob first = jobService.submit(GenerationJob.JobType.WEEKLY, request(), "client:key");
+    GenerationJob second = jobService.submit(GenerationJob.JobType.WEEKLY, request(), "client:key");
+
+    assertThat(second).isSameAs(first);
+    awaitFinished(first);
+    assertThat(first.getStatus()).isEqualTo(GenerationJob.JobStatus.SUCCEEDED);
+    assertThat(jobService.getJob(first.getId())).contains(first);
+    verify(menuGenerationService, times(1)).generateWeeklyMenu(any());
+  }
+
+  @Test
+  void submitBulk_RunsBatchAsJobOncePerIdempotencyKey() throws Exception {
+    UUID patientId = UUID.randomUUID();
+    BulkMenuGenerationResult batch =
+        BulkMenuGenerationResult.of(
+            List.of(
+                new BulkMenuGenerationResult.PatientResult(
+                    patientId, MenuGenerationResult.success(UUID.randomUUID(), "ok"))));
+    when(menuGenerationService.generateWeeklyMenus(any())).thenReturn(batch);
+
+    BulkMenuGenerationRequest request =
+        new BulkMenuGenerationRequest(
+            List.of(patientId), LocalDate.of(2024, 1, 1), null, false, true, null, null);
+    GenerationJob job = jobService.submitBulk(request, "client:bulk");
+    GenerationJob retried = jobService.submitBulk(request, "client:bulk");
+
+    assertThat(retried).isSameAs(job);
+    awaitFinished(job);
+    verify(menuGenerationService, times(1)).generateWeeklyMenus(any());
+    assertThat(job.getType()).isEqualTo(GenerationJob.JobType.WEEKLY_BULK);
+    assertThat(job.getStatus()).isEqualTo(GenerationJob.JobStatus.SUCCEEDED);
+    assertThat(job.toStatus().patientCount()).isEqualTo(1);
+    assertThat(job.toStatus().bulkResult()).isSameAs(batch);
+  }
+
+  @Test
+  void getJob_PastRetention_EvictsFinishedJobAndItsKey() throws Exception {
+    MenuGenerationJobService expiringService =
+        new MenuGenerationJobService(
+            menuGenerationService, new GenerationJobMetrics(meterRegistry), 1, 1, 0, 0);
+    when(menuGenerationService.generateWeeklyMenu(any()))
+        .thenReturn(MenuGenerationResult.success(UUID.randomUUID(), "ok"));
+    try {
+      GenerationJob job =
+          expiringService.submit(GenerationJob.JobType.WEEKLY, request(), "client:key");
+      awaitFinished(job);
+      Thread.sleep(5);
+
+      assertThat(expiringService.getJob(job.getId())).isEmpty();
+      assertThat(expiringService.cancel(job.getId())).isEmpty();
+      assertThat(expiringService.submit(GenerationJob.JobType.WEEKLY, request(), "client:key"))
+          .isNotSameAs(job);
+    } finally {
+      expiringService.shutdown();
+    }
+  }
+
+  @Test
+  void cancel_QueuedJob_NeverRuns() throws Exception {
+    CountDownLatch running = new CountDownLatch(1);
+    when(menuGenerationService.generateWeeklyMenu(any()))
+        .thenAnswer(
+            inv -> {
+              running.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return MenuGenerationResult.success(UUID.randomUUID(), "ok");
+            });
+
+    GenerationJob blocking = jobService.submit(GenerationJob.JobType.WEEKLY, request(), null);
+    assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+    GenerationJob queued = jobService.submit(GenerationJob.JobType.DAILY, request(), null);
+    assertThat(meterRegistry.get("pku.generator.jobs.queue.depth").gauge().value()).isEqualTo(1);
+
+    jobService.cancel(queued.getId());
+    release.countDown();
+    awaitFinished(blocking);
+
+    assertThat(queued.getStatus()).isEqualTo(GenerationJob.JobStatus.CANCELLED);
+    verify(menuGenerationService, never()).generateDailyMenu(any());
+  }
+
+  @Test
+  void submit_QueueFull_RejectsJob() throws Exception {
+    CountDownLatch running = new CountDownLatch(1);
+    when(menuGenerationService.generateWeeklyMenu(any()))
+        .thenAnswer(
+            inv -> {
+              running.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return MenuGenerationResult.success(UUID.randomUUID(), "ok");
+            });
+
+    jobService.submit(GenerationJob.JobType.WEEKLY, request(), null);
+    assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+    jobService.submit(GenerationJob.JobType.WEEKLY, request(), null);
+
+    assertThatThrownBy(
+            () -> jobService.submit(GenerationJob.JobType.WEEKLY, request(), "client:full"))
+        .isInstanceOf(RejectedExecutionException.class);
+
+    release.countDown();
+    assertThat(
+            meterRegistry
+                .get("pku.generator.jobs.submitted")
+                .tag("outcome", "rejected")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  private static void awaitFinished(GenerationJob job) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!job.getStatus().isFinished() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private static MenuGenerationRequest request() {
+    return new MenuGenerationRequest(
+        UUID.randomUUID(),
+        LocalDate.of(2024, 1, 1),
+        "WEEKLY",
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        false,
+        true,
+        null,
+        null,
+        null);
+  }
+}
@@ -0,0 +1,212 @@
+package com.chubini.pku.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import com.chubini.pku.generator.dto.BulkMenuGenerationRequest;
+import com.chubini.pku.generator.dto.BulkMenuGenerationResult;
+import com.chubini.pku.generator.dto.FoodCandidate;
+import com.chubini.pku.generator.dto.MenuGenerationRequest;
+import com.chubini.pku.generator.dto.MenuGenerationResult;
+import com.chubini.pku.menus.*;
+import com.chubini.pku.norms.NormService;
+import com.chubini.pku.norms.dto.NormPrescriptionDto;
+import com.chubini.pku.patients.PatientProfile;
+import com.chubini.pku.patients.PatientService;
+import com.chubini.pku.patients.dto.PatientProfileDto;
+import com.chubini.pku.products.Product;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+class MenuGenerationServiceTest {
+
+  private static final List<String> CANDIDATE_NAMES = List.of("A", "B", "C", "D", "E", "F");
+
+  @Mock private PatientService patientService;
+  @Mock private NormService normService;
+  @Mock private MenuWeekRepository menuWeekRepository;
+  @Mock private MenuDayRepository menuDayRepository;
+  @Mock private MenuEntryRepository menuEntryRepository;
+  @Mock private EnhancedFoodSelectionService enhancedFoodSelectionService;
+  @Mock private PantryAwareService pantryAwareService;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private DayGenerationExecutor dayGenerationExecutor;
+  private MenuGenerationService menuGenerationService;
+  private PatientProfile patient;
+
+  @BeforeEach
+  void setUp() {
+    patient = PatientProfile.builder().id(UUID.randomUUID()).name("Test Patient").build();
+    dayGenerationExecutor = new DayGenerationExecutor(3);
+    VarietyEngine varietyEngine = new VarietyEngine(menuDayRepository, menuEntryRepository);
+
+    menuGenerationService =
+        new MenuGenerationService(
+            patientService,
+            normService,
+            menuWeekRepository,
+            menuDayRepository,
+            enhancedFoodSelectionService,
+            varietyEngine,
+            pantryAwareService,
+            dayGenerationExecutor,
+            transactionManager);
+    ReflectionTestUtils.setField(menuGenerationService, "parallelDays", true);
+
+    when(patientService.getPatientById(any())).thenReturn(mock(PatientProfileDto.class));
+    when(patientService.getPatientEntity(any())).thenReturn(patient);
+    when(normService.getCurrentNormForPatient(any()))
+        .thenReturn(Optional.of(mock(NormPrescriptionDto.class)));
+    when(pantryAwareService.createContext(eq(patient), any(), any()))
+        .thenAnswer(
+            inv -> new GenerationContext(patient, List.of(), List.of(), inv.getArgument(1)));
+
+    // Every slot on every day pools the same six products in the same order; ranking only applies
+    // the variety filter against the history merged so far
+    when(enhancedFoodSelectionService.buildCandidatePool(any(), any(), any(), any()))
+        .thenAnswer(inv -> candidates());
+    when(enhancedFoodSelectionService.rankCandidates(anyList(), any(), any(), any(), any()))
+        .thenAnswer(
+            inv -> {
+              MealSlot slot = inv.getArgument(1);
+              GenerationContext context = inv.getArgument(4);
+              Set<String> itemsToAvoid =
+                  varietyEngine.getItemsToAvoidForVariety(
+                      context.getVarietyHistory(), slot.getMenuDay().getDate(), false);
+              return inv.<List<FoodCandidate>>getArgument(0).stream()
+                  .filter(candidate -> !itemsToAvoid.contains(candidate.getItemName()))
+                  .toList();
+            });
+    when(enhancedFoodSelectionService.selectForCoreMeals(anyList(), any(), eq(3)))
+        .thenAnswer(inv -> inv.<List<FoodCandidate>>getArgument(0).stream().limit(3).toList());
+    when(enhancedFoodSelectionService.createMenuEntry(any(), any(), any()))
+        .thenAnswer(
+            inv ->
+                MenuEntry.builder()
+                    .entryType(MenuEntry.EntryType.PRODUCT)
+                    .product(inv.<FoodCandidate>getArgument(0).getProduct())
+                    .mealSlot(inv.getArgument(1))
+                    .build());
+    when(menuWeekRepository.save(any()))
+        .thenAnswer(
+            inv -> {
+              MenuWeek week = inv.getArgument(0);
+              week.setId(UUID.randomUUID());
+              return week;
+            });
+  }
+
+  @AfterEach
+  void tearDown() {
+    dayGenerationExecutor.shutdown();
+  }
+
+  @Test
+  void generateWeeklyMenu_ParallelDays_MergesInDateOrderWithInWeekVariety() {
+    LocalDate startDate = LocalDate.of(2024, 1, 1);
+
+    MenuGenerationResult result = menuGenerationService.generateWeeklyMenu(request(startDate));
+
+    assertThat(result.success()).isTrue();
+    ArgumentCaptor<MenuWeek> savedWeek = ArgumentCaptor.forClass(MenuWeek.class);
+    verify(menuWeekRepository, times(1)).save(savedWeek.capture());
+
+    List<MenuDay> days = savedWeek.getValue().getMenuDays();
+    assertThat(days)
+        .extracting(MenuDay::getDate)
+        .containsExactlyElementsOf(startDate.datesUntil(startDate.plusDays(7)).toList());
+
+    // Yesterday's items are avoided, so selections alternate deterministically
+    assertThat(breakfastItems(days.get(0))).containsExactly("A", "B", "C");
+    assertThat(breakfastItems(days.get(1))).containsExactly("D", "E", "F");
+    assertThat(breakfastItems(days.get(2))).containsExactly("A", "B", "C");
+    assertThat(breakfastItems(days.get(6))).containsExactly("A", "B", "C");
+  }
+
+  @Test
+  void generateWeeklyMenus_SharesPricesAndIsolatesFailures() {
+    UUID missingPatientId = UUID.randomUUID();
+    UUID patientId = UUID.randomUUID();
+    when(patientService.getPatientById(missingPatientId))
+        .thenThrow(new IllegalArgumentException("Patient not found"));
+    when(pantryAwareService.findCurrentPrices()).thenReturn(List.of());
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+    BulkMenuGenerationResult result =
+        menuGenerationService.generateWeeklyMenus(
+            new BulkMenuGenerationRequest(
+                List.of(missingPatientId, patientId, patientId),
+                LocalDate.of(2024, 1, 1),
+                null,
+                false,
+                true,
+                null,
+                null));
+
+    assertThat(result.requested()).isEqualTo(2);
+    assertThat(result.succeeded()).isEqualTo(1);
+    assertThat(result.results())
+        .extracting(BulkMenuGenerationResult.PatientResult::patientId)
+        .containsExactly(missingPatientId, patientId);
+    verify(pantryAwareService, times(1)).findCurrentPrices();
+    // One transaction per distinct patient
+    verify(transactionManager, times(2)).getTransaction(any());
+    verify(menuWeekRepository, times(1)).save(any());
+  }
+
+  private static List<FoodCandidate> candidates() {
+    return CANDIDATE_NAMES.stream()
+        .map(
+            name ->
+                FoodCandidate.builder()
+                    .entryType(MenuEntry.EntryType.PRODUCT)
+                    .product(Product.builder().id(UUID.randomUUID()).productName(name).build())
+                    .build())
+        .collect(Collectors.toList());
+  }
+
+  private static List<String> breakfastItems(MenuDay day) {
+    return day.getMealSlots().stream()
+        .filter(slot -> slot.getSlotName() == MealSlot.SlotName.BREAKFAST)
+        .flatMap(slot -> slot.getMenuEntries().stream())
+        .map(MenuEntry::getItemName)
+        .toList();
+  }
+
+  private static MenuGenerationRequest request(LocalDate startDate) {
+    return new MenuGenerationRequest(
+        UUID.randomUUID(),
+        startDate,
+        "WEEKLY",
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        false,
+        true,
+        null,
+        null,
+        null);
+  }
+}
@@ -56,14 +56,11 @@ class PantryAwareServiceTest {
             .costPerUnit(BigDecimal.valueOf(5.00))
             .build();
 
-    when(pantryRepository.findByPatientAndProductAndIsAvailableTrueOrderByExpiryDateAsc(
-            testPatient, testProduct))
-        .thenReturn(Arrays.asList(pantryItem));
+    GenerationContext context = context(List.of(pantryItem), List.of());
 
     // When
     PantryAwareService.PantryAvailability availability =
-        pantryAwareService.checkPantryAvailability(
-            testProduct, testPatient, BigDecimal.valueOf(100));
+        pantryAwareService.checkPantryAvailability(testProduct, context, BigDecimal.valueOf(100));
 
     // Then
     assertThat(availability.isAvailable()).isTrue();
@@ -75,14 +72,11 @@ class PantryAwareServiceTest {
   @Test
   void testCheckPantryAvailability_ItemNotExists_ReturnsNotAvailable() {
     // Given: product is not in pantry
-    when(pantryRepository.findByPatientAndProductAndIsAvailableTrueOrderByExpiryDateAsc(
-            testPatient, testProduct))
-        .thenReturn(Collections.emptyList());
+    GenerationContext context = context(List.of(), List.of());
 
     // When
     PantryAwareService.PantryAvailability availability =
-        pantryAwareService.checkPantryAvailability(
-            testProduct, testPatient, BigDecimal.valueOf(100));
+        pantryAwareService.checkPantryAvailability(testProduct, context, BigDecimal.valueOf(100));
 
     // Then
     assertThat(availability.isAvailable()).isFalse();
@@ -103,14 +97,11 @@ class PantryAwareServiceTest {
             .isAvailable(true)
             .build();
 
-    when(pantryRepository.findByPatientAndProductAndIsAvailableTrueOrderByExpiryDateAsc(
-            testPatient, testProduct))
-        .thenReturn(Arrays.asList(pantryItem));
+    GenerationContext context = context(List.of(pantryItem), List.of());
 
     // When
     PantryAwareService.PantryAvailability availability =
-        pantryAwareService.checkPantryAvailability(
-            testProduct, testPatient, BigDecimal.valueOf(100));
+        pantryAwareService.checkPantryAvailability(testProduct, context, BigDecimal.valueOf(100));
 
     // Then
     assertThat(availability.isAvailable()).isTrue();
@@ -129,7 +120,8 @@ class PantryAwareServiceTest {
 
     // When
     boolean reserved =
-        pantryAwareService.reservePantryQuantity(pantryItems, BigDecimal.valueOf(100));
+        pantryAwareService.reservePantryQuantity(
+            pantryItems, BigDecimal.valueOf(100), new PantryReservationLedger());
 
     // Then
     assertThat(reserved).isTrue();
@@ -148,28 +140,36 @@ class PantryAwareServiceTest {
 
     // When
     boolean reserved =
-        pantryAwareService.reservePantryQuantity(pantryItems, BigDecimal.valueOf(100));
+        pantryAwareService.reservePantryQuantity(
+            pantryItems, BigDecimal.valueOf(100), new PantryReservationLedger());
 
     // Then
     assertThat(reserved).isFalse();
   }
 
   @Test
-  void testClearPantryReservations_ClearsInMemoryReservations() {
-    // Given: some reservations have been made
+  void testReservePantryQuantity_LedgersAreIsolatedPerSession() {
+    // Given: one session has reserved most of a pantry item
     PantryItem pantryItem =
-        PantryItem.builder().id(UUID.randomUUID()).quantityGrams(BigDecimal.valueOf(500)).build();
-
-    pantryAwareService.reservePantryQuantity(Arrays.asList(pantryItem), BigDecimal.valueOf(100));
-
-    // When
-    pantryAwareService.clearPantryReservations();
-
-    // Then - should be able to reserve again after clearing
-    boolean reserved =
-        pantryAwareService.reservePantryQuantity(
-            Arrays.asList(pantryItem), BigDecimal.valueOf(100));
-    assertThat(reserved).isTrue();
+        PantryItem.builder().id(UUID.randomUUID()).quantityGrams(BigDecimal.valueOf(150)).build();
+    PantryReservationLedger firstSession = new PantryReservationLedger();
+    PantryReservationLedger secondSession = new PantryReservationLedger();
+
+    pantryAwareService.reservePantryQuantity(
+        List.of(pantryItem), BigDecimal.valueOf(100), firstSession);
+
+    // When / Then: the same session cannot over-reserve, another session is unaffected
+    assertThat(
+            pantryAwareService.reservePantryQuantity(
+                List.of(pantryItem), BigDecimal.valueOf(100), firstSession))
+        .isFalse();
+    assertThat(
+            pantryAwareService.reservePantryQuantity(
+                List.of(pantryItem), BigDecimal.valueOf(100), secondSession))
+        .isTrue();
+    assertThat(firstSession.remaining(pantryItem)).isEqualByComparingTo(BigDecimal.valueOf(50));
+    assertThat(firstSession.hasReservations(List.of(pantryItem))).isTrue();
+    assertThat(new PantryReservationLedger().hasReservations(List.of(pantryItem))).isFalse();
   }
 
   @Test
@@ -185,13 +185,11 @@ class PantryAwareServiceTest {
             .costPerUnit(BigDecimal.valueOf(10.00))
             .build();
 
-    when(pantryRepository.findByPatientAndProductAndIsAvailableTrueOrderByExpiryDateAsc(
-            testPatient, testProduct))
-        .thenReturn(Arrays.asList(pantryItem));
+    GenerationContext context = context(List.of(pantryItem), List.of());
 
     // When
     BigDecimal cost =
-        pantryAwareService.getCurrentCost(testProduct, BigDecimal.valueOf(100), testPatient);
+        pantryAwareService.getCurrentCost(testProduct, BigDecimal.valueOf(100), context);
 
     // Then
     assertThat(cost).isGreaterThan(BigDecimal.ZERO);
@@ -200,10 +198,6 @@ class PantryAwareServiceTest {
   @Test
   void testGetCurrentCost_WithoutPantryItem_ReturnsMarketPrice() {
     // Given: product is not in pantry but has market price
-    when(pantryRepository.findByPatientAndProductAndIsAvailableTrueOrderByExpiryDateAsc(
-            testPatient, testProduct))
-        .thenReturn(Collections.emptyList());
-
     PriceEntry priceEntry =
         PriceEntry.builder()
             .product(testProduct)
@@ -212,11 +206,11 @@ class PantryAwareServiceTest {
             .unitSizeGrams(BigDecimal.valueOf(100)) // 100g unit
             .build();
 
-    when(priceRepository.findBestPriceForProduct(testProduct)).thenReturn(Optional.of(priceEntry));
+    GenerationContext context = context(List.of(), List.of(priceEntry));
 
     // When
     BigDecimal cost =
-        pantryAwareService.getCurrentCost(testProduct, BigDecimal.valueOf(100), testPatient);
+        pantryAwareService.getCurrentCost(testProduct, BigDecimal.valueOf(100), context);
 
     // Then
     assertThat(cost).isEqualByComparingTo(BigDecimal.valueOf(1.00)); // 100g * (1.00/100g) = 1.00
@@ -225,14 +219,11 @@ class PantryAwareServiceTest {
   @Test
   void testGetCurrentCost_NoData_ReturnsDefaultEstimate() {
     // Given: no pantry item and no market price
-    when(pantryRepository.findByPatientAndProductAndIsAvailableTrueOrderByExpiryDateAsc(
-            testPatient, testProduct))
-        .thenReturn(Collections.emptyList());
-    when(priceRepository.findBestPriceForProduct(testProduct)).thenReturn(Optional.empty());
+    GenerationContext context = context(List.of(), List.of());
 
     // When
     BigDecimal cost =
-        pantryAwareService.getCurrentCost(testProduct, BigDecimal.valueOf(100), testPatient);
+        pantryAwareService.getCurrentCost(testProduct, BigDecimal.valueOf(100), context);
 
     // Then
     assertThat(cost).isEqualByComparingTo(BigDecimal.valueOf(5.00)); // 100 * 0.05 default
@@ -275,4 +266,56 @@ class PantryAwareServiceTest {
     // Then
     assertThat(result).isEmpty();
   }
+
+  @Test
+  void testCreateContext_BulkLoadsPantryAndCheapestPrices() {
+    // Given: one pantry item and two current prices for the same product
+    PantryItem pantryItem =
+        PantryItem.builder()
+            .id(UUID.randomUUID())
+            .patient(testPatient)
+            .product(testProduct)
+            .quantityGrams(BigDecimal.valueOf(50))
+            .isAvailable(true)
+            .build();
+    PriceEntry cheapest =
+        PriceEntry.builder()
+            .product(testProduct)
+            .pricePerUnit(BigDecimal.valueOf(1.00))
+            .unitSizeGrams(BigDecimal.valueOf(100))
+            .build();
+    PriceEntry expensive =
+        PriceEntry.builder()
+            .product(testProduct)
+            .pricePerUnit(BigDecimal.valueOf(3.00))
+            .unitSizeGrams(BigDecimal.valueOf(100))
+            .build();
+
+    when(pantryRepository.findByPatientAndIsAvailableTrueOrderByExpiryDateAsc(testPatient))
+        .thenReturn(List.of(pantryItem));
+    when(priceRepository.findCurrentPricesOrderByPricePerUnitAsc())
+        .thenReturn(List.of(cheapest, expensive));
+
+    // When
+    GenerationContext context = pantryAwareService.createContext(testPatient, null);
+    PantryAwareService.PantryAvailability availability =
+        pantryAwareService.checkPantryAvailability(testProduct, context, BigDecimal.valueOf(100));
+    BigDecimal cost =
+        pantryAwareService.getCurrentCost(testProduct, BigDecimal.valueOf(100), context);
+
+    // Then: pantry is insufficient, so the cheapest market price is used without further queries
+    assertThat(availability.isAvailable()).isTrue();
+    assertThat(availability.isSufficient()).isFalse();
+    assertThat(cost).isEqualByComparingTo(BigDecimal.valueOf(1.00));
+    assertThat(context.getVarietyHistory()).isNotNull();
+    verify(pantryRepository, never())
+        .findByPatientAndProductAndIsAvailableTrueOrderByExpiryDateAsc(any(), any());
+    verify(priceRepository, never()).findBestPriceForProduct(any());
+  }
+
+  private GenerationContext context(List<PantryItem> pantryItems, List<PriceEntry> prices) {
+    when(pantryRepository.findByPatientAndIsAvailableTrueOrderByExpiryDateAsc(testPatient))
+        .thenReturn(pantryItems);
+    return pantryAwareService.createContext(testPatient, null, prices);
+  }
 }
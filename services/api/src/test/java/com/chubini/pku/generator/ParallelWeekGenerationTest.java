@@ -0,0 +1,218 @@
+package com.chubini.pku.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+
+import com.chubini.pku.generator.dto.MenuGenerationRequest;
+import com.chubini.pku.generator.dto.MenuGenerationResult;
+import com.chubini.pku.menus.*;
+import com.chubini.pku.norms.NormService;
+import com.chubini.pku.norms.dto.NormPrescriptionDto;
+import com.chubini.pku.pantry.PantryItem;
+import com.chubini.pku.pantry.PantryRepository;
+import com.chubini.pku.pantry.PriceRepository;
+import com.chubini.pku.patients.PatientProfile;
+import com.chubini.pku.patients.PatientService;
+import com.chubini.pku.patients.dto.PatientProfileDto;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.products.ProductCatalog;
+import com.chubini.pku.products.ProductCatalogSnapshot;
+import com.chubini.pku.validation.NutritionScaler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/** Parallel day generation must produce exactly the week that sequential generation produces */
+@ExtendWith(MockitoExtension.class)
+class ParallelWeekGenerationTest {
+
+  private static final long SEED = 42L;
+
+  private static final String[] CATEGORIES = {
+    "breakfast", "cereals", "bread", "fruits", "dairy", "vegetables", "grains", "protein"
+  };
+
+  @Mock private PatientService patientService;
+  @Mock private NormService normService;
+  @Mock private MenuWeekRepository menuWeekRepository;
+  @Mock private MenuDayRepository menuDayRepository;
+  @Mock private MenuEntryRepository menuEntryRepository;
+  @Mock private PantryRepository pantryRepository;
+  @Mock private PriceRepository priceRepository;
+  @Mock private ProductCatalog productCatalog;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private DayGenerationExecutor dayGenerationExecutor;
+  private MenuGenerationService menuGenerationService;
+
+  @BeforeEach
+  void setUp() {
+    Random random = new Random(SEED);
+    List<Product> products = products(random, 60);
+    PatientProfile patient =
+        PatientProfile.builder().id(UUID.randomUUID()).name("Test Patient").build();
+
+    when(productCatalog.current()).thenReturn(ProductCatalogSnapshot.of(1L, products));
+    when(patientService.getPatientById(any())).thenReturn(mock(PatientProfileDto.class));
+    when(patientService.getPatientEntity(any())).thenReturn(patient);
+    when(normService.getCurrentNormForPatient(any())).thenReturn(Optional.of(norm()));
+    // Limited pantry stock, so reservations made by earlier slots change later slots' scores
+    when(pantryRepository.findByPatientAndIsAvailableTrueOrderByExpiryDateAsc(patient))
+        .thenReturn(pantry(random, products));
+    when(menuWeekRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+    VarietyEngine varietyEngine = new VarietyEngine(menuDayRepository, menuEntryRepository);
+    PantryAwareService pantryAwareService =
+        new PantryAwareService(pantryRepository, priceRepository);
+    EnhancedFoodSelectionService selectionService =
+        new EnhancedFoodSelectionService(
+            productCatalog,
+            new NutritionScaler(),
+            new ScoringEngine(),
+            varietyEngine,
+            pantryAwareService);
+
+    dayGenerationExecutor = new DayGenerationExecutor(3);
+    menuGenerationService =
+        new MenuGenerationService(
+            patientService,
+            normService,
+            menuWeekRepository,
+            menuDayRepository,
+            selectionService,
+            varietyEngine,
+            pantryAwareService,
+            dayGenerationExecutor,
+            transactionManager);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dayGenerationExecutor.shutdown();
+  }
+
+  @Test
+  void generateWeeklyMenu_ParallelDays_MatchesSequentialWeek() {
+    MenuGenerationRequest request = request(LocalDate.of(2024, 1, 1));
+
+    ReflectionTestUtils.setField(menuGenerationService, "parallelDays", false);
+    List<List<String>> sequentialWeek = generate(request);
+    ReflectionTestUtils.setField(menuGenerationService, "parallelDays", true);
+    List<List<String>> parallelWeek = generate(request);
+
+    assertThat(sequentialWeek).hasSize(7).allSatisfy(day -> assertThat(day).isNotEmpty());
+    assertThat(parallelWeek).isEqualTo(sequentialWeek);
+    // In-week variety applies: no item is used on two consecutive days
+    for (int day = 1; day < 7; day++) {
+      assertThat(parallelWeek.get(day)).doesNotContainAnyElementsOf(parallelWeek.get(day - 1));
+    }
+  }
+
+  /** Generate a week and return each day's item names in slot order */
+  private List<List<String>> generate(MenuGenerationRequest request) {
+    MenuGenerationResult result = menuGenerationService.generateWeeklyMenu(request);
+    assertThat(result.success()).isTrue();
+
+    ArgumentCaptor<MenuWeek> savedWeek = ArgumentCaptor.forClass(MenuWeek.class);
+    verify(menuWeekRepository, atLeastOnce()).save(savedWeek.capture());
+    return savedWeek.getValue().getMenuDays().stream()
+        .map(
+            day ->
+                day.getMealSlots().stream()
+                    .flatMap(slot -> slot.getMenuEntries().stream())
+                    .map(MenuEntry::getItemName)
+                    .toList())
+        .toList();
+  }
+
+  private static List<Product> products(Random random, int size) {
+    List<Product> products = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      products.add(
+          Product.builder()
+              .id(new UUID(SEED, i))
+              .productName("Product " + i)
+              .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+              .phenylalanine(decimal(5 + random.nextDouble() * 300))
+              .protein(decimal(0.1 + random.nextDouble() * 10))
+              .kilocalories(decimal(20 + random.nextDouble() * 400))
+              .fats(decimal(random.nextDouble() * 20))
+              .carbohydrates(decimal(random.nextDouble() * 60))
+              .build());
+    }
+    return products;
+  }
+
+  private static List<PantryItem> pantry(Random random, List<Product> products) {
+    List<PantryItem> items = new ArrayList<>();
+    for (Product product : products) {
+      if (random.nextInt(3) == 0) {
+        items.add(
+            PantryItem.builder()
+                .id(UUID.randomUUID())
+                .product(product)
+                .quantityGrams(decimal(50 + random.nextDouble() * 400))
+                .expiryDate(LocalDate.of(2024, 2, 1))
+                .isAvailable(true)
+                .build());
+      }
+    }
+    return items;
+  }
+
+  private static NormPrescriptionDto norm() {
+    return new NormPrescriptionDto(
+        UUID.randomUUID(),
+        UUID.randomUUID(),
+        new BigDecimal("300.00"),
+        new BigDecimal("15.00"),
+        new BigDecimal("1800.00"),
+        new BigDecimal("2200.00"),
+        new BigDecimal("60.00"),
+        LocalDate.of(2024, 1, 1),
+        null,
+        "Test",
+        null,
+        null,
+        null);
+  }
+
+  private static MenuGenerationRequest request(LocalDate startDate) {
+    return new MenuGenerationRequest(
+        UUID.randomUUID(),
+        startDate,
+        "WEEKLY",
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        false,
+        true,
+        25.0,
+        null,
+        null);
+  }
+
+  private static BigDecimal decimal(double value) {
+    return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+  }
+}
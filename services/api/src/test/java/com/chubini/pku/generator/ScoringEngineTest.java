@@ -3,8 +3,12 @@ package com.chubini.pku.generator;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 import java.util.UUID;
 
 import com.chubini.pku.generator.dto.FoodCandidate;
@@ -251,4 +255,81 @@ class ScoringEngineTest {
     // Then - pantry item should have better score (pantry preference bonus)
     assertThat(pantryScore).isLessThanOrEqualTo(normalScore);
   }
+
+  @Test
+  void testScoreBatch_MatchesExactScoreToFourDecimals() {
+    // Given: a slot with a kcal target and a spread of random candidates
+    testSlot.setTargetKcal(new BigDecimal("450.00"));
+    Random random = new Random(42);
+    List<FoodCandidate> candidates = randomCandidates(random, 500);
+
+    ScoringBatch batch = new ScoringBatch(candidates.size());
+    for (FoodCandidate candidate : candidates) {
+      batch.add(candidate, random.nextInt(5));
+    }
+
+    // When
+    double[] kernelScores =
+        scoringEngine.scoreBatch(batch, testSlot, testNorm, BigDecimal.valueOf(25));
+
+    // Then
+    for (int i = 0; i < candidates.size(); i++) {
+      BigDecimal exact =
+          scoringEngine.calculateScore(
+              candidates.get(i), testSlot, testNorm, BigDecimal.valueOf(25), batch.repeatDays(i));
+      assertThat(BigDecimal.valueOf(kernelScores[i]).setScale(4, RoundingMode.HALF_UP))
+          .isEqualByComparingTo(exact);
+    }
+  }
+
+  @Test
+  void testShortlist_ContainsExactTopCandidates() {
+    // Given
+    testSlot.setTargetKcal(new BigDecimal("450.00"));
+    Random random = new Random(7);
+    List<FoodCandidate> candidates = randomCandidates(random, 200);
+
+    ScoringBatch batch = new ScoringBatch(candidates.size());
+    candidates.forEach(candidate -> batch.add(candidate, 0));
+
+    // When
+    int[] shortlist =
+        scoringEngine.shortlist(
+            scoringEngine.scoreBatch(batch, testSlot, testNorm, BigDecimal.valueOf(25)), 10);
+
+    // Then: every exact top-10 candidate is in the shortlist
+    candidates.forEach(
+        candidate ->
+            scoringEngine.calculateScore(candidate, testSlot, testNorm, BigDecimal.valueOf(25), 0));
+    List<FoodCandidate> exactTop =
+        candidates.stream()
+            .sorted(Comparator.comparing(FoodCandidate::getScore))
+            .limit(10)
+            .toList();
+    List<FoodCandidate> shortlisted = new ArrayList<>();
+    for (int index : shortlist) {
+      shortlisted.add(candidates.get(index));
+    }
+    assertThat(shortlisted).containsAll(exactTop);
+  }
+
+  private List<FoodCandidate> randomCandidates(Random random, int count) {
+    List<FoodCandidate> candidates = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      candidates.add(
+          FoodCandidate.builder()
+              .entryType(MenuEntry.EntryType.PRODUCT)
+              .product(testCandidate.getProduct())
+              .suggestedServingGrams(BigDecimal.valueOf(100))
+              .costPerServing(BigDecimal.valueOf(random.nextInt(2000), 2))
+              .availableInPantry(random.nextBoolean())
+              .pantryQuantityAvailable(BigDecimal.valueOf(random.nextInt(200)))
+              .calculatedPheMg(BigDecimal.valueOf(random.nextInt(30000), 2))
+              .calculatedProteinG(BigDecimal.valueOf(random.nextInt(1500), 2))
+              .calculatedKcal(random.nextInt(900))
+              .calculatedFatG(BigDecimal.valueOf(2))
+              .build());
+    }
+    return candidates;
+  }
 }
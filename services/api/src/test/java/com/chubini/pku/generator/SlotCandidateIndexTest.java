@@ -0,0 +1,87 @@
+package com.chubini.pku.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.chubini.pku.menus.MealSlot;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.products.ProductCatalogSnapshot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SlotCandidateIndexTest {
+
+  private static final Map<MealSlot.SlotName, List<String>> MEAL_CATEGORIES =
+      Map.of(MealSlot.SlotName.BREAKFAST, List.of("fruits", "dairy"));
+
+  private List<Product> products;
+  private SlotCandidateIndex index;
+
+  @BeforeEach
+  void setUp() {
+    products = new ArrayList<>();
+    products.add(product("Apple", "Fruits", 5, 50));
+    products.add(product("Banana", "fruits", 4, 90));
+    products.add(product("Yogurt", "Dairy", 150, 60));
+    products.add(product("Pear", "Fruits", 3, 40));
+    products.add(product("Milk", "dairy", 160, 65));
+    products.add(product("Rice", "Grains", 300, 130));
+    products.add(product("Water", "Fruits", 0, 0)); // invalid nutrition (no kcal)
+
+    index =
+        SlotCandidateIndex.build(
+            new ProductCatalogSnapshot(1, products, Map.of(), null), MEAL_CATEGORIES);
+  }
+
+  @Test
+  void suitableProducts_MatchesSlotCategoriesInCatalogOrder() {
+    List<Product> result = index.suitableProducts(MealSlot.SlotName.BREAKFAST, new BitSet());
+
+    assertThat(result)
+        .extracting(Product::getProductName)
+        .containsExactly("Apple", "Banana", "Yogurt", "Pear", "Milk");
+  }
+
+  @Test
+  void suitableProducts_ExclusionBelowMinimumFallsBackToAllValidProducts() {
+    BitSet avoid = index.exclusionMask(List.of("DAIRY"));
+
+    List<Product> result = index.suitableProducts(MealSlot.SlotName.BREAKFAST, avoid);
+
+    assertThat(result)
+        .extracting(Product::getProductName)
+        .containsExactly("Apple", "Banana", "Pear", "Rice");
+  }
+
+  @Test
+  void exclusionMask_MatchesNameSubstringsAndIsMemoized() {
+    BitSet mask = index.exclusionMask(List.of("app", "ric"));
+
+    assertThat(mask.stream().boxed().toList()).containsExactly(0, 5);
+    assertThat(index.exclusionMask(List.of("app", "ric"))).isSameAs(mask);
+  }
+
+  @Test
+  void suitableProducts_SlotWithoutCategoriesFallsBackToAllValidProducts() {
+    List<Product> result = index.suitableProducts(MealSlot.SlotName.LUNCH, new BitSet());
+
+    assertThat(result).hasSize(6);
+  }
+
+  private Product product(String name, String category, int phe, int kcal) {
+    return Product.builder()
+        .id(UUID.randomUUID())
+        .productName(name)
+        .category(category)
+        .phenylalanine(BigDecimal.valueOf(phe))
+        .kilocalories(BigDecimal.valueOf(kcal))
+        .build();
+  }
+}
@@ -13,6 +13,8 @@ import com.chubini.pku.menus.MealSlot;
 import com.chubini.pku.menus.MenuDay;
 import com.chubini.pku.menus.MenuDayRepository;
 import com.chubini.pku.menus.MenuEntry;
+import com.chubini.pku.menus.MenuEntryRepository;
+import com.chubini.pku.menus.MenuItemUsage;
 import com.chubini.pku.patients.PatientProfile;
 import com.chubini.pku.products.Product;
 
@@ -28,6 +30,8 @@ class VarietyEngineTest {
 
   @Mock private MenuDayRepository menuDayRepository;
 
+  @Mock private MenuEntryRepository menuEntryRepository;
+
   @InjectMocks private VarietyEngine varietyEngine;
 
   private PatientProfile testPatient;
@@ -188,6 +192,46 @@ class VarietyEngineTest {
     assertThat(alternatives.size()).isLessThanOrEqualTo(3);
   }
 
+  @Test
+  void testLoadHistory_AnswersRepeatQueriesFromSingleQuery() {
+    // Given: potato for lunch 3 days ago, apple for breakfast yesterday
+    when(menuEntryRepository.findItemUsageByPatientIdAndDateRange(
+            testPatient.getId(), testDate.minusDays(7), testDate.minusDays(1)))
+        .thenReturn(
+            List.of(
+                new MenuItemUsage(testDate.minusDays(3), MealSlot.SlotName.LUNCH, "Potato"),
+                new MenuItemUsage(testDate.minusDays(1), MealSlot.SlotName.BREAKFAST, "Apple")));
+
+    // When
+    VarietyHistory history = varietyEngine.loadHistory(testPatient, testDate, testDate);
+
+    // Then
+    assertThat(history.daysSinceLastUse("potato", testDate, "LUNCH")).isEqualTo(3);
+    assertThat(history.daysSinceLastUse("Potato", testDate, "DINNER")).isEqualTo(Integer.MAX_VALUE);
+    assertThat(history.daysSinceLastUse("Apple", testDate, null)).isEqualTo(1);
+    assertThat(varietyEngine.getItemsToAvoidForVariety(history, testDate, false))
+        .containsExactly("Apple");
+    assertThat(varietyEngine.getItemsToAvoidForVariety(history, testDate, true)).isEmpty();
+  }
+
+  @Test
+  void testVarietyHistory_AppendedDaysAreSeenByLaterDays() {
+    // Given
+    VarietyHistory history = VarietyHistory.empty();
+    MenuDay generatedDay = createMenuDaysWithItem("Carrot", testDate).get(0);
+
+    // When
+    history.append(generatedDay);
+
+    // Then
+    LocalDate nextDay = testDate.plusDays(1);
+    assertThat(history.daysSinceLastUse("Carrot", nextDay, "LUNCH")).isEqualTo(1);
+    assertThat(history.daysSinceLastUse("Carrot", testDate, "LUNCH")).isEqualTo(Integer.MAX_VALUE);
+    assertThat(history.daysSinceLastUse("Carrot", testDate.plusDays(9), "LUNCH"))
+        .isEqualTo(Integer.MAX_VALUE);
+    assertThat(history.itemsToAvoid(nextDay, 2, false)).containsExactly("Carrot");
+  }
+
   // Helper methods to create test data
   private List<MenuDay> createMenuDaysWithItem(String itemName, LocalDate date) {
     // Create a MenuDay with MealSlots containing the specified item
@@ -0,0 +1,227 @@
+package com.chubini.pku.imports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import com.chubini.pku.dishes.MultiLanguageDishCsvService;
+import com.chubini.pku.imports.ImportJob.ImportStatus;
+import com.chubini.pku.imports.ImportJob.ImportType;
+import com.chubini.pku.products.ProductService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.multipart.MultipartFile;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+  @Mock private ImportJobRepository repository;
+
+  @Mock private ProductService productService;
+
+  @Mock private MultiLanguageDishCsvService dishCsvService;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @TempDir Path spoolDir;
+
+  private ImportJobService service;
+
+  @BeforeEach
+  void setUp() {
+    service =
+        new ImportJobService(
+            repository,
+            productService,
+            dishCsvService,
+            transactionManager,
+            spoolDir.toString(),
+            1,
+            1,
+            5,
+            60,
+            7,
+            3,
+            2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void submit_RepeatedIdempotencyKeyReturnsExistingJob() throws Exception {
+    ImportJob existing = job(ImportType.DISHES, spoolDir.resolve("first.csv"));
+    when(repository.findByIdempotencyKey("client:key")).thenReturn(Optional.of(existing));
+    MultipartFile file = mock(MultipartFile.class);
+
+    ImportJob job = service.submit(ImportType.DISHES, null, file, "client:key");
+
+    assertThat(job).isSameAs(existing);
+    verify(file, never()).transferTo(any(Path.class));
+    verify(repository, never()).save(any());
+  }
+
+  @Test
+  void submit_ConcurrentDuplicateKeyReturnsTheWinningJob() throws Exception {
+    ImportJob winner = job(ImportType.DISHES, spoolDir.resolve("winner.csv"));
+    when(repository.findByIdempotencyKey("client:key"))
+        .thenReturn(Optional.empty(), Optional.of(winner));
+    when(repository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+    MultipartFile file = mock(MultipartFile.class);
+    doAnswer(invocation -> Files.writeString(invocation.getArgument(0), "code\n"))
+        .when(file)
+        .transferTo(any(Path.class));
+
+    ImportJob job = service.submit(ImportType.DISHES, null, file, "client:key");
+
+    assertThat(job).isSameAs(winner);
+    try (var spooled = Files.list(spoolDir)) {
+      assertThat(spooled).isEmpty();
+    }
+  }
+
+  @Test
+  void checkpoint_WritesChunkAndProgressInOneTransaction() {
+    ImportJob job = job(ImportType.PRODUCTS, spoolDir.resolve("a.csv"));
+    when(repository.findById(job.getId())).thenReturn(Optional.of(job));
+    Runnable write = mock(Runnable.class);
+
+    ImportCheckpoint checkpoint = service.checkpointFor(job.getId());
+    checkpoint.commit(100, 98, List.of("Row 7: bad", "Row 9: bad", "Row 11: bad"), write);
+    checkpoint.commit(150, 50, List.of(), write);
+
+    verify(write, times(2)).run();
+    verify(transactionManager, times(2)).commit(any());
+    assertThat(job.getCheckpointRecord()).isEqualTo(150);
+    assertThat(job.getRowsCommitted()).isEqualTo(148);
+    assertThat(job.getErrorCount()).isEqualTo(3);
+    assertThat(job.getErrorList()).containsExactly("Row 7: bad", "Row 9: bad");
+  }
+
+  @Test
+  void checkpoint_FailedWriteLeavesProgressUntouched() {
+    ImportJob job = job(ImportType.PRODUCTS, spoolDir.resolve("a.csv"));
+
+    ImportCheckpoint checkpoint = service.checkpointFor(job.getId());
+    Runnable failingWrite =
+        () -> {
+          throw new IllegalStateException("duplicate key");
+        };
+
+    assertThatThrownBy(() -> checkpoint.commit(100, 100, List.of(), failingWrite))
+        .hasMessage("duplicate key");
+    verify(transactionManager).rollback(any());
+    verify(repository, never()).findById(any());
+    assertThat(job.getCheckpointRecord()).isZero();
+  }
+
+  @Test
+  void run_ResumesAfterCheckpointAndDeletesSpoolOnSuccess() throws Exception {
+    Path spool = Files.writeString(spoolDir.resolve("products.csv"), "product_code,name\n");
+    ImportJob job = job(ImportType.PRODUCTS, spool);
+    job.setStatus(ImportStatus.RUNNING);
+    job.setCheckpointRecord(40);
+    job.setAttempts(1);
+    when(repository.findById(job.getId())).thenReturn(Optional.of(job));
+    when(productService.importProducts(any(InputStream.class), eq(40L), any()))
+        .thenReturn("Upload complete: created=10, updated=0");
+
+    service.run(job.getId());
+
+    assertThat(job.getStatus()).isEqualTo(ImportStatus.SUCCEEDED);
+    assertThat(job.getAttempts()).isEqualTo(2);
+    assertThat(job.getMessage()).isEqualTo("Upload complete: created=10, updated=0");
+    assertThat(job.getFinishedAt()).isNotNull();
+    assertThat(spool).doesNotExist();
+  }
+
+  @Test
+  void run_FailureIsRecordedOnTheJob() throws Exception {
+    Path spool = Files.writeString(spoolDir.resolve("dishes.csv"), "dish_name_en\n");
+    ImportJob job = job(ImportType.DISHES, spool);
+    when(repository.findById(job.getId())).thenReturn(Optional.of(job));
+    when(dishCsvService.importMultiLanguageCsv(any(InputStream.class), eq(0L), any()))
+        .thenThrow(new IllegalArgumentException("Failed to parse dish from record 3"));
+
+    service.run(job.getId());
+
+    assertThat(job.getStatus()).isEqualTo(ImportStatus.FAILED);
+    assertThat(job.getMessage()).isEqualTo("Failed to parse dish from record 3");
+    assertThat(spool).doesNotExist();
+  }
+
+  @Test
+  void sweep_FailsStaleJobWhoseSpoolIsGone() {
+    ImportJob stale = job(ImportType.TRANSLATIONS, spoolDir.resolve("missing.csv"));
+    stale.setStatus(ImportStatus.RUNNING);
+    stale.setUpdatedAt(LocalDateTime.now().minusHours(1));
+    when(repository.findByStatusInAndUpdatedAtBefore(anyCollection(), any()))
+        .thenReturn(List.of(stale));
+    when(repository.claim(eq(stale.getId()), eq(stale.getUpdatedAt()), any())).thenReturn(1);
+    when(repository.findById(stale.getId())).thenReturn(Optional.of(stale));
+
+    service.sweep();
+
+    assertThat(stale.getStatus()).isEqualTo(ImportStatus.FAILED);
+    assertThat(stale.getMessage()).isEqualTo("Uploaded file is no longer available");
+    verify(repository).deleteFinishedBefore(anyCollection(), any());
+  }
+
+  @Test
+  void sweep_SkipsJobClaimedByAnotherInstance() {
+    ImportJob stale = job(ImportType.PRODUCTS, spoolDir.resolve("other.csv"));
+    stale.setUpdatedAt(LocalDateTime.now().minusHours(1));
+    when(repository.findByStatusInAndUpdatedAtBefore(anyCollection(), any()))
+        .thenReturn(List.of(stale));
+    when(repository.claim(any(), any(), any())).thenReturn(0);
+
+    service.sweep();
+
+    assertThat(stale.getStatus()).isEqualTo(ImportStatus.QUEUED);
+    verify(repository, never()).findById(any());
+  }
+
+  @Test
+  void recordChunk_KeepsCheckpointMonotonicAndCapsErrors() {
+    ImportJob job = job(ImportType.PRODUCTS, spoolDir.resolve("a.csv"));
+    List<String> errors = IntStream.range(0, 5).mapToObj(i -> "Row " + i + ":\nbad").toList();
+
+    job.recordChunk(200, 10, errors, 3);
+    job.recordChunk(150, 1, List.of(), 3);
+
+    assertThat(job.getCheckpointRecord()).isEqualTo(200);
+    assertThat(job.getErrorCount()).isEqualTo(5);
+    assertThat(job.getErrorList()).containsExactly("Row 0: bad", "Row 1: bad", "Row 2: bad");
+  }
+
+  private static ImportJob job(ImportType type, Path spool) {
+    return ImportJob.builder()
+        .id(UUID.randomUUID())
+        .type(type)
+        .locale(type == ImportType.TRANSLATIONS ? "ka" : null)
+        .spoolPath(spool.toString())
+        .build();
+  }
+}
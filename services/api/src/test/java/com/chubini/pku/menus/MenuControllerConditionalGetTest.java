@@ -0,0 +1,66 @@
+package com.chubini.pku.menus;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.chubini.pku.generator.SnackSuggestionService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class MenuControllerConditionalGetTest {
+
+  private static final String ETAG = "\"5d41402abc4b2a76b9719d911017c592\"";
+
+  @Mock private MenuService menuService;
+
+  @Mock private SnackSuggestionService snackSuggestionService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(new MenuController(menuService, snackSuggestionService))
+            .build();
+  }
+
+  @Test
+  void matchingETag_AnswersNotModifiedWithoutLoadingTheDay() throws Exception {
+    UUID dayId = UUID.randomUUID();
+    when(menuService.getMenuDayETag(dayId)).thenReturn(Optional.of(ETAG));
+
+    mockMvc
+        .perform(get("/api/v1/menus/days/{dayId}/slots", dayId).header("If-None-Match", ETAG))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+
+    verify(menuService, never()).getMealSlotsByDay(any());
+  }
+
+  @Test
+  void staleETag_ReturnsTheDayWithItsCurrentETag() throws Exception {
+    UUID dayId = UUID.randomUUID();
+    when(menuService.getMenuDayETag(dayId)).thenReturn(Optional.of(ETAG));
+    when(menuService.getMealSlotsByDay(dayId)).thenReturn(List.of());
+
+    mockMvc
+        .perform(get("/api/v1/menus/days/{dayId}/slots", dayId).header("If-None-Match", "\"old\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+        .andExpect(content().json("[]"));
+  }
+}
@@ -0,0 +1,112 @@
+package com.chubini.pku.menus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import com.chubini.pku.BaseIntegrationTest;
+import com.chubini.pku.patients.PatientProfile;
+import com.chubini.pku.patients.PatientProfileRepository;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.products.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+
+/** Menu ETags must cover every row a read returns, including entry item names */
+@Tag("it")
+@Transactional
+@DisabledIfSystemProperty(
+    named = "skipDockerTests",
+    matches = "true",
+    disabledReason = "Docker/Testcontainers not available")
+class MenuFingerprintIntegrationTest extends BaseIntegrationTest {
+
+  @Autowired private MenuService menuService;
+
+  @Autowired private MenuWeekRepository menuWeekRepository;
+
+  @Autowired private PatientProfileRepository patientRepository;
+
+  @Autowired private ProductRepository productRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  private PatientProfile patient;
+  private Product bread;
+  private MenuWeek week;
+  private MenuDay day;
+  private MealSlot slot;
+
+  @BeforeEach
+  void setUp() {
+    patient = patientRepository.save(PatientProfile.builder().name("Fingerprint").build());
+    bread =
+        productRepository.save(
+            Product.builder()
+                .productCode("FP-" + UUID.randomUUID())
+                .productName("Low protein bread")
+                .phenylalanine(new BigDecimal("20"))
+                .build());
+
+    LocalDate monday = LocalDate.of(2026, 3, 2);
+    week =
+        MenuWeek.builder()
+            .patient(patient)
+            .weekStartDate(monday)
+            .weekEndDate(monday.plusDays(6))
+            .build();
+    day = MenuDay.builder().menuWeek(week).patient(patient).date(monday).build();
+    slot = MealSlot.builder().menuDay(day).slotName(MealSlot.SlotName.BREAKFAST).build();
+    day.getMealSlots().add(slot);
+    week.getMenuDays().add(day);
+    week = menuWeekRepository.save(week);
+    entityManager.flush();
+  }
+
+  @Test
+  void etags_ChangeWhenAnEntryIsAddedOrItsItemRenamed() {
+    String weekETag = menuService.getMenuWeekETag(week.getId()).orElseThrow();
+    String dayETag = menuService.getMenuDayETag(day.getId()).orElseThrow();
+    String slotETag = menuService.getMealSlotETag(slot.getId()).orElseThrow();
+    String patientETag = menuService.getMenuWeeksETagByPatient(patient.getId()).orElseThrow();
+
+    slot.getMenuEntries()
+        .add(
+            MenuEntry.builder()
+                .mealSlot(slot)
+                .entryType(MenuEntry.EntryType.PRODUCT)
+                .product(bread)
+                .plannedServingGrams(new BigDecimal("50"))
+                .build());
+    entityManager.flush();
+
+    String slotWithEntry = menuService.getMealSlotETag(slot.getId()).orElseThrow();
+    assertThat(slotWithEntry).isNotEqualTo(slotETag);
+    assertThat(menuService.getMenuDayETag(day.getId())).get().isNotEqualTo(dayETag);
+    assertThat(menuService.getMenuWeekETag(week.getId())).get().isNotEqualTo(weekETag);
+    assertThat(menuService.getMenuWeeksETagByPatient(patient.getId()))
+        .get()
+        .isNotEqualTo(patientETag);
+
+    bread.setProductName("Gluten-free bread");
+    entityManager.flush();
+    assertThat(menuService.getMealSlotETag(slot.getId())).get().isNotEqualTo(slotWithEntry);
+  }
+
+  @Test
+  void etags_AreEmptyForUnknownMenus() {
+    assertThat(menuService.getMenuWeekETag(UUID.randomUUID())).isEmpty();
+    assertThat(menuService.getMenuDayETag(UUID.randomUUID())).isEmpty();
+    assertThat(menuService.getMealSlotETag(UUID.randomUUID())).isEmpty();
+    assertThat(menuService.getMenuWeeksETagByPatient(UUID.randomUUID())).isEmpty();
+  }
+}
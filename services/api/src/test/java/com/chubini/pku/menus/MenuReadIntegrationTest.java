@@ -0,0 +1,156 @@
+package com.chubini.pku.menus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import com.chubini.pku.BaseIntegrationTest;
+import com.chubini.pku.dishes.Dish;
+import com.chubini.pku.dishes.DishRepository;
+import com.chubini.pku.menus.dto.MealSlotDto;
+import com.chubini.pku.menus.dto.MenuDayDto;
+import com.chubini.pku.menus.dto.MenuEntryDto;
+import com.chubini.pku.menus.dto.MenuWeekDto;
+import com.chubini.pku.patients.PatientProfile;
+import com.chubini.pku.patients.PatientProfileRepository;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.products.ProductRepository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/** Full week and day reads must not grow with the number of days, slots or entries */
+@Tag("it")
+@Transactional
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisabledIfSystemProperty(
+    named = "skipDockerTests",
+    matches = "true",
+    disabledReason = "Docker/Testcontainers not available")
+class MenuReadIntegrationTest extends BaseIntegrationTest {
+
+  @Autowired private MenuService menuService;
+
+  @Autowired private MenuWeekRepository menuWeekRepository;
+
+  @Autowired private PatientProfileRepository patientRepository;
+
+  @Autowired private ProductRepository productRepository;
+
+  @Autowired private DishRepository dishRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private MenuWeek week;
+
+  @BeforeEach
+  void setUp() {
+    PatientProfile patient =
+        patientRepository.save(PatientProfile.builder().name("Statement count").build());
+    Product bread =
+        productRepository.save(
+            Product.builder()
+                .productCode("STMT-" + UUID.randomUUID())
+                .productName("Low protein bread")
+                .phenylalanine(new BigDecimal("20"))
+                .build());
+    Dish soup =
+        dishRepository.save(
+            Dish.builder()
+                .name("Vegetable soup")
+                .nominalServingGrams(new BigDecimal("250"))
+                .build());
+
+    LocalDate monday = LocalDate.of(2026, 3, 2);
+    week =
+        MenuWeek.builder()
+            .patient(patient)
+            .weekStartDate(monday)
+            .weekEndDate(monday.plusDays(6))
+            .build();
+    for (int d = 0; d < 7; d++) {
+      MenuDay day =
+          MenuDay.builder().menuWeek(week).patient(patient).date(monday.plusDays(d)).build();
+      for (MealSlot.SlotName slotName : MealSlot.SlotName.values()) {
+        MealSlot slot = MealSlot.builder().menuDay(day).slotName(slotName).build();
+        if (slotName != MealSlot.SlotName.EVENING_SNACK) {
+          slot.getMenuEntries()
+              .add(
+                  MenuEntry.builder()
+                      .mealSlot(slot)
+                      .entryType(MenuEntry.EntryType.PRODUCT)
+                      .product(bread)
+                      .plannedServingGrams(new BigDecimal("50"))
+                      .build());
+          slot.getMenuEntries()
+              .add(
+                  MenuEntry.builder()
+                      .mealSlot(slot)
+                      .entryType(MenuEntry.EntryType.DISH)
+                      .dish(soup)
+                      .plannedServingGrams(new BigDecimal("200"))
+                      .build());
+        }
+        day.getMealSlots().add(slot);
+      }
+      week.getMenuDays().add(day);
+    }
+    week = menuWeekRepository.save(week);
+
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void getMenuWeekById_LoadsWholeWeekInTwoStatements() {
+    Statistics statistics = statistics();
+
+    MenuWeekDto dto = menuService.getMenuWeekById(week.getId());
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(dto.menuDays()).hasSize(7);
+    MenuDayDto monday = dto.menuDays().get(0);
+    assertThat(monday.mealSlots())
+        .extracting(MealSlotDto::slotName)
+        .containsExactly(
+            "BREAKFAST", "MORNING_SNACK", "LUNCH", "AFTERNOON_SNACK", "DINNER", "EVENING_SNACK");
+    assertThat(monday.mealSlots().get(0).menuEntries())
+        .extracting(MenuEntryDto::itemName)
+        .containsExactlyInAnyOrder("Low protein bread", "Vegetable soup");
+    assertThat(monday.mealSlots().get(5).menuEntries()).isEmpty();
+  }
+
+  @Test
+  void getMenuDayById_LoadsDayInTwoStatements() {
+    UUID dayId = menuService.getMenuDaysByWeek(week.getId()).get(3).dayId();
+    entityManager.clear();
+    Statistics statistics = statistics();
+
+    MenuDayDto dto = menuService.getMenuDayById(dayId);
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(dto.mealSlots()).hasSize(6);
+    assertThat(dto.mealSlots().stream().mapToInt(slot -> slot.menuEntries().size()).sum())
+        .isEqualTo(10);
+  }
+
+  private Statistics statistics() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    return statistics;
+  }
+}
@@ -0,0 +1,138 @@
+package com.chubini.pku.menus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.chubini.pku.BaseIntegrationTest;
+import com.chubini.pku.patients.PatientProfile;
+import com.chubini.pku.patients.PatientProfileRepository;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.products.ProductRepository;
+import com.chubini.pku.validation.NutritionCalculator;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+
+/** Running slot and day totals are written only by the application and stay consistent */
+@Tag("it")
+@Transactional
+@DisabledIfSystemProperty(
+    named = "skipDockerTests",
+    matches = "true",
+    disabledReason = "Docker/Testcontainers not available")
+class MenuTotalsIntegrationTest extends BaseIntegrationTest {
+
+  @Autowired private MenuService menuService;
+
+  @Autowired private MenuDayRepository menuDayRepository;
+
+  @Autowired private PatientProfileRepository patientRepository;
+
+  @Autowired private ProductRepository productRepository;
+
+  @Autowired private NutritionCalculator nutritionCalculator;
+
+  @Autowired private MenuTotalsReconciler menuTotalsReconciler;
+
+  @Autowired private EntityManager entityManager;
+
+  @Test
+  void deleteMenuEntry_KeepsSlotAndDayTotalsInStep() {
+    PatientProfile patient =
+        patientRepository.save(PatientProfile.builder().name("Running totals").build());
+    Product bread =
+        productRepository.save(
+            Product.builder()
+                .productCode("TOT-" + UUID.randomUUID())
+                .productName("Low protein bread")
+                .phenylalanine(new BigDecimal("20"))
+                .protein(new BigDecimal("1"))
+                .kilocalories(new BigDecimal("250"))
+                .fats(new BigDecimal("2"))
+                .build());
+
+    MenuDay day = MenuDay.builder().patient(patient).date(LocalDate.of(2026, 3, 2)).build();
+    MealSlot breakfast =
+        MealSlot.builder().menuDay(day).slotName(MealSlot.SlotName.BREAKFAST).build();
+    MealSlot lunch = MealSlot.builder().menuDay(day).slotName(MealSlot.SlotName.LUNCH).build();
+    entry(breakfast, bread, "50");
+    MenuEntry deleted = entry(breakfast, bread, "50");
+    entry(lunch, bread, "100");
+    day.getMealSlots().add(breakfast);
+    day.getMealSlots().add(lunch);
+    nutritionCalculator.recalculateTotals(day);
+    day = menuDayRepository.save(day);
+    UUID dayId = day.getId();
+    entityManager.flush();
+    entityManager.clear();
+
+    // A nutrition correction after planning: the stored entry values are now stale
+    Product corrected = productRepository.findById(bread.getId()).orElseThrow();
+    corrected.setPhenylalanine(new BigDecimal("40"));
+    entityManager.flush();
+    entityManager.clear();
+
+    menuService.deleteMenuEntry(deleted.getId());
+    entityManager.flush();
+    entityManager.clear();
+
+    MenuDay reloaded = menuDayRepository.findById(dayId).orElseThrow();
+    BigDecimal slotPhe =
+        reloaded.getMealSlots().stream()
+            .map(MealSlot::getActualPheMg)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    assertThat(reloaded.getTotalDayPheMg()).isEqualByComparingTo(slotPhe);
+    // 40 mg planned, less the deleted 50g at the corrected 40 mg/100g
+    assertThat(reloaded.getTotalDayPheMg()).isEqualByComparingTo("20");
+  }
+
+  @Test
+  void reconcile_RecordsCheckWithoutRewritingAccurateDay() {
+    PatientProfile patient =
+        patientRepository.save(PatientProfile.builder().name("Verified totals").build());
+    MenuDay day = MenuDay.builder().patient(patient).date(LocalDate.of(2026, 3, 3)).build();
+    day.getMealSlots()
+        .add(MealSlot.builder().menuDay(day).slotName(MealSlot.SlotName.BREAKFAST).build());
+    nutritionCalculator.recalculateTotals(day);
+    UUID dayId = menuDayRepository.save(day).getId();
+    entityManager.flush();
+    entityManager.clear();
+    LocalDateTime updatedAt = menuDayRepository.findById(dayId).orElseThrow().getUpdatedAt();
+    entityManager.clear();
+
+    boolean corrected = menuTotalsReconciler.reconcile(dayId);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(corrected).isFalse();
+    assertThat(menuDayRepository.findById(dayId).orElseThrow().getUpdatedAt()).isEqualTo(updatedAt);
+    assertThat(
+            menuDayRepository.findIdsForTotalsVerification(
+                LocalDateTime.now().minusHours(1), PageRequest.of(0, 1000)))
+        .doesNotContain(dayId);
+  }
+
+  private MenuEntry entry(MealSlot slot, Product product, String grams) {
+    MenuEntry entry =
+        MenuEntry.builder()
+            .mealSlot(slot)
+            .entryType(MenuEntry.EntryType.PRODUCT)
+            .product(product)
+            .plannedServingGrams(new BigDecimal(grams))
+            .isConsumed(false)
+            .build();
+    nutritionCalculator.updateEntryCalculatedValues(entry);
+    slot.getMenuEntries().add(entry);
+    return entry;
+  }
+}
@@ -0,0 +1,73 @@
+package com.chubini.pku.menus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.chubini.pku.validation.NutritionCalculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class MenuTotalsReconcilerTest {
+
+  @Mock private MenuDayRepository menuDayRepository;
+
+  @Mock private NutritionCalculator nutritionCalculator;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @Test
+  void reconcileBatch_CountsOnlyDriftedDaysAndRecordsEveryCheck() {
+    MenuDay drifted = day(BigDecimal.TEN);
+    MenuDay unbuilt = day(null);
+    MenuDay accurate = day(BigDecimal.ONE);
+    List<MenuDay> days = List.of(drifted, unbuilt, accurate);
+    when(menuDayRepository.findIdsForTotalsVerification(any(), any()))
+        .thenReturn(days.stream().map(MenuDay::getId).toList());
+    for (MenuDay day : days) {
+      when(menuDayRepository.lockById(day.getId())).thenReturn(Optional.of(day.getId()));
+      when(menuDayRepository.findById(day.getId())).thenReturn(Optional.of(day));
+    }
+    when(nutritionCalculator.recalculateTotals(drifted)).thenReturn(true);
+    when(nutritionCalculator.recalculateTotals(unbuilt)).thenReturn(true);
+    when(nutritionCalculator.recalculateTotals(accurate)).thenReturn(false);
+
+    MenuTotalsReconciler reconciler =
+        new MenuTotalsReconciler(
+            menuDayRepository, nutritionCalculator, transactionManager, 0, 50, 24);
+    int corrected = reconciler.reconcileBatch();
+
+    assertThat(corrected).isEqualTo(1);
+    for (MenuDay day : days) {
+      verify(menuDayRepository).markTotalsVerified(eq(day.getId()), any());
+    }
+    verify(transactionManager, times(3)).commit(any());
+  }
+
+  private static MenuDay day(BigDecimal consumedPhe) {
+    return MenuDay.builder()
+        .id(UUID.randomUUID())
+        .totalDayPheMg(BigDecimal.TEN)
+        .totalDayProteinG(BigDecimal.ONE)
+        .totalDayKcal(BigDecimal.TEN)
+        .totalDayFatG(BigDecimal.ONE)
+        .consumedDayPheMg(consumedPhe)
+        .consumedDayProteinG(BigDecimal.ZERO)
+        .consumedDayKcal(BigDecimal.ZERO)
+        .consumedDayFatG(BigDecimal.ZERO)
+        .mealSlots(new ArrayList<>())
+        .build();
+  }
+}
@@ -0,0 +1,78 @@
+package com.chubini.pku.products;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvUploadServiceTest {
+
+  private static final String HEADER =
+      "product_code,name,category,phenylalanine,leucine,tyrosine,methionine,kilojoules,"
+          + "kilocalories,protein,carbohydrates,fats\n";
+
+  private final CsvUploadService csvUploadService = new CsvUploadService();
+
+  @Test
+  void streamCsv_EmitsChunksOfAtMostChunkSize() throws IOException {
+    StringBuilder csv = new StringBuilder(HEADER);
+    for (int i = 1; i <= 5; i++) {
+      csv.append("P").append(i).append(",Product ").append(i).append(",Cat,1.5,,,,,,,,\n");
+    }
+    List<List<Product>> chunks = new ArrayList<>();
+
+    CsvUploadService.StreamResult result =
+        csvUploadService.streamCsv(stream(csv.toString()), 2, chunks::add);
+
+    assertThat(result).isEqualTo(new CsvUploadService.StreamResult(5, 0));
+    assertThat(chunks).extracting(List::size).containsExactly(2, 2, 1);
+    assertThat(chunks.get(2).get(0).getProductCode()).isEqualTo("P5");
+    assertThat(chunks.get(0).get(0).getPhenylalanine())
+        .isEqualByComparingTo(BigDecimal.valueOf(1.5));
+  }
+
+  @Test
+  void streamCsv_SkipsMalformedRowsAndGeneratesMissingCodes() throws IOException {
+    String csv =
+        HEADER
+            + ",Tomato,Vegetables,,,,,,,,,\n"
+            + "B1,Bread\n"
+            + "\"Ჭ\",Georgian bread,Bakery,,,,,,,,,\n";
+    List<Product> products = new ArrayList<>();
+
+    CsvUploadService.StreamResult result =
+        csvUploadService.streamCsv(stream(csv), 10, products::addAll);
+
+    assertThat(result).isEqualTo(new CsvUploadService.StreamResult(2, 1));
+    assertThat(products).extracting(Product::getProductCode).containsExactly("PRD0001", "Ჭ");
+  }
+
+  @Test
+  void streamCsv_ResumesAfterCheckpointWithStableGeneratedCodes() throws IOException {
+    String csv =
+        HEADER
+            + ",Tomato,Vegetables,,,,,,,,,\n"
+            + ",Cucumber,Vegetables,,,,,,,,,\n"
+            + ",Pepper,Vegetables,,,,,,,,,\n";
+    List<CsvUploadService.Chunk> chunks = new ArrayList<>();
+
+    CsvUploadService.StreamResult result =
+        csvUploadService.streamCsv(stream(csv), 10, 2, chunks::add);
+
+    assertThat(result).isEqualTo(new CsvUploadService.StreamResult(1, 0));
+    assertThat(chunks).singleElement().extracting(CsvUploadService.Chunk::lastRecord).isEqualTo(3L);
+    assertThat(chunks.get(0).products())
+        .extracting(Product::getProductCode)
+        .containsExactly("PRD0003");
+  }
+
+  private static ByteArrayInputStream stream(String csv) {
+    return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+  }
+}
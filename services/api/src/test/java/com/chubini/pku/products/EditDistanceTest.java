@@ -0,0 +1,76 @@
+package com.chubini.pku.products;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EditDistanceTest {
+
+  @Test
+  void bounded_WithinLimit_ReturnsExactDistance() {
+    assertThat(EditDistance.bounded("kitten", "sitting", 3)).isEqualTo(3);
+    assertThat(EditDistance.bounded("", "abc", 5)).isEqualTo(3);
+    assertThat(EditDistance.bounded("same", "same", 0)).isZero();
+  }
+
+  @Test
+  void bounded_OverLimit_ReturnsLimitPlusOne() {
+    assertThat(EditDistance.bounded("kitten", "sitting", 2)).isEqualTo(3);
+    assertThat(EditDistance.bounded("apple", "zucchini bread", 3)).isEqualTo(4);
+    assertThat(EditDistance.bounded("a", "b", -1)).isZero();
+  }
+
+  @Test
+  void bounded_CountsCodePointsNotChars() {
+    // Georgian "apple" vs a one-letter typo, and an astral-plane character (two UTF-16 chars)
+    assertThat(EditDistance.bounded("ვაშლი", "ვაშლე", 2)).isEqualTo(1);
+    assertThat(EditDistance.bounded("яблоко", "яблако", 2)).isEqualTo(1);
+    assertThat(EditDistance.bounded("a🍎a", "aba", 2)).isEqualTo(1);
+    assertThat(EditDistance.length("a🍎a")).isEqualTo(3);
+  }
+
+  @Test
+  void bounded_MatchesFullMatrixOnRandomInput() {
+    Random random = new Random(7);
+    for (int round = 0; round < 2000; round++) {
+      String a = randomWord(random);
+      String b = randomWord(random);
+      int maxDistance = random.nextInt(8);
+      int expected = fullMatrix(a, b);
+
+      assertThat(EditDistance.bounded(a, b, maxDistance))
+          .as("%s vs %s within %d", a, b, maxDistance)
+          .isEqualTo(Math.min(expected, maxDistance + 1));
+    }
+  }
+
+  private static String randomWord(Random random) {
+    StringBuilder sb = new StringBuilder();
+    int length = random.nextInt(12);
+    for (int i = 0; i < length; i++) {
+      sb.append((char) ('a' + random.nextInt(4)));
+    }
+    return sb.toString();
+  }
+
+  private static int fullMatrix(String s1, String s2) {
+    int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+    for (int i = 0; i <= s1.length(); i++) {
+      for (int j = 0; j <= s2.length(); j++) {
+        if (i == 0) {
+          dp[i][j] = j;
+        } else if (j == 0) {
+          dp[i][j] = i;
+        } else {
+          dp[i][j] =
+              Math.min(
+                  Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
+                  dp[i - 1][j - 1] + (s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1));
+        }
+      }
+    }
+    return dp[s1.length()][s2.length()];
+  }
+}
@@ -0,0 +1,129 @@
+package com.chubini.pku.products;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class IntelligentProductMatcherTest {
+
+  @Mock private ProductRepository productRepository;
+
+  @Mock private ProductTranslationRepository translationRepository;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private IntelligentProductMatcher matcher;
+  private List<Product> products;
+
+  @BeforeEach
+  void setUp() {
+    products =
+        List.of(
+            product("Carrot", "Vegetables"),
+            product("Potato", "Vegetables"),
+            product("Chicken breast", "Meat"),
+            product("Whole milk", "Dairy"),
+            product("Bread roll", "Bakery"));
+    lenient().when(productRepository.findAll()).thenReturn(products);
+    lenient()
+        .when(productRepository.findAllById(any()))
+        .thenAnswer(
+            inv -> {
+              List<Product> found = new ArrayList<>();
+              inv.<Iterable<UUID>>getArgument(0)
+                  .forEach(
+                      id ->
+                          products.stream().filter(p -> p.getId().equals(id)).forEach(found::add));
+              return found;
+            });
+    matcher =
+        new IntelligentProductMatcher(
+            productRepository,
+            new ProductNameIndex(productRepository, translationRepository, transactionManager));
+  }
+
+  @Test
+  void findProductsIntelligently_ExactMatchScoresHighest() {
+    List<IntelligentProductMatcher.ProductMatchResult> results =
+        matcher.findProductsIntelligently("CARROT", 3);
+
+    assertThat(results).isNotEmpty();
+    assertThat(results.get(0).getProduct().getProductName()).isEqualTo("Carrot");
+    assertThat(results.get(0).getConfidence()).isEqualTo(1.0);
+    assertThat(results.get(0).getMatchReason()).isEqualTo("Exact match");
+  }
+
+  @Test
+  void findProductsIntelligently_ToleratesTypos() {
+    assertThat(matcher.findBestMatch("potatoe"))
+        .get()
+        .extracting(result -> result.getProduct().getProductName())
+        .isEqualTo("Potato");
+  }
+
+  @Test
+  void findProductsIntelligently_FindsSynonymsWithoutSharedTrigrams() {
+    List<IntelligentProductMatcher.ProductMatchResult> results =
+        matcher.findProductsIntelligently("poultry", 5);
+
+    assertThat(results)
+        .extracting(result -> result.getProduct().getProductName())
+        .contains("Chicken breast");
+  }
+
+  @Test
+  void findProductsIntelligently_MatchesGeorgianTranslationsByScriptOrTransliteration() {
+    ProductTranslation carrotKa = new ProductTranslation();
+    carrotKa.setProduct(products.get(0));
+    carrotKa.setLocale("ka");
+    carrotKa.setProductName("სტაფილო");
+    lenient().when(translationRepository.findAll()).thenReturn(List.of(carrotKa));
+
+    List<IntelligentProductMatcher.ProductMatchResult> nativeScript =
+        matcher.findProductsIntelligently("სტაფილო", 3, "ka-GE");
+    List<IntelligentProductMatcher.ProductMatchResult> latin =
+        matcher.findProductsIntelligently("stapilo", 3, "ka");
+
+    assertThat(nativeScript).isNotEmpty();
+    assertThat(nativeScript.get(0).getProduct().getProductName()).isEqualTo("Carrot");
+    assertThat(nativeScript.get(0).getMatchedName()).isEqualTo("სტაფილო");
+    assertThat(nativeScript.get(0).getMatchedLocale()).isEqualTo("ka");
+    assertThat(nativeScript.get(0).getConfidence()).isEqualTo(1.0);
+    assertThat(latin.get(0).getProduct().getProductName()).isEqualTo("Carrot");
+    assertThat(matcher.findProductsIntelligently("სტაფილო", 3, "ru")).isEmpty();
+  }
+
+  @Test
+  void findProductsIntelligently_BlankSearch_ReturnsNothing() {
+    assertThat(matcher.findProductsIntelligently("  ", 5)).isEmpty();
+    verifyNoInteractions(productRepository);
+  }
+
+  @Test
+  void findProductsIntelligently_PunctuationOnlySearch_ReturnsNothing() {
+    assertThat(matcher.findProductsIntelligently("?!- %", 5)).isEmpty();
+    assertThat(matcher.findBestMatch("...")).isEmpty();
+    verifyNoInteractions(productRepository);
+  }
+
+  private Product product(String name, String category) {
+    return Product.builder()
+        .id(UUID.randomUUID())
+        .productCode(name.toUpperCase())
+        .productName(name)
+        .category(category)
+        .build();
+  }
+}
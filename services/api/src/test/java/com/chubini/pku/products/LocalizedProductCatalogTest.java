@@ -0,0 +1,64 @@
+package com.chubini.pku.products;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class LocalizedProductCatalogTest {
+
+  @Mock private ProductRepository productRepository;
+
+  private LocalizedProductCatalog catalog;
+
+  @BeforeEach
+  void setUp() {
+    catalog = new LocalizedProductCatalog(productRepository);
+    lenient().when(productRepository.findAllLocalized(anyString())).thenReturn(List.of());
+  }
+
+  @Test
+  void listing_BuildsOncePerLocale() {
+    LocalizedProductListing first = catalog.listing("ka");
+
+    assertThat(catalog.listing("ka")).isSameAs(first);
+    catalog.listing("ru");
+    verify(productRepository, times(1)).findAllLocalized("ka");
+    verify(productRepository, times(1)).findAllLocalized("ru");
+  }
+
+  @Test
+  void translationUpload_RebuildsOnlyItsLocale() {
+    LocalizedProductListing ka = catalog.listing("ka");
+    LocalizedProductListing ru = catalog.listing("ru");
+
+    catalog.onCatalogChanged(
+        new ProductCatalogChangedEvent("TRANSLATION_UPLOAD", "ka", List.of(UUID.randomUUID())));
+
+    assertThat(catalog.listing("ru")).isSameAs(ru);
+    assertThat(catalog.listing("ka")).isNotSameAs(ka);
+    assertThat(catalog.listing("ka").version()).isGreaterThan(ka.version());
+  }
+
+  @Test
+  void productChangeOrEnglishTranslations_RebuildAllLocales() {
+    LocalizedProductListing ka = catalog.listing("ka");
+    catalog.onCatalogChanged(new ProductCatalogChangedEvent("UPDATE", List.of(UUID.randomUUID())));
+    LocalizedProductListing rebuilt = catalog.listing("ka");
+
+    catalog.onCatalogChanged(
+        new ProductCatalogChangedEvent("TRANSLATION_UPLOAD", "en", List.of(UUID.randomUUID())));
+
+    assertThat(rebuilt).isNotSameAs(ka);
+    assertThat(catalog.listing("ka")).isNotSameAs(rebuilt);
+    verify(productRepository, times(3)).findAllLocalized("ka");
+  }
+}
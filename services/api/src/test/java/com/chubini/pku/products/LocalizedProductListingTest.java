@@ -0,0 +1,120 @@
+package com.chubini.pku.products;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import com.chubini.pku.facets.CategoryFacet;
+import com.chubini.pku.facets.CategoryFacets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+class LocalizedProductListingTest {
+
+  private final LocalizedProductListing listing =
+      LocalizedProductListing.of(
+          7,
+          List.of(
+              product("Pear", "Fruit", "3"),
+              product("green apple", "Fruit", "2"),
+              product("Apple pie", "Bakery", "40"),
+              product("Bread", "Bakery", null),
+              product("Apple", "Fruit", "5")));
+
+  @Test
+  void search_WithoutFiltersPagesInNameOrder() {
+    Page<ProductDto> first = listing.search("", null, PageRequest.of(0, 2));
+    Page<ProductDto> last = listing.search(null, null, PageRequest.of(2, 2));
+
+    assertThat(first.getContent())
+        .extracting(ProductDto::name)
+        .containsExactly("Apple", "Apple pie");
+    assertThat(last.getContent()).extracting(ProductDto::name).containsExactly("Pear");
+    assertThat(first.getTotalElements()).isEqualTo(5);
+  }
+
+  @Test
+  void search_MatchesTheStartOfAnyWord() {
+    Page<ProductDto> page = listing.search(" APP", null, PageRequest.of(0, 10));
+
+    assertThat(page.getContent())
+        .extracting(ProductDto::name)
+        .containsExactly("Apple", "Apple pie", "green apple");
+    assertThat(listing.search("pple", null, PageRequest.of(0, 10))).isEmpty();
+    assertThat(listing.search("apple p", null, PageRequest.of(0, 10)))
+        .extracting(ProductDto::name)
+        .containsExactly("Apple pie");
+  }
+
+  @Test
+  void search_FiltersByCategoryIgnoringCase() {
+    Page<ProductDto> page = listing.search("app", "fruit", PageRequest.of(0, 1));
+
+    assertThat(page.getContent()).extracting(ProductDto::name).containsExactly("Apple");
+    assertThat(page.getTotalElements()).isEqualTo(2);
+    assertThat(listing.search(null, "bakery", PageRequest.of(0, 10)))
+        .extracting(ProductDto::name)
+        .containsExactly("Apple pie", "Bread");
+    assertThat(listing.search(null, "Dairy", PageRequest.of(0, 10))).isEmpty();
+  }
+
+  @Test
+  void withMaxPhenylalanine_ReturnsLowestFirstAndSkipsUnknownValues() {
+    Page<ProductDto> page = listing.withMaxPhenylalanine(5, PageRequest.of(0, 10));
+
+    assertThat(page.getContent())
+        .extracting(ProductDto::name)
+        .containsExactly("green apple", "Pear", "Apple");
+    assertThat(listing.withMaxPhenylalanine(1, PageRequest.of(0, 10))).isEmpty();
+  }
+
+  @Test
+  void categoryFacets_CountsPerCategoryAndUnderThreshold() {
+    CategoryFacets all = listing.categoryFacets(null);
+    CategoryFacets lowPhe = listing.categoryFacets(5.0);
+
+    assertThat(all.categories())
+        .containsExactly(new CategoryFacet("Bakery", 2), new CategoryFacet("Fruit", 3));
+    assertThat(lowPhe.categories()).containsExactly(new CategoryFacet("Fruit", 3));
+    assertThat(listing.categoryFacets(5.00)).isSameAs(lowPhe);
+    assertThat(lowPhe.etag()).isNotEqualTo(all.etag());
+  }
+
+  @Test
+  void categoryFacets_EtagDependsOnlyOnContent() {
+    LocalizedProductListing rebuilt =
+        LocalizedProductListing.of(
+            8,
+            List.of(
+                product("Plum", "Fruit", "1"),
+                product("Rye", "Bakery", "30"),
+                product("Muffin", "Bakery", null),
+                product("Kiwi", "Fruit", "2"),
+                product("Fig", "Fruit", "4")));
+
+    assertThat(rebuilt.categoryFacets(null).etag())
+        .isEqualTo(listing.categoryFacets(null).etag())
+        .startsWith("\"");
+  }
+
+  private static ProductDto product(String name, String category, String phenylalanine) {
+    return new ProductDto(
+        UUID.randomUUID(),
+        name.toUpperCase(),
+        name,
+        category,
+        phenylalanine != null ? new BigDecimal(phenylalanine) : null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null);
+  }
+}
@@ -43,6 +43,8 @@ class MultiLanguageIntegrationTest extends BaseIntegrationTest {
 
   @Autowired private ObjectMapper objectMapper;
 
+  @Autowired private LocalizedProductCatalog localizedCatalog;
+
   private Product testProduct;
 
   @BeforeEach
@@ -95,6 +97,9 @@ class MultiLanguageIntegrationTest extends BaseIntegrationTest {
             .category("Фрукты")
             .build();
     translationRepository.save(ruTranslation);
+
+    // Rows saved straight through the repositories publish no change event
+    localizedCatalog.onCatalogChanged(new ProductCatalogChangedEvent("TEST_DATA"));
   }
 
   @Test
@@ -4,12 +4,15 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
+import com.chubini.pku.config.CatalogVersions;
+import com.chubini.pku.imports.ImportCheckpoint;
 import com.chubini.pku.products.mapper.ProductMapper;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -20,9 +23,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -38,6 +40,14 @@ class MultiLanguageSupportTest {
 
   @Mock private ProductMapper productMapper;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @Mock private ProductBulkWriter bulkWriter;
+
+  @Mock private LocalizedProductCatalog localizedCatalog;
+
+  @Mock private CatalogVersions catalogVersions;
+
   @InjectMocks private ProductService productService;
 
   private Product testProduct;
@@ -81,7 +91,11 @@ class MultiLanguageSupportTest {
             translationRepository,
             csvUploadService,
             translationCsvService,
-            productMapper);
+            productMapper,
+            eventPublisher,
+            bulkWriter,
+            localizedCatalog,
+            catalogVersions);
 
     // Use reflection to access private method for testing
     try {
@@ -104,7 +118,11 @@ class MultiLanguageSupportTest {
             translationRepository,
             csvUploadService,
             translationCsvService,
-            productMapper);
+            productMapper,
+            eventPublisher,
+            bulkWriter,
+            localizedCatalog,
+            catalogVersions);
 
     try {
       var method = ProductService.class.getDeclaredMethod("normalizeLang", String.class);
@@ -126,7 +144,11 @@ class MultiLanguageSupportTest {
             translationRepository,
             csvUploadService,
             translationCsvService,
-            productMapper);
+            productMapper,
+            eventPublisher,
+            bulkWriter,
+            localizedCatalog,
+            catalogVersions);
 
     try {
       var method = ProductService.class.getDeclaredMethod("normalizeLang", String.class);
@@ -152,7 +174,11 @@ class MultiLanguageSupportTest {
             translationRepository,
             csvUploadService,
             translationCsvService,
-            productMapper);
+            productMapper,
+            eventPublisher,
+            bulkWriter,
+            localizedCatalog,
+            catalogVersions);
 
     try {
       var method = ProductService.class.getDeclaredMethod("normalizeLang", String.class);
@@ -168,7 +194,7 @@ class MultiLanguageSupportTest {
 
   @Test
   void testListLocalized_WithTranslation() {
-    // Mock repository to return localized data
+    // Mock listing holding localized data
     ProductDto expectedDto =
         new ProductDto(
             testProduct.getId(),
@@ -185,9 +211,8 @@ class MultiLanguageSupportTest {
             testProduct.getCarbohydrates(),
             testProduct.getFats());
 
-    Page<ProductDto> expectedPage = new PageImpl<>(List.of(expectedDto));
-    when(productRepository.findAllLocalized("ka", "ვაშლი", PageRequest.of(0, 20)))
-        .thenReturn(expectedPage);
+    when(localizedCatalog.listing("ka"))
+        .thenReturn(LocalizedProductListing.of(1, List.of(expectedDto)));
 
     Page<ProductDto> result = productService.listLocalized("ka", "ვაშლი", null, 0, 20);
 
@@ -199,7 +224,7 @@ class MultiLanguageSupportTest {
 
   @Test
   void testListLocalized_FallbackToEnglish() {
-    // Mock repository to return English fallback
+    // Mock listing holding the English fallback
     ProductDto expectedDto =
         new ProductDto(
             testProduct.getId(),
@@ -216,9 +241,8 @@ class MultiLanguageSupportTest {
             testProduct.getCarbohydrates(),
             testProduct.getFats());
 
-    Page<ProductDto> expectedPage = new PageImpl<>(List.of(expectedDto));
-    when(productRepository.findAllLocalized("ru", null, PageRequest.of(0, 20)))
-        .thenReturn(expectedPage);
+    when(localizedCatalog.listing("ru"))
+        .thenReturn(LocalizedProductListing.of(1, List.of(expectedDto)));
 
     Page<ProductDto> result = productService.listLocalized("ru", null, null, 0, 20);
 
@@ -232,17 +256,12 @@ class MultiLanguageSupportTest {
   void testUploadTranslations_Success() throws IOException {
     byte[] csvData = "product_code,name,category\nA001,ვაშლი,ხილი".getBytes();
 
-    when(productRepository.findByProductCode("A001")).thenReturn(Optional.of(testProduct));
-    when(translationRepository.findByProductIdAndLocale(testProduct.getId(), "ka"))
-        .thenReturn(Optional.empty());
-    // Save is invoked inside uploadTranslations; keep stubbing leniently
-    lenient()
-        .when(translationRepository.save(any(ProductTranslation.class)))
-        .thenReturn(testTranslation);
-    when(translationCsvService.importTranslations(eq(csvData), eq("ka"), any(), any()))
+    when(translationCsvService.importTranslations(
+            any(InputStream.class), eq("ka"), eq(0L), any(), any(), eq(ImportCheckpoint.NONE)))
         .thenReturn(List.of()); // No errors
 
-    List<String> errors = productService.uploadTranslations("ka", csvData);
+    List<String> errors =
+        productService.uploadTranslations("ka", new ByteArrayInputStream(csvData));
 
     assertTrue(errors.isEmpty());
   }
@@ -251,12 +270,12 @@ class MultiLanguageSupportTest {
   void testUploadTranslations_WithErrors() throws IOException {
     byte[] csvData = "product_code,name,category\nINVALID,ვაშლი,ხილი".getBytes();
 
-    when(productRepository.findByProductCode("INVALID")).thenReturn(Optional.empty());
-    lenient()
-        .when(translationCsvService.importTranslations(eq(csvData), eq("ka"), any(), any()))
+    when(translationCsvService.importTranslations(
+            any(InputStream.class), eq("ka"), eq(0L), any(), any(), eq(ImportCheckpoint.NONE)))
         .thenReturn(List.of("Unknown product_code: INVALID (line 2)"));
 
-    List<String> errors = productService.uploadTranslations("ka", csvData);
+    List<String> errors =
+        productService.uploadTranslations("ka", new ByteArrayInputStream(csvData));
 
     assertFalse(errors.isEmpty());
     assertEquals(1, errors.size());
@@ -0,0 +1,132 @@
+package com.chubini.pku.products;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBulkWriterTest {
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @InjectMocks private ProductBulkWriter bulkWriter;
+
+  @Test
+  void upsert_WritesOneStatementPerChunkAndCountsInserts() throws Exception {
+    List<Boolean> insertedFlags = List.of(true, false);
+    answerRows(insertedFlags);
+
+    ProductBulkWriter.UpsertResult result =
+        bulkWriter.upsert(List.of(product("A1", "Apple"), product("B1", "Bread")));
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass(Object[].class);
+    verify(jdbcTemplate).query(sql.capture(), any(RowCallbackHandler.class), params.capture());
+    assertThat(sql.getValue())
+        .startsWith("INSERT INTO products (id, product_code")
+        .contains("), (")
+        .contains("ON CONFLICT (product_code) DO UPDATE SET")
+        .endsWith("RETURNING id, (xmax = 0) AS inserted");
+    assertThat(params.getValue()).hasSize(26);
+    assertThat(params.getValue()[1]).isEqualTo("A1");
+    assertThat(params.getValue()[15]).isEqualTo("Bread");
+    assertThat(result.productIds()).hasSize(2);
+    assertThat(result.created()).isEqualTo(1);
+    assertThat(result.updated()).isEqualTo(1);
+  }
+
+  @Test
+  void upsert_CollapsesRepeatedCodesToLastRow() throws Exception {
+    answerRows(List.of(true));
+
+    bulkWriter.upsert(List.of(product("A1", "Apple"), product("A1", "Green apple")));
+
+    ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass(Object[].class);
+    verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), params.capture());
+    assertThat(params.getValue()).hasSize(13);
+    assertThat(params.getValue()[2]).isEqualTo("Green apple");
+  }
+
+  @Test
+  void upsert_SplitsChunksAboveTheBindParameterLimit() throws Exception {
+    int rows = ProductBulkWriter.MAX_ROWS_PER_STATEMENT + 1;
+    List<Product> products =
+        IntStream.range(0, rows).mapToObj(i -> product("P" + i, "Product " + i)).toList();
+    bulkWriter.upsert(products);
+
+    ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass(Object[].class);
+    verify(jdbcTemplate, times(2))
+        .query(anyString(), any(RowCallbackHandler.class), params.capture());
+    assertThat(params.getAllValues())
+        .extracting(p -> p.length)
+        .containsExactly(ProductBulkWriter.MAX_ROWS_PER_STATEMENT * 13, 13);
+  }
+
+  @Test
+  void upsertTranslations_WritesOneStatementKeyedByProductAndLocale() {
+    UUID appleId = UUID.randomUUID();
+    UUID pearId = UUID.randomUUID();
+    Map<UUID, TranslationUploadRow> rows = new LinkedHashMap<>();
+    rows.put(appleId, new TranslationUploadRow("A1", "Яблоко", "Фрукты"));
+    rows.put(pearId, new TranslationUploadRow("P1", "Груша", null));
+    when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(2);
+
+    int written = bulkWriter.upsertTranslations("uk", rows);
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass(Object[].class);
+    verify(jdbcTemplate).update(sql.capture(), params.capture());
+    assertThat(sql.getValue())
+        .startsWith("INSERT INTO product_translations (product_id, locale, product_name, category)")
+        .contains("(?, ?, ?, ?), (?, ?, ?, ?)")
+        .contains("ON CONFLICT (product_id, locale) DO UPDATE SET");
+    assertThat(params.getValue())
+        .containsExactly(appleId, "uk", "Яблоко", "Фрукты", pearId, "uk", "Груша", null);
+    assertThat(written).isEqualTo(2);
+  }
+
+  // Feed one RETURNING row per flag into the row callback
+  private void answerRows(List<Boolean> insertedFlags) throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    List<UUID> ids = new ArrayList<>();
+    insertedFlags.forEach(f -> ids.add(UUID.randomUUID()));
+    when(rs.getObject("id", UUID.class))
+        .thenReturn(ids.get(0), ids.subList(1, ids.size()).toArray(UUID[]::new));
+    when(rs.getBoolean("inserted"))
+        .thenReturn(
+            insertedFlags.get(0),
+            insertedFlags.subList(1, insertedFlags.size()).toArray(Boolean[]::new));
+    doAnswer(
+            invocation -> {
+              RowCallbackHandler handler = invocation.getArgument(1);
+              for (int i = 0; i < insertedFlags.size(); i++) {
+                handler.processRow(rs);
+              }
+              return null;
+            })
+        .when(jdbcTemplate)
+        .query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+  }
+
+  private static Product product(String code, String name) {
+    return Product.builder().productCode(code).productName(name).category("Test").build();
+  }
+}
@@ -0,0 +1,70 @@
+package com.chubini.pku.products;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogTest {
+
+  @Mock private ProductRepository productRepository;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private ProductCatalog productCatalog;
+
+  @BeforeEach
+  void setUp() {
+    productCatalog = new ProductCatalog(productRepository, transactionManager);
+  }
+
+  @Test
+  void current_BuildsSnapshotOnceAndReusesIt() {
+    Product apple = product("Apple");
+    when(productRepository.findAll()).thenReturn(List.of(apple));
+
+    ProductCatalogSnapshot first = productCatalog.current();
+    ProductCatalogSnapshot second = productCatalog.current();
+
+    assertThat(first).isSameAs(second);
+    assertThat(first.products()).containsExactly(apple);
+    assertThat(first.findById(apple.getId())).contains(apple);
+    verify(productRepository, times(1)).findAll();
+  }
+
+  @Test
+  void catalogChangedEvent_RebuildsSnapshotWithNewVersion() {
+    Product apple = product("Apple");
+    Product pear = product("Pear");
+    when(productRepository.findAll()).thenReturn(List.of(apple), List.of(apple, pear));
+
+    ProductCatalogSnapshot before = productCatalog.current();
+    productCatalog.onCatalogChanged(new ProductCatalogChangedEvent("CREATE"));
+    ProductCatalogSnapshot after = productCatalog.current();
+
+    assertThat(after.version()).isGreaterThan(before.version());
+    assertThat(after.products()).containsExactly(apple, pear);
+    assertThat(before.products()).containsExactly(apple);
+    verify(productRepository, times(2)).findAll();
+  }
+
+  private Product product(String name) {
+    return Product.builder()
+        .id(UUID.randomUUID())
+        .productCode(name.toUpperCase())
+        .productName(name)
+        .phenylalanine(BigDecimal.TEN)
+        .kilocalories(BigDecimal.valueOf(50))
+        .build();
+  }
+}
@@ -0,0 +1,184 @@
+package com.chubini.pku.products;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class ProductNameIndexTest {
+
+  @Mock private ProductRepository productRepository;
+
+  @Mock private ProductTranslationRepository translationRepository;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private ProductNameIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new ProductNameIndex(productRepository, translationRepository, transactionManager);
+  }
+
+  @Test
+  void shortlist_RanksByTrigramOverlapAndSkipsUnrelatedNames() {
+    Product carrot = product("Roasted Carrot", "Vegetables");
+    Product carrotJuice = product("Carrot juice, fresh", "Drinks");
+    Product rice = product("White rice", "Grains");
+    when(productRepository.findAll()).thenReturn(List.of(carrot, carrotJuice, rice));
+
+    List<ProductNameIndex.Entry> shortlist = index.shortlist(List.of("carot"), null, 10);
+
+    assertThat(shortlist)
+        .extracting(ProductNameIndex.Entry::productId)
+        .containsExactly(carrot.getId(), carrotJuice.getId());
+    assertThat(shortlist.get(1).normalizedName()).isEqualTo("carrot juice fresh");
+  }
+
+  @Test
+  void catalogChangedEvent_WithIds_UpdatesIndexIncrementally() {
+    Product apple = product("Apple", "Fruits");
+    Product pear = product("Pear", "Fruits");
+    when(productRepository.findAll()).thenReturn(List.of(apple));
+    assertThat(index.size()).isEqualTo(1);
+
+    apple.setProductName("Green apple");
+    when(productRepository.findAllById(any())).thenReturn(List.of(apple, pear));
+    index.onCatalogChanged(
+        new ProductCatalogChangedEvent("UPDATE", List.of(apple.getId(), pear.getId())));
+
+    assertThat(index.shortlist(List.of("pear"), null, 10))
+        .extracting(ProductNameIndex.Entry::productId)
+        .containsExactly(pear.getId());
+    assertThat(index.shortlist(List.of("green"), null, 10))
+        .extracting(ProductNameIndex.Entry::normalizedName)
+        .containsExactly("green apple");
+
+    when(productRepository.findAllById(any())).thenReturn(List.of());
+    index.onCatalogChanged(new ProductCatalogChangedEvent("DELETE", List.of(pear.getId())));
+
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(index.shortlist(List.of("pear"), null, 10)).isEmpty();
+    verify(productRepository, times(1)).findAll();
+  }
+
+  @Test
+  void catalogChangedEvent_LoadsChangedProductsWithoutBlockingReaders() {
+    Product apple = product("Apple", "Fruits");
+    Product pear = product("Pear", "Fruits");
+    when(productRepository.findAll()).thenReturn(List.of(apple));
+    assertThat(index.size()).isEqualTo(1);
+
+    // A lookup from another thread completes while the change is still loading
+    when(productRepository.findAllById(any()))
+        .thenAnswer(
+            inv -> {
+              assertThat(
+                      CompletableFuture.supplyAsync(
+                              () -> index.shortlist(List.of("apple"), null, 10))
+                          .get(5, TimeUnit.SECONDS))
+                  .hasSize(1);
+              return List.of(pear);
+            });
+    index.onCatalogChanged(new ProductCatalogChangedEvent("CREATE", List.of(pear.getId())));
+
+    assertThat(index.size()).isEqualTo(2);
+  }
+
+  @Test
+  void catalogChangedEvent_WithoutIds_RebuildsOnNextLookup() {
+    Product apple = product("Apple", "Fruits");
+    Product pear = product("Pear", "Fruits");
+    when(productRepository.findAll()).thenReturn(List.of(apple), List.of(apple, pear));
+    assertThat(index.size()).isEqualTo(1);
+
+    index.onCatalogChanged(new ProductCatalogChangedEvent("CSV_UPLOAD"));
+
+    assertThat(index.inCategories("fruits"::equals, 10)).hasSize(2);
+    verify(productRepository, times(2)).findAll();
+  }
+
+  @Test
+  void rebuild_LoadsCatalogWithoutBlockingChangesAndReloadsIfOneArrivesMeanwhile() {
+    Product apple = product("Apple", "Fruits");
+    Product pear = product("Pear", "Fruits");
+    // A rebuild request from another thread completes while the catalog is still loading
+    when(productRepository.findAll())
+        .thenAnswer(
+            inv -> {
+              CompletableFuture.runAsync(
+                      () -> index.onCatalogChanged(new ProductCatalogChangedEvent("CSV_UPLOAD")))
+                  .get(5, TimeUnit.SECONDS);
+              return List.of(apple);
+            })
+        .thenReturn(List.of(apple, pear));
+
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(index.size()).isEqualTo(2);
+    assertThat(index.size()).isEqualTo(2);
+    verify(productRepository, times(2)).findAll();
+  }
+
+  @Test
+  void shortlist_MatchesTranslationsInNativeScriptAndTransliteration() {
+    Product apple = product("Apple", "Fruits");
+    Product bread = product("Bread", "Bakery");
+    when(productRepository.findAll()).thenReturn(List.of(apple, bread));
+    when(translationRepository.findAll())
+        .thenReturn(
+            List.of(
+                translation(apple, "ka", "ვაშლი"),
+                translation(apple, "ru", "Яблоко"),
+                translation(bread, "ka", "პური")));
+
+    assertThat(index.shortlist(List.of("ვაშლი"), "ka", 10))
+        .extracting(ProductNameIndex.Entry::productId, ProductNameIndex.Entry::locale)
+        .containsExactly(tuple(apple.getId(), "ka"));
+    assertThat(index.shortlist(List.of("vashli"), "ka", 10))
+        .extracting(ProductNameIndex.Entry::name)
+        .containsExactly("ვაშლი");
+    assertThat(index.shortlist(List.of("ვაშლი"), "ru", 10)).isEmpty();
+    assertThat(index.shortlist(List.of("yabloko"), null, 10))
+        .extracting(ProductNameIndex.Entry::latinName)
+        .containsExactly("yabloko");
+    assertThat(index.size()).isEqualTo(2);
+  }
+
+  @Test
+  void normalize_StripsPunctuationAndMarksAndCollapsesWhitespace() {
+    assertThat(ProductNameIndex.normalize("  Milk,  3.2% -\tfat ")).isEqualTo("milk 32 fat");
+    assertThat(ProductNameIndex.normalize("Café  crème")).isEqualTo("cafe creme");
+    assertThat(ProductNameIndex.normalize("Йогурт, натуральный")).isEqualTo("иогурт натуральныи");
+    assertThat(ProductNameIndex.normalize("ვაშლი (მწვანე)")).isEqualTo("ვაშლი მწვანე");
+  }
+
+  private ProductTranslation translation(Product product, String locale, String name) {
+    ProductTranslation translation = new ProductTranslation();
+    translation.setProduct(product);
+    translation.setLocale(locale);
+    translation.setProductName(name);
+    return translation;
+  }
+
+  private Product product(String name, String category) {
+    return Product.builder()
+        .id(UUID.randomUUID())
+        .productCode(name.toUpperCase())
+        .productName(name)
+        .category(category)
+        .build();
+  }
+}
@@ -0,0 +1,75 @@
+package com.chubini.pku.products;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.chubini.pku.BaseIntegrationTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Trigram name search over products and their translations (V32) */
+@Tag("it")
+@Transactional
+@DisabledIfSystemProperty(
+    named = "skipDockerTests",
+    matches = "true",
+    disabledReason = "Docker/Testcontainers not available")
+class ProductSearchIntegrationTest extends BaseIntegrationTest {
+
+  @Autowired private ProductRepository productRepository;
+
+  @Autowired private ProductTranslationRepository translationRepository;
+
+  private Product quokkafruit;
+  private Product candied;
+
+  @BeforeEach
+  void setUp() {
+    quokkafruit = save("QUOKKA1", "Quokkafruit");
+    candied = save("QUOKKA2", "Candied quokkafruit");
+    save("QUOKKA3", "Rye bread");
+    translationRepository.save(
+        ProductTranslation.builder()
+            .product(quokkafruit)
+            .locale("ka")
+            .productName("კვოკაფრუტი")
+            .build());
+  }
+
+  @Test
+  void searchByNameSimilarity_RanksCloserNamesFirst() {
+    assertThat(productRepository.searchByNameSimilarity("quokkafruit", PageRequest.of(0, 10)))
+        .extracting(Product::getId)
+        .containsSubsequence(quokkafruit.getId(), candied.getId());
+  }
+
+  @Test
+  void searchByNameSimilarity_ToleratesTyposAndMatchesTranslations() {
+    assertThat(productRepository.searchByNameSimilarity("quokafruit", PageRequest.of(0, 10)))
+        .extracting(Product::getId)
+        .startsWith(quokkafruit.getId());
+    assertThat(productRepository.searchByNameSimilarity("კვოკა", PageRequest.of(0, 10)))
+        .extracting(Product::getId)
+        .containsExactly(quokkafruit.getId());
+  }
+
+  @Test
+  void searchByNameSimilarity_MatchesWildcardsLiterally() {
+    Product juice = save("QUOKKA4", "Quokkafruit juice 100%");
+
+    assertThat(productRepository.searchByNameSimilarity("%", PageRequest.of(0, 100)))
+        .extracting(Product::getId)
+        .contains(juice.getId())
+        .doesNotContain(quokkafruit.getId(), candied.getId());
+  }
+
+  private Product save(String code, String name) {
+    return productRepository.save(
+        Product.builder().productCode(code).productName(name).category("Test").build());
+  }
+}
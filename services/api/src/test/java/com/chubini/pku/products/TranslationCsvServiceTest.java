@@ -2,15 +2,20 @@ package com.chubini.pku.products;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import com.chubini.pku.imports.ImportCheckpoint;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 class TranslationCsvServiceTest {
 
@@ -35,14 +40,15 @@ class TranslationCsvServiceTest {
     String csvContent = "product_code,name,category\nA001,Apple,Fruit";
     byte[] csvData = csvContent.getBytes();
 
-    Function<String, Optional<Product>> findByCode =
-        code -> "A001".equals(code) ? Optional.of(testProduct) : Optional.empty();
+    Function<Set<String>, Map<String, UUID>> findByCode =
+        codes -> codes.contains("A001") ? Map.of("A001", testProduct.getId()) : Map.of();
 
     List<String> capturedTranslations = new java.util.ArrayList<>();
-    BiConsumer<Product, TranslationUploadRow> upsert =
-        (product, row) ->
-            capturedTranslations.add(
-                product.getProductCode() + ":" + row.name() + ":" + row.category());
+    Consumer<Map<UUID, TranslationUploadRow>> upsert =
+        batch ->
+            batch.values().stream()
+                .map(row -> row.productCode() + ":" + row.name() + ":" + row.category())
+                .forEach(capturedTranslations::add);
 
     List<String> errors = csvService.importTranslations(csvData, "en", findByCode, upsert);
 
@@ -56,14 +62,15 @@ class TranslationCsvServiceTest {
     String csvContent = "პროდუქტის კოდი,პროდუქტის დასახელება,კატეგორია\nA001,ვაშლი,ხილი";
     byte[] csvData = csvContent.getBytes();
 
-    Function<String, Optional<Product>> findByCode =
-        code -> "A001".equals(code) ? Optional.of(testProduct) : Optional.empty();
+    Function<Set<String>, Map<String, UUID>> findByCode =
+        codes -> codes.contains("A001") ? Map.of("A001", testProduct.getId()) : Map.of();
 
     List<String> capturedTranslations = new java.util.ArrayList<>();
-    BiConsumer<Product, TranslationUploadRow> upsert =
-        (product, row) ->
-            capturedTranslations.add(
-                product.getProductCode() + ":" + row.name() + ":" + row.category());
+    Consumer<Map<UUID, TranslationUploadRow>> upsert =
+        batch ->
+            batch.values().stream()
+                .map(row -> row.productCode() + ":" + row.name() + ":" + row.category())
+                .forEach(capturedTranslations::add);
 
     List<String> errors = csvService.importTranslations(csvData, "ka", findByCode, upsert);
 
@@ -77,14 +84,15 @@ class TranslationCsvServiceTest {
     String csvContent = "код продукта,название,категория\nA001,Яблоко,Фрукты";
     byte[] csvData = csvContent.getBytes();
 
-    Function<String, Optional<Product>> findByCode =
-        code -> "A001".equals(code) ? Optional.of(testProduct) : Optional.empty();
+    Function<Set<String>, Map<String, UUID>> findByCode =
+        codes -> codes.contains("A001") ? Map.of("A001", testProduct.getId()) : Map.of();
 
     List<String> capturedTranslations = new java.util.ArrayList<>();
-    BiConsumer<Product, TranslationUploadRow> upsert =
-        (product, row) ->
-            capturedTranslations.add(
-                product.getProductCode() + ":" + row.name() + ":" + row.category());
+    Consumer<Map<UUID, TranslationUploadRow>> upsert =
+        batch ->
+            batch.values().stream()
+                .map(row -> row.productCode() + ":" + row.name() + ":" + row.category())
+                .forEach(capturedTranslations::add);
 
     List<String> errors = csvService.importTranslations(csvData, "ru", findByCode, upsert);
 
@@ -98,8 +106,8 @@ class TranslationCsvServiceTest {
     String csvContent = "product_code,name,category\n,Apple,Fruit";
     byte[] csvData = csvContent.getBytes();
 
-    Function<String, Optional<Product>> findByCode = code -> Optional.empty();
-    BiConsumer<Product, TranslationUploadRow> upsert = (product, row) -> {};
+    Function<Set<String>, Map<String, UUID>> findByCode = codes -> Map.of();
+    Consumer<Map<UUID, TranslationUploadRow>> upsert = batch -> {};
 
     List<String> errors = csvService.importTranslations(csvData, "en", findByCode, upsert);
 
@@ -112,8 +120,8 @@ class TranslationCsvServiceTest {
     String csvContent = "product_code,name,category\nUNKNOWN,Apple,Fruit";
     byte[] csvData = csvContent.getBytes();
 
-    Function<String, Optional<Product>> findByCode = code -> Optional.empty();
-    BiConsumer<Product, TranslationUploadRow> upsert = (product, row) -> {};
+    Function<Set<String>, Map<String, UUID>> findByCode = codes -> Map.of();
+    Consumer<Map<UUID, TranslationUploadRow>> upsert = batch -> {};
 
     List<String> errors = csvService.importTranslations(csvData, "en", findByCode, upsert);
 
@@ -126,9 +134,9 @@ class TranslationCsvServiceTest {
     String csvContent = "product_code,name,category\nA001,,Fruit";
     byte[] csvData = csvContent.getBytes();
 
-    Function<String, Optional<Product>> findByCode =
-        code -> "A001".equals(code) ? Optional.of(testProduct) : Optional.empty();
-    BiConsumer<Product, TranslationUploadRow> upsert = (product, row) -> {};
+    Function<Set<String>, Map<String, UUID>> findByCode =
+        codes -> codes.contains("A001") ? Map.of("A001", testProduct.getId()) : Map.of();
+    Consumer<Map<UUID, TranslationUploadRow>> upsert = batch -> {};
 
     List<String> errors = csvService.importTranslations(csvData, "en", findByCode, upsert);
 
@@ -136,6 +144,91 @@ class TranslationCsvServiceTest {
     assertTrue(errors.get(0).contains("Missing name"));
   }
 
+  @Test
+  void testImportTranslations_ResolvesCodesOnceAndCollapsesDuplicates() throws IOException {
+    String csvContent =
+        "product_code,name,category\nA001,Apple,Fruit\nX999,Pear,Fruit\nA001,Green apple,Fruit";
+    byte[] csvData = csvContent.getBytes();
+
+    List<Set<String>> lookups = new java.util.ArrayList<>();
+    Function<Set<String>, Map<String, UUID>> findByCode =
+        codes -> {
+          lookups.add(Set.copyOf(codes));
+          return Map.of("A001", testProduct.getId());
+        };
+    List<Map<UUID, TranslationUploadRow>> batches = new java.util.ArrayList<>();
+
+    List<String> errors = csvService.importTranslations(csvData, "en", findByCode, batches::add);
+
+    assertEquals(List.of(Set.of("A001", "X999")), lookups);
+    assertEquals(1, batches.size());
+    assertEquals("Green apple", batches.get(0).get(testProduct.getId()).name());
+    assertEquals(List.of("Unknown product_code: X999 (line 2)"), errors);
+  }
+
+  @Test
+  void testImportTranslations_ResolvesAndWritesEachBatchBeforeReadingTheNext() throws IOException {
+    ReflectionTestUtils.setField(csvService, "batchSize", 2);
+    String csvContent =
+        "product_code,name,category\nA001,Apple,Fruit\nB002,Banana,Fruit\nC003,Cherry,Fruit";
+    byte[] csvData = csvContent.getBytes();
+
+    List<String> calls = new java.util.ArrayList<>();
+    Function<Set<String>, Map<String, UUID>> findByCode =
+        codes -> {
+          calls.add("lookup " + new java.util.TreeSet<>(codes));
+          Map<String, UUID> ids = new java.util.HashMap<>();
+          codes.forEach(code -> ids.put(code, UUID.randomUUID()));
+          return ids;
+        };
+    Consumer<Map<UUID, TranslationUploadRow>> upsert =
+        batch ->
+            calls.add(
+                "upsert "
+                    + batch.values().stream().map(TranslationUploadRow::productCode).toList());
+    List<Long> checkpoints = new java.util.ArrayList<>();
+    ImportCheckpoint checkpoint =
+        (lastRecord, rows, errors, write) -> {
+          write.run();
+          checkpoints.add(lastRecord);
+        };
+
+    List<String> errors =
+        csvService.importTranslations(
+            new ByteArrayInputStream(csvData), "en", 0, findByCode, upsert, checkpoint);
+
+    assertTrue(errors.isEmpty());
+    assertEquals(
+        List.of("lookup [A001, B002]", "upsert [A001, B002]", "lookup [C003]", "upsert [C003]"),
+        calls);
+    assertEquals(List.of(2L, 3L), checkpoints);
+  }
+
+  @Test
+  void testImportTranslations_FailedBatchIsRetriedPerLine() throws IOException {
+    UUID pearId = UUID.randomUUID();
+    String csvContent = "product_code,name,category\nA001,Apple,Fruit\nB002,,Fruit\nP003,Pear,";
+    byte[] csvData = csvContent.getBytes();
+
+    Function<Set<String>, Map<String, UUID>> findByCode =
+        codes -> Map.of("A001", testProduct.getId(), "P003", pearId);
+    List<String> saved = new java.util.ArrayList<>();
+    Consumer<Map<UUID, TranslationUploadRow>> upsert =
+        batch -> {
+          if (batch.size() > 1 || batch.containsKey(pearId)) {
+            throw new IllegalStateException("constraint violation");
+          }
+          batch.values().forEach(row -> saved.add(row.name()));
+        };
+
+    List<String> errors = csvService.importTranslations(csvData, "en", findByCode, upsert);
+
+    assertEquals(List.of("Apple"), saved);
+    assertEquals(2, errors.size());
+    assertTrue(errors.get(0).contains("Missing name for code B002 (line 2)"));
+    assertEquals("Error processing line 3: constraint violation", errors.get(1));
+  }
+
   @Test
   void testValidateCsvHeaders_ValidHeaders() throws IOException {
     String csvContent = "product_code,name,category\nA001,Apple,Fruit";
@@ -0,0 +1,20 @@
+package com.chubini.pku.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LikePatternsTest {
+
+  @Test
+  void contains_EscapesWildcardsAndTheEscapeCharacter() {
+    assertThat(LikePatterns.contains("100% rye_bread \\ v2"))
+        .isEqualTo("%100\\% rye\\_bread \\\\ v2%");
+    assertThat(LikePatterns.contains("apple")).isEqualTo("%apple%");
+  }
+
+  @Test
+  void contains_NullMatchesEverything() {
+    assertThat(LikePatterns.contains(null)).isEqualTo("%%");
+  }
+}
@@ -0,0 +1,86 @@
+package com.chubini.pku.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TopKTest {
+
+  private record Scored(int id, double score) {}
+
+  @Test
+  void lowest_MatchesStableSortThenLimit() {
+    Random random = new Random(11);
+    for (int round = 0; round < 200; round++) {
+      List<Scored> input = randomInput(random);
+      int k = random.nextInt(12);
+
+      TopK<Scored> topK = TopK.lowest(k);
+      input.forEach(s -> topK.offer(s, s.score()));
+
+      List<Scored> expected =
+          input.stream().sorted(Comparator.comparingDouble(Scored::score)).limit(k).toList();
+      assertThat(topK.toSortedList()).containsExactlyElementsOf(expected);
+    }
+  }
+
+  @Test
+  void highest_MatchesStableSortThenLimit() {
+    Random random = new Random(13);
+    for (int round = 0; round < 200; round++) {
+      List<Scored> input = randomInput(random);
+      int k = random.nextInt(12);
+
+      TopK<Scored> topK = TopK.highest(k);
+      input.forEach(s -> topK.offer(s, s.score()));
+
+      List<Scored> expected =
+          input.stream()
+              .sorted(Comparator.comparingDouble(Scored::score).reversed())
+              .limit(k)
+              .toList();
+      assertThat(topK.toSortedList()).containsExactlyElementsOf(expected);
+    }
+  }
+
+  @Test
+  void offer_NaNScoresRankLast() {
+    TopK<String> highest = TopK.highest(2);
+    highest.offer("nan", Double.NaN);
+    highest.offer("low", 1.0);
+    highest.offer("high", 5.0);
+
+    TopK<String> lowest = TopK.lowest(2);
+    lowest.offer("nan", Double.NaN);
+    lowest.offer("high", 5.0);
+
+    assertThat(highest.toSortedList()).containsExactly("high", "low");
+    assertThat(lowest.toSortedList()).containsExactly("high", "nan");
+  }
+
+  @Test
+  void kthLowest_ReturnsOrderStatistic() {
+    double[] values = {7.5, 1.0, 3.0, 3.0, 9.0, 0.5};
+
+    assertThat(TopK.kthLowest(values, 1)).isEqualTo(0.5);
+    assertThat(TopK.kthLowest(values, 3)).isEqualTo(3.0);
+    assertThat(TopK.kthLowest(values, 4)).isEqualTo(3.0);
+    assertThat(TopK.kthLowest(values, 6)).isEqualTo(9.0);
+    assertThat(TopK.kthLowest(values, 7)).isNaN();
+  }
+
+  private static List<Scored> randomInput(Random random) {
+    int size = random.nextInt(40);
+    List<Scored> input = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      // Few distinct values so ties are common
+      input.add(new Scored(i, random.nextInt(8)));
+    }
+    return input;
+  }
+}
@@ -73,9 +73,8 @@ class NormsValidatorTest {
         new NutritionCalculator.DayTotals(
             new BigDecimal("200.00"), new BigDecimal("10.00"), 1850, new BigDecimal("45.00"));
 
-    when(nutritionCalculator.calculatePlannedTotals(any(MenuDay.class))).thenReturn(plannedTotals);
-    when(nutritionCalculator.calculateConsumedTotals(any(MenuDay.class)))
-        .thenReturn(consumedTotals);
+    when(nutritionCalculator.plannedTotals(any(MenuDay.class))).thenReturn(plannedTotals);
+    when(nutritionCalculator.consumedTotals(any(MenuDay.class))).thenReturn(consumedTotals);
 
     // When
     ValidationResult result = normsValidator.validate(testNorm, testMenuDay);
@@ -98,9 +97,8 @@ class NormsValidatorTest {
         new NutritionCalculator.DayTotals(
             new BigDecimal("200.00"), new BigDecimal("10.00"), 1850, new BigDecimal("45.00"));
 
-    when(nutritionCalculator.calculatePlannedTotals(any(MenuDay.class))).thenReturn(plannedTotals);
-    when(nutritionCalculator.calculateConsumedTotals(any(MenuDay.class)))
-        .thenReturn(consumedTotals);
+    when(nutritionCalculator.plannedTotals(any(MenuDay.class))).thenReturn(plannedTotals);
+    when(nutritionCalculator.consumedTotals(any(MenuDay.class))).thenReturn(consumedTotals);
 
     // When
     ValidationResult result = normsValidator.validate(testNorm, testMenuDay);
@@ -113,8 +111,8 @@ class NormsValidatorTest {
     assertThat(result.messages()).anyMatch(msg -> msg.contains("PHE") && msg.contains("exceeds"));
 
     // Verify mock interactions
-    verify(nutritionCalculator).calculatePlannedTotals(any(MenuDay.class));
-    verify(nutritionCalculator).calculateConsumedTotals(any(MenuDay.class));
+    verify(nutritionCalculator).plannedTotals(any(MenuDay.class));
+    verify(nutritionCalculator).consumedTotals(any(MenuDay.class));
   }
 
   @Test
@@ -130,9 +128,8 @@ class NormsValidatorTest {
         new NutritionCalculator.DayTotals(
             new BigDecimal("200.00"), new BigDecimal("10.00"), 1850, new BigDecimal("45.00"));
 
-    when(nutritionCalculator.calculatePlannedTotals(any(MenuDay.class))).thenReturn(plannedTotals);
-    when(nutritionCalculator.calculateConsumedTotals(any(MenuDay.class)))
-        .thenReturn(consumedTotals);
+    when(nutritionCalculator.plannedTotals(any(MenuDay.class))).thenReturn(plannedTotals);
+    when(nutritionCalculator.consumedTotals(any(MenuDay.class))).thenReturn(consumedTotals);
 
     // When
     ValidationResult result = normsValidator.validate(testNorm, testMenuDay);
@@ -159,9 +156,8 @@ class NormsValidatorTest {
         new NutritionCalculator.DayTotals(
             new BigDecimal("200.00"), new BigDecimal("10.00"), 1500, new BigDecimal("45.00"));
 
-    when(nutritionCalculator.calculatePlannedTotals(any(MenuDay.class))).thenReturn(plannedTotals);
-    when(nutritionCalculator.calculateConsumedTotals(any(MenuDay.class)))
-        .thenReturn(consumedTotals);
+    when(nutritionCalculator.plannedTotals(any(MenuDay.class))).thenReturn(plannedTotals);
+    when(nutritionCalculator.consumedTotals(any(MenuDay.class))).thenReturn(consumedTotals);
 
     // When
     ValidationResult result = normsValidator.validate(testNorm, testMenuDay);
@@ -188,9 +184,8 @@ class NormsValidatorTest {
         new NutritionCalculator.DayTotals(
             new BigDecimal("200.00"), new BigDecimal("10.00"), 1850, new BigDecimal("45.00"));
 
-    when(nutritionCalculator.calculatePlannedTotals(any(MenuDay.class))).thenReturn(plannedTotals);
-    when(nutritionCalculator.calculateConsumedTotals(any(MenuDay.class)))
-        .thenReturn(consumedTotals);
+    when(nutritionCalculator.plannedTotals(any(MenuDay.class))).thenReturn(plannedTotals);
+    when(nutritionCalculator.consumedTotals(any(MenuDay.class))).thenReturn(consumedTotals);
 
     // When
     ValidationResult result = normsValidator.validate(testNorm, testMenuDay);
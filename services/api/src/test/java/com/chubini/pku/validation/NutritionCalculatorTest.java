@@ -0,0 +1,119 @@
+package com.chubini.pku.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import com.chubini.pku.menus.MealSlot;
+import com.chubini.pku.menus.MenuDay;
+import com.chubini.pku.menus.MenuEntry;
+import com.chubini.pku.products.Product;
+import com.chubini.pku.validation.NutritionCalculator.DayTotals;
+import com.chubini.pku.validation.NutritionCalculator.EntryContribution;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NutritionCalculatorTest {
+
+  private final NutritionCalculator calculator = new NutritionCalculator(new NutritionScaler());
+
+  private final Product rice =
+      Product.builder()
+          .id(UUID.randomUUID())
+          .productName("Low protein rice")
+          .phenylalanine(new BigDecimal("33.33"))
+          .protein(new BigDecimal("0.67"))
+          .kilocalories(new BigDecimal("351"))
+          .fats(new BigDecimal("0.55"))
+          .build();
+
+  private MenuDay day;
+  private MealSlot breakfast;
+  private MealSlot lunch;
+
+  @BeforeEach
+  void setUp() {
+    day = MenuDay.builder().id(UUID.randomUUID()).mealSlots(new ArrayList<>()).build();
+    breakfast = slot(MealSlot.SlotName.BREAKFAST);
+    lunch = slot(MealSlot.SlotName.LUNCH);
+    calculator.recalculateTotals(day);
+  }
+
+  @Test
+  void applyEntryChange_MatchesFullRecalculationAfterEachMutation() {
+    MenuEntry first = entry(breakfast, "75");
+    calculator.applyEntryChange(
+        breakfast, EntryContribution.NONE, calculator.contributionOf(first));
+    MenuEntry second = entry(lunch, "120.5");
+    calculator.applyEntryChange(lunch, EntryContribution.NONE, calculator.contributionOf(second));
+
+    EntryContribution before = calculator.contributionOf(second);
+    second.updateConsumedQuantity(new BigDecimal("80"));
+    calculator.applyEntryChange(lunch, before, calculator.contributionOf(second));
+
+    before = calculator.contributionOf(first);
+    first.setPlannedServingGrams(new BigDecimal("33"));
+    calculator.applyEntryChange(breakfast, before, calculator.contributionOf(first));
+
+    before = calculator.contributionOf(first);
+    breakfast.getMenuEntries().remove(first);
+    calculator.applyEntryChange(breakfast, before, EntryContribution.NONE);
+
+    assertThat(calculator.plannedTotals(day)).isEqualTo(calculator.calculatePlannedTotals(day));
+    assertThat(calculator.consumedTotals(day)).isEqualTo(calculator.calculateConsumedTotals(day));
+    assertThat(calculator.consumedTotals(day).pheMg()).isEqualByComparingTo("26.66");
+    assertThat(lunch.getConsumedKcal()).isEqualByComparingTo("281");
+    assertThat(breakfast.getActualPheMg()).isEqualByComparingTo("0");
+    assertThat(calculator.recalculateTotals(day)).isFalse();
+  }
+
+  @Test
+  void plannedTotals_FallsBackToEntriesWhenRunningTotalsWereNeverBuilt() {
+    entry(breakfast, "150");
+    day.setConsumedDayPheMg(null);
+
+    DayTotals planned = calculator.plannedTotals(day);
+
+    assertThat(planned.pheMg()).isEqualByComparingTo("50.00");
+    assertThat(planned.kcal()).isEqualTo(527);
+  }
+
+  @Test
+  void recalculateTotals_ReportsAndRepairsDrift() {
+    entry(breakfast, "150");
+    calculator.recalculateTotals(day);
+    rice.setPhenylalanine(new BigDecimal("40"));
+
+    assertThat(calculator.recalculateTotals(day)).isTrue();
+    assertThat(day.getTotalDayPheMg()).isEqualByComparingTo("60.00");
+    assertThat(breakfast.getActualPheMg()).isEqualByComparingTo("60.00");
+  }
+
+  private MealSlot slot(MealSlot.SlotName name) {
+    MealSlot slot =
+        MealSlot.builder()
+            .id(UUID.randomUUID())
+            .menuDay(day)
+            .slotName(name)
+            .menuEntries(new ArrayList<>())
+            .build();
+    day.getMealSlots().add(slot);
+    return slot;
+  }
+
+  private MenuEntry entry(MealSlot slot, String grams) {
+    MenuEntry entry =
+        MenuEntry.builder()
+            .id(UUID.randomUUID())
+            .mealSlot(slot)
+            .entryType(MenuEntry.EntryType.PRODUCT)
+            .product(rice)
+            .plannedServingGrams(new BigDecimal(grams))
+            .build();
+    slot.getMenuEntries().add(entry);
+    return entry;
+  }
+}